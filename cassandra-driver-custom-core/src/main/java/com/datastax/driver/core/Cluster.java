@@ -746,15 +746,17 @@ public class Cluster implements Closeable {
         /**
          * Sets the maximum time to wait for schema agreement before returning from a DDL query.
          * <p/>
-         * If not set through this method, the default value (10 seconds) will be used.
+         * If not set through this method, the default value (10 seconds) will be used. A value of zero
+         * disables the wait entirely: DDL queries return as soon as the coordinator acknowledges them, and
+         * the caller is responsible for checking agreement itself (see {@link Metadata#checkSchemaAgreement()}).
          *
          * @param maxSchemaAgreementWaitSeconds the new value to set.
          * @return this Builder.
-         * @throws IllegalStateException if the provided value is zero or less.
+         * @throws IllegalStateException if the provided value is less than zero.
          */
         public Builder withMaxSchemaAgreementWaitSeconds(int maxSchemaAgreementWaitSeconds) {
-            if (maxSchemaAgreementWaitSeconds <= 0)
-                throw new IllegalArgumentException("Max schema agreement wait must be greater than zero");
+            if (maxSchemaAgreementWaitSeconds < 0)
+                throw new IllegalArgumentException("Max schema agreement wait must be zero or greater");
 
             this.maxSchemaAgreementWaitSeconds = maxSchemaAgreementWaitSeconds;
             return this;
@@ -2292,7 +2294,7 @@ public class Cluster implements Closeable {
                         // Before refreshing the schema, wait for schema agreement so
                         // that querying a table just after having created it don't fail.
                         schemaInAgreement = ControlConnection.waitForSchemaAgreement(connection, Cluster.Manager.this);
-                        if (!schemaInAgreement)
+                        if (!schemaInAgreement && configuration.getProtocolOptions().getMaxSchemaAgreementWaitSeconds() > 0)
                             logger.warn("No schema agreement from live replicas after {} s. The schema may not be up to date on some nodes.", configuration.getProtocolOptions().getMaxSchemaAgreementWaitSeconds());
 
                         ListenableFuture<Void> schemaReady;
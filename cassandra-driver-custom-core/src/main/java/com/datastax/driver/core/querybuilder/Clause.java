@@ -18,6 +18,7 @@ package com.datastax.driver.core.querybuilder;
 import com.datastax.driver.core.CodecRegistry;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class Clause extends Utils.Appendeable implements Serializable {
@@ -61,6 +62,11 @@ public abstract class Clause extends Utils.Appendeable implements Serializable {
             return value;
         }
 
+        @Override
+        public String getOperation() {
+            return op.trim();
+        }
+
         @Override
         boolean containsBindMarker() {
             return Utils.containsBindMarker(value);
@@ -105,6 +111,16 @@ public abstract class Clause extends Utils.Appendeable implements Serializable {
             return values.isEmpty() ? null : values.get(0);
         }
 
+        @Override
+        public String getOperation() {
+            return "IN";
+        }
+
+        @Override
+        public List<?> getValues() {
+            return values;
+        }
+
         @Override
         boolean containsBindMarker() {
             for (Object value : values)
@@ -137,6 +153,11 @@ public abstract class Clause extends Utils.Appendeable implements Serializable {
             return value;
         }
 
+        @Override
+        public String getOperation() {
+            return "CONTAINS";
+        }
+
         @Override
         boolean containsBindMarker() {
             return Utils.containsBindMarker(value);
@@ -167,6 +188,11 @@ public abstract class Clause extends Utils.Appendeable implements Serializable {
             return value;
         }
 
+        @Override
+        public String getOperation() {
+            return "CONTAINS KEY";
+        }
+
         @Override
         boolean containsBindMarker() {
             return Utils.containsBindMarker(value);
@@ -292,5 +318,20 @@ public abstract class Clause extends Utils.Appendeable implements Serializable {
 	public Object getValue() {
 		return firstValue();
 	}
+
+	/**
+	 * @return operator of the clause (=, &lt;, &lt;=, &gt;, &gt;=, LIKE, IN, CONTAINS or CONTAINS KEY),
+	 *         null for compound clauses
+	 */
+	public String getOperation() {
+		return null;
+	}
+
+	/**
+	 * @return all values of the clause, this is only different from {@link #getValue()} for IN clauses
+	 */
+	public List<?> getValues() {
+		return Collections.singletonList(firstValue());
+	}
 	
 }
@@ -22,6 +22,7 @@ import {
     ApplicationStatus,
     AvailableLogDates,
     Deployment,
+    ReplicationLag,
     Server
 } from "../utilities/ApiDeclarations";
 import {useCallback, useState} from "react";
@@ -81,6 +82,16 @@ export interface APIContextType {
      */
     readonly setAvailableLogDates: (v: AvailableLogDates[]) => void;
 
+    /**
+     * List of replication lag summaries observed by each node
+     */
+    readonly replicationLag: ReplicationLag[]
+
+    /**
+     * Set replication lag summaries
+     */
+    readonly setReplicationLag: (v: ReplicationLag[]) => void;
+
     /**
      * Used to force refresh data
      */
@@ -103,13 +114,16 @@ export function useAPIContext(): APIContextType {
 
     const [availableLogDates, setAvailableLogDates] = useState<AvailableLogDates[]>([]);
 
+    const [replicationLag, setReplicationLag] = useState<ReplicationLag[]>([]);
+
     const forceRefresh = useCallback(() => {
         genericLoadFunction<Server>('/api/v1/servers', setServers);
         genericLoadFunction<Application>('/api/v1/applications', setApplications);
         genericLoadFunction<Deployment>('/api/v1/deployment', setDeployment);
         genericLoadFunction<ApplicationStatus>('/api/v1/application_management', setApplicationStatus);
         genericLoadFunction<AvailableLogDates>('/api/v1/available_log_dates', setAvailableLogDates);
-    }, [setServers, setApplications, setDeployment, setApplicationStatus, setAvailableLogDates]);
+        genericLoadFunction<ReplicationLag>('/api/v1/replication_lag', setReplicationLag);
+    }, [setServers, setApplications, setDeployment, setApplicationStatus, setAvailableLogDates, setReplicationLag]);
 
     return {
         deployment,
@@ -122,6 +136,8 @@ export function useAPIContext(): APIContextType {
         setApplicationStatus,
         availableLogDates,
         setAvailableLogDates,
+        replicationLag,
+        setReplicationLag,
         forceRefresh
     };
 }
\ No newline at end of file
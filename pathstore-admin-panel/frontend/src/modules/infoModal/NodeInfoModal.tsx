@@ -24,6 +24,7 @@ import Button from "react-bootstrap/Button";
 import {ServerInfo} from "../modalShared/ServerInfo";
 import {ApplicationStatusViewer} from "./ApplicationStatusViewer";
 import {LogViewer} from "./LogViewer";
+import {ReplicationLagViewer} from "./ReplicationLagViewer";
 import {ErrorModalContext} from "../../contexts/ErrorModalContext";
 import {LoadingModalContext} from "../../contexts/LoadingModalContext";
 import {Deployment, DeploymentUpdate, DEPLOYMENT_STATE} from "../../utilities/ApiDeclarations";
@@ -90,6 +91,7 @@ export const NodeInfoModal: FunctionComponent = () => {
                 <ServerInfo deployment={deployment} servers={servers} node={data}/>
                 <hr/>
                 <ApplicationStatusViewer/>
+                <ReplicationLagViewer/>
                 <LogViewer/>
             </Modal.Body>
             <Modal.Footer>
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import React, {FunctionComponent, ReactElement, useCallback, useContext, useEffect, useState} from "react";
+import {Table} from "react-bootstrap";
+import {APIContext} from "../../contexts/APIContext";
+import {NodeInfoModalContext} from "../../contexts/NodeInfoModalContext";
+import {useReducedState} from "../../hooks/useReducedState";
+import {ReplicationLag} from "../../utilities/ApiDeclarations";
+
+/**
+ * This component is used to render a table of the replication lag observed by a node for heartbeats written by every
+ * other node in the network.
+ *
+ * In practice this is used in the Node Info Modal where the replication lag records are filtered based on the node id of
+ * the node info modal displayed
+ *
+ * @constructor
+ */
+export const ReplicationLagViewer: FunctionComponent = () => {
+
+    // load the passed data from the node info modal context
+    const {data} = useContext(NodeInfoModalContext);
+
+    // load replication lag objects from the api
+    const {replicationLag} = useContext(APIContext);
+
+    // Filter function to filter the replication lag records based on the observing node id
+    const filterReplicationLag = useCallback(
+        (replicationLag: ReplicationLag) => replicationLag.node_id === data,
+        [data]);
+
+    // Reduce the replication lag records based on the node id of each record
+    const reducedReplicationLag = useReducedState<ReplicationLag>(replicationLag, filterReplicationLag);
+
+    // Store the value to be displayed in the internal state to not reload every tick.
+    const [table, setTable] = useState<ReactElement | null>(null);
+
+    /**
+     * This function is used to set the table value everytime data or the reduced replication lag list changes.
+     *
+     * If there are no records for the node we inform the user, else we display one row per origin node with the amount
+     * of heartbeats observed and the lag quantiles in milliseconds
+     */
+    useEffect(() => {
+        let value: ReactElement;
+
+        if (!data || !reducedReplicationLag || reducedReplicationLag.length === 0)
+            value = (
+                <p>There are no replication lag records</p>
+            );
+        else {
+            let tBody = [];
+
+            // table body from the given data set
+            for (let [index, lag] of reducedReplicationLag.entries()) {
+
+                tBody.push(
+                    <tr key={index}>
+                        <td>{lag.origin_node_id}</td>
+                        <td>{lag.link}</td>
+                        <td>{lag.samples}</td>
+                        <td>{lag.p50}</td>
+                        <td>{lag.p99}</td>
+                        <td>{lag.max}</td>
+                    </tr>
+                );
+            }
+
+            value = (
+                <Table>
+                    <thead>
+                    <tr>
+                        <th>Origin Node Id</th>
+                        <th>Link</th>
+                        <th>Samples</th>
+                        <th>p50 (ms)</th>
+                        <th>p99 (ms)</th>
+                        <th>Max (ms)</th>
+                    </tr>
+                    </thead>
+                    <tbody>
+                    {tBody}
+                    </tbody>
+                </Table>
+            );
+        }
+
+        setTable(value);
+
+    }, [data, reducedReplicationLag, setTable]);
+
+    return (
+        <>
+            <h2>Replication Lag Viewer</h2>
+            {table}
+        </>
+    );
+};
@@ -99,11 +99,25 @@ export interface AvailableLogDates {
     date: string[]
 }
 
+/**
+ * Parse replication lag summary, lag values are in milliseconds
+ */
+export interface ReplicationLag {
+    node_id: number
+    origin_node_id: number
+    link: string
+    samples: number
+    p50: number
+    p99: number
+    max: number
+}
+
 /**
  * Parse log response
  */
 export interface Log {
     logs: string[]
+    next: number | null
 }
 
 /**
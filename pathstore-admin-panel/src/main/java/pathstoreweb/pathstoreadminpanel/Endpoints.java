@@ -28,4 +28,6 @@ public class Endpoints {
   public static final String DEPLOYMENT = "/deployment";
   public static final String LOGS = "/logs";
   public static final String AVAILABLE_LOG_DATES = "/available_log_dates";
+  public static final String REPLICATION_LAG = "/replication_lag";
+  public static final String EVENTS = "/events";
 }
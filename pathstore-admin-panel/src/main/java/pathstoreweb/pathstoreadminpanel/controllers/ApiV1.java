@@ -20,11 +20,16 @@
 package pathstoreweb.pathstoreadminpanel.controllers;
 
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pathstore.common.Constants;
 import pathstoreweb.pathstoreadminpanel.Endpoints;
+import pathstoreweb.pathstoreadminpanel.services.IConditionalService;
 import pathstoreweb.pathstoreadminpanel.services.ValidityErrorFormatter;
 import pathstoreweb.pathstoreadminpanel.services.applicationmanagement.DeployApplications;
 import pathstoreweb.pathstoreadminpanel.services.applicationmanagement.GetApplicationState;
@@ -44,8 +49,10 @@ import pathstoreweb.pathstoreadminpanel.services.deployment.UpdateDeploymentReco
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.AddDeploymentRecordPayload;
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.DeleteDeploymentRecordPayload;
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.UpdateDeploymentRecordPayload;
+import pathstoreweb.pathstoreadminpanel.services.events.StatusEventHub;
 import pathstoreweb.pathstoreadminpanel.services.logs.GetLogRecords;
 import pathstoreweb.pathstoreadminpanel.services.logs.payload.GetLogRecordsPayload;
+import pathstoreweb.pathstoreadminpanel.services.replicationlag.GetReplicationLag;
 import pathstoreweb.pathstoreadminpanel.services.servers.AddServer;
 import pathstoreweb.pathstoreadminpanel.services.servers.DeleteServer;
 import pathstoreweb.pathstoreadminpanel.services.servers.GetServers;
@@ -56,6 +63,7 @@ import pathstoreweb.pathstoreadminpanel.services.servers.payload.UpdateServerPay
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Arrays;
+import java.util.UUID;
 
 /** Main controller for api. */
 @RestController
@@ -67,8 +75,8 @@ public class ApiV1 {
    * @see GetApplicationState
    */
   @GetMapping(Endpoints.APPLICATION_MANAGEMENT)
-  public ResponseEntity<String> getApplicationState() {
-    return new GetApplicationState().response();
+  public ResponseEntity<String> getApplicationState(final WebRequest request) {
+    return conditional(new GetApplicationState(), request);
   }
 
   /**
@@ -99,8 +107,8 @@ public class ApiV1 {
 
   /** @return List of applications on the system */
   @GetMapping(Endpoints.APPLICATIONS)
-  public ResponseEntity<String> getApplications() {
-    return new GetApplications().response();
+  public ResponseEntity<String> getApplications(final WebRequest request) {
+    return conditional(new GetApplications(), request);
   }
 
   /**
@@ -130,10 +138,16 @@ public class ApiV1 {
         : new RemoveApplication(payload).response();
   }
 
-  /** @return JSON Array of all servers created */
+  /**
+   * @param serverUUID optional server to get, all servers if absent
+   * @return JSON Array of all servers created
+   */
   @GetMapping(Endpoints.SERVERS)
-  public ResponseEntity<String> getServers() {
-    return new GetServers().response();
+  public ResponseEntity<String> getServers(
+      @RequestParam(value = Constants.SERVERS_COLUMNS.SERVER_UUID, required = false)
+          final UUID serverUUID,
+      final WebRequest request) {
+    return conditional(new GetServers(serverUUID), request);
   }
 
   /**
@@ -180,11 +194,15 @@ public class ApiV1 {
   /**
    * Get request for deployment records.
    *
+   * @param nodeId optional node to get the record of, all records if absent
    * @return returns all deployment records in the deployment table. No errors possible
    */
   @GetMapping(Endpoints.DEPLOYMENT)
-  public ResponseEntity<String> deploy() {
-    return new GetDeploymentRecords().response();
+  public ResponseEntity<String> deploy(
+      @RequestParam(value = Constants.DEPLOYMENT_COLUMNS.NEW_NODE_ID, required = false)
+          final Integer nodeId,
+      final WebRequest request) {
+    return conditional(new GetDeploymentRecords(nodeId), request);
   }
 
   /**
@@ -227,9 +245,13 @@ public class ApiV1 {
         : new DeleteDeploymentRecords(payload).response();
   }
 
-  /** @return list of logs for the user to see for each node */
+  /**
+   * See {@link GetLogRecordsPayload} for the optional paging and filtering parameters
+   *
+   * @return page of logs for the user to see for each node, streamed as it is read
+   */
   @GetMapping(Endpoints.LOGS)
-  public ResponseEntity<String> logs(final GetLogRecordsPayload payload) {
+  public ResponseEntity<?> logs(final GetLogRecordsPayload payload) {
     return payload.hasErrors()
         ? new ValidityErrorFormatter(payload.getErrors()).format()
         : new GetLogRecords(payload).response();
@@ -241,6 +263,36 @@ public class ApiV1 {
     return new GetAvailableLogDates().response();
   }
 
+  /** @return latest replication lag summary observed by each node for every other node */
+  @GetMapping(Endpoints.REPLICATION_LAG)
+  public ResponseEntity<String> getReplicationLag(final WebRequest request) {
+    return conditional(new GetReplicationLag(), request);
+  }
+
+  /**
+   * Stream of deployment, application state and replication lag changes
+   *
+   * @return server sent event stream
+   * @see StatusEventHub
+   */
+  @GetMapping(value = Endpoints.EVENTS, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events() {
+    return StatusEventHub.getInstance().subscribe();
+  }
+
+  /**
+   * Answers a conditional get with 304 Not Modified if the service's etag matches If-None-Match,
+   * otherwise builds the response and sets its etag
+   *
+   * @param service service to respond with
+   * @param request request to check the conditional headers of
+   * @return response, or null if a 304 has already been set on the request
+   */
+  private static ResponseEntity<String> conditional(
+      final IConditionalService service, final WebRequest request) {
+    return request.checkNotModified(service.etag()) ? null : service.response();
+  }
+
   /**
    * This is used to allow put requests to send
    *
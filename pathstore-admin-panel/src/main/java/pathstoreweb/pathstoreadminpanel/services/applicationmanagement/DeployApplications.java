@@ -26,10 +26,13 @@ import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreServerClient;
 import pathstore.common.Constants;
 import pathstore.common.tables.NodeSchemaProcessStatus;
+import pathstore.system.controlplane.ControlPlaneEvents;
 import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.applicationmanagement.payload.AddApplicationDeploymentRecordPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 import java.util.LinkedList;
 
@@ -51,6 +54,7 @@ public class DeployApplications implements IService {
   @Override
   public ResponseEntity<String> response() {
     writeRecords();
+    ReadModels.getInstance().nodeSchemas().invalidate();
     return new ResponseEntity<>(new JSONObject().toString(), HttpStatus.OK);
   }
 
@@ -71,5 +75,9 @@ public class DeployApplications implements IService {
 
       session.execute(insert);
     }
+
+    // the waiting records are picked up by the master on the root
+    PathStoreServerClient.getInstance()
+        .notifyControlPlane(Constants.NODE_SCHEMAS, ControlPlaneEvents.ANY_NODE);
   }
 }
@@ -54,20 +54,21 @@ public class GetApplicationStateFormatter implements IFormatter {
   public ResponseEntity<String> format() {
     JSONArray array = new JSONArray();
 
-    for (NodeSchemaEntry entry : this.entryList) {
-      JSONObject object = new JSONObject();
-
-      object
-          .put(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, entry.nodeId)
-          .put(Constants.NODE_SCHEMAS_COLUMNS.KEYSPACE_NAME, entry.keyspaceName)
-          .put(
-              Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS,
-              entry.nodeSchemaProcessStatus.toString())
-          .put(Constants.NODE_SCHEMAS_COLUMNS.WAIT_FOR, entry.waitFor);
-
-      array.put(object);
-    }
+    for (NodeSchemaEntry entry : this.entryList) array.put(toJson(entry));
 
     return new ResponseEntity<>(array.toString(), HttpStatus.OK);
   }
+
+  /**
+   * @param entry state of an application on a node
+   * @return json object of the state, also used for the status event stream
+   */
+  public static JSONObject toJson(final NodeSchemaEntry entry) {
+    return new JSONObject()
+        .put(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, entry.nodeId)
+        .put(Constants.NODE_SCHEMAS_COLUMNS.KEYSPACE_NAME, entry.keyspaceName)
+        .put(
+            Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS, entry.nodeSchemaProcessStatus.toString())
+        .put(Constants.NODE_SCHEMAS_COLUMNS.WAIT_FOR, entry.waitFor);
+  }
 }
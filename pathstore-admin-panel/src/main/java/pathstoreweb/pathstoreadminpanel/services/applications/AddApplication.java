@@ -31,6 +31,7 @@ import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.RuntimeErrorFormatter;
 import pathstoreweb.pathstoreadminpanel.services.applications.formatter.AddApplicationFormatter;
 import pathstoreweb.pathstoreadminpanel.services.applications.payload.AddApplicationPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -98,6 +99,7 @@ public class AddApplication implements IService {
       this.loadSchemas(this.getUserPassSchema());
       this.writeMasterPassword();
       this.writeLeaseTime();
+      ReadModels.getInstance().applications().invalidate();
     } catch (Exception e) {
       this.schemaInfo.removeKeyspace(this.addApplicationPayload.applicationName);
       e.printStackTrace();
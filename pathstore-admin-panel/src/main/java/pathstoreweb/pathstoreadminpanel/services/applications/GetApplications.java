@@ -19,14 +19,11 @@
 
 package pathstoreweb.pathstoreadminpanel.services.applications;
 
-import com.datastax.driver.core.Session;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
-import com.datastax.driver.core.querybuilder.Select;
 import org.springframework.http.ResponseEntity;
-import pathstore.client.PathStoreClientAuthenticatedCluster;
-import pathstore.common.Constants;
-import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.IConditionalService;
 import pathstoreweb.pathstoreadminpanel.services.applications.formatter.GetApplicationsFormatter;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.TableReadModel;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -36,7 +33,17 @@ import java.util.List;
  *
  * @see GetApplicationsFormatter
  */
-public class GetApplications implements IService {
+public class GetApplications implements IConditionalService {
+
+  /** Applications at the time of the request */
+  private final TableReadModel.Snapshot<Application> snapshot =
+      ReadModels.getInstance().applications().get();
+
+  /** @return etag of {@link #snapshot} */
+  @Override
+  public String etag() {
+    return this.snapshot.etag;
+  }
 
   /** @return formats data from {@link #getApplications()} */
   @Override
@@ -44,28 +51,12 @@ public class GetApplications implements IService {
     return new GetApplicationsFormatter(this.getApplications()).format();
   }
 
-  /**
-   * Selects all apps from the APPS table, parses them into a list of {@link Application}
-   *
-   * @return list of available applications
-   */
+  /** @return list of available applications */
   private List<Application> getApplications() {
-    Session session = PathStoreClientAuthenticatedCluster.getInstance().connect();
-
-    Select queryApplications =
-        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.APPS);
-
     LinkedList<Application> applications = new LinkedList<>();
 
-    // TODO: Extract to util class
-    session
-        .execute(queryApplications)
-        .forEach(
-            i ->
-                applications.addFirst(
-                    new Application(
-                        i.getString(Constants.APPS_COLUMNS.KEYSPACE_NAME),
-                        i.getString(Constants.APPS_COLUMNS.AUGMENTED_SCHEMA))));
+    this.snapshot.entries.forEach(applications::addFirst);
+
     return applications;
   }
 }
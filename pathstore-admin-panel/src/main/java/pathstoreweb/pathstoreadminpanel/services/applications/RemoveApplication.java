@@ -29,6 +29,7 @@ import pathstore.client.PathStoreClientAuthenticatedCluster;
 import pathstore.common.Constants;
 import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.applications.payload.RemoveApplicationPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 /**
  * This service will remove an application from the application list iff it is not deployed on any
@@ -52,6 +53,7 @@ public class RemoveApplication implements IService {
   @Override
   public ResponseEntity<String> response() {
     removeApplication();
+    ReadModels.getInstance().applications().invalidate();
     return new ResponseEntity<>(new JSONObject().toString(), HttpStatus.OK);
   }
 
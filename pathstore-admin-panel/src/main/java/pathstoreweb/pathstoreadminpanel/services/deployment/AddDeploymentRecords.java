@@ -25,11 +25,14 @@ import com.datastax.driver.core.querybuilder.QueryBuilder;
 import org.springframework.http.ResponseEntity;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreServerClient;
 import pathstore.common.Constants;
 import pathstore.common.tables.DeploymentProcessStatus;
+import pathstore.system.controlplane.ControlPlaneEvents;
 import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.deployment.formatter.DeploymentRecordsFormatter;
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.AddDeploymentRecordPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 import java.util.Collections;
 import java.util.LinkedList;
@@ -56,6 +59,7 @@ public class AddDeploymentRecords implements IService {
   @Override
   public ResponseEntity<String> response() {
     this.writeEntries();
+    ReadModels.getInstance().deployment().invalidate();
 
     return new DeploymentRecordsFormatter(new LinkedList<>()).format();
   }
@@ -84,5 +88,9 @@ public class AddDeploymentRecords implements IService {
 
       session.execute(insert);
     }
+
+    // the waiting records are picked up by the master on the root
+    PathStoreServerClient.getInstance()
+        .notifyControlPlane(Constants.DEPLOYMENT, ControlPlaneEvents.ANY_NODE);
   }
 }
@@ -26,10 +26,13 @@ import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreServerClient;
 import pathstore.common.Constants;
 import pathstore.common.tables.DeploymentProcessStatus;
+import pathstore.system.controlplane.ControlPlaneEvents;
 import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.DeleteDeploymentRecordPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 import java.util.Collections;
 import java.util.LinkedList;
@@ -62,6 +65,7 @@ public class DeleteDeploymentRecords implements IService {
   @Override
   public ResponseEntity<String> response() {
     this.delete();
+    ReadModels.getInstance().deployment().invalidate();
     return new ResponseEntity<>(new JSONObject().toString(), HttpStatus.OK);
   }
 
@@ -84,6 +88,10 @@ public class DeleteDeploymentRecords implements IService {
 
       session.execute(insert);
     }
+
+    // the waiting records are picked up by the master on the root
+    PathStoreServerClient.getInstance()
+        .notifyControlPlane(Constants.DEPLOYMENT, ControlPlaneEvents.ANY_NODE);
   }
 
   /**
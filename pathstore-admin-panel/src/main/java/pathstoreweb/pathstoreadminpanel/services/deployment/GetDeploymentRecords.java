@@ -19,25 +19,39 @@
 
 package pathstoreweb.pathstoreadminpanel.services.deployment;
 
-import com.datastax.driver.core.Row;
-import com.datastax.driver.core.Session;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
-import com.datastax.driver.core.querybuilder.Select;
 import org.springframework.http.ResponseEntity;
-import pathstore.client.PathStoreClientAuthenticatedCluster;
-import pathstore.common.Constants;
 import pathstore.common.tables.DeploymentEntry;
-import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.IConditionalService;
 import pathstoreweb.pathstoreadminpanel.services.deployment.formatter.DeploymentRecordsFormatter;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.TableReadModel;
 
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * This class is used when the user wants to get all deployment records to understand the topology
- * of the network
+ * of the network, or the record of a single node
  */
-public class GetDeploymentRecords implements IService {
+public class GetDeploymentRecords implements IConditionalService {
+
+  /** Deployment records at the time of the request */
+  private final TableReadModel.Snapshot<DeploymentEntry> snapshot =
+      ReadModels.getInstance().deployment().get();
+
+  /** Node to get the record of, null for all records */
+  private final Integer nodeId;
+
+  /** @param nodeId {@link #nodeId} */
+  public GetDeploymentRecords(final Integer nodeId) {
+    this.nodeId = nodeId;
+  }
+
+  /** @return etag of {@link #snapshot} */
+  @Override
+  public String etag() {
+    return this.snapshot.etag;
+  }
 
   /** @return {@link DeploymentRecordsFormatter#format()} */
   @Override
@@ -45,21 +59,13 @@ public class GetDeploymentRecords implements IService {
     return new DeploymentRecordsFormatter(this.getRecords()).format();
   }
 
-  /**
-   * Query all records from database and parse them into a entry class
-   *
-   * @return list of all parsed entries
-   */
+  /** @return list of entries, filtered to {@link #nodeId} if present */
   private List<DeploymentEntry> getRecords() {
 
-    Session session = PathStoreClientAuthenticatedCluster.getInstance().connect();
-
-    Select queryAllRecords =
-        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
-
     LinkedList<DeploymentEntry> entries = new LinkedList<>();
 
-    for (Row row : session.execute(queryAllRecords)) entries.addFirst(DeploymentEntry.fromRow(row));
+    for (DeploymentEntry entry : this.snapshot.entries)
+      if (this.nodeId == null || entry.newNodeId == this.nodeId) entries.addFirst(entry);
 
     return entries;
   }
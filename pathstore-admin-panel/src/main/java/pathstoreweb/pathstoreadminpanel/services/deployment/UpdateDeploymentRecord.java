@@ -26,10 +26,12 @@ import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreServerClient;
 import pathstore.common.Constants;
 import pathstore.common.tables.DeploymentProcessStatus;
 import pathstoreweb.pathstoreadminpanel.services.IService;
 import pathstoreweb.pathstoreadminpanel.services.deployment.payload.UpdateDeploymentRecordPayload;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 
 /**
  * This service is used to take a failed deployment record and update it to deploying after the user
@@ -53,6 +55,7 @@ public class UpdateDeploymentRecord implements IService {
   @Override
   public ResponseEntity<String> response() {
     this.update();
+    ReadModels.getInstance().deployment().invalidate();
 
     return new ResponseEntity<>(new JSONObject().toString(), HttpStatus.OK);
   }
@@ -72,5 +75,8 @@ public class UpdateDeploymentRecord implements IService {
                 DeploymentProcessStatus.DEPLOYING.toString()));
 
     session.execute(update);
+
+    PathStoreServerClient.getInstance()
+        .notifyControlPlane(Constants.DEPLOYMENT, payload.record.parentId);
   }
 }
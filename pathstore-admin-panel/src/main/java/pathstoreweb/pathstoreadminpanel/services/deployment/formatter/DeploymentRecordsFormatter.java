@@ -47,15 +47,21 @@ public class DeploymentRecordsFormatter implements IFormatter {
 
     JSONArray array = new JSONArray();
 
-    for (DeploymentEntry entry : this.entries)
-      array.put(
-          new JSONObject()
-              .put(NEW_NODE_ID, entry.newNodeId)
-              .put(PARENT_NODE_ID, entry.parentNodeId)
-              .put(PROCESS_STATUS, entry.deploymentProcessStatus.toString())
-              .put(WAIT_FOR, entry.waitFor)
-              .put(SERVER_UUID, entry.serverUUID));
+    for (DeploymentEntry entry : this.entries) array.put(toJson(entry));
 
     return new ResponseEntity<>(array.toString(), HttpStatus.OK);
   }
+
+  /**
+   * @param entry deployment record
+   * @return json object of the record, also used for the status event stream
+   */
+  public static JSONObject toJson(final DeploymentEntry entry) {
+    return new JSONObject()
+        .put(NEW_NODE_ID, entry.newNodeId)
+        .put(PARENT_NODE_ID, entry.parentNodeId)
+        .put(PROCESS_STATUS, entry.deploymentProcessStatus.toString())
+        .put(WAIT_FOR, entry.waitFor)
+        .put(SERVER_UUID, entry.serverUUID);
+  }
 }
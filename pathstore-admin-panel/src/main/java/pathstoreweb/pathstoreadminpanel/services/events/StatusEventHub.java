@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstoreweb.pathstoreadminpanel.services.events;
+
+import io.grpc.stub.StreamObserver;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pathstore.client.PathStoreServerClient;
+import pathstore.common.Constants;
+import pathstore.common.tables.DeploymentEntry;
+import pathstore.common.tables.NodeSchemaEntry;
+import pathstore.common.tables.ReplicationLagEntry;
+import pathstore.grpc.pathStoreProto.ControlPlaneEvent;
+import pathstoreweb.pathstoreadminpanel.services.applicationmanagement.formatter.GetApplicationStateFormatter;
+import pathstoreweb.pathstoreadminpanel.services.deployment.formatter.DeploymentRecordsFormatter;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.TableReadModel;
+import pathstoreweb.pathstoreadminpanel.services.replicationlag.formatter.GetReplicationLagFormatter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pushes status changes to every browser that has the administration panel open, through server
+ * sent events, instead of each of them polling the listing endpoints.
+ *
+ * <p>The hub holds a single control plane watch to the local node, see {@link
+ * PathStoreServerClient#watchLocalControlPlane(StreamObserver)}. An event invalidates the read
+ * model of its table and the changed rows are sent to all subscribers shortly after. Every {@link
+ * #TICK_INTERVAL} seconds the hub also refreshes all read models, this picks up the replication lag
+ * summaries (which have no events) and any event missed while the watch was being re-opened.
+ *
+ * <p>Each stream is sent as its own event name with a json payload of the form {@code {"reset":
+ * bool, "updated": [rows], "removed": [keys]}}. A new subscriber first receives the full state of
+ * every stream with reset set to true.
+ *
+ * <p>All reads and sends happen on the hub's single thread, so subscribers never receive two events
+ * at once.
+ *
+ * @see ReadModels
+ */
+public final class StatusEventHub {
+
+  /** Instance of this class */
+  private static StatusEventHub instance = null;
+
+  /** @return instance of this class, created on the first subscription */
+  public static synchronized StatusEventHub getInstance() {
+    if (instance == null) instance = new StatusEventHub();
+    return instance;
+  }
+
+  /** Interval (s) of the fallback refresh and keep alive */
+  private static final long TICK_INTERVAL = 5;
+
+  /** Delay (ms) between an event and the refresh, so a burst of events is sent at once */
+  private static final long DEBOUNCE = 100;
+
+  /** How long (ms) a subscription is held open, the browser re-connects after */
+  private static final long SUBSCRIPTION_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+  /** Thread all reads and sends happen on */
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "pathstore-status-events");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** Open subscriptions */
+  private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+  /** Streams sent to subscribers */
+  private final List<Stream<?>> streams =
+      Arrays.asList(
+          new Stream<DeploymentEntry>(
+              "deployment",
+              ReadModels.getInstance().deployment(),
+              entry -> String.valueOf(entry.newNodeId),
+              DeploymentRecordsFormatter::toJson),
+          new Stream<NodeSchemaEntry>(
+              "application_state",
+              ReadModels.getInstance().nodeSchemas(),
+              entry -> entry.nodeId + ":" + entry.keyspaceName,
+              GetApplicationStateFormatter::toJson),
+          new Stream<ReplicationLagEntry>(
+              "replication_lag",
+              ReadModels.getInstance().replicationLag(),
+              entry -> entry.nodeId + ":" + entry.originNodeId,
+              GetReplicationLagFormatter::toJson));
+
+  /** Whether the control plane watch is open */
+  private volatile boolean watching = false;
+
+  /** Whether a refresh caused by an event is already scheduled */
+  private boolean refreshScheduled = false;
+
+  /** Starts the periodic tick */
+  private StatusEventHub() {
+    this.executor.scheduleWithFixedDelay(this::tick, 0, TICK_INTERVAL, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Registers a new subscriber, the current state of every stream is sent to it before any change
+   *
+   * @return emitter to return from the controller
+   */
+  public SseEmitter subscribe() {
+    SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+
+    emitter.onCompletion(() -> this.subscribers.remove(emitter));
+    emitter.onTimeout(() -> this.subscribers.remove(emitter));
+
+    this.executor.execute(
+        () -> {
+          this.refresh();
+
+          try {
+            for (Stream<?> stream : this.streams)
+              emitter.send(
+                  SseEmitter.event().name(stream.name).data(stream.payload(true).toString()));
+          } catch (IOException | RuntimeException e) {
+            emitter.completeWithError(e);
+            return;
+          }
+
+          this.subscribers.add(emitter);
+          this.openWatch();
+        });
+
+    return emitter;
+  }
+
+  /** Re-opens the watch if it was closed, refreshes all streams and keeps subscriptions alive */
+  private void tick() {
+    if (this.subscribers.isEmpty()) return;
+
+    this.openWatch();
+
+    this.refresh();
+
+    for (SseEmitter emitter : this.subscribers)
+      this.send(emitter, SseEmitter.event().comment("keep-alive"));
+  }
+
+  /** Refreshes all streams and sends their changes */
+  private void refresh() {
+    this.refreshScheduled = false;
+
+    for (Stream<?> stream : this.streams) {
+      try {
+        if (!stream.refresh()) continue;
+      } catch (RuntimeException e) {
+        continue;
+      }
+
+      String payload = stream.payload(false).toString();
+
+      for (SseEmitter emitter : this.subscribers)
+        this.send(emitter, SseEmitter.event().name(stream.name).data(payload));
+    }
+  }
+
+  /**
+   * @param emitter subscriber
+   * @param event event to send, the subscriber is dropped if it fails
+   */
+  private void send(final SseEmitter emitter, final SseEmitter.SseEventBuilder event) {
+    try {
+      emitter.send(event);
+    } catch (IOException | RuntimeException e) {
+      this.subscribers.remove(emitter);
+      emitter.completeWithError(e);
+    }
+  }
+
+  /**
+   * Opens the control plane watch to the local node if it is not open. If the local node is
+   * unreachable this is retried on the next tick
+   */
+  private void openWatch() {
+    if (this.watching) return;
+
+    this.watching = true;
+
+    try {
+      PathStoreServerClient.getInstance()
+          .watchLocalControlPlane(
+              new StreamObserver<ControlPlaneEvent>() {
+                @Override
+                public void onNext(final ControlPlaneEvent event) {
+                  onEvent(event);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                  watching = false;
+                }
+
+                @Override
+                public void onCompleted() {
+                  watching = false;
+                }
+              });
+    } catch (RuntimeException e) {
+      this.watching = false;
+    }
+  }
+
+  /**
+   * Invalidates the read model of the event's table and schedules a refresh
+   *
+   * @param event control plane event
+   */
+  private void onEvent(final ControlPlaneEvent event) {
+    if (event.getTable().equals(Constants.DEPLOYMENT))
+      ReadModels.getInstance().deployment().invalidate();
+    else if (event.getTable().equals(Constants.NODE_SCHEMAS))
+      ReadModels.getInstance().nodeSchemas().invalidate();
+    else return;
+
+    this.executor.execute(
+        () -> {
+          if (this.refreshScheduled) return;
+          this.refreshScheduled = true;
+          this.executor.schedule(this::refresh, DEBOUNCE, TimeUnit.MILLISECONDS);
+        });
+  }
+
+  /**
+   * Rows of a read model sent as one event name. The last sent json of each row is kept to only
+   * send rows that changed
+   *
+   * @param <T> entry type
+   */
+  private static final class Stream<T> {
+    /** Event name */
+    private final String name;
+
+    /** Model the rows are read from */
+    private final TableReadModel<T> model;
+
+    /** Key of a row, sent for removed rows */
+    private final Function<T, String> key;
+
+    /** Json of a row, the same as the listing endpoint */
+    private final Function<T, JSONObject> json;
+
+    /** Generation of the last snapshot seen, -1 before the first */
+    private long generation = -1;
+
+    /** Json of every row in the last snapshot, by key */
+    private Map<String, JSONObject> rows = new LinkedHashMap<>();
+
+    /** Rows that changed with the last refresh */
+    private JSONArray updated = new JSONArray();
+
+    /** Keys of rows that were removed with the last refresh */
+    private JSONArray removed = new JSONArray();
+
+    /**
+     * @param name {@link #name}
+     * @param model {@link #model}
+     * @param key {@link #key}
+     * @param json {@link #json}
+     */
+    private Stream(
+        final String name,
+        final TableReadModel<T> model,
+        final Function<T, String> key,
+        final Function<T, JSONObject> json) {
+      this.name = name;
+      this.model = model;
+      this.key = key;
+      this.json = json;
+    }
+
+    /** @return true if any row changed since the last refresh */
+    private boolean refresh() {
+      TableReadModel.Snapshot<T> snapshot = this.model.get();
+
+      if (snapshot.generation == this.generation) return false;
+
+      Map<String, JSONObject> rows = new LinkedHashMap<>();
+      for (T entry : snapshot.entries) rows.put(this.key.apply(entry), this.json.apply(entry));
+
+      Map<String, JSONObject> previous = new HashMap<>(this.rows);
+
+      this.updated = new JSONArray();
+      for (Map.Entry<String, JSONObject> row : rows.entrySet()) {
+        JSONObject before = previous.remove(row.getKey());
+        if (before == null || !before.similar(row.getValue())) this.updated.put(row.getValue());
+      }
+
+      this.removed = new JSONArray(previous.keySet());
+      this.rows = rows;
+      this.generation = snapshot.generation;
+
+      return this.updated.length() > 0 || this.removed.length() > 0;
+    }
+
+    /**
+     * @param reset whether to send all rows instead of the last changes
+     * @return event payload
+     */
+    private JSONObject payload(final boolean reset) {
+      return new JSONObject()
+          .put("reset", reset)
+          .put("updated", reset ? new JSONArray(this.rows.values()) : this.updated)
+          .put("removed", reset ? new JSONArray() : this.removed);
+    }
+  }
+}
@@ -19,25 +19,36 @@
 
 package pathstoreweb.pathstoreadminpanel.services.logs;
 
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
 import pathstore.common.Constants;
-import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstore.system.logging.PathStoreLoggerMessage;
 import pathstoreweb.pathstoreadminpanel.services.logs.formatter.LogRecordsFormatter;
 import pathstoreweb.pathstoreadminpanel.services.logs.payload.GetLogRecordsPayload;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * This service is used to get all logs from the root node and parse them into a list of log
- * messages
+ * This service is used to get a page of logs from the root node and stream them to the user.
+ *
+ * <p>Logs are clustered by count in descending order, so a page is a range read of the partition
+ * (node_id, date, log_level) below the cursor. The read is paged by the driver and every matching
+ * log is written to the response as soon as it is read, so neither the service nor the client has
+ * to hold a whole day of logs in memory.
+ *
+ * <p>The raw session is used as the pathstore session would register a query cache entry for every
+ * cursor a user pages through, while the root node already holds every node's logs.
  */
-public class GetLogRecords implements IService {
+public class GetLogRecords {
+
+  /** How many rows to fetch from cassandra at once */
+  private static final int FETCH_SIZE = 500;
 
   /** Payload passed by the user */
   private final GetLogRecordsPayload payload;
@@ -48,32 +59,78 @@ public class GetLogRecords implements IService {
   }
 
   /** @return {@link LogRecordsFormatter} */
-  @Override
-  public ResponseEntity<String> response() {
-    return new LogRecordsFormatter(this.getLogs()).format();
+  public ResponseEntity<StreamingResponseBody> response() {
+    return new LogRecordsFormatter(this::writeLogs).format();
   }
 
   /**
-   * Query all records and parse them into log objects
+   * Reads the logs selected by {@link #payload} newest first and passes each one that matches the
+   * filter and time window to the consumer.
+   *
+   * <p>As counts are handed out in the order messages are logged, the scan stops at the first log
+   * older than {@link GetLogRecordsPayload#from}.
    *
-   * @return list of messages filtered by {@link #payload} properties
+   * @param consumer where to write each log
+   * @return cursor of the next page, or null if there are no more logs
    */
-  private List<String> getLogs() {
-    Session session = PathStoreClientAuthenticatedCluster.getInstance().connect();
+  private Integer writeLogs(final Consumer<String> consumer) {
+    Session session = PathStoreClientAuthenticatedCluster.getInstance().connectRaw();
 
     Select selectFilteredLogs =
-        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
+        QueryBuilder.select(
+                Constants.LOGS_COLUMNS.COUNT,
+                Constants.LOGS_COLUMNS.LOG,
+                Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DELETED)
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
+
+    Select.Where where =
+        selectFilteredLogs
+            .where(QueryBuilder.eq(Constants.LOGS_COLUMNS.NODE_ID, payload.nodeId))
+            .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.DATE, payload.date))
+            .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.LOG_LEVEL, payload.logLevel));
+
+    if (payload.cursor != null)
+      where.and(QueryBuilder.lt(Constants.LOGS_COLUMNS.COUNT, payload.cursor));
+
+    selectFilteredLogs.setFetchSize(
+        payload.limit != null && payload.filter == null && payload.from == null
+            ? Math.min(payload.limit + 1, FETCH_SIZE)
+            : FETCH_SIZE);
+
+    ResultSet resultSet = session.execute(selectFilteredLogs);
+
+    int written = 0;
+    Integer previousCount = null;
+
+    for (Row row : resultSet) {
+      int count = row.getInt(Constants.LOGS_COLUMNS.COUNT);
+
+      // rows of the same count are older versions of the same log
+      if (previousCount != null && previousCount == count) continue;
+
+      if (payload.limit != null && written == payload.limit) return previousCount;
+
+      previousCount = count;
+
+      if (row.getBool(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DELETED)) continue;
+
+      String log = row.getString(Constants.LOGS_COLUMNS.LOG);
+
+      if (payload.from != null || payload.to != null) {
+        long timestamp = PathStoreLoggerMessage.parseTimestamp(log);
 
-    selectFilteredLogs
-        .where(QueryBuilder.eq(Constants.LOGS_COLUMNS.NODE_ID, payload.nodeId))
-        .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.DATE, payload.date))
-        .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.LOG_LEVEL, payload.logLevel));
+        if (timestamp >= 0) {
+          if (payload.from != null && timestamp < payload.from) return null;
+          if (payload.to != null && timestamp > payload.to) continue;
+        }
+      }
 
-    LinkedList<String> messages = new LinkedList<>();
+      if (payload.filter != null && !log.contains(payload.filter)) continue;
 
-    for (Row row : session.execute(selectFilteredLogs))
-      messages.addLast(row.getString(Constants.LOGS_COLUMNS.LOG));
+      consumer.accept(log);
+      written++;
+    }
 
-    return messages;
+    return null;
   }
 }
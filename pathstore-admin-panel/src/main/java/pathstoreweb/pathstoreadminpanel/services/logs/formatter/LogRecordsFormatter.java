@@ -21,36 +21,84 @@ package pathstoreweb.pathstoreadminpanel.services.logs.formatter;
 
 import org.json.JSONObject;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pathstore.common.Constants;
-import pathstoreweb.pathstoreadminpanel.services.IFormatter;
 
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-/** This class is used to format a list of logs into a readable json array */
-public class LogRecordsFormatter implements IFormatter {
+/**
+ * This class is used to format a page of logs into a readable json object of the form {logs:
+ * string[], next: int}. The object is written to the response while the logs are read, so the
+ * response is sent in chunks instead of being built up in memory first.
+ */
+public class LogRecordsFormatter {
+
+  /** Key of the cursor of the next page, null if there are no more logs */
+  public static final String NEXT = "next";
+
+  /** How many logs to write before flushing a chunk to the client */
+  private static final int FLUSH_INTERVAL = 256;
+
+  /**
+   * Given from {@link pathstoreweb.pathstoreadminpanel.services.logs.GetLogRecords}, passes every
+   * log to the consumer and returns the cursor of the next page
+   */
+  private final Function<Consumer<String>, Integer> logs;
 
-  /** Given from {@link pathstoreweb.pathstoreadminpanel.services.logs.GetLogRecords} */
-  private final List<String> messages;
+  /** @param logs {@link #logs} */
+  public LogRecordsFormatter(final Function<Consumer<String>, Integer> logs) {
+    this.logs = logs;
+  }
 
-  /** @param messages {@link #messages} */
-  public LogRecordsFormatter(final List<String> messages) {
-    this.messages = messages;
+  /** @return chunked json response of the logs */
+  public ResponseEntity<StreamingResponseBody> format() {
+    return ResponseEntity.status(HttpStatus.OK)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(this::write);
   }
 
   /**
-   * Parses the list of logs based on the filtering parameters sent by the user into a json object
-   * of logs: string[]
+   * Writes the json object to the response body
    *
-   * @return json object of parsed logs
+   * @param outputStream response body
+   * @throws IOException if the client went away
    */
-  @Override
-  public ResponseEntity<String> format() {
+  private void write(final OutputStream outputStream) throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    writer.write("{" + JSONObject.quote(Constants.LOGS) + ":[");
 
-    JSONObject object = new JSONObject();
+    int[] written = {0};
 
-    object.put(Constants.LOGS, messages);
+    Integer next;
+    try {
+      next =
+          this.logs.apply(
+              log -> {
+                try {
+                  if (written[0] > 0) writer.write(',');
+                  writer.write(JSONObject.quote(log));
+                  if (++written[0] % FLUSH_INTERVAL == 0) writer.flush();
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
 
-    return new ResponseEntity<>(object.toString(), HttpStatus.OK);
+    writer.write("]," + JSONObject.quote(NEXT) + ":" + (next == null ? "null" : next) + "}");
+    writer.flush();
   }
 }
@@ -34,10 +34,17 @@ import static pathstoreweb.pathstoreadminpanel.validator.ErrorConstants.GET_LOG_
 
 /**
  * This payload is used to query a specific set of logs based on the node_id, the date and the
- * specific log level the user wants to see
+ * specific log level the user wants to see.
+ *
+ * <p>The remaining fields are optional and narrow the result down to a single page: logs are
+ * returned newest first, starting after {@link #cursor}, at most {@link #limit} of them, only those
+ * containing {@link #filter} and only those logged within [{@link #from}, {@link #to}].
  */
 public final class GetLogRecordsPayload extends ValidatedPayload {
 
+  /** Largest page a user may request */
+  public static final int MAX_LIMIT = 5000;
+
   /** Denotes the node_id requested */
   public final int nodeId;
 
@@ -47,15 +54,48 @@ public final class GetLogRecordsPayload extends ValidatedPayload {
   /** Denotes the specific log level they want */
   public final String logLevel;
 
+  /** Count of the last log on the previous page, only older logs are returned */
+  public final Integer cursor;
+
+  /** Maximum number of logs to return, null for all of them */
+  public final Integer limit;
+
+  /** Text every returned log must contain, null for no filtering */
+  public final String filter;
+
+  /** Earliest time (epoch millis) of a returned log, null for no lower bound */
+  public final Long from;
+
+  /** Latest time (epoch millis) of a returned log, null for no upper bound */
+  public final Long to;
+
   /**
    * @param node_id {@link #nodeId}
    * @param date {@link #date}
    * @param log_level {@link #logLevel}
+   * @param cursor {@link #cursor}
+   * @param limit {@link #limit}
+   * @param filter {@link #filter}
+   * @param from {@link #from}
+   * @param to {@link #to}
    */
-  public GetLogRecordsPayload(final int node_id, final String date, final String log_level) {
+  public GetLogRecordsPayload(
+      final int node_id,
+      final String date,
+      final String log_level,
+      final Integer cursor,
+      final Integer limit,
+      final String filter,
+      final Long from,
+      final Long to) {
     this.nodeId = node_id;
     this.date = date;
     this.logLevel = log_level;
+    this.cursor = cursor;
+    this.limit = limit;
+    this.filter = filter == null || filter.isEmpty() ? null : filter;
+    this.from = from;
+    this.to = to;
   }
 
   /**
@@ -71,6 +111,10 @@ public final class GetLogRecordsPayload extends ValidatedPayload {
    *
    * <p>(4): {@link #logLevel} valid log level
    *
+   * <p>(5): {@link #limit} if present is between 1 and {@link #MAX_LIMIT}
+   *
+   * <p>(6): {@link #from} if present is not after {@link #to}
+   *
    * @return true iff all above cases are held
    */
   @Override
@@ -80,7 +124,7 @@ public final class GetLogRecordsPayload extends ValidatedPayload {
     if (this.bulkNullCheck(this.nodeId, this.date, this.logLevel))
       return new String[] {WRONG_SUBMISSION_FORMAT};
 
-    String[] errors = {INVALID_NODE_ID, INVALID_DATE, null};
+    String[] errors = {INVALID_NODE_ID, INVALID_DATE, null, null, null};
 
     Session session = PathStoreClientAuthenticatedCluster.getInstance().connect();
 
@@ -105,6 +149,13 @@ public final class GetLogRecordsPayload extends ValidatedPayload {
         .map(Enum::toString)
         .noneMatch(i -> i.equals(this.logLevel))) errors[2] = INVALID_LOG_LEVEL;
 
+    // (5)
+    if (this.limit != null && (this.limit < 1 || this.limit > MAX_LIMIT)) errors[3] = INVALID_LIMIT;
+
+    // (6)
+    if (this.from != null && this.to != null && this.from > this.to)
+      errors[4] = INVALID_TIME_WINDOW;
+
     return errors;
   }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstoreweb.pathstoreadminpanel.services.readmodel;
+
+import pathstore.common.Constants;
+import pathstore.common.tables.DeploymentEntry;
+import pathstore.common.tables.NodeSchemaEntry;
+import pathstore.common.tables.ReplicationLagEntry;
+import pathstore.common.tables.ServerEntry;
+import pathstoreweb.pathstoreadminpanel.services.applications.Application;
+
+/**
+ * Read models of the tables the admin panel lists. Services that write to one of these tables
+ * invalidate its model so the write is visible on the next read.
+ *
+ * @see TableReadModel
+ */
+public final class ReadModels {
+
+  /** Instance of this class */
+  private static ReadModels instance = null;
+
+  /** @return instance of this class, created on first use */
+  public static synchronized ReadModels getInstance() {
+    if (instance == null) instance = new ReadModels();
+    return instance;
+  }
+
+  /** {@link Constants#SERVERS} */
+  private final TableReadModel<ServerEntry> servers =
+      new TableReadModel<>(Constants.SERVERS, ServerEntry::fromRow);
+
+  /** {@link Constants#DEPLOYMENT} */
+  private final TableReadModel<DeploymentEntry> deployment =
+      new TableReadModel<>(Constants.DEPLOYMENT, DeploymentEntry::fromRow);
+
+  /** {@link Constants#APPS} */
+  private final TableReadModel<Application> applications =
+      new TableReadModel<>(
+          Constants.APPS,
+          row ->
+              new Application(
+                  row.getString(Constants.APPS_COLUMNS.KEYSPACE_NAME),
+                  row.getString(Constants.APPS_COLUMNS.AUGMENTED_SCHEMA)));
+
+  /** {@link Constants#NODE_SCHEMAS} */
+  private final TableReadModel<NodeSchemaEntry> nodeSchemas =
+      new TableReadModel<>(Constants.NODE_SCHEMAS, NodeSchemaEntry::fromRow);
+
+  /** {@link Constants#REPLICATION_LAG} */
+  private final TableReadModel<ReplicationLagEntry> replicationLag =
+      new TableReadModel<>(Constants.REPLICATION_LAG, ReplicationLagEntry::fromRow);
+
+  /** Private Default Constructor */
+  private ReadModels() {}
+
+  /** @return {@link #servers} */
+  public TableReadModel<ServerEntry> servers() {
+    return this.servers;
+  }
+
+  /** @return {@link #deployment} */
+  public TableReadModel<DeploymentEntry> deployment() {
+    return this.deployment;
+  }
+
+  /** @return {@link #applications} */
+  public TableReadModel<Application> applications() {
+    return this.applications;
+  }
+
+  /** @return {@link #nodeSchemas} */
+  public TableReadModel<NodeSchemaEntry> nodeSchemas() {
+    return this.nodeSchemas;
+  }
+
+  /** @return {@link #replicationLag} */
+  public TableReadModel<ReplicationLagEntry> replicationLag() {
+    return this.replicationLag;
+  }
+}
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstoreweb.pathstoreadminpanel.services.readmodel;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.utils.UUIDs;
+import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreIterator;
+import pathstore.common.Constants;
+import pathstore.util.SchemaInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In memory copy of a pathstore_applications table, used to serve the admin panel's listings
+ * without querying the whole table on every request.
+ *
+ * <p>The table is loaded on first use. Afterwards at most every {@link #REFRESH_INTERVAL} ms a
+ * request triggers a refresh, which only reads the primary key and {@link
+ * Constants.PATHSTORE_META_COLUMNS#PATHSTORE_VERSION} of the rows that arrived on the local node
+ * since the previous refresh, using their {@link
+ * Constants.PATHSTORE_META_COLUMNS#PATHSTORE_PARENT_TIMESTAMP}. Only keys whose newest version
+ * changed are read in full and merged the same way the pathstore session would.
+ *
+ * <p>Every {@link #FULL_SCAN_EVERY} refreshes the versions of all rows are read instead, this drops
+ * keys removed by the garbage collector and puts keys added since the last full scan back in table
+ * order.
+ *
+ * <p>Every refresh that changes the table produces a new {@link Snapshot} with a new generation,
+ * whose {@link Snapshot#etag} is used to answer conditional requests.
+ *
+ * @param <T> parsed entry type
+ */
+public final class TableReadModel<T> {
+
+  /** Minimum time (ms) between two refreshes */
+  private static final long REFRESH_INTERVAL = 2000;
+
+  /** If more keys than this changed, the whole table is read instead of key by key */
+  private static final int MAX_KEYED_READS = 32;
+
+  /** Amount of refreshes between two reads of all versions */
+  private static final int FULL_SCAN_EVERY = 30;
+
+  /**
+   * Rows that arrived up to this many ms before the newest row seen are read again, so rows being
+   * written during the previous refresh aren't missed
+   */
+  private static final long ARRIVAL_OVERLAP = 1000;
+
+  /** Distinguishes etags of this process from those of a previous run */
+  private static final String INSTANCE = Long.toHexString(System.currentTimeMillis());
+
+  /** Table name within {@link Constants#PATHSTORE_APPLICATIONS} */
+  private final String table;
+
+  /** Parses a merged row into an entry */
+  private final Function<Row, T> parser;
+
+  /**
+   * Primary key columns excluding {@link Constants.PATHSTORE_META_COLUMNS#PATHSTORE_VERSION}, read
+   * from the schema info on the first refresh as it is only present once the client is registered
+   */
+  private List<String> keyColumns = null;
+
+  /** Newest version and parsed entry per key, in table order */
+  private Map<List<Object>, Versioned<T>> entries = new LinkedHashMap<>();
+
+  /** Latest snapshot, null until the table is loaded */
+  private Snapshot<T> snapshot = null;
+
+  /** When the table was last refreshed (ms) */
+  private long lastRefresh = 0;
+
+  /** Amount of refreshes so far */
+  private long refreshes = 0;
+
+  /** Newest arrival timestamp seen, null if no row has been seen yet */
+  private UUID newestArrival = null;
+
+  /**
+   * @param table {@link #table}
+   * @param parser {@link #parser}
+   */
+  TableReadModel(final String table, final Function<Row, T> parser) {
+    this.table = table;
+    this.parser = parser;
+  }
+
+  /** @return latest snapshot of the table, refreshed if it is older than the refresh interval */
+  public synchronized Snapshot<T> get() {
+    if (this.snapshot == null || System.currentTimeMillis() - this.lastRefresh >= REFRESH_INTERVAL)
+      this.refresh();
+
+    return this.snapshot;
+  }
+
+  /** Forces the next {@link #get()} to refresh, called after the admin panel writes to the table */
+  public synchronized void invalidate() {
+    this.lastRefresh = 0;
+  }
+
+  /** Applies all changes since the last refresh */
+  private void refresh() {
+    Session session = PathStoreClientAuthenticatedCluster.getInstance().connectRaw();
+
+    if (this.keyColumns == null)
+      this.keyColumns =
+          SchemaInfo.getInstance()
+              .getTableDescriptor(Constants.PATHSTORE_APPLICATIONS, this.table)
+              .getPrimaryColumnNames();
+
+    boolean full =
+        this.snapshot == null
+            || this.newestArrival == null
+            || ++this.refreshes % FULL_SCAN_EVERY == 0;
+
+    Map<List<Object>, UUID> versions = this.readVersions(session, full ? null : this.newestArrival);
+
+    List<List<Object>> changed =
+        versions.entrySet().stream()
+            .filter(
+                entry -> {
+                  Versioned<T> current = this.entries.get(entry.getKey());
+                  return current == null
+                      || (full
+                          ? !current.version.equals(entry.getValue())
+                          : current.version.timestamp() < entry.getValue().timestamp());
+                })
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+
+    boolean modified = !changed.isEmpty() || (full && versions.size() != this.entries.size());
+
+    Map<List<Object>, T> values;
+
+    if (this.snapshot == null || changed.size() > MAX_KEYED_READS) values = this.readAll(session);
+    else {
+      values = new HashMap<>();
+      for (List<Object> key : changed) {
+        T value = this.readKey(session, key);
+        if (value != null) values.put(key, value);
+      }
+    }
+
+    Map<List<Object>, Versioned<T>> updated;
+
+    if (full) {
+      updated = new LinkedHashMap<>();
+
+      for (Map.Entry<List<Object>, UUID> entry : versions.entrySet()) {
+        List<Object> key = entry.getKey();
+        Versioned<T> current = this.entries.get(key);
+
+        if (current != null && current.version.equals(entry.getValue())) updated.put(key, current);
+        else
+          // a missing value means the newest version is a delete, remember the version so it
+          // isn't read again
+          updated.put(key, new Versioned<>(entry.getValue(), values.get(key)));
+      }
+    } else {
+      // new keys are appended until the next full scan
+      updated = new LinkedHashMap<>(this.entries);
+
+      for (List<Object> key : changed)
+        updated.put(key, new Versioned<>(versions.get(key), values.get(key)));
+    }
+
+    this.entries = updated;
+    this.lastRefresh = System.currentTimeMillis();
+
+    if (this.snapshot == null || modified)
+      this.snapshot =
+          new Snapshot<>(
+              this.snapshot == null ? 0 : this.snapshot.generation + 1,
+              this.table,
+              Collections.unmodifiableList(
+                  updated.values().stream()
+                      .filter(versioned -> versioned.value != null)
+                      .map(versioned -> versioned.value)
+                      .collect(Collectors.toList())));
+  }
+
+  /**
+   * Reads the versions of the rows that arrived since the given timestamp and updates {@link
+   * #newestArrival}
+   *
+   * @param session raw session
+   * @param since newest arrival seen by the previous refresh, null to read every row
+   * @return newest version of every key read, in table order
+   */
+  private Map<List<Object>, UUID> readVersions(final Session session, final UUID since) {
+    List<String> columns = new ArrayList<>(this.keyColumns);
+    columns.add(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VERSION);
+    columns.add(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP);
+
+    Select select =
+        QueryBuilder.select(columns.toArray(new String[0]))
+            .from(Constants.PATHSTORE_APPLICATIONS, this.table);
+
+    if (since != null) {
+      select.allowFiltering();
+      select.where(
+          QueryBuilder.gt(
+              Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP,
+              UUIDs.startOf(UUIDs.unixTimestamp(since) - ARRIVAL_OVERLAP)));
+    }
+
+    Map<List<Object>, UUID> versions = new LinkedHashMap<>();
+
+    for (Row row : session.execute(select)) {
+      UUID version = row.getUUID(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VERSION);
+      versions.merge(this.key(row), version, (a, b) -> a.timestamp() >= b.timestamp() ? a : b);
+
+      UUID arrival = row.getUUID(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP);
+      if (arrival != null
+          && (this.newestArrival == null
+              || arrival.timestamp() > this.newestArrival.timestamp()))
+        this.newestArrival = arrival;
+    }
+
+    return versions;
+  }
+
+  /**
+   * @param session raw session
+   * @return merged entry of every live key
+   */
+  private Map<List<Object>, T> readAll(final Session session) {
+    Map<List<Object>, T> values = new HashMap<>();
+
+    Iterator<Row> iterator =
+        this.merged(
+            session,
+            QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, this.table));
+
+    while (iterator.hasNext()) {
+      Row row = iterator.next();
+      values.put(this.key(row), this.parser.apply(row));
+    }
+
+    return values;
+  }
+
+  /**
+   * @param session raw session
+   * @param key key to read
+   * @return merged entry of the key, null if it is deleted
+   */
+  private T readKey(final Session session, final List<Object> key) {
+    Select select = QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, this.table);
+
+    for (int i = 0; i < this.keyColumns.size(); i++)
+      select.where(QueryBuilder.eq(this.keyColumns.get(i), key.get(i)));
+
+    Iterator<Row> iterator = this.merged(session, select);
+
+    return iterator.hasNext() ? this.parser.apply(iterator.next()) : null;
+  }
+
+  /**
+   * @param session raw session
+   * @param select select to execute
+   * @return iterator that merges versions and skips deleted keys
+   */
+  private Iterator<Row> merged(final Session session, final Select select) {
+    return new PathStoreIterator(
+        session,
+        session.execute(select).iterator(),
+        Constants.PATHSTORE_APPLICATIONS,
+        this.table,
+        false,
+        null);
+  }
+
+  /**
+   * @param row row
+   * @return primary key of the row excluding the version
+   */
+  private List<Object> key(final Row row) {
+    List<Object> key = new ArrayList<>(this.keyColumns.size());
+    for (String column : this.keyColumns) key.add(row.getObject(column));
+    return key;
+  }
+
+  /**
+   * Entry with the newest version of its key
+   *
+   * @param <T> entry type
+   */
+  private static final class Versioned<T> {
+    /** Newest version of the key */
+    private final UUID version;
+
+    /** Parsed entry, null if the key is deleted */
+    private final T value;
+
+    /**
+     * @param version {@link #version}
+     * @param value {@link #value}
+     */
+    private Versioned(final UUID version, final T value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Immutable state of the table after a refresh
+   *
+   * @param <T> entry type
+   */
+  public static final class Snapshot<T> {
+    /** Incremented every time the table changes */
+    public final long generation;
+
+    /** Strong etag of this snapshot */
+    public final String etag;
+
+    /** Live entries in table order */
+    public final List<T> entries;
+
+    /**
+     * @param generation {@link #generation}
+     * @param table table name, part of {@link #etag}
+     * @param entries {@link #entries}
+     */
+    private Snapshot(final long generation, final String table, final List<T> entries) {
+      this.generation = generation;
+      this.etag = String.format("\"%s-%s-%d\"", table, INSTANCE, generation);
+      this.entries = entries;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstoreweb.pathstoreadminpanel.services.replicationlag;
+
+import org.springframework.http.ResponseEntity;
+import pathstore.common.Constants;
+import pathstore.common.tables.ReplicationLagEntry;
+import pathstoreweb.pathstoreadminpanel.services.IConditionalService;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.TableReadModel;
+import pathstoreweb.pathstoreadminpanel.services.replicationlag.formatter.GetReplicationLagFormatter;
+
+/**
+ * This service reads the replication lag table, which holds the latest lag summary each node has
+ * for every other node it has received heartbeats from
+ *
+ * @see Constants#REPLICATION_LAG
+ * @see Constants.REPLICATION_LAG_COLUMNS
+ */
+public class GetReplicationLag implements IConditionalService {
+
+  /** Lag summaries at the time of the request */
+  private final TableReadModel.Snapshot<ReplicationLagEntry> snapshot =
+      ReadModels.getInstance().replicationLag().get();
+
+  /** @return etag of {@link #snapshot} */
+  @Override
+  public String etag() {
+    return this.snapshot.etag;
+  }
+
+  /** @return {@link GetReplicationLagFormatter} */
+  @Override
+  public ResponseEntity<String> response() {
+    return new GetReplicationLagFormatter(this.snapshot.entries).format();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstoreweb.pathstoreadminpanel.services.replicationlag.formatter;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pathstore.common.Constants;
+import pathstore.common.tables.ReplicationLagEntry;
+import pathstoreweb.pathstoreadminpanel.services.IFormatter;
+
+import java.util.List;
+
+/**
+ * Formatter for the replication lag summaries
+ *
+ * @see pathstoreweb.pathstoreadminpanel.services.replicationlag.GetReplicationLag
+ */
+public class GetReplicationLagFormatter implements IFormatter {
+
+  /** Latest summary per observing node and origin node */
+  private final List<ReplicationLagEntry> entries;
+
+  /** @param entries {@link #entries} */
+  public GetReplicationLagFormatter(final List<ReplicationLagEntry> entries) {
+    this.entries = entries;
+  }
+
+  /** @return json array of lag summaries, lag values are in milliseconds */
+  @Override
+  public ResponseEntity<String> format() {
+    JSONArray array = new JSONArray();
+
+    for (ReplicationLagEntry entry : this.entries) array.put(toJson(entry));
+
+    return new ResponseEntity<>(array.toString(), HttpStatus.OK);
+  }
+
+  /**
+   * @param entry lag summary
+   * @return json object of the summary, also used for the status event stream
+   */
+  public static JSONObject toJson(final ReplicationLagEntry entry) {
+    return new JSONObject()
+        .put(Constants.REPLICATION_LAG_COLUMNS.NODE_ID, entry.nodeId)
+        .put(Constants.REPLICATION_LAG_COLUMNS.ORIGIN_NODE_ID, entry.originNodeId)
+        .put(Constants.REPLICATION_LAG_COLUMNS.LINK, entry.link)
+        .put(Constants.REPLICATION_LAG_COLUMNS.SAMPLES, entry.samples)
+        .put(Constants.REPLICATION_LAG_COLUMNS.P50, entry.p50)
+        .put(Constants.REPLICATION_LAG_COLUMNS.P99, entry.p99)
+        .put(Constants.REPLICATION_LAG_COLUMNS.MAX, entry.max);
+  }
+}
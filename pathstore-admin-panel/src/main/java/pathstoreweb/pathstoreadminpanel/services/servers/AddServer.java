@@ -28,6 +28,7 @@ import pathstore.common.Constants;
 import pathstore.common.tables.ServerAuthType;
 import pathstore.common.tables.ServerIdentity;
 import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 import pathstoreweb.pathstoreadminpanel.services.servers.formatter.AddServerFormatter;
 import pathstoreweb.pathstoreadminpanel.services.servers.payload.AddServerPayload;
 
@@ -59,6 +60,7 @@ public class AddServer implements IService {
   public ResponseEntity<String> response() {
     try {
       this.writeServerRecord();
+      ReadModels.getInstance().servers().invalidate();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
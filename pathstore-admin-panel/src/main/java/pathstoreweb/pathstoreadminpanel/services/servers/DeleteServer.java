@@ -28,6 +28,7 @@ import org.springframework.http.ResponseEntity;
 import pathstore.client.PathStoreClientAuthenticatedCluster;
 import pathstore.common.Constants;
 import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 import pathstoreweb.pathstoreadminpanel.services.servers.payload.DeleteServerPayload;
 
 /**
@@ -55,6 +56,7 @@ public class DeleteServer implements IService {
   public ResponseEntity<String> response() {
 
     this.deleteServer();
+    ReadModels.getInstance().servers().invalidate();
 
     return new ResponseEntity<>(new JSONObject().toString(), HttpStatus.OK);
   }
@@ -19,19 +19,37 @@
 
 package pathstoreweb.pathstoreadminpanel.services.servers;
 
-import com.datastax.driver.core.querybuilder.QueryBuilder;
 import org.springframework.http.ResponseEntity;
-import pathstore.client.PathStoreClientAuthenticatedCluster;
-import pathstore.common.Constants;
 import pathstore.common.tables.ServerEntry;
-import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.IConditionalService;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.TableReadModel;
 import pathstoreweb.pathstoreadminpanel.services.servers.formatter.GetServersFormatter;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
-/** Getter service to query all servers stored in the database */
-public class GetServers implements IService {
+/** Getter service to list all servers, or a single server, from the servers read model */
+public class GetServers implements IConditionalService {
+
+  /** Servers at the time of the request */
+  private final TableReadModel.Snapshot<ServerEntry> snapshot =
+      ReadModels.getInstance().servers().get();
+
+  /** Server to get, null for all servers */
+  private final UUID serverUUID;
+
+  /** @param serverUUID {@link #serverUUID} */
+  public GetServers(final UUID serverUUID) {
+    this.serverUUID = serverUUID;
+  }
+
+  /** @return etag of {@link #snapshot} */
+  @Override
+  public String etag() {
+    return this.snapshot.etag;
+  }
 
   /** @return {@link GetServersFormatter#format()} */
   @Override
@@ -39,17 +57,12 @@ public class GetServers implements IService {
     return new GetServersFormatter(this.getServers()).format();
   }
 
-  /**
-   * Select all servers from table and parse them into a list of {@link ServerEntry} object
-   *
-   * @return list of servers
-   */
+  /** @return list of servers, filtered to {@link #serverUUID} if present */
   private List<ServerEntry> getServers() {
-    return PathStoreClientAuthenticatedCluster.getInstance().connect()
-        .execute(
-            QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.SERVERS))
-        .stream()
-        .map(ServerEntry::fromRow)
-        .collect(Collectors.toList());
+    return this.serverUUID == null
+        ? this.snapshot.entries
+        : this.snapshot.entries.stream()
+            .filter(server -> server.serverUUID.equals(this.serverUUID))
+            .collect(Collectors.toList());
   }
 }
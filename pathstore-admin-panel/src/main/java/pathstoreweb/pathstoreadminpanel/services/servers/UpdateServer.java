@@ -30,6 +30,7 @@ import pathstore.common.Constants;
 import pathstore.common.tables.ServerAuthType;
 import pathstore.common.tables.ServerIdentity;
 import pathstoreweb.pathstoreadminpanel.services.IService;
+import pathstoreweb.pathstoreadminpanel.services.readmodel.ReadModels;
 import pathstoreweb.pathstoreadminpanel.services.servers.payload.UpdateServerPayload;
 
 import java.io.IOException;
@@ -55,6 +56,7 @@ public class UpdateServer implements IService {
 
     try {
       this.updateServer();
+      ReadModels.getInstance().servers().invalidate();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
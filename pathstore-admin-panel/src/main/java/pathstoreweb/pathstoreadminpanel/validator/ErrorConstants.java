@@ -179,5 +179,7 @@ public final class ErrorConstants {
     public static final String INVALID_NODE_ID = "The node id passed is invalid";
     public static final String INVALID_DATE = "The date passed does not have any records";
     public static final String INVALID_LOG_LEVEL = "The log level passed is invalid";
+    public static final String INVALID_LIMIT = "The limit must be between 1 and 5000";
+    public static final String INVALID_TIME_WINDOW = "The from time must not be after the to time";
   }
 }
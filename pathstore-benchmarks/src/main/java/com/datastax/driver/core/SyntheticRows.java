@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds rows without a cassandra connection. Rows and column definitions can only be created from
+ * within the driver package, this class lives in the same package so benchmarks can feed synthetic
+ * data into code that consumes {@link Row} and {@link ArrayBackedRow}.
+ */
+public final class SyntheticRows {
+
+  /** Protocol version used to serialize values */
+  private static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.NEWEST_SUPPORTED;
+
+  /** Static utility class */
+  private SyntheticRows() {}
+
+  /**
+   * @param keyspace keyspace of all columns
+   * @param table table of all columns
+   * @param names column names
+   * @param types column types, same length as names
+   * @return column definitions
+   */
+  public static ColumnDefinitions columnDefinitions(
+      final String keyspace, final String table, final String[] names, final DataType[] types) {
+    if (names.length != types.length)
+      throw new IllegalArgumentException("Every column needs exactly one type");
+
+    ColumnDefinitions.Definition[] definitions = new ColumnDefinitions.Definition[names.length];
+    for (int i = 0; i < names.length; i++)
+      definitions[i] = new ColumnDefinitions.Definition(keyspace, table, names[i], types[i]);
+
+    return new ColumnDefinitions(definitions, CodecRegistry.DEFAULT_INSTANCE);
+  }
+
+  /**
+   * @param definitions column definitions of the row
+   * @param values java values in column order, null for unset columns
+   * @return row with each value serialized by the default codec of its column type
+   */
+  public static ArrayBackedRow row(final ColumnDefinitions definitions, final Object... values) {
+    if (values.length != definitions.size())
+      throw new IllegalArgumentException("Every column needs exactly one value");
+
+    List<ByteBuffer> data = new ArrayList<>(values.length);
+    for (int i = 0; i < values.length; i++)
+      data.add(
+          values[i] == null
+              ? null
+              : CodecRegistry.DEFAULT_INSTANCE
+                  .codecFor(definitions.getType(i), values[i])
+                  .serialize(values[i], PROTOCOL_VERSION));
+
+    return (ArrayBackedRow) ArrayBackedRow.fromData(definitions, null, PROTOCOL_VERSION, data);
+  }
+
+  /**
+   * Consumers such as the pathstore iterator mutate the data of a row, copying is cheap as the
+   * serialized values are shared
+   *
+   * @param row row to copy
+   * @return row with the same definitions and a new data list
+   */
+  public static ArrayBackedRow copy(final ArrayBackedRow row) {
+    return (ArrayBackedRow)
+        ArrayBackedRow.fromData(row.metadata, null, PROTOCOL_VERSION, new ArrayList<>(row.data));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathstore.authentication.credentials.ClientCredential;
+import pathstore.authentication.credentials.NodeCredential;
+import pathstore.authentication.grpc.AuthManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication decision made by the server interceptor on every grpc call. Cached decisions are
+ * measured for a valid and an invalid credential, uncached decisions cycle through more distinct
+ * usernames than the decision cache holds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthManagerBenchmark {
+
+  /** Service all credentials are registered on */
+  private static final String SERVICE = "pathstore.CommonService";
+
+  /** Endpoint called */
+  private static final String ENDPOINT = SERVICE + "/updateCache";
+
+  /** Amount of distinct usernames used for uncached decisions, larger than the decision cache */
+  private static final int UNCACHED_USERNAMES = 8192;
+
+  /** Amount of node and client credentials each */
+  @Param({"10", "1000"})
+  public int credentials;
+
+  /** Auth manager under test */
+  private AuthManager authManager;
+
+  /** Usernames for uncached decisions */
+  private String[] uncachedUsernames;
+
+  /** Position of the next uncached username */
+  private int cursor = 0;
+
+  /** Build the auth manager and warm the decision cache */
+  @Setup(Level.Trial)
+  public void setup() {
+    Collection<NodeCredential> nodes = new ArrayList<>(this.credentials);
+    Collection<ClientCredential> clients = new ArrayList<>(this.credentials);
+
+    for (int i = 0; i < this.credentials; i++) {
+      nodes.add(new NodeCredential(i, "node_" + i, "password_" + i));
+      clients.add(new ClientCredential("application_" + i, "client_" + i, "password_" + i, false));
+    }
+
+    this.authManager =
+        AuthManager.newBuilder()
+            .serverAndClientAuthenticatedEndpoint(SERVICE, () -> nodes, () -> clients)
+            .build();
+
+    this.uncachedUsernames = new String[UNCACHED_USERNAMES];
+    for (int i = 0; i < UNCACHED_USERNAMES; i++) this.uncachedUsernames[i] = "unknown_" + i;
+
+    this.cachedAccept();
+    this.cachedReject();
+  }
+
+  /** @return true */
+  @Benchmark
+  public boolean cachedAccept() {
+    return this.authManager.isAuthenticated(ENDPOINT, "client_0", "password_0");
+  }
+
+  /** @return false */
+  @Benchmark
+  public boolean cachedReject() {
+    return this.authManager.isAuthenticated(ENDPOINT, "client_0", "wrong_password");
+  }
+
+  /** @return false, the username was evicted from the decision cache since its last use */
+  @Benchmark
+  public boolean uncached() {
+    String username = this.uncachedUsernames[this.cursor];
+    this.cursor = (this.cursor + 1) % UNCACHED_USERNAMES;
+    return this.authManager.isAuthenticated(ENDPOINT, username, "password");
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import com.datastax.driver.core.ArrayBackedRow;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.SyntheticRows;
+import com.datastax.driver.core.utils.UUIDs;
+import pathstore.common.Constants;
+import pathstore.common.Constants.PROPERTIES_CONSTANTS;
+import pathstore.common.PathStoreProperties;
+import pathstore.common.Role;
+import pathstore.grpc.pathStoreProto.RegisterApplicationResponse;
+import pathstore.util.SchemaInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static pathstore.common.Constants.PATHSTORE_META_COLUMNS.*;
+
+/**
+ * Shared setup for all benchmarks. Everything is built in memory so no benchmark needs a properties
+ * file, a cassandra instance or a grpc server.
+ *
+ * <p>The synthetic schema is a single keyspace {@link #KEYSPACE} with tables {@code table_0 ..
+ * table_n}. Every table has an int partition key, the pathstore meta columns and {@link
+ * #VALUE_COLUMNS} text columns.
+ */
+final class BenchmarkFixtures {
+
+  /** Keyspace of the synthetic schema */
+  static final String KEYSPACE = "pathstore_benchmark";
+
+  /** User defined partition key of every table */
+  static final String KEY_COLUMN = "id";
+
+  /** Amount of user defined regular columns per table */
+  static final int VALUE_COLUMNS = 4;
+
+  /** Node id used for the properties */
+  static final int NODE_ID = 1;
+
+  /** Static utility class */
+  private BenchmarkFixtures() {}
+
+  /**
+   * Installs properties for a root server. Query cache entries created on a root server never call
+   * a parent, which keeps the benchmarks local.
+   */
+  static void installRootProperties() {
+    Properties properties = new Properties();
+    properties.setProperty(PROPERTIES_CONSTANTS.ROLE, Role.ROOTSERVER.name());
+    properties.setProperty(PROPERTIES_CONSTANTS.NODE_ID, String.valueOf(BenchmarkFixtures.NODE_ID));
+    properties.setProperty(PROPERTIES_CONSTANTS.PARENT_ID, "-1");
+    properties.setProperty(PROPERTIES_CONSTANTS.USERNAME, "benchmark");
+    properties.setProperty(PROPERTIES_CONSTANTS.PASSWORD, "benchmark");
+    properties.setProperty(PROPERTIES_CONSTANTS.CASSANDRA_PORT, "9052");
+    properties.setProperty(PROPERTIES_CONSTANTS.GRPC_PORT, "1099");
+    properties.setProperty(PROPERTIES_CONSTANTS.PRINT_LOGS, "false");
+    PathStoreProperties.setInstance(new PathStoreProperties(properties));
+  }
+
+  /** @return name of the i'th table */
+  static String tableName(final int i) {
+    return "table_" + i;
+  }
+
+  /** @return name of the i'th regular column */
+  static String valueColumn(final int i) {
+    return "value_" + i;
+  }
+
+  /**
+   * @param tables amount of tables to generate
+   * @return schema info for {@link #KEYSPACE}, also installed as the schema info instance
+   */
+  static SchemaInfo installSchema(final int tables) {
+    RegisterApplicationResponse.TableNameToTable.Builder tableMap =
+        RegisterApplicationResponse.TableNameToTable.newBuilder();
+    RegisterApplicationResponse.TableNameToColumns.Builder columnInfo =
+        RegisterApplicationResponse.TableNameToColumns.newBuilder();
+    RegisterApplicationResponse.TableNameToPartitionColumnNames.Builder partitionColumns =
+        RegisterApplicationResponse.TableNameToPartitionColumnNames.newBuilder();
+    RegisterApplicationResponse.TableNameToClusterColumnNames.Builder clusterColumns =
+        RegisterApplicationResponse.TableNameToClusterColumnNames.newBuilder();
+
+    for (int t = 0; t < tables; t++) {
+      String table = tableName(t);
+
+      tableMap.putTableNameToTable(
+          table,
+          RegisterApplicationResponse.Table.newBuilder()
+              .setKeyspaceName(KEYSPACE)
+              .setTableName(table)
+              .build());
+
+      RegisterApplicationResponse.Columns.Builder columns =
+          RegisterApplicationResponse.Columns.newBuilder()
+              .addColumns(column(table, KEY_COLUMN, "partition_key", 0, "int"))
+              .addColumns(column(table, PATHSTORE_VERSION, "clustering", 0, "timeuuid"))
+              .addColumns(column(table, PATHSTORE_PARENT_TIMESTAMP, "regular", -1, "timeuuid"))
+              .addColumns(column(table, PATHSTORE_DELETED, "regular", -1, "boolean"))
+              .addColumns(column(table, PATHSTORE_DIRTY, "regular", -1, "boolean"))
+              .addColumns(column(table, PATHSTORE_NODE, "regular", -1, "int"));
+      for (int c = 0; c < VALUE_COLUMNS; c++)
+        columns.addColumns(column(table, valueColumn(c), "regular", -1, "text"));
+
+      columnInfo.putTableToColumns(table, columns.build());
+      partitionColumns.putTableNameToPartitionColumnNames(
+          table,
+          RegisterApplicationResponse.PartitionColumnNames.newBuilder()
+              .addPartitionColumnName(KEY_COLUMN)
+              .build());
+      clusterColumns.putTableNameToClusterColumnNames(
+          table,
+          RegisterApplicationResponse.ClusterColumnNames.newBuilder()
+              .addClusterColumnName(PATHSTORE_VERSION)
+              .build());
+    }
+
+    SchemaInfo schemaInfo =
+        SchemaInfo.fromGRPCObject(
+            RegisterApplicationResponse.SchemaInfo.newBuilder()
+                .addKeyspacesLoaded(KEYSPACE)
+                .putTableMap(KEYSPACE, tableMap.build())
+                .putColumnInfo(KEYSPACE, columnInfo.build())
+                .putPartitionColumnNames(KEYSPACE, partitionColumns.build())
+                .putClusterColumnNames(KEYSPACE, clusterColumns.build())
+                .build());
+
+    SchemaInfo.setInstance(schemaInfo);
+
+    return schemaInfo;
+  }
+
+  /**
+   * @param table table name
+   * @param name column name
+   * @param kind partition_key, clustering or regular
+   * @param position position within the primary key, -1 for regular columns
+   * @param type cql type
+   * @return grpc column object
+   */
+  private static RegisterApplicationResponse.Column column(
+      final String table,
+      final String name,
+      final String kind,
+      final int position,
+      final String type) {
+    return RegisterApplicationResponse.Column.newBuilder()
+        .setKeyspaceName(KEYSPACE)
+        .setTableName(table)
+        .setColumnName(name)
+        .setClusteringOrder(kind.equals("clustering") ? "desc" : "none")
+        .setKind(kind)
+        .setPosition(position)
+        .setType(type)
+        .build();
+  }
+
+  /**
+   * @param table table name
+   * @return column definitions as a select * on the table would return them
+   */
+  static ColumnDefinitions columnDefinitions(final String table) {
+    List<String> names = new ArrayList<>();
+    List<DataType> types = new ArrayList<>();
+
+    names.add(KEY_COLUMN);
+    types.add(DataType.cint());
+    names.add(PATHSTORE_VERSION);
+    types.add(DataType.timeuuid());
+    names.add(PATHSTORE_DELETED);
+    types.add(DataType.cboolean());
+    names.add(PATHSTORE_DIRTY);
+    types.add(DataType.cboolean());
+    names.add(PATHSTORE_NODE);
+    types.add(DataType.cint());
+    names.add(PATHSTORE_PARENT_TIMESTAMP);
+    types.add(DataType.timeuuid());
+    for (int c = 0; c < VALUE_COLUMNS; c++) {
+      names.add(valueColumn(c));
+      types.add(DataType.text());
+    }
+
+    return SyntheticRows.columnDefinitions(
+        KEYSPACE, table, names.toArray(new String[0]), types.toArray(new DataType[0]));
+  }
+
+  /**
+   * @param definitions definitions from {@link #columnDefinitions(String)}
+   * @param key partition key value
+   * @param version pathstore_version of the row
+   * @param written which value columns are written, unwritten columns are null as in a partial
+   *     update
+   * @return row
+   */
+  static ArrayBackedRow row(
+      final ColumnDefinitions definitions,
+      final int key,
+      final UUID version,
+      final boolean[] written) {
+    Object[] values = new Object[definitions.size()];
+    values[0] = key;
+    values[1] = version;
+    values[2] = false;
+    values[3] = true;
+    values[4] = NODE_ID;
+    values[5] = version;
+    for (int c = 0; c < VALUE_COLUMNS; c++)
+      values[6 + c] = written[c] ? "value-" + key + "-" + c : null;
+    return SyntheticRows.row(definitions, values);
+  }
+
+  /** @return a new time based uuid */
+  static UUID timeUUID() {
+    return UUIDs.timeBased();
+  }
+
+  /** @return keyspace used for query cache entries, it never expires and has no lease lookups */
+  static String queryCacheKeyspace() {
+    return Constants.PATHSTORE_APPLICATIONS;
+  }
+}
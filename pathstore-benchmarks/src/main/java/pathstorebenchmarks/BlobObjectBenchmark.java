@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathstore.common.tables.ServerIdentity;
+import pathstore.util.BlobObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of server identities into the servers table's blob column. Compares the compact codec
+ * against java serialization, which is still used to read identities written by older versions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlobObjectBenchmark {
+
+  /** Size of the private key in bytes */
+  @Param({"1700", "3300"})
+  public int keySize;
+
+  /** Identity to encode */
+  private ServerIdentity identity;
+
+  /** Compact encoding of the identity, in a direct buffer like the driver returns */
+  private ByteBuffer compact;
+
+  /** Java serialization of the identity */
+  private ByteBuffer legacy;
+
+  /** Build the identity and both encodings */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkFixtures.installRootProperties();
+
+    byte[] key = new byte[this.keySize];
+    new Random(0).nextBytes(key);
+    this.identity = new ServerIdentity(key, "passphrase");
+
+    this.compact = direct(this.identity.serialize());
+
+    try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(this.identity);
+      oos.flush();
+      this.legacy = direct(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+  }
+
+  /**
+   * @param buffer heap buffer
+   * @return direct copy of the buffer
+   */
+  private static ByteBuffer direct(final ByteBuffer buffer) {
+    ByteBuffer direct = ByteBuffer.allocateDirect(buffer.remaining());
+    direct.put(buffer.duplicate()).flip();
+    return direct;
+  }
+
+  /** @return compact encoding */
+  @Benchmark
+  public ByteBuffer serialize() {
+    return this.identity.serialize();
+  }
+
+  /** @return identity decoded from the compact encoding */
+  @Benchmark
+  public BlobObject deserializeCompact() {
+    return BlobObject.deserialize(this.compact);
+  }
+
+  /** @return identity decoded from java serialization */
+  @Benchmark
+  public BlobObject deserializeLegacy() {
+    return BlobObject.deserialize(this.legacy);
+  }
+}
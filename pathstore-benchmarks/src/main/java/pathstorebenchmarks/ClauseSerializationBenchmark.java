@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import org.openjdk.jmh.annotations.*;
+import pathstore.common.QueryCacheEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization of query cache clauses. Clauses are serialized every time an entry is sent to
+ * a parent node and deserialized for every entry received through update cache and delta fetches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClauseSerializationBenchmark {
+
+  /** Amount of clauses in the entry */
+  @Param({"1", "4", "16"})
+  public int clauses;
+
+  /** Entry whose clauses get serialized */
+  private QueryCacheEntry entry;
+
+  /** Serialized form of the entry's clauses */
+  private byte[] serialized;
+
+  /** Build the entry and its serialized form */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    BenchmarkFixtures.installRootProperties();
+
+    List<Clause> clauses = new ArrayList<>(this.clauses);
+    for (int i = 0; i < this.clauses; i++)
+      clauses.add(QueryBuilder.eq(BenchmarkFixtures.valueColumn(i), "value_" + i));
+
+    this.entry =
+        new QueryCacheEntry(
+            BenchmarkFixtures.queryCacheKeyspace(), "clause_serialization_benchmark", clauses, -1);
+    this.serialized = this.entry.getClausesSerialized();
+  }
+
+  /** @return serialized clauses, with the cached serialization cleared beforehand */
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    this.entry.setClausesSerialized(null);
+    return this.entry.getClausesSerialized();
+  }
+
+  /** @return deserialized clauses */
+  @Benchmark
+  public List<Clause> deserialize() throws IOException, ClassNotFoundException {
+    return QueryCacheEntry.deserializeClauses(this.serialized);
+  }
+}
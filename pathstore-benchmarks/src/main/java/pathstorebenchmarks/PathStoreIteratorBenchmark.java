@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import com.datastax.driver.core.ArrayBackedRow;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.SyntheticRows;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pathstore.client.PathStoreIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log compression done by {@link PathStoreIterator} over a synthetic result set. Every key has
+ * {@link #versions} rows ordered newest first, all but the oldest version are partial updates that
+ * only write one value column, so the iterator merges every version of every key.
+ *
+ * <p>The iterator mutates the rows it returns, so each invocation iterates over copies of the
+ * generated rows. {@link #copyOnly(Blackhole)} measures the copying alone and can be subtracted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathStoreIteratorBenchmark {
+
+  /** Amount of distinct primary keys */
+  @Param({"100", "1000"})
+  public int keys;
+
+  /** Amount of versions per key */
+  @Param({"1", "4"})
+  public int versions;
+
+  /** Generated rows in the order cassandra would return them */
+  private List<ArrayBackedRow> rows;
+
+  /** Build the schema and the rows */
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkFixtures.installSchema(1);
+
+    String table = BenchmarkFixtures.tableName(0);
+    ColumnDefinitions definitions = BenchmarkFixtures.columnDefinitions(table);
+
+    this.rows = new ArrayList<>(this.keys * this.versions);
+    for (int key = 0; key < this.keys; key++) {
+      List<ArrayBackedRow> keyRows = new ArrayList<>(this.versions);
+      for (int version = 0; version < this.versions; version++) {
+        boolean[] written = new boolean[BenchmarkFixtures.VALUE_COLUMNS];
+        if (version == 0) Arrays.fill(written, true);
+        else written[version % written.length] = true;
+
+        UUID timestamp = BenchmarkFixtures.timeUUID();
+        keyRows.add(0, BenchmarkFixtures.row(definitions, key, timestamp, written));
+      }
+      this.rows.addAll(keyRows);
+    }
+  }
+
+  /** @return iterator over copies of the generated rows, returning null once exhausted */
+  private Iterator<Row> copies() {
+    Iterator<ArrayBackedRow> source = this.rows.iterator();
+    return new Iterator<Row>() {
+      @Override
+      public boolean hasNext() {
+        return source.hasNext();
+      }
+
+      // the pathstore iterator expects null instead of an exception on exhaustion, as the
+      // driver's result set iterator does
+      @Override
+      public Row next() {
+        return source.hasNext() ? SyntheticRows.copy(source.next()) : null;
+      }
+    };
+  }
+
+  /** @param blackhole consumes merged rows */
+  @Benchmark
+  public void iterate(final Blackhole blackhole) {
+    PathStoreIterator iterator =
+        new PathStoreIterator(
+            null,
+            this.copies(),
+            BenchmarkFixtures.KEYSPACE,
+            BenchmarkFixtures.tableName(0),
+            false,
+            null);
+
+    while (iterator.hasNext()) blackhole.consume(iterator.next());
+  }
+
+  /** @param blackhole consumes copied rows */
+  @Benchmark
+  public void copyOnly(final Blackhole blackhole) {
+    Iterator<Row> copies = this.copies();
+    while (copies.hasNext()) blackhole.consume(copies.next());
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.Insert;
+import org.openjdk.jmh.annotations.*;
+import pathstore.system.PathStorePushServer;
+import pathstore.util.SchemaInfo;
+import pathstore.util.TableDescriptor;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement construction done by the push server for every dirty row. The rendered string is used
+ * to size batches, so both the builder and its rendering are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PushInsertBenchmark {
+
+  /** Dirty row to push */
+  private Row row;
+
+  /** Table of the row */
+  private String table;
+
+  /** Descriptor of the table */
+  private TableDescriptor descriptor;
+
+  /** Build the schema and the row */
+  @Setup(Level.Trial)
+  public void setup() {
+    SchemaInfo schemaInfo = BenchmarkFixtures.installSchema(1);
+
+    this.table = BenchmarkFixtures.tableName(0);
+    this.descriptor = schemaInfo.getTableDescriptor(BenchmarkFixtures.KEYSPACE, this.table);
+
+    boolean[] written = new boolean[BenchmarkFixtures.VALUE_COLUMNS];
+    Arrays.fill(written, true);
+
+    this.row =
+        BenchmarkFixtures.row(
+            BenchmarkFixtures.columnDefinitions(this.table),
+            0,
+            BenchmarkFixtures.timeUUID(),
+            written);
+  }
+
+  /** @return insert statement */
+  @Benchmark
+  public Insert createInsert() {
+    return PathStorePushServer.createInsert(this.row, this.descriptor, BenchmarkFixtures.NODE_ID);
+  }
+
+  /** @return rendered insert statement */
+  @Benchmark
+  public String createInsertString() {
+    return this.createInsert().toString();
+  }
+}
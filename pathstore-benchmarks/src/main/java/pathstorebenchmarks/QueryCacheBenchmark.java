@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import org.openjdk.jmh.annotations.*;
+import pathstore.common.QueryCache;
+import pathstore.common.QueryCacheEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup and insertion cost of {@link QueryCache} for a single table holding a varying amount of
+ * entries. Both paths scan the entry list of the table, insertion also computes coverage against
+ * every existing entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryCacheBenchmark {
+
+  /** Table all entries are added to */
+  private static final String TABLE = "query_cache_benchmark";
+
+  /** Amount of entries in the table before measuring */
+  @Param({"10", "100", "1000"})
+  public int entries;
+
+  /** Keyspace of all entries */
+  private String keyspace;
+
+  /** Cache under test */
+  private QueryCache queryCache;
+
+  /** Clauses of every present entry */
+  private List<List<Clause>> present;
+
+  /** Clauses that are never present in the cache */
+  private List<Clause> absent;
+
+  /** Position of the next present entry to look up */
+  private int cursor = 0;
+
+  /**
+   * @param id value of the clause
+   * @return single equality clause on the key column
+   */
+  private static List<Clause> clauses(final int id) {
+    List<Clause> clauses = new ArrayList<>(1);
+    clauses.add(QueryBuilder.eq(BenchmarkFixtures.KEY_COLUMN, id));
+    return clauses;
+  }
+
+  /** Fill the cache */
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkFixtures.installRootProperties();
+
+    this.keyspace = BenchmarkFixtures.queryCacheKeyspace();
+    this.queryCache = QueryCache.getInstance();
+    this.queryCache.remove(this.keyspace);
+
+    this.present = new ArrayList<>(this.entries);
+    for (int i = 0; i < this.entries; i++) {
+      List<Clause> clauses = clauses(i);
+      this.queryCache.updateCache(this.keyspace, TABLE, clauses, -1);
+      this.present.add(clauses);
+    }
+
+    this.absent = clauses(-1);
+  }
+
+  /** @return entry found for a present clause set, cycling through all entries */
+  @Benchmark
+  public QueryCacheEntry getEntryHit() {
+    List<Clause> clauses = this.present.get(this.cursor);
+    this.cursor = (this.cursor + 1) % this.entries;
+    return this.queryCache.getEntry(this.keyspace, TABLE, clauses, -1);
+  }
+
+  /** @return null, as the full entry list is scanned without a match */
+  @Benchmark
+  public QueryCacheEntry getEntryMiss() {
+    return this.queryCache.getEntry(this.keyspace, TABLE, this.absent, -1);
+  }
+
+  /**
+   * Adds a new entry through the miss path of update cache and removes it again so the cache size
+   * stays constant
+   *
+   * @return added entry
+   */
+  @Benchmark
+  public QueryCacheEntry addEntry() {
+    QueryCacheEntry entry = this.queryCache.updateCache(this.keyspace, TABLE, this.absent, -1);
+    this.queryCache.remove(entry);
+    return entry;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pathstore.util.SchemaInfo;
+import pathstore.util.TableDescriptor;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema lookups done per row by the iterator, the push server and the query cache. Each lookup
+ * cycles through all tables of the benchmark keyspace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaInfoBenchmark {
+
+  /** Amount of tables in the benchmark keyspace */
+  @Param({"1", "16", "128"})
+  public int tables;
+
+  /** Schema under test */
+  private SchemaInfo schemaInfo;
+
+  /** Table names to look up */
+  private String[] tableNames;
+
+  /** Position of the next table to look up */
+  private int cursor = 0;
+
+  /** Build the schema */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.schemaInfo = BenchmarkFixtures.installSchema(this.tables);
+
+    this.tableNames = new String[this.tables];
+    for (int i = 0; i < this.tables; i++) this.tableNames[i] = BenchmarkFixtures.tableName(i);
+  }
+
+  /** @return next table name to look up */
+  private String nextTable() {
+    String table = this.tableNames[this.cursor];
+    this.cursor = (this.cursor + 1) % this.tables;
+    return table;
+  }
+
+  /** @return table object */
+  @Benchmark
+  public SchemaInfo.Table getTable() {
+    return this.schemaInfo.getTableFromKeyspaceAndTableName(
+        BenchmarkFixtures.KEYSPACE, this.nextTable());
+  }
+
+  /** @return columns of the table */
+  @Benchmark
+  public Collection<SchemaInfo.Column> getTableColumns() {
+    return this.schemaInfo.getTableColumns(BenchmarkFixtures.KEYSPACE, this.nextTable());
+  }
+
+  /** @return primary key column names of the table */
+  @Benchmark
+  public Collection<String> getPrimaryColumnNames() {
+    return this.schemaInfo.getPrimaryColumnNames(BenchmarkFixtures.KEYSPACE, this.nextTable());
+  }
+
+  /** @return descriptor of the table */
+  @Benchmark
+  public TableDescriptor getTableDescriptor() {
+    return this.schemaInfo.getTableDescriptor(BenchmarkFixtures.KEYSPACE, this.nextTable());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.deployment;
+
+import pathstore.common.PathStoreProperties;
+import pathstore.common.Role;
+import pathstore.system.deployment.commands.CommandError;
+import pathstore.system.deployment.commands.ConcurrentCommands;
+import pathstore.system.deployment.commands.Exec;
+import pathstore.system.deployment.commands.FileTransfer;
+import pathstore.system.deployment.commands.ICommand;
+import pathstore.system.deployment.utilities.DeploymentExecutor;
+import pathstore.system.deployment.utilities.SSHUtil;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static pathstore.common.Constants.PROPERTIES_CONSTANTS.*;
+
+/**
+ * Exercises the deployment command pipeline against an ssh server, by default sshd on the local
+ * host. No docker or cassandra is needed. Reports:
+ *
+ * <p>(1): Latency of a trivial remote command
+ *
+ * <p>(2): A file transfer followed by the same transfer again, which is skipped by its digest
+ *
+ * <p>(3): The same set of slow remote commands run in order and as concurrent command groups
+ *
+ * <p>Run with {@code java -cp pathstore-benchmarks/target/benchmarks.jar
+ * pathstorebenchmarks.deployment.SshDeploymentHarness [host] [port] [username]}. Authenticates with
+ * the password in the {@code PATHSTORE_SSH_PASSWORD} environment variable if set, else with the
+ * private key given by {@code -Didentity=} (default {@code ~/.ssh/id_rsa}). Everything is written
+ * to {@code pathstore-ssh-harness} in the remote user's home directory and removed afterwards.
+ */
+public class SshDeploymentHarness {
+
+  /** Remote working directory, relative to the home directory */
+  private static final String REMOTE_DIRECTORY = "pathstore-ssh-harness";
+
+  /** Size of the transferred file */
+  private static final int FILE_SIZE = 8 * 1024 * 1024;
+
+  /** Amount of slow commands */
+  private static final int GROUPS = 4;
+
+  /** Duration of a slow command in seconds */
+  private static final int SLEEP_SECONDS = 1;
+
+  public static void main(final String[] args) throws Exception {
+    String host = args.length > 0 ? args[0] : "localhost";
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : 22;
+    String username = args.length > 2 ? args[2] : System.getProperty("user.name");
+
+    PathStoreProperties.setInstance(new PathStoreProperties(properties()));
+
+    SSHUtil ssh = connect(host, port, username);
+
+    File local = File.createTempFile("pathstore-ssh-harness", ".bin");
+    local.deleteOnExit();
+
+    try {
+      run(new Exec(ssh, "mkdir -p " + REMOTE_DIRECTORY, 0));
+
+      // (1)
+      int execs = 10;
+      long start = System.nanoTime();
+      for (int i = 0; i < execs; i++) run(new Exec(ssh, "true", 0));
+      report("exec round trip", (System.nanoTime() - start) / execs);
+
+      // (2)
+      byte[] content = new byte[FILE_SIZE];
+      new Random(0).nextBytes(content);
+      try (FileOutputStream out = new FileOutputStream(local)) {
+        out.write(content);
+      }
+
+      FileTransfer transfer =
+          new FileTransfer(ssh, local.getAbsolutePath(), REMOTE_DIRECTORY + "/file.bin");
+
+      start = System.nanoTime();
+      run(transfer);
+      report("first transfer", System.nanoTime() - start);
+
+      start = System.nanoTime();
+      run(transfer);
+      report("repeated transfer", System.nanoTime() - start);
+
+      // (3)
+      List<List<ICommand>> groups = new ArrayList<>(GROUPS);
+      List<ICommand> sequential = new ArrayList<>(GROUPS);
+      for (int i = 0; i < GROUPS; i++) {
+        ICommand sleep = new Exec(ssh, "sleep " + SLEEP_SECONDS, 0);
+        groups.add(Collections.singletonList(sleep));
+        sequential.add(sleep);
+      }
+
+      start = System.nanoTime();
+      DeploymentExecutor.execute(sequential, command -> {});
+      report(
+          String.format("%d x sleep %d in order", GROUPS, SLEEP_SECONDS),
+          System.nanoTime() - start);
+
+      start = System.nanoTime();
+      run(new ConcurrentCommands(groups));
+      report(
+          String.format("%d x sleep %d concurrently", GROUPS, SLEEP_SECONDS),
+          System.nanoTime() - start);
+    } finally {
+      run(new Exec(ssh, "rm -rf " + REMOTE_DIRECTORY, -1));
+      ssh.disconnect();
+    }
+
+    System.out.println();
+    System.out.println(MetricsRegistry.getInstance().scrape());
+
+    System.exit(0);
+  }
+
+  /**
+   * @param host ssh host
+   * @param port ssh port
+   * @param username user to log in as
+   * @return connection authenticated by password or private key
+   */
+  private static SSHUtil connect(final String host, final int port, final String username)
+      throws Exception {
+    String password = System.getenv("PATHSTORE_SSH_PASSWORD");
+
+    if (password != null) return new SSHUtil(host, username, password, port);
+
+    String identity =
+        System.getProperty(
+            "identity", Paths.get(System.getProperty("user.home"), ".ssh", "id_rsa").toString());
+
+    return new SSHUtil(host, username, port, Files.readAllBytes(Paths.get(identity)), null);
+  }
+
+  /**
+   * @param command command to execute
+   * @throws CommandError if the command fails
+   */
+  private static void run(final ICommand command) throws CommandError {
+    DeploymentExecutor.execute(Collections.singletonList(command), c -> {});
+  }
+
+  /**
+   * @param name measurement
+   * @param nanos duration
+   */
+  private static void report(final String name, final long nanos) {
+    System.out.println(String.format("%-32s %8d ms", name, TimeUnit.NANOSECONDS.toMillis(nanos)));
+  }
+
+  /** @return minimal client properties so the loggers of the commands can be used */
+  private static Properties properties() {
+    Properties properties = new Properties();
+    properties.put(ROLE, Role.CLIENT.toString());
+    properties.put(GRPC_IP, "127.0.0.1");
+    properties.put(GRPC_PORT, "1");
+    properties.put(PRINT_LOGS, String.valueOf(false));
+    return properties;
+  }
+}
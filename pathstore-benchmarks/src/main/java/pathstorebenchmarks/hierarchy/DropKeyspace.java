@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import lombok.RequiredArgsConstructor;
+import pathstore.authentication.credentials.DeploymentCredential;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.deployment.commands.ICommand;
+
+/** This command is used to remove a keyspace left over from a previous run of the harness */
+@RequiredArgsConstructor
+public class DropKeyspace implements ICommand {
+  /** Cassandra credentials to connect with */
+  private final DeploymentCredential cassandraCredentials;
+
+  /** Name of the keyspace to drop */
+  private final String keyspaceName;
+
+  /** Connect to the node's cassandra, drop the keyspace if it exists and close the cluster */
+  @Override
+  public void execute() {
+    PathStorePrivilegedCluster cluster =
+        PathStorePrivilegedCluster.getChildInstance(this.cassandraCredentials);
+
+    cluster.rawConnect().execute(String.format("DROP KEYSPACE IF EXISTS %s", this.keyspaceName));
+
+    cluster.close();
+  }
+
+  /** @return inform the user which keyspace is being dropped */
+  @Override
+  public String toString() {
+    return "Dropping keyspace " + this.keyspaceName;
+  }
+}
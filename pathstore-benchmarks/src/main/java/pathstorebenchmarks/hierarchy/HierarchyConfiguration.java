@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Configuration of the local hierarchy and the workload driven through it. Every value has a
+ * default so the harness can run without a configuration file, any value can be overridden by a
+ * properties file passed as the first argument to {@link LocalHierarchyHarness}.
+ *
+ * <p>Each node needs its own cassandra process listening on its own native transport port. The
+ * harness connects with the default cassandra super user account, drops any previous pathstore
+ * state and bootstraps each node the same way a deployment would.
+ */
+public final class HierarchyConfiguration {
+
+  /** Address all cassandra processes and grpc servers are bound to */
+  public final String host;
+
+  /** Cassandra native transport port of the root, intermediate and edge node respectively */
+  public final int[] cassandraPorts;
+
+  /** Grpc port of the root, intermediate and edge node respectively */
+  public final int[] grpcPorts;
+
+  /** Metrics port of the root, intermediate and edge node respectively, -1 to disable */
+  public final int[] metricsPorts;
+
+  /** Push sleep of the intermediate and edge node in ms */
+  public final int pushSleep;
+
+  /** Pull sleep of the intermediate and edge node in ms */
+  public final int pullSleep;
+
+  /** Directory where properties files and server output are written to */
+  public final String workingDirectory;
+
+  /** Seconds to run the workload for before measuring */
+  public final int warmupSeconds;
+
+  /** Seconds to measure the workload for */
+  public final int durationSeconds;
+
+  /** Amount of client threads issuing operations */
+  public final int threads;
+
+  /** Amount of distinct keys operations are spread over */
+  public final int keys;
+
+  /** Fraction of operations that are reads, the remainder are writes */
+  public final double readRatio;
+
+  /** Length of each written value */
+  public final int valueSize;
+
+  /** Ms to wait between lag probes */
+  public final int probeInterval;
+
+  /** Seconds to wait for a probe to replicate before counting it as timed out */
+  public final int probeTimeout;
+
+  /** @param properties properties to read, missing keys use their default */
+  public HierarchyConfiguration(final Properties properties) {
+    this.host = properties.getProperty("host", "127.0.0.1");
+    this.cassandraPorts = ports(properties, "cassandraPorts", "9052,9053,9054");
+    this.grpcPorts = ports(properties, "grpcPorts", "1099,1100,1101");
+    this.metricsPorts = ports(properties, "metricsPorts", "-1,-1,-1");
+    this.pushSleep = integer(properties, "pushSleep", 1000);
+    this.pullSleep = integer(properties, "pullSleep", 1000);
+    this.workingDirectory = properties.getProperty("workingDirectory", "hierarchy");
+    this.warmupSeconds = integer(properties, "warmupSeconds", 10);
+    this.durationSeconds = integer(properties, "durationSeconds", 60);
+    this.threads = integer(properties, "threads", 4);
+    this.keys = integer(properties, "keys", 1000);
+    this.readRatio = Double.parseDouble(properties.getProperty("readRatio", "0.5"));
+    this.valueSize = integer(properties, "valueSize", 64);
+    this.probeInterval = integer(properties, "probeInterval", 250);
+    this.probeTimeout = integer(properties, "probeTimeout", 30);
+  }
+
+  /**
+   * @param file properties file to read, null for all defaults
+   * @return configuration
+   * @throws IOException if the file can't be read
+   */
+  public static HierarchyConfiguration load(final String file) throws IOException {
+    Properties properties = new Properties();
+
+    if (file != null)
+      try (FileInputStream in = new FileInputStream(file)) {
+        properties.load(in);
+      }
+
+    return new HierarchyConfiguration(properties);
+  }
+
+  /**
+   * @param properties properties to read from
+   * @param key key to read
+   * @param defaultValue default if the key is not present
+   * @return parsed integer
+   */
+  private static int integer(
+      final Properties properties, final String key, final int defaultValue) {
+    return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+  }
+
+  /**
+   * @param properties properties to read from
+   * @param key key to read
+   * @param defaultValue default if the key is not present
+   * @return one port per node ordered root, intermediate, edge
+   */
+  private static int[] ports(
+      final Properties properties, final String key, final String defaultValue) {
+    String[] split = properties.getProperty(key, defaultValue).split(",");
+
+    if (split.length != LocalHierarchy.DEPTH)
+      throw new IllegalArgumentException(
+          String.format("%s must contain %d comma separated ports", key, LocalHierarchy.DEPTH));
+
+    int[] ports = new int[split.length];
+    for (int i = 0; i < split.length; i++) ports[i] = Integer.parseInt(split[i].trim());
+    return ports;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "threads=%d keys=%d readRatio=%.2f valueSize=%d warmup=%ds duration=%ds pushSleep=%dms pullSleep=%dms",
+        this.threads,
+        this.keys,
+        this.readRatio,
+        this.valueSize,
+        this.warmupSeconds,
+        this.durationSeconds,
+        this.pushSleep,
+        this.pullSleep);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import pathstore.system.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Results of a single workload run through the local hierarchy */
+public final class HierarchyReport {
+
+  /** Latency of client reads at the edge */
+  public final LatencyHistogram reads = new LatencyHistogram();
+
+  /** Latency of client writes at the edge */
+  public final LatencyHistogram writes = new LatencyHistogram();
+
+  /** Time from a client write at the edge until it is visible in the root's cassandra */
+  public final LatencyHistogram pushLag = new LatencyHistogram();
+
+  /** Time from a write at the root until it is visible in the edge's cassandra */
+  public final LatencyHistogram pullLag = new LatencyHistogram();
+
+  /** Client operations that threw */
+  public final AtomicLong errors = new AtomicLong();
+
+  /** Push probes that did not reach the root in time */
+  public final AtomicLong pushTimeouts = new AtomicLong();
+
+  /** Pull probes that did not reach the edge in time */
+  public final AtomicLong pullTimeouts = new AtomicLong();
+
+  /** Length of the measurement in ns, set once the run is complete */
+  private volatile long elapsedNanos;
+
+  /** @param elapsedNanos {@link #elapsedNanos} */
+  void setElapsedNanos(final long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /** @return client operations per second over the measurement */
+  public double throughput() {
+    long operations = this.reads.getCount() + this.writes.getCount();
+    return operations / (this.elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+  }
+
+  /** @param out stream to print the report to */
+  public void print(final PrintStream out) {
+    out.println(
+        String.format(
+            "throughput: %.1f ops/s over %.1f s (%d errors)",
+            this.throughput(),
+            this.elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1),
+            this.errors.get()));
+    out.println(line("client read", this.reads, 0));
+    out.println(line("client write", this.writes, 0));
+    out.println(line("push lag edge -> root", this.pushLag, this.pushTimeouts.get()));
+    out.println(line("pull lag root -> edge", this.pullLag, this.pullTimeouts.get()));
+  }
+
+  /**
+   * @param name name of the histogram
+   * @param histogram histogram to format
+   * @param timeouts amount of timed out samples
+   * @return count, p50, p99 and max in ms
+   */
+  private static String line(
+      final String name, final LatencyHistogram histogram, final long timeouts) {
+    long[] quantiles = histogram.quantiles(0.5, 0.99);
+
+    return String.format(
+        "%-22s count=%d p50=%.3fms p99=%.3fms max=%.3fms timeouts=%d",
+        name,
+        histogram.getCount(),
+        millis(quantiles[0]),
+        millis(quantiles[1]),
+        millis(histogram.getMaxNanos()),
+        timeouts);
+  }
+
+  /**
+   * @param nanos nanoseconds
+   * @return milliseconds
+   */
+  private static double millis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
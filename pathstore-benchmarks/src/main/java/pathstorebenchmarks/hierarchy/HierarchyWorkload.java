@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import pathstore.client.PathStoreSession;
+import pathstore.system.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read / write workload issued by clients of the edge node, with two probes measuring replication
+ * lag while the workload runs.
+ *
+ * <p>The push probe writes a unique key through the client and polls the root's cassandra until it
+ * is visible. The pull probe writes a unique key at the root and polls the edge's cassandra. Pulled
+ * data only reaches the edge for queries it has cached, so a select over the whole table is issued
+ * through the client before the run starts.
+ */
+public final class HierarchyWorkload {
+
+  /** Ms to wait between polls of a lag probe */
+  private static final long POLL_INTERVAL = 1;
+
+  /** Configuration */
+  private final HierarchyConfiguration configuration;
+
+  /** Client session connected to the edge */
+  private final PathStoreSession client;
+
+  /** Pathstore session to the root, used to write pull probes */
+  private final PathStoreSession rootWriter;
+
+  /** Raw session to the root, used to detect push probes */
+  private final Session root;
+
+  /** Raw session to the edge, used to detect pull probes */
+  private final Session edge;
+
+  /** Value written by every client write */
+  private final String value;
+
+  /** Sum of rows read, kept so reads are not optimized away */
+  private final AtomicLong rowsRead = new AtomicLong();
+
+  /**
+   * @param configuration {@link #configuration}
+   * @param client {@link #client}
+   * @param hierarchy hierarchy to connect to the root and the edge of
+   */
+  public HierarchyWorkload(
+      final HierarchyConfiguration configuration,
+      final PathStoreSession client,
+      final LocalHierarchy hierarchy) {
+    this.configuration = configuration;
+    this.client = client;
+    this.rootWriter = hierarchy.rootPathStoreSession();
+    this.root = hierarchy.rootSession();
+    this.edge = hierarchy.edgeSession();
+
+    char[] value = new char[configuration.valueSize];
+    Arrays.fill(value, 'v');
+    this.value = new String(value);
+  }
+
+  /**
+   * Runs the warmup and the measurement
+   *
+   * @return report of the measurement
+   * @throws InterruptedException if interrupted while waiting for the run to complete
+   */
+  public HierarchyReport run() throws InterruptedException {
+    HierarchyReport report = new HierarchyReport();
+
+    // register a query covering the whole table so the edge pulls probes written at the root
+    for (Row ignored : this.client.execute(this.select())) this.rowsRead.incrementAndGet();
+
+    long now = System.nanoTime();
+    long measureStart = now + TimeUnit.SECONDS.toNanos(this.configuration.warmupSeconds);
+    long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(this.configuration.durationSeconds);
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.configuration.threads + 2);
+
+    for (int i = 0; i < this.configuration.threads; i++)
+      executor.execute(() -> this.client(report, measureStart, measureEnd));
+
+    executor.execute(
+        () ->
+            this.probe(
+                measureStart,
+                measureEnd,
+                report.pushLag,
+                report.pushTimeouts,
+                "push",
+                this.client,
+                this.root));
+
+    executor.execute(
+        () ->
+            this.probe(
+                measureStart,
+                measureEnd,
+                report.pullLag,
+                report.pullTimeouts,
+                "pull",
+                this.rootWriter,
+                this.edge));
+
+    executor.shutdown();
+
+    long timeout =
+        this.configuration.warmupSeconds
+            + this.configuration.durationSeconds
+            + this.configuration.probeTimeout * 2L;
+
+    if (!executor.awaitTermination(timeout, TimeUnit.SECONDS)) executor.shutdownNow();
+
+    report.setElapsedNanos(measureEnd - measureStart);
+
+    return report;
+  }
+
+  /**
+   * Issues reads and writes of random keys until the end of the measurement. Operations are only
+   * recorded after the warmup.
+   *
+   * @param report report to record to
+   * @param measureStart start of the measurement
+   * @param measureEnd end of the measurement
+   */
+  private void client(
+      final HierarchyReport report, final long measureStart, final long measureEnd) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    long start;
+    while ((start = System.nanoTime()) < measureEnd) {
+      String key = String.valueOf(random.nextInt(this.configuration.keys));
+      boolean read = random.nextDouble() < this.configuration.readRatio;
+
+      try {
+        if (read) {
+          Select select = this.select();
+          select.where(QueryBuilder.eq(LocalHierarchy.KEY, key));
+
+          long rows = 0;
+          for (Row ignored : this.client.execute(select)) rows++;
+          this.rowsRead.addAndGet(rows);
+        } else this.client.execute(this.insert(key));
+      } catch (RuntimeException e) {
+        if (start >= measureStart) report.errors.incrementAndGet();
+        continue;
+      }
+
+      if (start >= measureStart) (read ? report.reads : report.writes).recordSince(start);
+    }
+  }
+
+  /**
+   * Writes a unique key through the writer and polls the observer until the key is visible, once
+   * per probe interval for the duration of the measurement
+   *
+   * @param measureStart start of the measurement
+   * @param measureEnd end of the measurement
+   * @param lag histogram to record the lag to
+   * @param timeouts counter of probes that were not observed in time
+   * @param prefix key prefix of the probe
+   * @param writer session to write the probe with
+   * @param observer session to poll for the probe
+   */
+  private void probe(
+      final long measureStart,
+      final long measureEnd,
+      final LatencyHistogram lag,
+      final AtomicLong timeouts,
+      final String prefix,
+      final PathStoreSession writer,
+      final Session observer) {
+    PreparedStatement lookup =
+        observer.prepare(
+            String.format(
+                "SELECT %s FROM %s.%s WHERE %s = ? LIMIT 1",
+                LocalHierarchy.KEY,
+                LocalHierarchy.KEYSPACE,
+                LocalHierarchy.TABLE,
+                LocalHierarchy.KEY));
+
+    long timeout = TimeUnit.SECONDS.toNanos(this.configuration.probeTimeout);
+
+    try {
+      TimeUnit.NANOSECONDS.sleep(measureStart - System.nanoTime());
+
+      while (System.nanoTime() < measureEnd) {
+        String key = String.format("%s-%s", prefix, UUID.randomUUID());
+
+        long start = System.nanoTime();
+        writer.execute(this.insert(key));
+
+        while (observer.execute(lookup.bind(key)).one() == null) {
+          if (System.nanoTime() - start > timeout) break;
+          Thread.sleep(POLL_INTERVAL);
+        }
+
+        if (System.nanoTime() - start > timeout) timeouts.incrementAndGet();
+        else lag.recordSince(start);
+
+        Thread.sleep(this.configuration.probeInterval);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      System.err.println(String.format("The %s probe failed", prefix));
+      e.printStackTrace();
+    }
+  }
+
+  /** @return select over the whole benchmark table */
+  private Select select() {
+    return QueryBuilder.select().all().from(LocalHierarchy.KEYSPACE, LocalHierarchy.TABLE);
+  }
+
+  /**
+   * @param key key to write
+   * @return insert of the value under the key
+   */
+  private Insert insert(final String key) {
+    return QueryBuilder.insertInto(LocalHierarchy.KEYSPACE, LocalHierarchy.TABLE)
+        .value(LocalHierarchy.KEY, key)
+        .value(LocalHierarchy.VALUE, this.value);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import pathstore.authentication.credentials.DeploymentCredential;
+import pathstore.system.deployment.commands.WaitForCassandra;
+import pathstore.system.deployment.commands.WaitForPathStore;
+import pathstore.system.deployment.utilities.DeploymentBuilder;
+
+/**
+ * Deployment functions for nodes that run on the local host. None of the commands use ssh, every
+ * step connects to the node's cassandra process directly.
+ *
+ * @see DeploymentBuilder
+ */
+public class LocalDeploymentBuilder extends DeploymentBuilder<LocalDeploymentBuilder> {
+
+  /** No remote host connection is needed */
+  public LocalDeploymentBuilder() {
+    super(null);
+  }
+
+  /**
+   * @param cassandraCredentials credentials to connect with
+   * @return this
+   */
+  public LocalDeploymentBuilder waitForCassandra(final DeploymentCredential cassandraCredentials) {
+    this.commands.add(new WaitForCassandra(cassandraCredentials));
+    return this;
+  }
+
+  /**
+   * @param cassandraCredentials credentials to connect with
+   * @return this
+   */
+  public LocalDeploymentBuilder waitForPathStore(final DeploymentCredential cassandraCredentials) {
+    this.commands.add(new WaitForPathStore(cassandraCredentials));
+    return this;
+  }
+
+  /**
+   * Drop a keyspace left over from a previous run
+   *
+   * @param cassandraCredentials credentials to connect with
+   * @param keyspace keyspace to drop
+   * @return this
+   */
+  public LocalDeploymentBuilder dropKeyspace(
+      final DeploymentCredential cassandraCredentials, final String keyspace) {
+    this.commands.add(new DropKeyspace(cassandraCredentials, keyspace));
+    return this;
+  }
+}
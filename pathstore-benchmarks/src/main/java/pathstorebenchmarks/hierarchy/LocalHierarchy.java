@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import pathstore.authentication.CassandraAuthenticationUtil;
+import pathstore.authentication.credentials.AuxiliaryCredential;
+import pathstore.client.PathStoreSession;
+import pathstore.common.Constants;
+import pathstore.common.tables.DeploymentProcessStatus;
+import pathstore.common.tables.NodeSchemaProcessStatus;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.deployment.commands.CommandError;
+import pathstore.system.deployment.commands.ICommand;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Root, intermediate and edge node running on the local host. Starting the hierarchy bootstraps
+ * every node's cassandra, installs the benchmark application on all nodes through the schema state
+ * machine and starts a server process per node.
+ *
+ * <p>The benchmark application is a single key value table {@link #TABLE} in {@link #KEYSPACE}.
+ */
+public final class LocalHierarchy implements AutoCloseable {
+
+  /** Amount of nodes from root to edge */
+  public static final int DEPTH = 3;
+
+  /** Benchmark application keyspace */
+  public static final String KEYSPACE = "pathstore_hierarchy";
+
+  /** Benchmark table */
+  public static final String TABLE = "kv";
+
+  /** Partition key of {@link #TABLE} */
+  public static final String KEY = "key";
+
+  /** Value column of {@link #TABLE} */
+  public static final String VALUE = "value";
+
+  /** Augmented schema of the benchmark application, as the admin panel would generate it */
+  private static final String AUGMENTED_SCHEMA =
+      "CREATE KEYSPACE pathstore_hierarchy WITH REPLICATION = { 'class' : 'org.apache.cassandra.locator.SimpleStrategy', 'replication_factor': '1' } AND DURABLE_WRITES = false;\n"
+          + "CREATE TABLE pathstore_hierarchy.kv (\n"
+          + "    key text,\n"
+          + "    value text,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    PRIMARY KEY (key, pathstore_version)\n"
+          + ") WITH CLUSTERING ORDER BY (pathstore_version DESC);\n"
+          + "CREATE INDEX ON pathstore_hierarchy.kv (pathstore_dirty);\n"
+          + "CREATE INDEX ON pathstore_hierarchy.kv (pathstore_deleted);\n"
+          + "CREATE INDEX ON pathstore_hierarchy.kv (pathstore_parent_timestamp);\n"
+          + "CREATE INDEX ON pathstore_hierarchy.kv (pathstore_node);\n"
+          + "CREATE TABLE pathstore_hierarchy.view_kv (\n"
+          + "    pathstore_view_id uuid,\n"
+          + "    key text,\n"
+          + "    value text,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    PRIMARY KEY (pathstore_view_id, key, pathstore_version)\n"
+          + ");\n";
+
+  /** Client lease time of the benchmark application in ms */
+  private static final int CLIENT_LEASE_TIME = 30000;
+
+  /** Additional server lease time of the benchmark application in ms */
+  private static final int SERVER_ADDITIONAL_TIME = 30000;
+
+  /** Seconds to wait for the application to be installed on all nodes */
+  private static final int INSTALL_TIMEOUT = 300;
+
+  /** Configuration */
+  private final HierarchyConfiguration configuration;
+
+  /** Nodes ordered from root to edge */
+  private final List<LocalNode> nodes;
+
+  /** Super user clusters opened by the harness */
+  private final Set<PathStorePrivilegedCluster> clusters = new HashSet<>();
+
+  /** Master password of the benchmark application */
+  private final String masterPassword = CassandraAuthenticationUtil.generateAlphaNumericPassword();
+
+  /** @param configuration {@link #configuration} */
+  public LocalHierarchy(final HierarchyConfiguration configuration) {
+    this.configuration = configuration;
+
+    String[] names = {"root", "intermediate", "edge"};
+
+    this.nodes = new ArrayList<>(DEPTH);
+    LocalNode parent = null;
+    for (int i = 0; i < DEPTH; i++) {
+      LocalNode node =
+          new LocalNode(
+              i + 1,
+              parent,
+              names[i],
+              configuration.host,
+              configuration.grpcPorts[i],
+              configuration.cassandraPorts[i],
+              configuration.metricsPorts[i]);
+      this.nodes.add(node);
+      parent = node;
+    }
+  }
+
+  /** @return root node */
+  public LocalNode getRoot() {
+    return this.nodes.get(0);
+  }
+
+  /** @return edge node, clients connect to this node */
+  public LocalNode getEdge() {
+    return this.nodes.get(DEPTH - 1);
+  }
+
+  /** @return master password of the benchmark application */
+  public String getMasterPassword() {
+    return this.masterPassword;
+  }
+
+  /**
+   * Bootstraps all nodes, writes the benchmark application to the root, starts every server and
+   * waits for the application to be installed on all nodes
+   *
+   * @throws CommandError if a bootstrap step fails
+   * @throws IOException if a server can't be started
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void start() throws CommandError, IOException, InterruptedException {
+    AuxiliaryCredential networkWideGrpcCredential =
+        new AuxiliaryCredential(
+            Constants.AUXILIARY_ACCOUNTS.NETWORK_WIDE_GRPC_CREDENTIAL,
+            CassandraAuthenticationUtil.generateAlphaNumericPassword(),
+            CassandraAuthenticationUtil.generateAlphaNumericPassword());
+
+    for (LocalNode node : this.nodes) {
+      System.out.println("Bootstrapping " + node);
+      this.execute(node.bootstrapCommands(networkWideGrpcCredential));
+    }
+
+    this.writeApplication();
+
+    File directory = new File(this.configuration.workingDirectory);
+    if (!directory.isDirectory() && !directory.mkdirs())
+      throw new IOException("Could not create " + directory.getAbsolutePath());
+
+    for (LocalNode node : this.nodes) {
+      System.out.println("Starting " + node);
+      node.start(directory, this.configuration.pushSleep, this.configuration.pullSleep);
+      this.execute(new LocalDeploymentBuilder().waitForPathStore(node.superUserCredential).build());
+    }
+
+    this.awaitInstallation();
+  }
+
+  /**
+   * @param commands commands to execute in order
+   * @throws CommandError if any command fails
+   */
+  private void execute(final List<ICommand> commands) throws CommandError {
+    for (ICommand command : commands) {
+      System.out.println(command);
+      command.execute();
+    }
+  }
+
+  /**
+   * Writes what the root installation and the admin panel would write: deployment records for all
+   * nodes, the application's augmented schema, master password and lease time and a node schema
+   * record per node. Each node waits for its parent to install the application first.
+   */
+  private void writeApplication() {
+    PathStoreSession session = this.rootPathStoreSession();
+
+    for (LocalNode node : this.nodes) {
+      int parentId = node.parent == null ? -1 : node.parent.nodeId;
+
+      session.execute(
+          QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT)
+              .value(Constants.DEPLOYMENT_COLUMNS.NEW_NODE_ID, node.nodeId)
+              .value(Constants.DEPLOYMENT_COLUMNS.PARENT_NODE_ID, parentId)
+              .value(
+                  Constants.DEPLOYMENT_COLUMNS.PROCESS_STATUS,
+                  DeploymentProcessStatus.DEPLOYED.toString())
+              .value(
+                  Constants.DEPLOYMENT_COLUMNS.WAIT_FOR,
+                  new LinkedList<>(Collections.singleton(parentId)))
+              .value(Constants.DEPLOYMENT_COLUMNS.SERVER_UUID, UUID.randomUUID().toString()));
+
+      session.execute(
+          QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS)
+              .value(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, node.nodeId)
+              .value(Constants.NODE_SCHEMAS_COLUMNS.KEYSPACE_NAME, KEYSPACE)
+              .value(
+                  Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS,
+                  NodeSchemaProcessStatus.WAITING_INSTALL.toString())
+              .value(
+                  Constants.NODE_SCHEMAS_COLUMNS.WAIT_FOR,
+                  new LinkedList<>(Collections.singleton(parentId))));
+    }
+
+    session.execute(
+        QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.APPS)
+            .value(Constants.APPS_COLUMNS.KEYSPACE_NAME, KEYSPACE)
+            .value(Constants.APPS_COLUMNS.AUGMENTED_SCHEMA, AUGMENTED_SCHEMA));
+
+    session.execute(
+        QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.APPLICATION_CREDENTIALS)
+            .value(Constants.APPLICATION_CREDENTIALS_COLUMNS.KEYSPACE_NAME, KEYSPACE)
+            .value(Constants.APPLICATION_CREDENTIALS_COLUMNS.PASSWORD, this.masterPassword)
+            .value(Constants.APPLICATION_CREDENTIALS_COLUMNS.IS_SUPER_USER, false));
+
+    session.execute(
+        QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.APPLICATION_LEASE_TIME)
+            .value(Constants.APPLICATION_LEASE_TIME_COLUMNS.KEYSPACE_NAME, KEYSPACE)
+            .value(Constants.APPLICATION_LEASE_TIME_COLUMNS.CLIENT_LEASE_TIME, CLIENT_LEASE_TIME)
+            .value(
+                Constants.APPLICATION_LEASE_TIME_COLUMNS.SERVER_ADDITIONAL_TIME,
+                SERVER_ADDITIONAL_TIME));
+  }
+
+  /**
+   * Waits until the root has seen every node report the application as installed. Statuses of lower
+   * nodes reach the root through their push servers.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private void awaitInstallation() throws InterruptedException {
+    Session root = this.rootSession();
+
+    PreparedStatement status =
+        root.prepare(
+            String.format(
+                "SELECT %s FROM %s.%s WHERE %s = ? AND %s = ? LIMIT 1",
+                Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS,
+                Constants.PATHSTORE_APPLICATIONS,
+                Constants.NODE_SCHEMAS,
+                Constants.NODE_SCHEMAS_COLUMNS.NODE_ID,
+                Constants.NODE_SCHEMAS_COLUMNS.KEYSPACE_NAME));
+
+    long deadline = System.currentTimeMillis() + INSTALL_TIMEOUT * 1000L;
+
+    for (LocalNode node : this.nodes) {
+      System.out.println(String.format("Waiting for %s to install %s", node.name, KEYSPACE));
+
+      while (true) {
+        Row row = root.execute(status.bind(node.nodeId, KEYSPACE)).one();
+
+        if (row != null
+            && row.getString(Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS)
+                .equals(NodeSchemaProcessStatus.INSTALLED.toString())) break;
+
+        if (System.currentTimeMillis() > deadline)
+          throw new IllegalStateException(
+              String.format(
+                  "%s did not install %s within %d seconds", node.name, KEYSPACE, INSTALL_TIMEOUT));
+
+        Thread.sleep(1000);
+      }
+    }
+  }
+
+  /**
+   * @param node node to connect to
+   * @return super user cluster of the node's cassandra, closed with the hierarchy
+   */
+  private PathStorePrivilegedCluster connect(final LocalNode node) {
+    PathStorePrivilegedCluster cluster =
+        PathStorePrivilegedCluster.getChildInstance(node.superUserCredential);
+    this.clusters.add(cluster);
+    return cluster;
+  }
+
+  /** @return super user pathstore session to the root's cassandra */
+  public PathStoreSession rootPathStoreSession() {
+    return this.connect(this.getRoot()).psConnect();
+  }
+
+  /** @return super user session to the root's cassandra */
+  public Session rootSession() {
+    return this.connect(this.getRoot()).rawConnect();
+  }
+
+  /** @return super user session to the edge's cassandra */
+  public Session edgeSession() {
+    return this.connect(this.getEdge()).rawConnect();
+  }
+
+  /** Stops all servers from edge to root and closes the super user connections */
+  @Override
+  public void close() {
+    for (int i = DEPTH - 1; i >= 0; i--) this.nodes.get(i).stop();
+
+    this.clusters.forEach(PathStorePrivilegedCluster::close);
+    this.clusters.clear();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.common.PathStoreProperties;
+import pathstore.common.Role;
+
+import java.util.Properties;
+
+import static pathstore.common.Constants.PROPERTIES_CONSTANTS.*;
+
+/**
+ * Starts a root, intermediate and edge node on the local host and drives a workload through a
+ * client connected to the edge. Reports throughput, client latency and push and pull lag.
+ *
+ * <p>Requires a cassandra process per node, see {@link HierarchyConfiguration} for the ports. Run
+ * with {@code java -cp pathstore-benchmarks/target/benchmarks.jar
+ * pathstorebenchmarks.hierarchy.LocalHierarchyHarness [configuration.properties]}
+ */
+public class LocalHierarchyHarness {
+
+  public static void main(final String[] args) throws Exception {
+    HierarchyConfiguration configuration =
+        HierarchyConfiguration.load(args.length > 0 ? args[0] : null);
+
+    LocalHierarchy hierarchy = new LocalHierarchy(configuration);
+
+    // this process is a client of the edge node
+    PathStoreProperties.setInstance(
+        new PathStoreProperties(clientProperties(hierarchy.getEdge(), hierarchy)));
+
+    try {
+      hierarchy.start();
+
+      HierarchyWorkload workload =
+          new HierarchyWorkload(
+              configuration,
+              PathStoreClientAuthenticatedCluster.getInstance().connect(),
+              hierarchy);
+
+      System.out.println("Running workload: " + configuration);
+
+      HierarchyReport report = workload.run();
+
+      report.print(System.out);
+
+      PathStoreClientAuthenticatedCluster.getInstance().close();
+    } finally {
+      hierarchy.close();
+    }
+
+    System.exit(0);
+  }
+
+  /**
+   * @param edge node the client connects to
+   * @param hierarchy hierarchy the benchmark application is installed on
+   * @return client properties
+   */
+  private static Properties clientProperties(final LocalNode edge, final LocalHierarchy hierarchy) {
+    Properties properties = new Properties();
+    properties.put(ROLE, Role.CLIENT.toString());
+    properties.put(GRPC_IP, edge.host);
+    properties.put(GRPC_PORT, String.valueOf(edge.grpcPort));
+    properties.put(APPLICATION_NAME, LocalHierarchy.KEYSPACE);
+    properties.put(APPLICATION_MASTER_PASSWORD, hierarchy.getMasterPassword());
+    properties.put(PRINT_LOGS, String.valueOf(false));
+    return properties;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.hierarchy;
+
+import pathstore.authentication.CassandraAuthenticationUtil;
+import pathstore.authentication.credentials.AuxiliaryCredential;
+import pathstore.authentication.credentials.DeploymentCredential;
+import pathstore.authentication.credentials.NodeCredential;
+import pathstore.common.Constants;
+import pathstore.common.Role;
+import pathstore.system.PathStoreServerImpl;
+import pathstore.system.deployment.commands.ICommand;
+import pathstore.system.schemaFSM.PathStoreSchemaLoaderUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static pathstore.common.Constants.PROPERTIES_CONSTANTS.*;
+
+/**
+ * A single pathstore node of the local hierarchy. Each node is a separate {@link
+ * PathStoreServerImpl} process as the server relies on process wide singletons, the processes are
+ * started from the harness' class path with their own properties file.
+ */
+public final class LocalNode {
+
+  /** Node id */
+  public final int nodeId;
+
+  /** Parent node, null for the root */
+  public final LocalNode parent;
+
+  /** Name used for the properties and output files */
+  public final String name;
+
+  /** Address the node's cassandra and grpc server are bound to */
+  public final String host;
+
+  /** Grpc port */
+  public final int grpcPort;
+
+  /** Cassandra port */
+  public final int cassandraPort;
+
+  /** Metrics port, -1 if disabled */
+  public final int metricsPort;
+
+  /** Super user account of the node's cassandra, this is the default cassandra account */
+  public final DeploymentCredential superUserCredential;
+
+  /** Daemon account of the node */
+  public final NodeCredential daemonCredential;
+
+  /** Server process, null if not started */
+  private Process process;
+
+  /**
+   * @param nodeId {@link #nodeId}
+   * @param parent {@link #parent}
+   * @param name {@link #name}
+   * @param host {@link #host}
+   * @param grpcPort {@link #grpcPort}
+   * @param cassandraPort {@link #cassandraPort}
+   * @param metricsPort {@link #metricsPort}
+   */
+  public LocalNode(
+      final int nodeId,
+      final LocalNode parent,
+      final String name,
+      final String host,
+      final int grpcPort,
+      final int cassandraPort,
+      final int metricsPort) {
+    this.nodeId = nodeId;
+    this.parent = parent;
+    this.name = name;
+    this.host = host;
+    this.grpcPort = grpcPort;
+    this.cassandraPort = cassandraPort;
+    this.metricsPort = metricsPort;
+    this.superUserCredential =
+        new DeploymentCredential(
+            Constants.DEFAULT_CASSANDRA_USERNAME,
+            Constants.DEFAULT_CASSANDRA_PASSWORD,
+            host,
+            cassandraPort);
+    this.daemonCredential =
+        new NodeCredential(
+            nodeId,
+            Constants.PATHSTORE_DAEMON_USERNAME,
+            CassandraAuthenticationUtil.generateAlphaNumericPassword());
+  }
+
+  /** @return role of the node */
+  public Role getRole() {
+    return this.parent == null ? Role.ROOTSERVER : Role.SERVER;
+  }
+
+  /**
+   * Removes state from a previous run and bootstraps the node the same way a deployment would. The
+   * parent must be bootstrapped first as the node's daemon account is written to the parent.
+   *
+   * @param networkWideGrpcCredential network wide grpc credential shared by all nodes
+   * @return commands to execute in order
+   * @see pathstore.system.deployment.utilities.StartupUTIL#initDeploymentList
+   */
+  public List<ICommand> bootstrapCommands(final AuxiliaryCredential networkWideGrpcCredential) {
+    LocalDeploymentBuilder builder =
+        new LocalDeploymentBuilder()
+            .waitForCassandra(this.superUserCredential)
+            .dropKeyspace(this.superUserCredential, Constants.PATHSTORE_APPLICATIONS)
+            .dropKeyspace(this.superUserCredential, LocalHierarchy.KEYSPACE)
+            .dropRole(this.superUserCredential, Constants.PATHSTORE_DAEMON_USERNAME)
+            .loadKeyspace(
+                this.superUserCredential,
+                PathStoreSchemaLoaderUtils::loadApplicationSchema,
+                Constants.PATHSTORE_APPLICATIONS)
+            .createRole(this.superUserCredential, this.daemonCredential, false)
+            .grantReadAndWriteAccess(
+                this.superUserCredential,
+                this.daemonCredential.getUsername(),
+                Constants.PATHSTORE_APPLICATIONS)
+            .writeNodeCredentialToChildNode(this.daemonCredential, this.superUserCredential)
+            .writeAuxiliaryCredentialToChildNode(
+                networkWideGrpcCredential, this.superUserCredential);
+
+    if (this.parent != null)
+      builder
+          .writeNodeCredentialToChildNode( // parent daemon account to this node
+              this.parent.daemonCredential, this.superUserCredential)
+          .writeNodeCredentialToChildNode( // this node's daemon account to the parent
+              this.daemonCredential, this.parent.superUserCredential);
+
+    return builder.build();
+  }
+
+  /**
+   * @param pushSleep push sleep in ms
+   * @param pullSleep pull sleep in ms
+   * @return properties file contents for this node
+   */
+  public Properties toProperties(final int pushSleep, final int pullSleep) {
+    Properties properties = new Properties();
+
+    properties.put(ROLE, this.getRole().toString());
+    properties.put(NODE_ID, String.valueOf(this.nodeId));
+    properties.put(PARENT_ID, String.valueOf(this.parent == null ? -1 : this.parent.nodeId));
+    properties.put(EXTERNAL_ADDRESS, this.host);
+    properties.put(GRPC_IP, this.host);
+    properties.put(GRPC_PORT, String.valueOf(this.grpcPort));
+    properties.put(CASSANDRA_IP, this.host);
+    properties.put(CASSANDRA_PORT, String.valueOf(this.cassandraPort));
+    properties.put(USERNAME, this.superUserCredential.getUsername());
+    properties.put(PASSWORD, this.superUserCredential.getPassword());
+    properties.put(REGISTRY_IP, this.host);
+    properties.put(PATHSTORE_VERSION, "local");
+    properties.put(METRICS_PORT, String.valueOf(this.metricsPort));
+    properties.put(PRINT_LOGS, String.valueOf(true));
+
+    if (this.parent != null) {
+      properties.put(GRPC_PARENT_IP, this.parent.host);
+      properties.put(GRPC_PARENT_PORT, String.valueOf(this.parent.grpcPort));
+      properties.put(CASSANDRA_PARENT_IP, this.parent.host);
+      properties.put(CASSANDRA_PARENT_PORT, String.valueOf(this.parent.cassandraPort));
+      properties.put(PUSH_SLEEP, String.valueOf(pushSleep));
+      properties.put(PULL_SLEEP, String.valueOf(pullSleep));
+    }
+
+    return properties;
+  }
+
+  /**
+   * Writes the properties file and starts the server process, its output is written to {@code
+   * <name>.log} in the directory
+   *
+   * @param directory directory to write the properties and output file to
+   * @param pushSleep push sleep in ms
+   * @param pullSleep pull sleep in ms
+   * @throws IOException if either file can't be written or the process can't be started
+   */
+  public void start(final File directory, final int pushSleep, final int pullSleep)
+      throws IOException {
+    File propertiesFile = new File(directory, this.name + ".properties");
+
+    try (OutputStream out = new FileOutputStream(propertiesFile)) {
+      this.toProperties(pushSleep, pullSleep).store(out, null);
+    }
+
+    ProcessBuilder builder =
+        new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp",
+            System.getProperty("java.class.path"),
+            String.format(
+                "-D%s=%s",
+                Constants.PROPERTIESFILE_SYSTEM_PROPERTY, propertiesFile.getAbsolutePath()),
+            PathStoreServerImpl.class.getName());
+
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(new File(directory, this.name + ".log"));
+
+    this.process = builder.start();
+  }
+
+  /** Stops the server process if it was started */
+  public void stop() {
+    if (this.process == null) return;
+
+    this.process.destroy();
+
+    try {
+      if (!this.process.waitFor(10, TimeUnit.SECONDS)) this.process.destroyForcibly();
+    } catch (InterruptedException e) {
+      this.process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+
+    this.process = null;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s (node %d, grpc %s:%d, cassandra %s:%d)",
+        this.name, this.nodeId, this.host, this.grpcPort, this.host, this.cassandraPort);
+  }
+}
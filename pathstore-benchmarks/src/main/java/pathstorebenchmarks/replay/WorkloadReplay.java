@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstorebenchmarks.replay;
+
+import pathstore.client.PathStoreClientAuthenticatedCluster;
+import pathstore.client.PathStoreResultSet;
+import pathstore.client.PathStoreSession;
+import pathstore.client.workload.RecordedStatement;
+import pathstore.client.workload.WorkloadTraceReader;
+import pathstore.sessions.PathStoreSessionManager;
+import pathstore.sessions.SessionToken;
+import pathstore.system.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static pathstore.common.Constants.PROPERTIESFILE_SYSTEM_PROPERTY;
+
+/**
+ * Replays a workload recorded by {@link pathstore.client.workload.WorkloadRecorder} against the
+ * node configured in the client properties file and reports the replayed latency next to the
+ * recorded latency per statement kind.
+ *
+ * <p>Statements are dispatched at their recorded offset divided by the speed up, a speed up of 0
+ * dispatches them as fast as the workers allow. Statements are executed by a pool of concurrency
+ * workers, the dispatch delay is how late a statement started compared to its schedule. Run with
+ * {@code java -Dpathstore.properties=client.properties -cp
+ * pathstore-benchmarks/target/benchmarks.jar pathstorebenchmarks.replay.WorkloadReplay trace-file
+ * [speedup] [concurrency]}
+ */
+public class WorkloadReplay {
+
+  /** Statements dispatched but not yet started per worker, bounds memory if replay falls behind */
+  private static final int BACKLOG_PER_WORKER = 64;
+
+  /** Latency of replayed statements per kind */
+  private final Map<RecordedStatement.Kind, LatencyHistogram> replayed =
+      new EnumMap<>(RecordedStatement.Kind.class);
+
+  /** Latency of the recorded statements per kind */
+  private final Map<RecordedStatement.Kind, LatencyHistogram> recorded =
+      new EnumMap<>(RecordedStatement.Kind.class);
+
+  /** Replayed statements that threw per kind */
+  private final Map<RecordedStatement.Kind, AtomicLong> errors =
+      new EnumMap<>(RecordedStatement.Kind.class);
+
+  /** Time statements started after their scheduled time */
+  private final LatencyHistogram dispatchDelay = new LatencyHistogram();
+
+  /** Session to replay through */
+  private final PathStoreSession session;
+
+  /** Recorded time is divided by this, 0 to replay as fast as possible */
+  private final double speedup;
+
+  /** Amount of workers */
+  private final int concurrency;
+
+  /**
+   * @param session {@link #session}
+   * @param speedup {@link #speedup}
+   * @param concurrency {@link #concurrency}
+   */
+  public WorkloadReplay(
+      final PathStoreSession session, final double speedup, final int concurrency) {
+    this.session = session;
+    this.speedup = speedup;
+    this.concurrency = concurrency;
+
+    for (RecordedStatement.Kind kind : RecordedStatement.Kind.values()) {
+      this.replayed.put(kind, new LatencyHistogram());
+      this.recorded.put(kind, new LatencyHistogram());
+      this.errors.put(kind, new AtomicLong());
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println(
+          String.format(
+              "usage: java -D%s=client.properties %s trace-file [speedup] [concurrency]",
+              PROPERTIESFILE_SYSTEM_PROPERTY, WorkloadReplay.class.getName()));
+      System.exit(1);
+    }
+
+    double speedup = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+    int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+    WorkloadReplay replay =
+        new WorkloadReplay(
+            PathStoreClientAuthenticatedCluster.getInstance().connect(), speedup, concurrency);
+
+    try (WorkloadTraceReader reader = new WorkloadTraceReader(args[0])) {
+      System.out.println(
+          String.format(
+              "Replaying %s (hashed values: %s) with speedup %s and concurrency %d",
+              args[0], reader.hasHashedValues(), speedup, concurrency));
+
+      long elapsed = replay.run(reader);
+
+      replay.print(System.out, elapsed);
+    }
+
+    PathStoreClientAuthenticatedCluster.getInstance().close();
+
+    System.exit(0);
+  }
+
+  /**
+   * Dispatches every statement of the trace and waits for all of them to complete
+   *
+   * @param reader trace to replay
+   * @return time the replay took in ns
+   * @throws Exception if the trace can't be read or the replay is interrupted
+   */
+  public long run(final WorkloadTraceReader reader) throws Exception {
+    ExecutorService workers = Executors.newFixedThreadPool(this.concurrency);
+    Semaphore backlog = new Semaphore(this.concurrency * BACKLOG_PER_WORKER);
+
+    long start = System.nanoTime();
+
+    try {
+      RecordedStatement statement;
+      while ((statement = reader.read()) != null) {
+        long scheduled =
+            this.speedup > 0 ? start + (long) (statement.getOffsetNanos() / this.speedup) : 0;
+
+        long wait;
+        while (scheduled > 0 && (wait = scheduled - System.nanoTime()) > 0)
+          LockSupport.parkNanos(wait);
+
+        backlog.acquire();
+
+        RecordedStatement toExecute = statement;
+        workers.execute(
+            () -> {
+              try {
+                this.execute(toExecute, scheduled);
+              } finally {
+                backlog.release();
+              }
+            });
+      }
+    } finally {
+      workers.shutdown();
+      workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Executes a single recorded statement and records its latency
+   *
+   * @param statement statement to execute
+   * @param scheduled time the statement was scheduled at, 0 if unscheduled
+   */
+  private void execute(final RecordedStatement statement, final long scheduled) {
+    long start = System.nanoTime();
+
+    if (scheduled > 0) this.dispatchDelay.record(Math.max(0, start - scheduled));
+
+    if (statement.hasSucceeded())
+      this.recorded.get(statement.kind).record(statement.getDurationNanos());
+
+    try {
+      PathStoreResultSet resultSet =
+          this.session.execute(statement.toStatement(), token(statement));
+
+      // the recorded duration doesn't include iterating the result set, so neither does this one
+      this.replayed.get(statement.kind).recordSince(start);
+
+      if (statement.kind == RecordedStatement.Kind.SELECT) resultSet.all();
+    } catch (Exception e) {
+      this.errors.get(statement.kind).incrementAndGet();
+    }
+  }
+
+  /**
+   * @param statement recorded statement
+   * @return session token with the recorded name and type, null if no session was used
+   */
+  private static SessionToken token(final RecordedStatement statement) {
+    if (statement.sessionType == null) return null;
+
+    switch (statement.sessionType) {
+      case KEYSPACE:
+        return PathStoreSessionManager.getInstance().getKeyspaceToken(statement.sessionName);
+      case TABLE:
+        return PathStoreSessionManager.getInstance().getTableToken(statement.sessionName);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @param out stream to print the report to
+   * @param elapsedNanos time the replay took
+   */
+  public void print(final PrintStream out, final long elapsedNanos) {
+    long total = 0;
+    for (LatencyHistogram histogram : this.replayed.values()) total += histogram.getCount();
+
+    out.println(
+        String.format(
+            "replayed %d statements in %.1f s (%.1f ops/s)",
+            total,
+            seconds(elapsedNanos),
+            total / Math.max(seconds(elapsedNanos), Double.MIN_VALUE)));
+
+    for (RecordedStatement.Kind kind : RecordedStatement.Kind.values()) {
+      if (this.replayed.get(kind).getCount() == 0 && this.errors.get(kind).get() == 0) continue;
+
+      out.println(line(kind + " replayed", this.replayed.get(kind), this.errors.get(kind).get()));
+      out.println(line(kind + " recorded", this.recorded.get(kind), 0));
+    }
+
+    if (this.dispatchDelay.getCount() > 0)
+      out.println(line("dispatch delay", this.dispatchDelay, 0));
+  }
+
+  /**
+   * @param name name of the histogram
+   * @param histogram histogram to format
+   * @param errors amount of failed statements
+   * @return count, p50, p90, p99 and max in ms
+   */
+  private static String line(
+      final String name, final LatencyHistogram histogram, final long errors) {
+    long[] quantiles = histogram.quantiles(0.5, 0.9, 0.99);
+
+    return String.format(
+        "%-16s count=%d p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms errors=%d",
+        name,
+        histogram.getCount(),
+        millis(quantiles[0]),
+        millis(quantiles[1]),
+        millis(quantiles[2]),
+        millis(histogram.getMaxNanos()),
+        errors);
+  }
+
+  /**
+   * @param nanos nanoseconds
+   * @return milliseconds
+   */
+  private static double millis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * @param nanos nanoseconds
+   * @return seconds
+   */
+  private static double seconds(final long nanos) {
+    return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+}
@@ -30,9 +30,13 @@ import pathstore.authentication.datalayerimpls.NodeDataLayer;
 import pathstore.authentication.datalayerimpls.ClientDataLayer;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.deployment.commands.WriteCredentialToChildNode;
+import pathstore.util.MetadataCache;
 
 import java.util.Collection;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * This class is used to cache all credentials in the pathstore_appliactions.local_auth table into
@@ -41,6 +45,16 @@ import java.util.concurrent.ConcurrentMap;
  * <p>All writes to that table should be done through this class if they're related to this node
  * specifically.
  *
+ * <p>Credentials are held in a {@link MetadataCache}. The table is read once when the cache is
+ * created, afterwards a lookup of an unknown key reads that key only and every cached key is
+ * re-read in the background every {@link #REFRESH_INTERVAL_MINUTES}. Writes through this class
+ * update the cache directly.
+ *
+ * <p>Keys without a credential are not cached when they are looked up, so lookups of made up names
+ * (e.g. by unauthenticated clients registering an application) can't grow the cache. Only removals
+ * through this class and background reloads of a removed credential cache a key as absent. The
+ * cache holds at most {@link #MAXIMUM_CREDENTIALS} keys.
+ *
  * @see PathStorePrivilegedCluster
  */
 public final class CredentialCache<SearchableT, CredentialT extends Credential<SearchableT>> {
@@ -48,17 +62,39 @@ public final class CredentialCache<SearchableT, CredentialT extends Credential<S
   /** Instance of the node cache */
   @Getter(lazy = true)
   private static final CredentialCache<Integer, NodeCredential> nodes =
-      new CredentialCache<>(NodeDataLayer.getInstance());
+      new CredentialCache<>("node_credentials", NodeDataLayer.getInstance());
 
   /** Instance of the client auth cache */
   @Getter(lazy = true)
   private static final CredentialCache<String, ClientCredential> clients =
-      new CredentialCache<>(ClientDataLayer.getInstance());
+      new CredentialCache<>("client_credentials", ClientDataLayer.getInstance());
 
   /** Instance of the auxiliary auth cache */
   @Getter(lazy = true)
   private static final CredentialCache<String, AuxiliaryCredential> auxiliary =
-      new CredentialCache<>(AuxiliaryDataLayer.getInstance());
+      new CredentialCache<>("auxiliary_credentials", AuxiliaryDataLayer.getInstance());
+
+  /** How long a credential is served before it is re-read in the background */
+  private static final long REFRESH_INTERVAL_MINUTES = 5;
+
+  /**
+   * Maximum amount of keys per cache, far above the amount of nodes, applications and auxiliary
+   * accounts of a network
+   */
+  private static final long MAXIMUM_CREDENTIALS = 10000;
+
+  /** Number of modifications made to any credential cache */
+  private static final AtomicLong modificationCount = new AtomicLong(0);
+
+  /**
+   * This is used by consumers that derive state from the caches to know when to invalidate it
+   *
+   * @return number of modifications made to any credential cache
+   * @see pathstore.authentication.grpc.AuthManager
+   */
+  public static long getModificationCount() {
+    return modificationCount.get();
+  }
 
   /** Session used to modify the local database. */
   private final Session privSession = PathStorePrivilegedCluster.getSuperUserInstance().rawConnect();
@@ -70,28 +106,50 @@ public final class CredentialCache<SearchableT, CredentialT extends Credential<S
    */
   private final CredentialDataLayer<SearchableT, CredentialT> credentialDataLayer;
 
-  /** Internal cache of credentials based on node id */
-  private final ConcurrentMap<SearchableT, CredentialT> credentials;
+  /** Internal cache of credentials based on primary key, absent if there is no such credential */
+  private final MetadataCache<SearchableT, Optional<CredentialT>> credentials;
 
   /**
    * Loads all existing credentials from the local table into memory
    *
+   * @param name name of the cache
    * @param credentialDataLayer how to readAndWrite
    */
-  private CredentialCache(final CredentialDataLayer<SearchableT, CredentialT> credentialDataLayer) {
+  private CredentialCache(
+      final String name, final CredentialDataLayer<SearchableT, CredentialT> credentialDataLayer) {
     this.credentialDataLayer = credentialDataLayer;
-    this.credentials = this.credentialDataLayer.load(this.privSession);
+    this.credentials =
+        MetadataCache.<SearchableT, Optional<CredentialT>>newBuilder(
+                name,
+                primaryKey ->
+                    Optional.ofNullable(
+                        this.credentialDataLayer.read(this.privSession, primaryKey)))
+            .refreshAfter(REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES)
+            .maximumSize(MAXIMUM_CREDENTIALS)
+            .cacheIf(Optional::isPresent)
+            .build();
+
+    this.credentialDataLayer
+        .load(this.privSession)
+        .forEach(
+            (primaryKey, credential) -> this.credentials.put(primaryKey, Optional.of(credential)));
+
+    this.credentials.addListener((primaryKey, credential) -> modificationCount.incrementAndGet());
   }
 
-  /** @return get a reference to all credentials */
-  public Collection<CredentialT> getAllReference() {
-    return this.credentials.values();
+  /** @return copy of all credentials currently known */
+  public Collection<CredentialT> getAll() {
+    return this.credentials.values().stream()
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toList());
   }
 
   /** @param credential credential to add to the cache */
   public void add(@NonNull final CredentialT credential) {
     this.credentials.put(
-        credential.getSearchable(), this.credentialDataLayer.write(this.privSession, credential));
+        credential.getSearchable(),
+        Optional.of(this.credentialDataLayer.write(this.privSession, credential)));
   }
 
   /**
@@ -105,10 +163,11 @@ public final class CredentialCache<SearchableT, CredentialT extends Credential<S
 
     if (credential == null) return false;
 
-    this.credentials.remove(primaryKey);
-
     this.credentialDataLayer.delete(this.privSession, credential);
 
+    // cached as absent after the delete so a concurrent load can't bring the row back
+    this.credentials.put(primaryKey, Optional.empty());
+
     return true;
   }
 
@@ -117,6 +176,6 @@ public final class CredentialCache<SearchableT, CredentialT extends Credential<S
    * @return credential object, may be null
    */
   public CredentialT getCredential(final SearchableT primaryKey) {
-    return this.credentials.get(primaryKey);
+    return this.credentials.get(primaryKey).orElse(null);
   }
 }
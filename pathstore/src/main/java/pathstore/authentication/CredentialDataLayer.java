@@ -38,6 +38,13 @@ public interface CredentialDataLayer<SearchableT, CredentialT extends Credential
   /** @return map from primary key of Credential to credential object */
   ConcurrentMap<SearchableT, CredentialT> load(final Session session);
 
+  /**
+   * @param session session to execute on
+   * @param primaryKey primary key of the credential
+   * @return credential with that primary key, null if there is none
+   */
+  CredentialT read(final Session session, final SearchableT primaryKey);
+
   /**
    * @param row row from a keyspace and table that stores a credential object
    * @see Credential
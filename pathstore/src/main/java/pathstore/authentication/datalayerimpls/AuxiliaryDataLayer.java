@@ -64,6 +64,25 @@ public class AuxiliaryDataLayer implements CredentialDataLayer<String, Auxiliary
         .collect(Collectors.toConcurrentMap(Credential::getSearchable, Function.identity()));
   }
 
+  /**
+   * @param session session to execute on
+   * @param name primary key of the credential
+   * @return credential with that primary key, null if there is none
+   */
+  @Override
+  public AuxiliaryCredential read(@NonNull final Session session, @NonNull final String name) {
+    Row row =
+        session
+            .execute(
+                QueryBuilder.select()
+                    .all()
+                    .from(Constants.PATHSTORE_APPLICATIONS, Constants.LOCAL_AUXILIARY_AUTH)
+                    .where(QueryBuilder.eq(Constants.LOCAL_AUXILIARY_AUTH_COLUMNS.NAME, name)))
+            .one();
+
+    return row != null ? this.buildFromRow(row) : null;
+  }
+
   /**
    * @param row row from pathstore_applications.local_auxiliary_auth
    * @return auxiliary credential from row
@@ -64,6 +64,25 @@ public class ClientDataLayer implements CredentialDataLayer<String, ClientCreden
         .collect(Collectors.toConcurrentMap(Credential::getSearchable, Function.identity()));
   }
 
+  /**
+   * @param session session to execute on
+   * @param keyspaceName primary key of the credential
+   * @return credential with that primary key, null if there is none
+   */
+  @Override
+  public ClientCredential read(@NonNull final Session session, @NonNull final String keyspaceName) {
+    Row row =
+        session
+            .execute(
+                QueryBuilder.select()
+                    .all()
+                    .from(Constants.PATHSTORE_APPLICATIONS, Constants.LOCAL_CLIENT_AUTH)
+                    .where(QueryBuilder.eq(Constants.LOCAL_CLIENT_AUTH_COLUMNS.KEYSPACE_NAME, keyspaceName)))
+            .one();
+
+    return row != null ? this.buildFromRow(row) : null;
+  }
+
   /**
    * @param row row from pathstore_applications.local_client_auth
    * @return Credential credential parsed row
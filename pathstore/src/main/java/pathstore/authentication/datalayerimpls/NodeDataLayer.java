@@ -58,6 +58,25 @@ public class NodeDataLayer implements CredentialDataLayer<Integer, NodeCredentia
         .collect(Collectors.toConcurrentMap(Credential::getSearchable, Function.identity()));
   }
 
+  /**
+   * @param session session to execute on
+   * @param nodeId primary key of the credential
+   * @return credential with that primary key, null if there is none
+   */
+  @Override
+  public NodeCredential read(@NonNull final Session session, @NonNull final Integer nodeId) {
+    Row row =
+        session
+            .execute(
+                QueryBuilder.select()
+                    .all()
+                    .from(Constants.PATHSTORE_APPLICATIONS, Constants.LOCAL_NODE_AUTH)
+                    .where(QueryBuilder.eq(Constants.LOCAL_NODE_AUTH_COLUMNS.NODE_ID, nodeId)))
+            .one();
+
+    return row != null ? this.buildFromRow(row) : null;
+  }
+
   /**
    * @param row row from pathstore_applications.local_auth
    * @return Credential credential parsed row
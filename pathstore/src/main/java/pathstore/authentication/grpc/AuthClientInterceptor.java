@@ -21,6 +21,9 @@ package pathstore.authentication.grpc;
 import io.grpc.*;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
 
 /**
  * This class is used as the auth interceptor for the grpc client. While the message is being build
@@ -77,9 +80,11 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
       @Override
       public void sendMessage(final ReqT message) {
         logger.finest(
-            String.format(
-                "Send message: Method: %s Response: {%s}",
-                this.methodDescriptor.getFullMethodName(), message.toString().replace("\n", "")));
+            () ->
+                String.format(
+                    "Send message: Method: %s Response: {%s}",
+                    this.methodDescriptor.getFullMethodName(),
+                    message.toString().replace("\n", "")));
         super.sendMessage(message);
       }
 
@@ -96,6 +101,9 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
        * <p>This function is used to build the headers object with primary_key, username and
        * password. See {@link Keys} to see the definition for each key
        *
+       * <p>A client span is started as a child of the caller's current span, its ids are sent in
+       * the headers so the server can continue the trace
+       *
        * @param responseListener receives response messages
        * @param header headers that will be passed to the server to encapsulate authentication
        *     information
@@ -104,8 +112,14 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
       public void start(final Listener<RespT> responseListener, final Metadata header) {
         setHeader(header);
 
+        String methodName = this.methodDescriptor.getFullMethodName();
+
+        Span span = Tracer.getInstance().startDetached("grpc_client").tag("method", methodName);
+        header.put(Keys.TRACE_ID, span.getTraceId());
+        header.put(Keys.SPAN_ID, span.getSpanId());
+
         BackendListener<RespT> backendListener =
-            new BackendListener<>(this.methodDescriptor.getFullMethodName(), responseListener);
+            new BackendListener<>(methodName, span, responseListener);
         super.start(backendListener, header);
       }
     };
@@ -122,6 +136,12 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
     /** Endpoint that was called */
     private final String methodName;
 
+    /** When the call was started, used to record the call time on close */
+    private final long startNanos = System.nanoTime();
+
+    /** Client span of the call, closed when the call is closed */
+    private final Span span;
+
     /**
      * This is the listener passed from {@link
      * BackendForwardingClientCall#start(ClientCall.Listener, Metadata)}
@@ -130,11 +150,15 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
 
     /**
      * @param methodName {@link #methodName}
+     * @param span {@link #span}
      * @param responseListener {@link #responseListener}
      */
     protected BackendListener(
-        final String methodName, final ClientCall.Listener<RespT> responseListener) {
+        final String methodName,
+        final Span span,
+        final ClientCall.Listener<RespT> responseListener) {
       this.methodName = methodName;
+      this.span = span;
       this.responseListener = responseListener;
     }
 
@@ -151,9 +175,10 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
     @Override
     public void onMessage(final RespT message) {
       logger.finest(
-          String.format(
-              "On message: Method: %s Response: {%s}",
-              this.methodName, message.toString().replace("\n", "")));
+          () ->
+              String.format(
+                  "On message: Method: %s Response: {%s}",
+                  this.methodName, message.toString().replace("\n", "")));
       this.responseListener.onMessage(message);
     }
 
@@ -183,6 +208,26 @@ public abstract class AuthClientInterceptor implements ClientInterceptor {
      */
     @Override
     public void onClose(final Status status, final Metadata trailers) {
+      MetricsRegistry metrics = MetricsRegistry.getInstance();
+      metrics
+          .histogram(
+              "pathstore_grpc_client_call_seconds",
+              "Round trip time of outgoing grpc calls",
+              "method",
+              this.methodName)
+          .recordSince(this.startNanos);
+      metrics
+          .counter(
+              "pathstore_grpc_client_calls_total",
+              "Completed outgoing grpc calls",
+              "method",
+              this.methodName,
+              "code",
+              status.getCode().name())
+          .inc();
+
+      this.span.tag("code", status.getCode().name()).close();
+
       this.responseListener.onClose(status, trailers);
     }
 
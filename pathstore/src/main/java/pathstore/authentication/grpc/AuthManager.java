@@ -18,7 +18,10 @@
  */
 package pathstore.authentication.grpc;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -29,15 +32,20 @@ import pathstore.authentication.credentials.NodeCredential;
 import pathstore.authentication.credentials.NopCredential;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * This class is used for the registration, storage and comparison of credentials related to a grpc
  * server.
  *
- * @implNote The reason why the builder takes {@link CredentialCache#getAllReference()} is because
- *     as the credentials change in the cache they will also change within this class. In the future
- *     we may want to add a more complex event handling system to allow for constant time look up of
- *     if a credential is valid or not. (Myles)
+ * <p>Credentials are indexed per service in hash sets and decisions are cached per (endpoint,
+ * username, password). Both are rebuilt whenever {@link CredentialCache#getModificationCount()}
+ * changes.
+ *
+ * @implNote The reason why the builder takes suppliers of {@link CredentialCache#getAll()} is
+ *     because as the credentials change in the cache they will also change within this class. The
+ *     index is built from the credentials supplied at a given modification count, so the suppliers
+ *     are only called on rebuild.
  */
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class AuthManager {
@@ -46,10 +54,12 @@ public class AuthManager {
   @NoArgsConstructor(access = AccessLevel.PRIVATE)
   public static final class Builder {
     /** map from service name to collection of valid server credentials */
-    private final Map<String, Collection<NodeCredential>> serverCredentials = new HashMap<>();
+    private final Map<String, Supplier<Collection<NodeCredential>>> serverCredentials =
+        new HashMap<>();
 
     /** map from service name to collection of valid client credentials */
-    private final Map<String, Collection<ClientCredential>> clientCredentials = new HashMap<>();
+    private final Map<String, Supplier<Collection<ClientCredential>>> clientCredentials =
+        new HashMap<>();
 
     /**
      * Set of unauthenticated services. As in regardless of credentials provided you will be able to
@@ -70,7 +80,7 @@ public class AuthManager {
      */
     public Builder serverAuthenticatedEndpoint(
         @NonNull final String serviceName,
-        @NonNull final Collection<NodeCredential> serverCredentials) {
+        @NonNull final Supplier<Collection<NodeCredential>> serverCredentials) {
       this.serverCredentials.put(serviceName, serverCredentials);
       return this;
     }
@@ -85,7 +95,7 @@ public class AuthManager {
      */
     public Builder clientAuthenticatedEndpoint(
         @NonNull final String serviceName,
-        @NonNull final Collection<ClientCredential> clientCredentials) {
+        @NonNull final Supplier<Collection<ClientCredential>> clientCredentials) {
       this.clientCredentials.put(serviceName, clientCredentials);
       return this;
     }
@@ -95,13 +105,13 @@ public class AuthManager {
      * @param serverCredentials server credentials to provide
      * @param clientCredentials client credentials to provide
      * @return this
-     * @see #serverAuthenticatedEndpoint(String, Collection)
-     * @see #clientAuthenticatedEndpoint(String, Collection)
+     * @see #serverAuthenticatedEndpoint(String, Supplier)
+     * @see #clientAuthenticatedEndpoint(String, Supplier)
      */
     public Builder serverAndClientAuthenticatedEndpoint(
         final String serviceName,
-        final Collection<NodeCredential> serverCredentials,
-        final Collection<ClientCredential> clientCredentials) {
+        final Supplier<Collection<NodeCredential>> serverCredentials,
+        final Supplier<Collection<ClientCredential>> clientCredentials) {
       this.serverAuthenticatedEndpoint(serviceName, serverCredentials);
       this.clientAuthenticatedEndpoint(serviceName, clientCredentials);
       return this;
@@ -146,10 +156,10 @@ public class AuthManager {
   }
 
   /** All credentials between servers */
-  private final Map<String, Collection<NodeCredential>> serverCredentials;
+  private final Map<String, Supplier<Collection<NodeCredential>>> serverCredentials;
 
   /** All credentials between client */
-  private final Map<String, Collection<ClientCredential>> clientCredentials;
+  private final Map<String, Supplier<Collection<ClientCredential>>> clientCredentials;
 
   /** All unauthenticated endpoints */
   private final Set<String> unauthenticated;
@@ -157,6 +167,12 @@ public class AuthManager {
   /** Additional specific credentials add to a service */
   private final Map<String, Collection<Credential<?>>> additionalCredentials;
 
+  /** Maximum amount of authentication decisions to cache */
+  private static final long MAX_CACHED_DECISIONS = 4096;
+
+  /** Current index of credentials and decisions */
+  private volatile Index index = new Index(-1);
+
   /**
    * @param endpoint endpoint called
    * @param username username given
@@ -167,53 +183,132 @@ public class AuthManager {
       final String endpoint, final String username, final String password) {
     if (endpoint == null || username == null || password == null) return false;
 
+    Index current = this.getIndex();
+
+    DecisionKey key = new DecisionKey(endpoint, username, password);
+
+    Boolean decision = current.decisions.getIfPresent(key);
+
+    if (decision == null) {
+      decision = this.decide(current, endpoint, new NopCredential(username, password));
+      current.decisions.put(key, decision);
+    }
+
+    return decision;
+  }
+
+  /**
+   * @param index index to use
+   * @param endpoint endpoint called
+   * @param providedCredential credential given
+   * @return true if authenticated false if not
+   */
+  private boolean decide(
+      final Index index, final String endpoint, final NopCredential providedCredential) {
     // get the service name of the endpoint as, authentication is at the service layer not the
     // endpoint layer
-    String service = endpoint.substring(0, endpoint.indexOf('/'));
+    int separator = endpoint.indexOf('/');
+    if (separator < 0) return false;
 
-    // check to ensure the service is registered with the auth manager
-    if (!this.serverCredentials.containsKey(service)
-        && !this.clientCredentials.containsKey(service)
-        && !this.unauthenticated.contains(service)
-        && !this.additionalCredentials.containsKey(service)) return false;
+    String service = endpoint.substring(0, separator);
 
     // check if the service is unauthenticated
     if (this.unauthenticated.contains(service)) return true;
 
-    NopCredential providedCredential = new NopCredential(username, password);
+    // check to ensure the service is registered with the auth manager
+    Set<NopCredential> credentials = index.credentials.get(service);
+
+    return credentials != null && credentials.contains(providedCredential);
+  }
+
+  /** @return current index, rebuilt if the credential caches have been modified */
+  private Index getIndex() {
+    Index current = this.index;
 
-    // check the additional credentials collection
-    if (this.doesCollectionContain(service, this.additionalCredentials, providedCredential))
-      return true;
+    long modificationCount = CredentialCache.getModificationCount();
 
-    // check client credentials
-    if (this.doesCollectionContain(service, this.clientCredentials, providedCredential))
-      return true;
+    if (current.modificationCount != modificationCount) {
+      synchronized (this) {
+        current = this.index;
+        if (current.modificationCount != modificationCount) {
+          current = this.buildIndex(modificationCount);
+          this.index = current;
+        }
+      }
+    }
 
-    // check server credentials
-    return this.doesCollectionContain(service, this.serverCredentials, providedCredential);
+    return current;
   }
 
   /**
-   * This function is used to check if a credential is available in one of three possible ways to
-   * register it for a service. We use the {@link Credential#isSame(Credential)} function to
-   * determine which credentials are equal regardless of class type. If we could guarantee class
-   * type we would use the {@link Credential#equals(Object)} operand
+   * Copies all credentials per service into hash sets. We use {@link NopCredential} as the element
+   * type as its equality is defined by username and password, which is the same comparison as
+   * {@link Credential#isSame(Credential)} regardless of class type
    *
-   * @param service service called
-   * @param map map of service name to a collection of credentials as a point of valid credentials
-   * @param credentialToCompare credential to compare to
+   * @param modificationCount modification count the index is built at
+   * @return new index
+   */
+  private Index buildIndex(final long modificationCount) {
+    Index built = new Index(modificationCount);
+
+    this.addToIndex(built, this.additionalCredentials);
+    this.clientCredentials.forEach(
+        (service, credentials) -> this.addToIndex(built, service, credentials.get()));
+    this.serverCredentials.forEach(
+        (service, credentials) -> this.addToIndex(built, service, credentials.get()));
+
+    return built;
+  }
+
+  /**
+   * @param index index to add to
+   * @param map map of service name to a collection of credentials
    * @param <CredentialT> credential object type
-   * @return true if the credential to compare is the same as one of the credentials in the map.
-   *     Otherwise false
    */
-  private <CredentialT extends Credential<?>> boolean doesCollectionContain(
+  private <CredentialT extends Credential<?>> void addToIndex(
+      final Index index, final Map<String, Collection<CredentialT>> map) {
+    map.forEach((service, credentials) -> this.addToIndex(index, service, credentials));
+  }
+
+  /**
+   * @param index index to add to
+   * @param service service name
+   * @param credentials credentials valid for the service
+   */
+  private void addToIndex(
+      final Index index,
       final String service,
-      final Map<String, Collection<CredentialT>> map,
-      final NopCredential credentialToCompare) {
-    if (map.containsKey(service))
-      for (CredentialT credential : map.get(service))
-        if (credential.isSame(credentialToCompare)) return true;
-    return false;
+      final Collection<? extends Credential<?>> credentials) {
+    Set<NopCredential> set = index.credentials.computeIfAbsent(service, k -> new HashSet<>());
+    for (Credential<?> credential : credentials)
+      set.add(new NopCredential(credential.getUsername(), credential.getPassword()));
+  }
+
+  /** Hashed credentials per service and the decisions made on them */
+  @RequiredArgsConstructor
+  private static final class Index {
+    /** Modification count of {@link CredentialCache} this index was built at */
+    private final long modificationCount;
+
+    /** service name to valid credentials */
+    private final Map<String, Set<NopCredential>> credentials = new HashMap<>();
+
+    /** Cached decisions */
+    private final Cache<DecisionKey, Boolean> decisions =
+        CacheBuilder.newBuilder().maximumSize(MAX_CACHED_DECISIONS).build();
+  }
+
+  /** Key of a cached decision */
+  @RequiredArgsConstructor
+  @EqualsAndHashCode
+  private static final class DecisionKey {
+    /** Full endpoint name */
+    private final String endpoint;
+
+    /** Username given */
+    private final String username;
+
+    /** Password given */
+    private final String password;
   }
 }
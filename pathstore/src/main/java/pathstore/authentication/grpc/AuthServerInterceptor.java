@@ -22,6 +22,9 @@ import io.grpc.*;
 import lombok.RequiredArgsConstructor;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
 
 /**
  * This class is used as the auth interceptor for the grpc server. The onMessage function gets
@@ -48,6 +51,10 @@ public class AuthServerInterceptor implements ServerInterceptor {
    * meta data. Then create a {@link GRPCForwardingServerCallListener} and when the message is
    * received it will verify that the authentication information is valid
    *
+   * <p>A server span is started from the trace headers sent by the caller and made current for
+   * every listener callback, so any work (and further grpc calls) done by the service is part of
+   * the caller's trace. The span is closed when the call is closed.
+   *
    * @param serverCall reference to the actual call going into the network, this allows you to close
    *     the call if the user is un-authenticated
    * @param metadata metadata provided from the client. This will contain the authentication
@@ -64,24 +71,39 @@ public class AuthServerInterceptor implements ServerInterceptor {
       final Metadata metadata,
       final ServerCallHandler<ReqT, RespT> next) {
 
-    GRPCServerCall<ReqT, RespT> grpcServerCall = new GRPCServerCall<>(serverCall);
+    Span span =
+        Tracer.getInstance()
+            .startRemote("grpc_server", metadata.get(Keys.TRACE_ID), metadata.get(Keys.SPAN_ID))
+            .tag("method", serverCall.getMethodDescriptor().getFullMethodName());
+
+    GRPCServerCall<ReqT, RespT> grpcServerCall = new GRPCServerCall<>(serverCall, span);
 
-    ServerCall.Listener<ReqT> listener = next.startCall(grpcServerCall, metadata);
+    ServerCall.Listener<ReqT> listener =
+        Contexts.interceptCall(Tracer.getInstance().withSpan(span), grpcServerCall, metadata, next);
 
     return new GRPCForwardingServerCallListener<ReqT>(listener) {
       @Override
       public void onMessage(final ReqT message) {
         logger.finest(
-            String.format(
-                "On Message Method: %s, Message: {%s}",
-                grpcServerCall.getMethodDescriptor().getFullMethodName(),
-                message.toString().replace("\n", "")));
+            () ->
+                String.format(
+                    "On Message Method: %s, Message: {%s}",
+                    grpcServerCall.getMethodDescriptor().getFullMethodName(),
+                    message.toString().replace("\n", "")));
 
         String username = metadata.get(Keys.USERNAME);
         String password = metadata.get(Keys.PASSWORD);
 
         if (!authManager.isAuthenticated(
             grpcServerCall.getMethodDescriptor().getFullMethodName(), username, password)) {
+          MetricsRegistry.getInstance()
+              .counter(
+                  "pathstore_grpc_server_unauthenticated_total",
+                  "Calls rejected as unauthenticated",
+                  "method",
+                  grpcServerCall.getMethodDescriptor().getFullMethodName())
+              .inc();
+          span.tag("code", Status.Code.UNAUTHENTICATED.name()).close();
           serverCall.close(Status.UNAUTHENTICATED, new Metadata());
         } else super.onMessage(message);
       }
@@ -105,9 +127,19 @@ public class AuthServerInterceptor implements ServerInterceptor {
      */
     private final ServerCall<ReqT, RespT> serverCall;
 
-    /** @param serverCall {@link #serverCall} */
-    GRPCServerCall(final ServerCall<ReqT, RespT> serverCall) {
+    /** When the call was started, used to record the handling time on close */
+    private final long startNanos = System.nanoTime();
+
+    /** Server span of the call */
+    private final Span span;
+
+    /**
+     * @param serverCall {@link #serverCall}
+     * @param span {@link #span}
+     */
+    GRPCServerCall(final ServerCall<ReqT, RespT> serverCall, final Span span) {
       this.serverCall = serverCall;
+      this.span = span;
     }
 
     /**
@@ -147,10 +179,11 @@ public class AuthServerInterceptor implements ServerInterceptor {
     @Override
     public void sendMessage(final RespT respT) {
       logger.finest(
-          String.format(
-              "Send message: Method: %s Response: {%s}",
-              this.serverCall.getMethodDescriptor().getFullMethodName(),
-              respT.toString().replace("\n", "")));
+          () ->
+              String.format(
+                  "Send message: Method: %s Response: {%s}",
+                  this.serverCall.getMethodDescriptor().getFullMethodName(),
+                  respT.toString().replace("\n", "")));
 
       this.serverCall.sendMessage(respT);
     }
@@ -170,6 +203,27 @@ public class AuthServerInterceptor implements ServerInterceptor {
      */
     @Override
     public void close(final Status status, final Metadata metadata) {
+      String method = this.serverCall.getMethodDescriptor().getFullMethodName();
+      MetricsRegistry metrics = MetricsRegistry.getInstance();
+      metrics
+          .histogram(
+              "pathstore_grpc_server_handling_seconds",
+              "Handling time of grpc calls",
+              "method",
+              method)
+          .recordSince(this.startNanos);
+      metrics
+          .counter(
+              "pathstore_grpc_server_handled_total",
+              "Completed grpc calls",
+              "method",
+              method,
+              "code",
+              status.getCode().name())
+          .inc();
+
+      this.span.tag("code", status.getCode().name()).close();
+
       if (this.serverCall.isReady()) this.serverCall.close(status, metadata);
     }
 
@@ -19,6 +19,7 @@
 package pathstore.authentication.grpc;
 
 import io.grpc.Metadata;
+import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import pathstore.authentication.credentials.Credential;
 
@@ -26,9 +27,13 @@ import pathstore.authentication.credentials.Credential;
  * This class is specifically used for {@link
  * pathstore.client.PathStoreServerClient#getCustom(String, int, Credential)}
  *
+ * <p>Equality is defined by the credential so that channels can be re-used across instances
+ *
  * @param <CredentialT> credential token type
+ * @see pathstore.util.ChannelCache
  */
 @RequiredArgsConstructor
+@EqualsAndHashCode(callSuper = false)
 public class CustomClientInterceptor<CredentialT extends Credential<?>>
     extends AuthClientInterceptor {
 
@@ -35,4 +35,12 @@ public class Keys {
   /** password header key */
   public static final Metadata.Key<String> PASSWORD =
       Metadata.Key.of("password", ASCII_STRING_MARSHALLER);
+
+  /** trace id header key, see {@link pathstore.system.tracing.Tracer} */
+  public static final Metadata.Key<String> TRACE_ID =
+      Metadata.Key.of("trace-id", ASCII_STRING_MARSHALLER);
+
+  /** span id of the calling span header key */
+  public static final Metadata.Key<String> SPAN_ID =
+      Metadata.Key.of("span-id", ASCII_STRING_MARSHALLER);
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client;
+
+import pathstore.common.PathStoreProperties;
+import pathstore.grpc.pathStoreProto.RegisterApplicationResponse;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.util.SchemaInfo;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class is used to cache the schema info of an application on the client's disk. On startup
+ * the hash of the cached schema is sent during registration and the local node only sends the
+ * schema back if it has changed, so a client that restarts against an unchanged schema skips
+ * transferring and converting it.
+ *
+ * <p>The file consists of the schema hash followed by the serialized grpc schema info object. It is
+ * written to a temporary file first and moved into place so a partially written cache is never
+ * read.
+ *
+ * @see PathStoreProperties#schemaCacheFile
+ * @see SchemaInfo#hash(RegisterApplicationResponse.SchemaInfo)
+ */
+public class ClientSchemaCache {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ClientSchemaCache.class);
+
+  /** File the schema is cached in */
+  private final Path file;
+
+  /** Hash of the cached schema, empty if nothing is cached */
+  private String hash = "";
+
+  /** Cached schema, null if nothing is cached */
+  private RegisterApplicationResponse.SchemaInfo schemaInfo = null;
+
+  /** @param file {@link #file} */
+  public ClientSchemaCache(final Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @param applicationName application the client registers for
+   * @return cache at {@link PathStoreProperties#schemaCacheFile} or, if unset, at a file in the
+   *     temporary directory named after the application and local node
+   */
+  public static ClientSchemaCache forApplication(final String applicationName) {
+    String file = PathStoreProperties.getInstance().schemaCacheFile;
+
+    return new ClientSchemaCache(
+        file != null
+            ? Paths.get(file)
+            : Paths.get(
+                System.getProperty("java.io.tmpdir"),
+                String.format(
+                    "pathstore-schema-%s-%s-%d",
+                    applicationName,
+                    PathStoreProperties.getInstance().GRPCIP,
+                    PathStoreProperties.getInstance().GRPCPort)));
+  }
+
+  /**
+   * Reads the cached schema if present, an unreadable cache is ignored
+   *
+   * @return this
+   */
+  public ClientSchemaCache load() {
+    if (!Files.exists(this.file)) return this;
+
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+      String hash = in.readUTF();
+      this.schemaInfo = RegisterApplicationResponse.SchemaInfo.parseFrom(in);
+      this.hash = hash;
+    } catch (IOException e) {
+      logger.debug(String.format("Ignoring unreadable schema cache %s", this.file));
+      this.schemaInfo = null;
+    }
+
+    return this;
+  }
+
+  /** @return hash of the cached schema, empty if nothing is cached */
+  public String getHash() {
+    return this.hash;
+  }
+
+  /** @return cached schema, only present if {@link #getHash()} isn't empty */
+  public SchemaInfo getSchemaInfo() {
+    return this.schemaInfo == null ? null : SchemaInfo.fromGRPCObject(this.schemaInfo);
+  }
+
+  /**
+   * Replaces the cached schema. Failing to write the cache only costs a full fetch next startup so
+   * errors are logged and ignored
+   *
+   * @param hash hash sent by the local node
+   * @param schemaInfo schema sent by the local node
+   */
+  public void store(final String hash, final RegisterApplicationResponse.SchemaInfo schemaInfo) {
+    this.hash = hash;
+    this.schemaInfo = schemaInfo;
+
+    try {
+      Path temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeUTF(hash);
+        schemaInfo.writeTo(out);
+      }
+
+      Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      logger.error(e);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client;
+
+import io.grpc.stub.StreamObserver;
+import pathstore.common.PathStoreProperties;
+import pathstore.grpc.pathStoreProto.SchemaDelta;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.util.SchemaInfo;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class keeps the schema info of a client up to date. It keeps a watch stream open to the
+ * local node and applies every schema change of the application's keyspace to {@link
+ * SchemaInfo#getInstance()} as it arrives, so tables installed or changed after the client
+ * registered can be used without restarting it.
+ *
+ * <p>Changes are applied one at a time on the watcher's thread, queries keep running against the
+ * schema info while a change is applied. Every {@link PathStoreProperties#schemaWatchInterval} ms
+ * the stream is re-opened if it was closed, the local node then sends the changes made since the
+ * last applied version.
+ *
+ * @see pathstore.system.schemaFSM.SchemaChangeLog
+ */
+public class ClientSchemaWatcher {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ClientSchemaWatcher.class);
+
+  /** Keyspace of the application */
+  private final String keyspace;
+
+  /** Opens the stream and applies changes, daemon so it doesn't keep the client alive */
+  private final ScheduledExecutorService executor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "pathstore-schema-watch");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** Whether a stream to the local node is open */
+  private volatile boolean watching = false;
+
+  /** @param keyspace {@link #keyspace} */
+  public ClientSchemaWatcher(final String keyspace) {
+    this.keyspace = keyspace;
+  }
+
+  /**
+   * Opens the watch stream and re-opens it every interval if it was closed
+   *
+   * @param interval interval in ms
+   */
+  public void start(final long interval) {
+    this.executor.scheduleWithFixedDelay(this::watch, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stops watching, the stream itself is closed with the grpc channel */
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  /** Opens a watch stream if none is open */
+  private void watch() {
+    if (this.watching) return;
+
+    this.watching = true;
+
+    SchemaInfo schemaInfo = SchemaInfo.getInstance();
+
+    try {
+      PathStoreServerClient.getInstance()
+          .watchSchema(
+              this.keyspace,
+              schemaInfo.getSchemaEpoch(),
+              schemaInfo.getSchemaVersion(),
+              new StreamObserver<SchemaDelta>() {
+                @Override
+                public void onNext(final SchemaDelta delta) {
+                  try {
+                    executor.execute(() -> apply(delta));
+                  } catch (RejectedExecutionException ignored) {
+                    // closed
+                  }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                  logger.debug(String.format("Schema watch closed: %s", throwable.getMessage()));
+                  watching = false;
+                }
+
+                @Override
+                public void onCompleted() {
+                  watching = false;
+                }
+              });
+    } catch (RuntimeException e) {
+      this.watching = false;
+      logger.error(e);
+    }
+  }
+
+  /** @param delta change to apply */
+  private void apply(final SchemaDelta delta) {
+    try {
+      SchemaInfo.getInstance().applyDelta(delta);
+    } catch (RuntimeException e) {
+      logger.error(e);
+    }
+  }
+}
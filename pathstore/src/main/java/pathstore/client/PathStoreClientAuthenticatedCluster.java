@@ -20,6 +20,8 @@ package pathstore.client;
 
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Session;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import lombok.Getter;
 import lombok.NonNull;
 import org.json.JSONObject;
@@ -74,7 +76,10 @@ public class PathStoreClientAuthenticatedCluster {
 
     Pair<Optional<String>, Optional<SchemaInfo>> response =
         PathStoreServerClient.getInstance()
-            .registerApplicationClient(applicationName, masterPassword);
+            .registerApplicationClient(
+                applicationName,
+                masterPassword,
+                ClientSchemaCache.forApplication(applicationName).load());
 
     Optional<String> credentialsOptional = response.t1;
     Optional<SchemaInfo> schemaInfoOptional = response.t2;
@@ -120,6 +125,9 @@ public class PathStoreClientAuthenticatedCluster {
   /** PathStoreSession created using cluster */
   private final PathStoreSession psSession;
 
+  /** Applies schema changes of the application streamed by the local node */
+  private final ClientSchemaWatcher schemaWatcher;
+
   /**
    * @param clientCredential client credential passed from the local node that is used to
    *     communicate via cassandra and GRPC
@@ -131,8 +139,16 @@ public class PathStoreClientAuthenticatedCluster {
     // node
     PathStoreClientInterceptor.getInstance().setCredential(clientCredential);
 
+    // Both calls are issued up front so the lease time is fetched while the cassandra connection is
+    // being established
+    ListenableFuture<LocalNodeInfo> localNodeInfoFuture =
+        PathStoreServerClient.getInstance().getLocalNodeIdAsync();
+    ListenableFuture<Integer> leaseTimeFuture =
+        PathStoreServerClient.getInstance()
+            .getApplicationLeaseTimeAsync(clientCredential.getSearchable());
+
     // All operations to perform after connection is complete
-    LocalNodeInfo localNodeInfoFromServer = PathStoreServerClient.getInstance().getLocalNodeId();
+    LocalNodeInfo localNodeInfoFromServer = Futures.getUnchecked(localNodeInfoFuture);
 
     // setup all the values for ps properties
     PathStoreProperties.getInstance().NodeID = localNodeInfoFromServer.getNodeId();
@@ -147,20 +163,22 @@ public class PathStoreClientAuthenticatedCluster {
                 PathStoreProperties.getInstance().CassandraIP,
                 PathStoreProperties.getInstance().CassandraPort));
 
+    this.rawSession = this.cluster.connect();
+
     // setup application lease cache for the provided application name
     ApplicationLeaseCache.getInstance()
         .setLease(
             clientCredential.getSearchable(),
-            new ApplicationLeaseCache.ApplicationLease(
-                0,
-                PathStoreServerClient.getInstance()
-                    .getApplicationLeaseTime(clientCredential.getSearchable())));
-
-    this.rawSession = this.cluster.connect();
+            new ApplicationLeaseCache.ApplicationLease(0, Futures.getUnchecked(leaseTimeFuture)));
 
     this.psSession = new PathStoreSession(this.rawSession);
 
     if (this.credential.isSuperUser()) SchemaInfo.getInstance().setSession(this.rawSession);
+
+    this.schemaWatcher = new ClientSchemaWatcher(clientCredential.getSearchable());
+
+    if (PathStoreProperties.getInstance().schemaWatchInterval > 0)
+      this.schemaWatcher.start(PathStoreProperties.getInstance().schemaWatchInterval);
   }
 
   /** @return local node db session */
@@ -177,6 +195,7 @@ public class PathStoreClientAuthenticatedCluster {
 
   /** Close session and cluster */
   public void close() throws InterruptedException {
+    this.schemaWatcher.close();
     PathStoreServerClient.getInstance().shutdown();
     logger.debug("Shutdown grpc connection to local node");
     this.rawSession.close();
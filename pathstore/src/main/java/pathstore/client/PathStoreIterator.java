@@ -27,12 +27,10 @@ import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import pathstore.common.Constants;
 import pathstore.util.SchemaInfo;
-import pathstore.util.SchemaInfo.Column;
+import pathstore.util.TableDescriptor;
 
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /** This class is responsible for log compression of cassandra responses */
 public class PathStoreIterator implements Iterator<Row> {
@@ -61,6 +59,9 @@ public class PathStoreIterator implements Iterator<Row> {
   /** Clauses of select statement */
   private final List<Clause> originalClauses;
 
+  /** Descriptor of {@link #table}, resolved on first use */
+  private TableDescriptor descriptor = null;
+
   /** Next row for comparison */
   private ArrayBackedRow row_next = null;
 
@@ -158,21 +159,14 @@ public class PathStoreIterator implements Iterator<Row> {
    * @return true if same primary key else false
    */
   private boolean same_key(final ArrayBackedRow row, final ArrayBackedRow row_next) {
-    Collection<Column> columns =
-        SchemaInfo.getInstance().getTableColumns(this.keyspace, this.table);
-
-    for (Column col : columns) {
-      if (col.kind.compareTo("regular") != 0
-          && !col.column_name.startsWith(Constants.PATHSTORE_PREFIX)) {
-
-        Object value1 = row.getObject(col.column_name);
-        Object value2 = row_next.getObject(col.column_name);
-
-        if (!value1.equals(value2)) return false;
-      }
-    }
+    return this.getDescriptor().sameKey(row, row_next);
+  }
 
-    return true;
+  /** @return {@link #descriptor} */
+  private TableDescriptor getDescriptor() {
+    if (this.descriptor == null)
+      this.descriptor = SchemaInfo.getInstance().getTableDescriptor(this.keyspace, this.table);
+    return this.descriptor;
   }
 
   /**
@@ -202,23 +196,7 @@ public class PathStoreIterator implements Iterator<Row> {
    * @see #getCompleteRow(ArrayBackedRow)
    */
   private Select getQueryOnPrimaryKeyMinusPSVersion(final ArrayBackedRow row) {
-    Select select = QueryBuilder.select().all().from(this.keyspace, this.table);
-
-    SchemaInfo schemaInfo = SchemaInfo.getInstance();
-
-    Collection<String> primaryKeyColumns =
-        schemaInfo.getPartitionColumnNames(this.keyspace, this.table);
-    primaryKeyColumns.addAll(
-        schemaInfo.getClusterColumnNames(this.keyspace, this.table).stream()
-            .filter(
-                clusteringColumn ->
-                    !clusteringColumn.equals(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VERSION))
-            .collect(Collectors.toList()));
-
-    primaryKeyColumns.forEach(
-        columnName -> select.where(QueryBuilder.eq(columnName, row.getObject(columnName))));
-
-    return select;
+    return this.getDescriptor().selectByKey(row);
   }
 
   /**
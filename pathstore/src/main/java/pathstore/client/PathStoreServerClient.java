@@ -19,10 +19,14 @@
 package pathstore.client;
 
 import com.datastax.driver.core.Statement;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
 import lombok.Getter;
 import lombok.NonNull;
 import pathstore.authentication.CredentialCache;
@@ -38,6 +42,7 @@ import pathstore.grpc.*;
 import pathstore.grpc.pathStoreProto.*;
 import pathstore.sessions.SessionToken;
 import pathstore.system.network.NetworkImpl;
+import pathstore.util.ChannelCache;
 import pathstore.util.Pair;
 import pathstore.util.SchemaInfo;
 
@@ -71,13 +76,20 @@ public class PathStoreServerClient {
    */
   public static <CredentialT extends Credential<?>> PathStoreServerClient getCustom(
       final String ip, final int port, final CredentialT credential) {
-    return new PathStoreServerClient(ip, port, new CustomClientInterceptor<>(credential));
+    return new PathStoreServerClient(ip, port, new CustomClientInterceptor<>(credential), false);
   }
 
+  /** Ip of the server this client is connected to. Used to shutdown */
+  private final String ip;
+
+  /** Port of the server this client is connected to. Used to shutdown */
+  private final int port;
+
+  /** Interceptor used on the channel. Used to shutdown */
+  private final AuthClientInterceptor authClientInterceptor;
+
   /**
-   * Channel for connection. Used to shutdown
-   *
-   * <p>TODO: Call shutdown in {@link PathStoreClientAuthenticatedCluster}
+   * Channel for connection, shared through the {@link ChannelCache}
    *
    * @see #shutdown()
    */
@@ -89,9 +101,27 @@ public class PathStoreServerClient {
   /** Stub for {@link pathstore.system.network.ClientOnlyServiceImpl} */
   private final ClientOnlyServiceGrpc.ClientOnlyServiceBlockingStub clientOnlyServiceBlockingStub;
 
+  /**
+   * Future stub for {@link pathstore.system.network.ClientOnlyServiceImpl}, used to pipeline the
+   * client startup calls
+   */
+  private final ClientOnlyServiceGrpc.ClientOnlyServiceFutureStub clientOnlyServiceFutureStub;
+
+  /**
+   * Async stub for {@link pathstore.system.network.ClientOnlyServiceImpl}, used for the control
+   * plane watch stream of the administration panel and the schema watch stream of clients
+   */
+  private final ClientOnlyServiceGrpc.ClientOnlyServiceStub clientOnlyServiceStub;
+
   /** Stub for {@link pathstore.system.network.ServerOnlyServiceImpl} */
   private final ServerOnlyServiceGrpc.ServerOnlyServiceBlockingStub serverOnlyServiceBlockingStub;
 
+  /**
+   * Async stub for {@link pathstore.system.network.ServerOnlyServiceImpl}, used for the control
+   * plane watch stream
+   */
+  private final ServerOnlyServiceGrpc.ServerOnlyServiceStub serverOnlyServiceStub;
+
   /** Stub for {@link pathstore.system.network.NetworkWideServiceImpl} */
   private final NetworkWideServiceGrpc.NetworkWideServiceBlockingStub
       networkWideServiceBlockingStub;
@@ -119,16 +149,21 @@ public class PathStoreServerClient {
             ? PathStoreServerInterceptor.getInstance(
                 CredentialCache.getNodes()
                     .getCredential(PathStoreProperties.getInstance().ParentID))
-            : PathStoreClientInterceptor.getInstance());
+            : PathStoreClientInterceptor.getInstance(),
+        true);
   }
 
   /**
-   * Shutdown function to close grpc connection to local node / parent
+   * Shutdown function to close grpc connection to local node / parent. This removes the channel
+   * from the {@link ChannelCache} so any other client sharing it will be closed as well
    *
    * @throws InterruptedException if shutdown cannot be completed
    */
   public void shutdown() throws InterruptedException {
-    this.channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    ManagedChannel removed =
+        ChannelCache.getInstance().remove(this.ip, this.port, this.authClientInterceptor);
+
+    if (removed != null) removed.awaitTermination(5, TimeUnit.SECONDS);
   }
 
   /**
@@ -141,23 +176,24 @@ public class PathStoreServerClient {
    * @param port port to connect on
    * @param authClientInterceptor how to intercept each request and apply the proper credential
    *     information to it
+   * @param pinned whether the underlying channel should be exempt from idle eviction
+   * @see ChannelCache#getChannel(String, int, AuthClientInterceptor, boolean)
    */
   private PathStoreServerClient(
       @NonNull final String ip,
       @NonNull final Integer port,
-      @NonNull final AuthClientInterceptor authClientInterceptor) {
-    this(
-        ManagedChannelBuilder.forAddress(ip, port)
-            .intercept(authClientInterceptor)
-            .usePlaintext(true));
-  }
-
-  /** @param channelBuilder channel build based on ip and port */
-  private PathStoreServerClient(final ManagedChannelBuilder<?> channelBuilder) {
-    this.channel = channelBuilder.build();
+      @NonNull final AuthClientInterceptor authClientInterceptor,
+      final boolean pinned) {
+    this.ip = ip;
+    this.port = port;
+    this.authClientInterceptor = authClientInterceptor;
+    this.channel = ChannelCache.getInstance().getChannel(ip, port, authClientInterceptor, pinned);
     this.commonServiceBlockingStub = CommonServiceGrpc.newBlockingStub(this.channel);
     this.clientOnlyServiceBlockingStub = ClientOnlyServiceGrpc.newBlockingStub(this.channel);
+    this.clientOnlyServiceFutureStub = ClientOnlyServiceGrpc.newFutureStub(this.channel);
+    this.clientOnlyServiceStub = ClientOnlyServiceGrpc.newStub(this.channel);
     this.serverOnlyServiceBlockingStub = ServerOnlyServiceGrpc.newBlockingStub(this.channel);
+    this.serverOnlyServiceStub = ServerOnlyServiceGrpc.newStub(this.channel);
     this.networkWideServiceBlockingStub = NetworkWideServiceGrpc.newBlockingStub(this.channel);
     this.unAuthenticatedServiceBlockingStub =
         UnAuthenticatedServiceGrpc.newBlockingStub(this.channel);
@@ -223,28 +259,48 @@ public class PathStoreServerClient {
    * This function is used to register an application client. You must pass the application name and
    * the master password.
    *
+   * <p>The hash of the cached schema is sent along, if the local node responds that the schema is
+   * unchanged the cached schema is used, otherwise the cache is replaced with the schema sent.
+   *
    * @param applicationName application name
    * @param password master password for that application
+   * @param schemaCache schema cache of the client
    * @return response string
    * @see pathstore.system.network.NetworkImpl#registerApplicationClient(String, String)
    */
   public Pair<Optional<String>, Optional<SchemaInfo>> registerApplicationClient(
-      final String applicationName, final String password) {
+      final String applicationName, final String password, final ClientSchemaCache schemaCache) {
     RegisterApplicationRequest registerApplicationRequest =
         RegisterApplicationRequest.newBuilder()
             .setApplicationName(applicationName)
             .setPassword(password)
+            .setSchemaHash(schemaCache.getHash())
             .build();
 
-    System.out.println("Calling registerApplicationClient");
-
     RegisterApplicationResponse registerApplicationResponse =
         this.unAuthenticatedServiceBlockingStub.registerApplicationClient(
             registerApplicationRequest);
 
+    SchemaInfo schemaInfo;
+
+    if (registerApplicationResponse.getSchemaUnchanged()) schemaInfo = schemaCache.getSchemaInfo();
+    else {
+      if (registerApplicationResponse.hasSchemaInfo())
+        schemaCache.store(
+            registerApplicationResponse.getSchemaHash(),
+            registerApplicationResponse.getSchemaInfo());
+
+      schemaInfo = SchemaInfo.fromGRPCObject(registerApplicationResponse.getSchemaInfo());
+    }
+
+    if (schemaInfo != null)
+      schemaInfo.setSchemaVersion(
+          registerApplicationResponse.getSchemaEpoch(),
+          registerApplicationResponse.getSchemaVersion());
+
     return new Pair<>(
         Optional.ofNullable(registerApplicationResponse.getCredentials()),
-        Optional.of(SchemaInfo.fromGRPCObject(registerApplicationResponse.getSchemaInfo())));
+        Optional.ofNullable(schemaInfo));
   }
 
   /**
@@ -316,6 +372,77 @@ public class PathStoreServerClient {
     this.serverOnlyServiceBlockingStub.forceSynchronize(forceSynchronizationRequest);
   }
 
+  /**
+   * This function is used to remove the logs of a removed node on the parent and every ancestor
+   *
+   * @param nodeId node that was removed
+   * @see NetworkImpl#purgeNodeLogs(int)
+   */
+  public void purgeNodeLogs(final int nodeId) {
+    this.serverOnlyServiceBlockingStub.purgeNodeLogs(
+        PurgeNodeLogsRequest.newBuilder().setNodeId(nodeId).build());
+  }
+
+  /**
+   * This function is used to inform the local node / parent that a control plane row has been
+   * written. The event is forwarded up to the root which then publishes it down the hierarchy
+   *
+   * @param table table within pathstore_applications that was written to
+   * @param nodeId node whose state machine should react to the change
+   * @see NetworkImpl#notifyControlPlane(ControlPlaneEvent)
+   */
+  public void notifyControlPlane(final String table, final int nodeId) {
+    this.commonServiceBlockingStub.notifyControlPlane(
+        ControlPlaneEvent.newBuilder().setTable(table).setNodeId(nodeId).build());
+  }
+
+  /**
+   * Opens a stream of all control plane events published on the parent node
+   *
+   * @param observer observer to receive the events, notified once the stream is closed
+   * @see pathstore.system.controlplane.ControlPlaneWatcher
+   */
+  public void watchControlPlane(final StreamObserver<ControlPlaneEvent> observer) {
+    this.serverOnlyServiceStub.watchControlPlane(Empty.newBuilder().build(), observer);
+  }
+
+  /**
+   * Opens a stream of all control plane events published on the local node. This is only used by
+   * the administration panel, nodes watch their parent through {@link
+   * #watchControlPlane(StreamObserver)}
+   *
+   * @param observer observer to receive the events, notified once the stream is closed
+   * @see pathstore.system.network.ClientOnlyServiceImpl#watchControlPlane(Empty, StreamObserver)
+   */
+  public void watchLocalControlPlane(final StreamObserver<ControlPlaneEvent> observer) {
+    this.clientOnlyServiceStub.watchControlPlane(Empty.newBuilder().build(), observer);
+  }
+
+  /**
+   * Opens a stream from the local node that passes every change of a keyspace's schema after the
+   * given version to the observer
+   *
+   * @param keyspace keyspace of the application
+   * @param epoch epoch of the client's schema
+   * @param version version of the client's schema
+   * @param observer observer to receive the changes, notified once the stream is closed
+   * @see pathstore.system.network.ClientOnlyServiceImpl#watchSchema(WatchSchemaRequest,
+   *     StreamObserver)
+   */
+  public void watchSchema(
+      final String keyspace,
+      final String epoch,
+      final long version,
+      final StreamObserver<SchemaDelta> observer) {
+    this.clientOnlyServiceStub.watchSchema(
+        WatchSchemaRequest.newBuilder()
+            .setKeyspace(keyspace)
+            .setEpoch(epoch)
+            .setVersion(version)
+            .build(),
+        observer);
+  }
+
   /**
    * This function is used for all clients to retrieve the node id of its local client on startup.
    * As we cannot trust the node_id provided by the client at startup as this is used to make
@@ -331,6 +458,34 @@ public class PathStoreServerClient {
             .getInfoPayload());
   }
 
+  /**
+   * Non blocking version of {@link #getLocalNodeId()}
+   *
+   * @return future of the local node info
+   */
+  public ListenableFuture<LocalNodeInfo> getLocalNodeIdAsync() {
+    return Futures.transform(
+        this.clientOnlyServiceFutureStub.getLocalNodeInfo(Empty.newBuilder().build()),
+        (Function<GetLocalNodeResponse, LocalNodeInfo>)
+            response -> LocalNodeInfo.fromGRPCLocalNodeInfoObject(response.getInfoPayload()),
+        MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Non blocking version of {@link #getApplicationLeaseTime(String)}
+   *
+   * @param applicationName application name to retrieve application lease time for.
+   * @return future of the clt for applicationName
+   */
+  public ListenableFuture<Integer> getApplicationLeaseTimeAsync(final String applicationName) {
+    return Futures.transform(
+        this.clientOnlyServiceFutureStub.getApplicationLeaseInformation(
+            GetApplicationLeaseRequest.newBuilder().setApplicationName(applicationName).build()),
+        (Function<GetApplicationLeaseResponse, Integer>)
+            GetApplicationLeaseResponse::getClientLeaseTime,
+        MoreExecutors.directExecutor());
+  }
+
   /**
    * @param applicationName application name to retrieve application lease time for.
    * @return clt for applicationName
@@ -341,4 +496,12 @@ public class PathStoreServerClient {
             GetApplicationLeaseRequest.newBuilder().setApplicationName(applicationName).build())
         .getClientLeaseTime();
   }
+
+  /**
+   * @return metrics of the node in the prometheus text format
+   * @see pathstore.system.metrics.MetricsRegistry#scrape()
+   */
+  public String getMetrics() {
+    return this.networkWideServiceBlockingStub.getMetrics(Empty.newBuilder().build()).getMetrics();
+  }
 }
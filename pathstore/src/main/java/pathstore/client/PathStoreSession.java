@@ -24,6 +24,8 @@ import com.datastax.driver.core.querybuilder.Update.Assignments;
 import com.google.common.util.concurrent.ListenableFuture;
 import pathstore.common.Constants;
 import pathstore.common.PathStoreProperties;
+import pathstore.client.workload.RecordedStatement;
+import pathstore.client.workload.WorkloadRecorder;
 import pathstore.common.QueryCache;
 import pathstore.exception.InvalidKeyspaceException;
 import pathstore.exception.InvalidStatementTypeException;
@@ -109,6 +111,39 @@ public class PathStoreSession implements Session {
     return executeNormal(statement, sessionToken);
   }
 
+  /**
+   * This function is used to execute a statement with or without a session token. If workload
+   * recording is enabled the statement is captured before it is processed and written with its
+   * timing afterwards. The timing doesn't include iterating the returned result set.
+   *
+   * @param statement statement to execute
+   * @param sessionToken session token if present
+   * @return result set
+   * @see #execute(Statement)
+   * @see #execute(Statement, SessionToken)
+   * @see WorkloadRecorder
+   */
+  private PathStoreResultSet executeNormal(
+      final Statement statement, final SessionToken sessionToken) {
+    WorkloadRecorder recorder = WorkloadRecorder.getInstance();
+
+    if (!recorder.isEnabled()) return this.processStatement(statement, sessionToken);
+
+    RecordedStatement recorded = recorder.capture(statement, sessionToken);
+
+    if (recorded == null) return this.processStatement(statement, sessionToken);
+
+    long start = System.nanoTime();
+    boolean succeeded = false;
+    try {
+      PathStoreResultSet resultSet = this.processStatement(statement, sessionToken);
+      succeeded = true;
+      return resultSet;
+    } finally {
+      recorder.record(recorded, start, System.nanoTime() - start, succeeded);
+    }
+  }
+
   /**
    * This function is used to process a statement with or without a session token.
    *
@@ -131,10 +166,10 @@ public class PathStoreSession implements Session {
    * @param statement statement to execute
    * @param sessionToken session token if present
    * @return result set
-   * @see #execute(Statement)
-   * @see #execute(Statement, SessionToken)
+   * @see #executeNormal(Statement, SessionToken)
    */
-  private PathStoreResultSet executeNormal(Statement statement, final SessionToken sessionToken) {
+  private PathStoreResultSet processStatement(
+      Statement statement, final SessionToken sessionToken) {
 
     String keyspace = statement.getKeyspace();
     String table = "";
@@ -287,7 +322,7 @@ public class PathStoreSession implements Session {
   }
 
   /**
-   * This function is used to handle a session from the {@link #executeNormal(Statement,
+   * This function is used to handle a session from the {@link #processStatement(Statement,
    * SessionToken)} function.
    *
    * <p>If the session passed hasn't been validated (its been loaded in from the sessions file and
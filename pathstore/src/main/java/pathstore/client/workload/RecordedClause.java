@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client.workload;
+
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is used to denote a single where clause of a {@link RecordedStatement}. It keeps the
+ * column name, operator and values of the original clause so it can be re-built on replay.
+ */
+public final class RecordedClause {
+
+  /** Column name the clause applies to */
+  public final String name;
+
+  /** Operator as returned by {@link Clause#getOperation()} */
+  public final String operation;
+
+  /** Values of the clause, more than one only for IN clauses */
+  public final List<Object> values;
+
+  /**
+   * @param name {@link #name}
+   * @param operation {@link #operation}
+   * @param values {@link #values}
+   */
+  public RecordedClause(final String name, final String operation, final List<Object> values) {
+    this.name = name;
+    this.operation = operation;
+    this.values = values;
+  }
+
+  /**
+   * @param clause clause to copy
+   * @return copy of the clause, null if the clause is compound or has an unsupported value
+   */
+  static RecordedClause capture(final Clause clause) {
+    if (clause.getOperation() == null) return null;
+
+    List<Object> values = new ArrayList<>(clause.getValues());
+
+    for (Object value : values) if (!WorkloadTraceWriter.isSupported(value)) return null;
+
+    return new RecordedClause(clause.getName(), clause.getOperation(), values);
+  }
+
+  /** @return fresh query builder clause equivalent to the recorded one */
+  public Clause toClause() {
+    Object value = this.values.isEmpty() ? null : this.values.get(0);
+
+    switch (this.operation) {
+      case "=":
+        return QueryBuilder.eq(this.name, value);
+      case "<":
+        return QueryBuilder.lt(this.name, value);
+      case "<=":
+        return QueryBuilder.lte(this.name, value);
+      case ">":
+        return QueryBuilder.gt(this.name, value);
+      case ">=":
+        return QueryBuilder.gte(this.name, value);
+      case "LIKE":
+        return QueryBuilder.like(this.name, value);
+      case "IN":
+        return QueryBuilder.in(this.name, this.values);
+      case "CONTAINS":
+        return QueryBuilder.contains(this.name, value);
+      case "CONTAINS KEY":
+        return QueryBuilder.containsKey(this.name, value);
+      default:
+        throw new IllegalStateException(
+            String.format("Unknown clause operation %s", this.operation));
+    }
+  }
+}
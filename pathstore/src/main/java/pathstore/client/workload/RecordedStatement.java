@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client.workload;
+
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.*;
+import pathstore.sessions.SessionToken;
+import pathstore.sessions.SessionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is used to denote a single statement executed through {@link
+ * pathstore.client.PathStoreSession}. It is captured before the session adds its meta columns or
+ * converts deletes and updates to inserts, so replaying it goes through the exact same path as the
+ * original statement did.
+ *
+ * <p>Selects are always replayed as select *, as the selected columns aren't exposed by the query
+ * builder.
+ *
+ * @see WorkloadRecorder
+ */
+public final class RecordedStatement {
+
+  /** Type of statement recorded */
+  public enum Kind {
+    SELECT,
+    INSERT,
+    UPDATE,
+    DELETE
+  }
+
+  /** Type of statement */
+  public final Kind kind;
+
+  /** Name of the session the statement was executed with, null if no session was used */
+  public final String sessionName;
+
+  /** Type of the session the statement was executed with, null if no session was used */
+  public final SessionType sessionType;
+
+  /** Keyspace of the statement */
+  public final String keyspace;
+
+  /** Table of the statement */
+  public final String table;
+
+  /** Where clauses of selects, updates and deletes */
+  public final List<RecordedClause> clauses;
+
+  /** Column names of inserts or assigned columns of updates */
+  public final List<String> columns;
+
+  /** Values of {@link #columns} */
+  public final List<Object> values;
+
+  /** Limit of a select, null if there isn't one */
+  public final Integer limit;
+
+  /** Nano seconds since the start of the recording the statement was executed at */
+  long offsetNanos;
+
+  /** Nano seconds it took to execute the statement */
+  long durationNanos;
+
+  /** Whether the statement executed without an exception */
+  boolean succeeded;
+
+  /**
+   * @param kind {@link #kind}
+   * @param sessionName {@link #sessionName}
+   * @param sessionType {@link #sessionType}
+   * @param keyspace {@link #keyspace}
+   * @param table {@link #table}
+   * @param clauses {@link #clauses}
+   * @param columns {@link #columns}
+   * @param values {@link #values}
+   * @param limit {@link #limit}
+   */
+  public RecordedStatement(
+      final Kind kind,
+      final String sessionName,
+      final SessionType sessionType,
+      final String keyspace,
+      final String table,
+      final List<RecordedClause> clauses,
+      final List<String> columns,
+      final List<Object> values,
+      final Integer limit) {
+    this.kind = kind;
+    this.sessionName = sessionName;
+    this.sessionType = sessionType;
+    this.keyspace = keyspace;
+    this.table = table;
+    this.clauses = clauses;
+    this.columns = columns;
+    this.values = values;
+    this.limit = limit;
+  }
+
+  /**
+   * Copies the shape and values of a statement. This must be called before the statement is
+   * modified by the session.
+   *
+   * @param statement statement passed to the session
+   * @param sessionToken session token passed to the session, may be null
+   * @return recorded statement, null if the statement can't be recorded (bind markers, function
+   *     calls, compound clauses or non set assignments)
+   */
+  public static RecordedStatement capture(
+      final Statement statement, final SessionToken sessionToken) {
+    String sessionName = sessionToken == null ? null : sessionToken.sessionName;
+    SessionType sessionType = sessionToken == null ? null : sessionToken.sessionType;
+
+    List<RecordedClause> clauses = new ArrayList<>();
+    List<String> columns = new ArrayList<>();
+    List<Object> values = new ArrayList<>();
+
+    if (statement instanceof Select) {
+      Select select = (Select) statement;
+
+      if (!captureClauses(select.where().getClauses(), clauses)) return null;
+
+      Integer limit = null;
+      if (select.limit != null) {
+        if (!(select.limit instanceof Integer)) return null;
+        limit = (Integer) select.limit;
+      }
+
+      return new RecordedStatement(
+          Kind.SELECT,
+          sessionName,
+          sessionType,
+          select.getKeyspace(),
+          select.getTable(),
+          clauses,
+          columns,
+          values,
+          limit);
+    } else if (statement instanceof Insert) {
+      Insert insert = (Insert) statement;
+
+      for (Object name : insert.getNamesArrayList()) columns.add(name.toString());
+      values.addAll(insert.getValuesArrayList());
+
+      for (Object value : values) if (!WorkloadTraceWriter.isSupported(value)) return null;
+
+      return new RecordedStatement(
+          Kind.INSERT,
+          sessionName,
+          sessionType,
+          insert.getKeyspace(),
+          insert.getTable(),
+          clauses,
+          columns,
+          values,
+          null);
+    } else if (statement instanceof Update) {
+      Update update = (Update) statement;
+
+      for (Assignment assignment : update.with().getAssignments()) {
+        if (!(assignment instanceof Assignment.SetAssignment)) return null;
+
+        Object value = ((Assignment.SetAssignment) assignment).value;
+        if (!WorkloadTraceWriter.isSupported(value)) return null;
+
+        columns.add(assignment.name);
+        values.add(value);
+      }
+
+      if (!captureClauses(Update.where().getClauses(), clauses)) return null;
+
+      return new RecordedStatement(
+          Kind.UPDATE,
+          sessionName,
+          sessionType,
+          update.getKeyspace(),
+          update.getTable(),
+          clauses,
+          columns,
+          values,
+          null);
+    } else if (statement instanceof Delete) {
+      Delete delete = (Delete) statement;
+
+      if (!captureClauses(delete.where().getClauses(), clauses)) return null;
+
+      return new RecordedStatement(
+          Kind.DELETE,
+          sessionName,
+          sessionType,
+          delete.getKeyspace(),
+          delete.getTable(),
+          clauses,
+          columns,
+          values,
+          null);
+    }
+
+    return null;
+  }
+
+  /**
+   * @param source clauses of the statement
+   * @param destination list to add the recorded clauses to
+   * @return true if all clauses could be recorded
+   */
+  private static boolean captureClauses(
+      final List<Clause> source, final List<RecordedClause> destination) {
+    for (Clause clause : source) {
+      RecordedClause recorded = RecordedClause.capture(clause);
+      if (recorded == null) return false;
+      destination.add(recorded);
+    }
+    return true;
+  }
+
+  /**
+   * Sets the timing information once the statement has been executed
+   *
+   * @param offsetNanos {@link #offsetNanos}
+   * @param durationNanos {@link #durationNanos}
+   * @param succeeded {@link #succeeded}
+   */
+  void complete(final long offsetNanos, final long durationNanos, final boolean succeeded) {
+    this.offsetNanos = offsetNanos;
+    this.durationNanos = durationNanos;
+    this.succeeded = succeeded;
+  }
+
+  /** @return {@link #offsetNanos} */
+  public long getOffsetNanos() {
+    return this.offsetNanos;
+  }
+
+  /** @return {@link #durationNanos} */
+  public long getDurationNanos() {
+    return this.durationNanos;
+  }
+
+  /** @return {@link #succeeded} */
+  public boolean hasSucceeded() {
+    return this.succeeded;
+  }
+
+  /** @return fresh query builder statement equivalent to the recorded one */
+  public Statement toStatement() {
+    switch (this.kind) {
+      case SELECT:
+        Select select = QueryBuilder.select().all().from(this.keyspace, this.table);
+        Select.Where where = select.where();
+        for (RecordedClause clause : this.clauses) where.and(clause.toClause());
+        if (this.limit != null) select.limit(this.limit);
+        return select;
+      case INSERT:
+        Insert insert = QueryBuilder.insertInto(this.keyspace, this.table);
+        for (int i = 0; i < this.columns.size(); i++)
+          insert.value(this.columns.get(i), this.values.get(i));
+        return insert;
+      case UPDATE:
+        Update update = QueryBuilder.update(this.keyspace, this.table);
+        for (int i = 0; i < this.columns.size(); i++)
+          update.with(QueryBuilder.set(this.columns.get(i), this.values.get(i)));
+        for (RecordedClause clause : this.clauses) update.where(clause.toClause());
+        return update;
+      case DELETE:
+        Delete delete = QueryBuilder.delete().from(this.keyspace, this.table);
+        for (RecordedClause clause : this.clauses) delete.where(clause.toClause());
+        return delete;
+      default:
+        throw new IllegalStateException(String.format("Unknown statement kind %s", this.kind));
+    }
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client.workload;
+
+import com.datastax.driver.core.Statement;
+import pathstore.common.PathStoreProperties;
+import pathstore.sessions.SessionToken;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used to record every statement executed through {@link
+ * pathstore.client.PathStoreSession} to a trace file so the workload can be replayed later against
+ * another hierarchy.
+ *
+ * <p>Recording is opt-in and is enabled by setting {@link PathStoreProperties#workloadRecordFile}.
+ * If it is disabled a session only reads a volatile flag per statement.
+ *
+ * <p>Executing threads only capture the statement and put it on a bounded queue, the trace file is
+ * written by a single background thread that flushes at most once a second and on shutdown. If the
+ * queue is full the statement is dropped and counted. Statements that can't be recorded (bind
+ * markers, function calls etc.) are counted and skipped. If the file can't be written to,
+ * recording is disabled for the rest of the process.
+ *
+ * @see WorkloadTraceWriter
+ */
+public class WorkloadRecorder {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(WorkloadRecorder.class);
+
+  /** Interval buffered records are flushed at */
+  private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /** Maximum amount of statements waiting to be written */
+  private static final int QUEUE_CAPACITY = 65536;
+
+  /** Holds the instance, which is created on first use without locking afterwards */
+  private static final class Holder {
+    /** Instance of the recorder */
+    private static final WorkloadRecorder INSTANCE = new WorkloadRecorder();
+  }
+
+  /** @return instance of the recorder, created on first call */
+  public static WorkloadRecorder getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /** Statements written to the trace file */
+  private final Counter recorded =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_workload_statements_recorded_total", "Statements recorded");
+
+  /** Statements that couldn't be recorded */
+  private final Counter skipped =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_workload_statements_skipped_total",
+              "Statements that could not be recorded");
+
+  /** Statements dropped as the queue was full */
+  private final Counter dropped =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_workload_statements_dropped_total",
+              "Statements dropped as the record queue was full");
+
+  /** Monotonic time the recording started at */
+  private final long startNanos = System.nanoTime();
+
+  /** Statements waiting to be written */
+  private final BlockingQueue<RecordedStatement> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /** Writer of the trace file, null if recording is disabled. Only used by {@link #thread} */
+  private final WorkloadTraceWriter writer;
+
+  /** Thread writing {@link #queue} to {@link #writer}, null if recording is disabled */
+  private final Thread thread;
+
+  /** Whether statements are recorded */
+  private volatile boolean enabled = false;
+
+  /** Whether {@link #close()} was called */
+  private boolean closed = false;
+
+  /** Opens the trace file and starts the writer thread if recording is enabled */
+  private WorkloadRecorder() {
+    String file = PathStoreProperties.getInstance().workloadRecordFile;
+
+    WorkloadTraceWriter writer = null;
+
+    if (file != null) {
+      try {
+        writer =
+            new WorkloadTraceWriter(
+                file,
+                PathStoreProperties.getInstance().workloadRecordHashValues,
+                System.currentTimeMillis());
+        logger.info(String.format("Recording workload to %s", file));
+      } catch (IOException e) {
+        logger.error(e);
+      }
+    }
+
+    this.writer = writer;
+
+    if (writer == null) {
+      this.thread = null;
+      return;
+    }
+
+    this.enabled = true;
+    this.thread = new Thread(this::run, "workload-recorder");
+    this.thread.setDaemon(true);
+    this.thread.start();
+
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "workload-recorder-close"));
+  }
+
+  /** @return true if statements are recorded */
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * @param statement statement about to be executed
+   * @param sessionToken session token it is executed with, may be null
+   * @return captured statement, null if the statement can't be recorded
+   */
+  public RecordedStatement capture(final Statement statement, final SessionToken sessionToken) {
+    RecordedStatement recorded = RecordedStatement.capture(statement, sessionToken);
+
+    if (recorded == null) this.skipped.inc();
+
+    return recorded;
+  }
+
+  /**
+   * Queues a captured statement once it has been executed, it is written by the writer thread
+   *
+   * @param statement captured statement
+   * @param startNanos monotonic time the execution started at
+   * @param durationNanos time the execution took
+   * @param succeeded whether the execution succeeded
+   */
+  public void record(
+      final RecordedStatement statement,
+      final long startNanos,
+      final long durationNanos,
+      final boolean succeeded) {
+    if (!this.enabled) return;
+
+    statement.complete(startNanos - this.startNanos, durationNanos, succeeded);
+
+    if (!this.queue.offer(statement)) this.dropped.inc();
+  }
+
+  /** Writes queued statements and flushes every {@link #FLUSH_INTERVAL_NANOS} until disabled */
+  private void run() {
+    List<RecordedStatement> pending = new ArrayList<>();
+    long lastFlushNanos = System.nanoTime();
+
+    try {
+      while (this.enabled) {
+        RecordedStatement statement =
+            this.queue.poll(FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+
+        if (statement != null) {
+          pending.add(statement);
+          this.queue.drainTo(pending);
+          this.write(pending);
+        }
+
+        long now = System.nanoTime();
+        if (now - lastFlushNanos >= FLUSH_INTERVAL_NANOS) {
+          this.writer.flush();
+          lastFlushNanos = now;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.enabled = false;
+    } catch (IOException e) {
+      logger.error(e);
+      this.enabled = false;
+    }
+  }
+
+  /**
+   * @param pending statements to write, cleared afterwards
+   * @throws IOException if the file can't be written to
+   */
+  private void write(final List<RecordedStatement> pending) throws IOException {
+    for (RecordedStatement statement : pending) {
+      this.writer.write(statement);
+      this.recorded.inc();
+    }
+    pending.clear();
+  }
+
+  /**
+   * Writes the remaining statements, flushes and closes the trace file, no statements are recorded
+   * after this
+   */
+  public synchronized void close() {
+    if (this.writer == null || this.closed) return;
+
+    this.closed = true;
+    this.enabled = false;
+
+    try {
+      // the writer thread stops within one poll interval
+      this.thread.join();
+
+      List<RecordedStatement> pending = new ArrayList<>();
+      this.queue.drainTo(pending);
+      this.write(pending);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      logger.error(e);
+    } finally {
+      try {
+        this.writer.close();
+      } catch (IOException e) {
+        logger.error(e);
+      }
+    }
+  }
+}
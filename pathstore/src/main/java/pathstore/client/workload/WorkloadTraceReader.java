@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client.workload;
+
+import com.datastax.driver.core.LocalDate;
+import pathstore.sessions.SessionType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static pathstore.client.workload.WorkloadTraceWriter.*;
+
+/**
+ * This class is used to read a trace file written by {@link WorkloadTraceWriter}
+ *
+ * @see WorkloadTraceWriter for the file format
+ */
+public class WorkloadTraceReader implements Closeable {
+
+  /** Input stream of the trace file */
+  private final DataInputStream in;
+
+  /** Whether text and blob values were hashed by the recorder */
+  private final boolean hashedValues;
+
+  /** Wall clock time the recording started at */
+  private final long startMillis;
+
+  /** Names in the order they were first written */
+  private final List<String> dictionary = new ArrayList<>();
+
+  /**
+   * @param file trace file to read
+   * @throws IOException if the file can't be opened or isn't a trace file
+   */
+  public WorkloadTraceReader(final String file) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+
+    byte[] magic = new byte[MAGIC.length];
+    this.in.readFully(magic);
+
+    if (!Arrays.equals(magic, MAGIC))
+      throw new IOException(String.format("%s is not a workload trace file", file));
+
+    byte version = this.in.readByte();
+
+    if (version != VERSION)
+      throw new IOException(String.format("Unsupported workload trace version %d", version));
+
+    this.hashedValues = this.in.readBoolean();
+    this.startMillis = this.in.readLong();
+  }
+
+  /** @return {@link #hashedValues} */
+  public boolean hasHashedValues() {
+    return this.hashedValues;
+  }
+
+  /** @return {@link #startMillis} */
+  public long getStartMillis() {
+    return this.startMillis;
+  }
+
+  /**
+   * A truncated last record, which happens if the recording process was killed before flushing, is
+   * treated as the end of the file.
+   *
+   * @return next recorded statement, null once the end of the file is reached
+   * @throws IOException if the file can't be read or is corrupt
+   */
+  public RecordedStatement read() throws IOException {
+    try {
+      return this.readRecord();
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  /** @return next recorded statement */
+  private RecordedStatement readRecord() throws IOException {
+    long offsetNanos = this.readVarLong();
+    long durationNanos = this.readVarLong();
+    RecordedStatement.Kind kind = RecordedStatement.Kind.values()[this.in.readByte()];
+    boolean succeeded = this.in.readBoolean();
+    String sessionName = this.readName();
+    int sessionType = this.in.readByte();
+    String keyspace = this.readName();
+    String table = this.readName();
+
+    int clauseCount = (int) this.readVarLong();
+    List<RecordedClause> clauses = new ArrayList<>(clauseCount);
+    for (int i = 0; i < clauseCount; i++) {
+      String name = this.readName();
+      String operation = this.readName();
+      int valueCount = (int) this.readVarLong();
+      List<Object> values = new ArrayList<>(valueCount);
+      for (int j = 0; j < valueCount; j++) values.add(this.readValue());
+      clauses.add(new RecordedClause(name, operation, values));
+    }
+
+    int columnCount = (int) this.readVarLong();
+    List<String> columns = new ArrayList<>(columnCount);
+    List<Object> values = new ArrayList<>(columnCount);
+    for (int i = 0; i < columnCount; i++) {
+      columns.add(this.readName());
+      values.add(this.readValue());
+    }
+
+    int limit = (int) this.readVarLong();
+
+    RecordedStatement statement =
+        new RecordedStatement(
+            kind,
+            sessionName,
+            sessionType == 0 ? null : SessionType.values()[sessionType - 1],
+            keyspace,
+            table,
+            clauses,
+            columns,
+            values,
+            limit == 0 ? null : limit);
+
+    statement.complete(offsetNanos, durationNanos, succeeded);
+
+    return statement;
+  }
+
+  /** @return name referenced by the next dictionary index */
+  private String readName() throws IOException {
+    int index = (int) this.readVarLong();
+
+    if (index == 0) return null;
+
+    if (index == 1) {
+      String name = this.in.readUTF();
+      this.dictionary.add(name);
+      return name;
+    }
+
+    return this.dictionary.get(index - 2);
+  }
+
+  /** @return next tagged value */
+  private Object readValue() throws IOException {
+    byte tag = this.in.readByte();
+
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return new String(this.readBytes(), StandardCharsets.UTF_8);
+      case INT:
+        return (int) this.readZigZag();
+      case LONG:
+        return this.readZigZag();
+      case BOOLEAN:
+        return this.in.readBoolean();
+      case DOUBLE:
+        return this.in.readDouble();
+      case FLOAT:
+        return this.in.readFloat();
+      case UUID_TAG:
+        return new UUID(this.in.readLong(), this.in.readLong());
+      case BYTES:
+        return ByteBuffer.wrap(this.readBytes());
+      case DATE:
+        return new Date(this.readZigZag());
+      case LOCAL_DATE:
+        return LocalDate.fromDaysSinceEpoch((int) this.readZigZag());
+      case LIST:
+      case SET:
+        int size = (int) this.readVarLong();
+        Collection<Object> collection =
+            tag == SET ? new LinkedHashSet<>(size) : new ArrayList<>(size);
+        for (int i = 0; i < size; i++) collection.add(this.readValue());
+        return collection;
+      case MAP:
+        int entries = (int) this.readVarLong();
+        Map<Object, Object> map = new LinkedHashMap<>(entries);
+        for (int i = 0; i < entries; i++) map.put(this.readValue(), this.readValue());
+        return map;
+      default:
+        throw new IOException(String.format("Unknown value tag %d", tag));
+    }
+  }
+
+  /** @return length prefixed bytes */
+  private byte[] readBytes() throws IOException {
+    byte[] bytes = new byte[(int) this.readVarLong()];
+    this.in.readFully(bytes);
+    return bytes;
+  }
+
+  /** @return zig zag decoded signed value */
+  private long readZigZag() throws IOException {
+    long value = this.readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /** @return unsigned var long */
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = this.in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IOException("Malformed var long");
+  }
+
+  /** Closes the file */
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.client.workload;
+
+import com.datastax.driver.core.LocalDate;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * This class is used to write {@link RecordedStatement}s to a compact binary trace file.
+ *
+ * <p>The file starts with the {@link #MAGIC} bytes, the format {@link #VERSION}, whether values are
+ * hashed and the wall clock time the recording started at. Each record after that is the offset and
+ * duration as var longs, the kind and outcome, followed by the session, keyspace, table, clauses
+ * and column values. Names are written once and referenced by index afterwards, so a record of a
+ * repeated statement shape is mostly its values.
+ *
+ * <p>If hashing is enabled, text and blob values are replaced by a deterministic murmur3 derived
+ * value of the same length. Equal values stay equal and sizes are preserved, numbers, uuids and
+ * dates are kept as is so range clauses still select the same rows.
+ *
+ * @see WorkloadTraceReader
+ */
+public class WorkloadTraceWriter implements Closeable {
+
+  /** First bytes of every trace file */
+  static final byte[] MAGIC = "PSWL".getBytes(StandardCharsets.US_ASCII);
+
+  /** Format version */
+  static final byte VERSION = 1;
+
+  // value tags
+  static final byte NULL = 0;
+  static final byte STRING = 1;
+  static final byte INT = 2;
+  static final byte LONG = 3;
+  static final byte BOOLEAN = 4;
+  static final byte DOUBLE = 5;
+  static final byte FLOAT = 6;
+  static final byte UUID_TAG = 7;
+  static final byte BYTES = 8;
+  static final byte DATE = 9;
+  static final byte LOCAL_DATE = 10;
+  static final byte LIST = 11;
+  static final byte SET = 12;
+  static final byte MAP = 13;
+
+  /** Output stream of the trace file */
+  private final DataOutputStream out;
+
+  /** Whether text and blob values are hashed */
+  private final boolean hashValues;
+
+  /** Index of every name written so far */
+  private final Map<String, Integer> dictionary = new HashMap<>();
+
+  /**
+   * @param file file to write to, truncated if it exists
+   * @param hashValues {@link #hashValues}
+   * @param startMillis wall clock time the recording started at
+   * @throws IOException if the file can't be opened
+   */
+  public WorkloadTraceWriter(final String file, final boolean hashValues, final long startMillis)
+      throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    this.hashValues = hashValues;
+
+    this.out.write(MAGIC);
+    this.out.writeByte(VERSION);
+    this.out.writeBoolean(hashValues);
+    this.out.writeLong(startMillis);
+  }
+
+  /**
+   * @param value value of a clause or column
+   * @return true if the value can be written to a trace file
+   */
+  static boolean isSupported(final Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Boolean
+        || value instanceof Double
+        || value instanceof Float
+        || value instanceof UUID
+        || value instanceof ByteBuffer
+        || value instanceof Date
+        || value instanceof LocalDate) return true;
+
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) if (!isSupported(element)) return false;
+      return true;
+    }
+
+    if (value instanceof Map) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+        if (!isSupported(entry.getKey()) || !isSupported(entry.getValue())) return false;
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Writes a completed statement
+   *
+   * @param statement statement to write
+   * @throws IOException if the write fails
+   */
+  public void write(final RecordedStatement statement) throws IOException {
+    this.writeVarLong(statement.offsetNanos);
+    this.writeVarLong(statement.durationNanos);
+    this.out.writeByte(statement.kind.ordinal());
+    this.out.writeBoolean(statement.succeeded);
+    this.writeName(statement.sessionName);
+    this.out.writeByte(statement.sessionType == null ? 0 : statement.sessionType.ordinal() + 1);
+    this.writeName(statement.keyspace);
+    this.writeName(statement.table);
+
+    this.writeVarLong(statement.clauses.size());
+    for (RecordedClause clause : statement.clauses) {
+      this.writeName(clause.name);
+      this.writeName(clause.operation);
+      this.writeVarLong(clause.values.size());
+      for (Object value : clause.values) this.writeValue(value);
+    }
+
+    this.writeVarLong(statement.columns.size());
+    for (int i = 0; i < statement.columns.size(); i++) {
+      this.writeName(statement.columns.get(i));
+      this.writeValue(statement.values.get(i));
+    }
+
+    this.writeVarLong(statement.limit == null ? 0 : statement.limit);
+  }
+
+  /**
+   * Writes a name as an index into the dictionary. 0 denotes null, 1 a new name which follows
+   * directly and n + 2 the nth name written.
+   *
+   * @param name name to write
+   */
+  private void writeName(final String name) throws IOException {
+    if (name == null) {
+      this.writeVarLong(0);
+      return;
+    }
+
+    Integer index = this.dictionary.get(name);
+
+    if (index == null) {
+      this.dictionary.put(name, this.dictionary.size());
+      this.writeVarLong(1);
+      this.out.writeUTF(name);
+    } else this.writeVarLong(index + 2);
+  }
+
+  /** @param value supported value to write with its tag */
+  private void writeValue(final Object value) throws IOException {
+    if (value == null) this.out.writeByte(NULL);
+    else if (value instanceof String) {
+      byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      this.out.writeByte(STRING);
+      this.writeBytes(this.hashValues ? this.hash(bytes, true) : bytes);
+    } else if (value instanceof Integer) {
+      this.out.writeByte(INT);
+      this.writeZigZag((Integer) value);
+    } else if (value instanceof Long) {
+      this.out.writeByte(LONG);
+      this.writeZigZag((Long) value);
+    } else if (value instanceof Boolean) {
+      this.out.writeByte(BOOLEAN);
+      this.out.writeBoolean((Boolean) value);
+    } else if (value instanceof Double) {
+      this.out.writeByte(DOUBLE);
+      this.out.writeDouble((Double) value);
+    } else if (value instanceof Float) {
+      this.out.writeByte(FLOAT);
+      this.out.writeFloat((Float) value);
+    } else if (value instanceof UUID) {
+      this.out.writeByte(UUID_TAG);
+      this.out.writeLong(((UUID) value).getMostSignificantBits());
+      this.out.writeLong(((UUID) value).getLeastSignificantBits());
+    } else if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      this.out.writeByte(BYTES);
+      this.writeBytes(this.hashValues ? this.hash(bytes, false) : bytes);
+    } else if (value instanceof Date) {
+      this.out.writeByte(DATE);
+      this.writeZigZag(((Date) value).getTime());
+    } else if (value instanceof LocalDate) {
+      this.out.writeByte(LOCAL_DATE);
+      this.writeZigZag(((LocalDate) value).getDaysSinceEpoch());
+    } else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      this.out.writeByte(value instanceof Set ? SET : LIST);
+      this.writeVarLong(collection.size());
+      for (Object element : collection) this.writeValue(element);
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      this.out.writeByte(MAP);
+      this.writeVarLong(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        this.writeValue(entry.getKey());
+        this.writeValue(entry.getValue());
+      }
+    } else
+      throw new IllegalArgumentException(
+          String.format("Unsupported value type %s", value.getClass().getName()));
+  }
+
+  /**
+   * @param bytes original value
+   * @param text whether the replacement must be valid utf-8 text
+   * @return deterministic replacement of the same length
+   */
+  private byte[] hash(final byte[] bytes, final boolean text) {
+    byte[] digest = Hashing.murmur3_128().hashBytes(bytes).asBytes();
+    byte[] replacement = new byte[bytes.length];
+
+    for (int i = 0; i < replacement.length; i++) {
+      byte b = digest[i % digest.length];
+      replacement[i] = text ? (byte) ('a' + ((b & 0xff) + i / digest.length) % 26) : b;
+    }
+
+    return replacement;
+  }
+
+  /** @param bytes length prefixed bytes to write */
+  private void writeBytes(final byte[] bytes) throws IOException {
+    this.writeVarLong(bytes.length);
+    this.out.write(bytes);
+  }
+
+  /** @param value signed value to write as a zig zag encoded var long */
+  private void writeZigZag(final long value) throws IOException {
+    this.writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  /** @param value unsigned value to write, 7 bits per byte */
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      this.out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    this.out.writeByte((int) value);
+  }
+
+  /** Flushes buffered records to the file */
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  /** Flushes and closes the file */
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+}
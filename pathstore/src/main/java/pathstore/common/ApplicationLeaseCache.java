@@ -24,24 +24,49 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import pathstore.client.PathStoreSession;
 import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.util.MetadataCache;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to cache application lease times on the server and the client.
  *
  * <p>This is so that when performing operations on the querycache we have a centralized place to
  * pull CLT / SLT information
+ *
+ * <p>Leases are held in a {@link MetadataCache}, so concurrent misses for the same application only
+ * query {@link Constants#APPLICATION_LEASE_TIME} once and lookups of a cached lease never wait on
+ * cassandra. Unknown applications are cached as absent and re-checked in the background every
+ * {@link #REFRESH_INTERVAL_SECONDS}, the schema state machine invalidates an application when it is
+ * installed or removed so those changes are visible right away.
  */
 public class ApplicationLeaseCache {
   /** Instance of cache */
   @Getter(lazy = true)
   private static final ApplicationLeaseCache instance = new ApplicationLeaseCache();
 
-  /** Lease Cache */
-  private final Map<String, ApplicationLease> leaseCache = new HashMap<>();
+  /** Maximum amount of applications to keep leases for */
+  private static final long MAXIMUM_SIZE = 1024;
+
+  /** How long a lease is served before it is re-read in the background */
+  private static final long REFRESH_INTERVAL_SECONDS = 60;
+
+  /** Lease Cache, keyed by application name */
+  private final MetadataCache<String, Optional<ApplicationLease>> leaseCache;
+
+  /** Clients can't read the lease table, so their lease is never refreshed */
+  private ApplicationLeaseCache() {
+    MetadataCache.Builder<String, Optional<ApplicationLease>> builder =
+        MetadataCache.<String, Optional<ApplicationLease>>newBuilder(
+                "application_lease", ApplicationLeaseCache::loadLease)
+            .maximumSize(MAXIMUM_SIZE);
+
+    if (PathStoreProperties.getInstance().role != Role.CLIENT)
+      builder.refreshAfter(REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+    this.leaseCache = builder.build();
+  }
 
   /**
    * This function is used to allow the witting of a application lease manually. This is because we
@@ -53,8 +78,7 @@ public class ApplicationLeaseCache {
    *     pathstore.client.PathStoreClientAuthenticatedCluster} and only works if the key is not set.
    */
   public void setLease(final String applicationName, final ApplicationLease applicationLease) {
-    if (!this.leaseCache.containsKey(applicationName))
-      this.leaseCache.put(applicationName, applicationLease);
+    this.leaseCache.putIfAbsent(applicationName, Optional.of(applicationLease));
   }
 
   /**
@@ -64,45 +88,50 @@ public class ApplicationLeaseCache {
    * @param applicationName name to retrieve leasing information for
    * @return optional application lease. If present it is a valid application name, else it is an
    *     in-valid application name that is not registered within the pathstore network.
-   * @apiNote We can perform this type of caching as this table is immutable. It is only written to
-   *     by the admin-panel and once a record is written for a given application it never changes.
-   *     This class will need to be changed if there is a possibility for lease time change in the
-   *     future
    */
   public Optional<ApplicationLease> getLease(final String applicationName) {
-    if (leaseCache.containsKey(applicationName))
-      return Optional.of(leaseCache.get(applicationName));
-    else {
-      if (PathStoreProperties.getInstance().role != Role.CLIENT) {
-        PathStoreSession session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
-
-        Select selectApplicationLeaseInformation =
-            QueryBuilder.select()
-                .all()
-                .from(Constants.PATHSTORE_APPLICATIONS, Constants.APPLICATION_LEASE_TIME);
-
-        selectApplicationLeaseInformation.where(
-            QueryBuilder.eq(
-                Constants.APPLICATION_LEASE_TIME_COLUMNS.KEYSPACE_NAME, applicationName));
-
-        Optional<ApplicationLease> applicationLeaseOptional =
-            session.execute(selectApplicationLeaseInformation).stream()
-                .findFirst()
-                .map(
-                    row ->
-                        new ApplicationLease(
-                            row.getInt(Constants.APPLICATION_LEASE_TIME_COLUMNS.CLIENT_LEASE_TIME),
-                            row.getInt(
-                                Constants.APPLICATION_LEASE_TIME_COLUMNS.SERVER_ADDITIONAL_TIME)));
-
-        applicationLeaseOptional.ifPresent(
-            applicationLease -> this.leaseCache.put(applicationName, applicationLease));
-
-        return applicationLeaseOptional;
-      } else
-        throw new RuntimeException(
-            "Cannot get lease information for applications outside of the one registered to your client account");
-    }
+    return this.leaseCache.get(applicationName);
+  }
+
+  /**
+   * Drops the cached lease of an application, called when an application is installed or removed
+   * on this node
+   *
+   * @param applicationName application name
+   * @see pathstore.system.schemaFSM.PathStoreSlaveSchemaServer
+   */
+  public void invalidate(final String applicationName) {
+    this.leaseCache.invalidate(applicationName);
+  }
+
+  /**
+   * @param applicationName application to read the lease of
+   * @return lease if the application is registered
+   * @throws RuntimeException if called on a client, clients only know the lease of their own
+   *     application which is set through {@link #setLease(String, ApplicationLease)}
+   */
+  private static Optional<ApplicationLease> loadLease(final String applicationName) {
+    if (PathStoreProperties.getInstance().role == Role.CLIENT)
+      throw new RuntimeException(
+          "Cannot get lease information for applications outside of the one registered to your client account");
+
+    PathStoreSession session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
+
+    Select selectApplicationLeaseInformation =
+        QueryBuilder.select()
+            .all()
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.APPLICATION_LEASE_TIME);
+
+    selectApplicationLeaseInformation.where(
+        QueryBuilder.eq(Constants.APPLICATION_LEASE_TIME_COLUMNS.KEYSPACE_NAME, applicationName));
+
+    return session.execute(selectApplicationLeaseInformation).stream()
+        .findFirst()
+        .map(
+            row ->
+                new ApplicationLease(
+                    row.getInt(Constants.APPLICATION_LEASE_TIME_COLUMNS.SERVER_ADDITIONAL_TIME),
+                    row.getInt(Constants.APPLICATION_LEASE_TIME_COLUMNS.CLIENT_LEASE_TIME)));
   }
 
   /**
@@ -29,6 +29,7 @@ package pathstore.common;
 public final class Constants {
 
   public static final String PROPERTIESFILE = "/etc/pathstore/pathstore.properties";
+  public static final String PROPERTIESFILE_SYSTEM_PROPERTY = "pathstore.properties";
 
   public static final String DEFAULT_CASSANDRA_USERNAME = "cassandra";
   public static final String DEFAULT_CASSANDRA_PASSWORD = "cassandra";
@@ -64,6 +65,16 @@ public final class Constants {
     public static final String REGISTRY_IP = "registryIP";
     public static final String PRINT_LOGS = "printLogs";
     public static final String PATHSTORE_VERSION = "pathstoreVersion";
+    public static final String METRICS_PORT = "MetricsPort";
+    public static final String HEARTBEAT_INTERVAL = "HeartbeatInterval";
+    public static final String TRACE_DIRECTORY = "TraceDirectory";
+    public static final String CONTROL_PLANE_POLL_INTERVAL = "ControlPlanePollInterval";
+    public static final String LOG_RETENTION_DAYS = "LogRetentionDays";
+    public static final String PERSIST_LOG_LEVEL = "PersistLogLevel";
+    public static final String WORKLOAD_RECORD_FILE = "workloadRecordFile";
+    public static final String WORKLOAD_RECORD_HASH_VALUES = "workloadRecordHashValues";
+    public static final String SCHEMA_CACHE_FILE = "schemaCacheFile";
+    public static final String SCHEMA_WATCH_INTERVAL = "schemaWatchInterval";
   }
 
   public static final class PATHSTORE_META_COLUMNS {
@@ -191,6 +202,26 @@ public final class Constants {
     public static final String LOG = "log";
   }
 
+  public static final String HEARTBEATS = "heartbeats";
+
+  public static final class HEARTBEATS_COLUMNS {
+    public static final String NODE_ID = "node_id";
+    public static final String PARENT_NODE_ID = "parent_node_id";
+    public static final String WRITTEN_AT = "written_at";
+  }
+
+  public static final String REPLICATION_LAG = "replication_lag";
+
+  public static final class REPLICATION_LAG_COLUMNS {
+    public static final String NODE_ID = "node_id";
+    public static final String ORIGIN_NODE_ID = "origin_node_id";
+    public static final String LINK = "link";
+    public static final String SAMPLES = "samples";
+    public static final String P50 = "p50";
+    public static final String P99 = "p99";
+    public static final String MAX = "max";
+  }
+
   public static final String APPLICATION_CREDENTIALS = "application_credentials";
 
   public static final class APPLICATION_CREDENTIALS_COLUMNS {
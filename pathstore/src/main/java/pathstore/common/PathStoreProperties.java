@@ -20,12 +20,14 @@ package pathstore.common;
 
 import lombok.ToString;
 import pathstore.authentication.credentials.NodeCredential;
+import pathstore.system.logging.LoggerLevel;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
 
 import static pathstore.common.Constants.PROPERTIESFILE;
+import static pathstore.common.Constants.PROPERTIESFILE_SYSTEM_PROPERTY;
 import static pathstore.common.Constants.PROPERTIES_CONSTANTS.*;
 
 /**
@@ -59,6 +61,18 @@ import static pathstore.common.Constants.PROPERTIES_CONSTANTS.*;
  *
  * <p>{@link Constants.PROPERTIES_CONSTANTS#PARENT_ID}
  *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#METRICS_PORT} (optional)
+ *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#HEARTBEAT_INTERVAL} (optional)
+ *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#TRACE_DIRECTORY} (optional)
+ *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#CONTROL_PLANE_POLL_INTERVAL} (optional)
+ *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#LOG_RETENTION_DAYS} (optional)
+ *
+ * <p>{@link Constants.PROPERTIES_CONSTANTS#PERSIST_LOG_LEVEL} (optional)
+ *
  * <p>Plus all the values from {@link Role#CLIENT}
  *
  * <p>CLIENT {@link Role#CLIENT}:
@@ -92,6 +106,17 @@ public class PathStoreProperties {
    */
   private static PathStoreProperties instance = null;
 
+  /**
+   * Overrides the instance, this allows properties to be supplied programmatically instead of
+   * through {@link Constants#PROPERTIESFILE} (benchmarks, test harnesses)
+   *
+   * @param properties properties to use
+   * @see #PathStoreProperties(Properties)
+   */
+  public static synchronized void setInstance(final PathStoreProperties properties) {
+    PathStoreProperties.instance = properties;
+  }
+
   /** @return either create new instance and return it or return existing instance */
   public static synchronized PathStoreProperties getInstance() {
     if (PathStoreProperties.instance == null)
@@ -173,6 +198,50 @@ public class PathStoreProperties {
   /** Denotes how often the push server pull's data */
   public int PushSleep = 1000;
 
+  /**
+   * Denotes the port the metrics http endpoint is served on, -1 if disabled
+   *
+   * @see pathstore.system.metrics.MetricsHttpServer
+   */
+  public int MetricsPort = -1;
+
+  /**
+   * Denotes how often (ms) a heartbeat is written and observed for replication lag, -1 if disabled
+   *
+   * @see pathstore.system.replication.ReplicationLagProbe
+   */
+  public int HeartbeatInterval = 1000;
+
+  /**
+   * Denotes the directory spans are written to, null if spans aren't written
+   *
+   * @see pathstore.system.tracing.FileSpanExporter
+   */
+  public String TraceDirectory = null;
+
+  /**
+   * Denotes how often (ms) the deployment and schema state machines rescan their tables. They react
+   * to control plane events, this only covers events lost while a watch was reconnecting
+   *
+   * @see pathstore.system.controlplane.ControlPlaneEvents
+   */
+  public int ControlPlanePollInterval = 30000;
+
+  /**
+   * Denotes how many days logs are kept for before they expire, 0 to keep them forever
+   *
+   * @see pathstore.system.logging.PathStoreLogRetention
+   */
+  public int LogRetentionDays = 7;
+
+  /**
+   * Denotes the lowest level of messages that are stored in the logs table, lower levels are only
+   * printed. Defaults to every level so the administration panel can show all of them
+   *
+   * @see pathstore.system.logging.PathStoreLoggerFactory#setPersistLoggerLevel(LoggerLevel)
+   */
+  public LoggerLevel PersistLogLevel = LoggerLevel.FINEST;
+
   // client only properties
 
   /** where to store session tokens on client side */
@@ -197,6 +266,33 @@ public class PathStoreProperties {
    */
   public boolean printLogs = true;
 
+  /**
+   * Denotes the file statements executed through a pathstore session are recorded to, null if
+   * recording is disabled
+   *
+   * @see pathstore.client.workload.WorkloadRecorder
+   */
+  public String workloadRecordFile = null;
+
+  /** Whether text and blob values are hashed before they're written to the workload record */
+  public boolean workloadRecordHashValues = false;
+
+  /**
+   * Denotes the file the application schema is cached in, null to use a file in the temporary
+   * directory
+   *
+   * @see pathstore.client.ClientSchemaCache
+   */
+  public String schemaCacheFile = null;
+
+  /**
+   * Denotes how often (ms) a client re-opens its schema watch to the local node if it was closed, 0
+   * to not watch schema changes
+   *
+   * @see pathstore.client.ClientSchemaWatcher
+   */
+  public int schemaWatchInterval = 5000;
+
   /** This string is to denote the pathstore version used */
   public String pathstoreVersion = null;
 
@@ -205,11 +301,17 @@ public class PathStoreProperties {
    * what is parsed
    */
   public PathStoreProperties() {
-    try {
-      Properties props = new Properties();
-      FileInputStream in = new FileInputStream(PROPERTIESFILE);
-      props.load(in);
+    this(loadPropertiesFile());
+  }
 
+  /**
+   * Parses properties that have already been loaded
+   *
+   * @param props properties with the keys from {@link Constants.PROPERTIES_CONSTANTS}
+   * @see #PathStoreProperties()
+   */
+  public PathStoreProperties(final Properties props) {
+    try {
       this.role = Role.valueOf(this.getProperty(props, ROLE));
 
       switch (this.role) {
@@ -234,6 +336,16 @@ public class PathStoreProperties {
           this.pathstoreVersion = this.getProperty(props, PATHSTORE_VERSION);
           this.CassandraIP = this.getProperty(props, CASSANDRA_IP);
           this.CassandraPort = Integer.parseInt(this.getProperty(props, CASSANDRA_PORT));
+          this.MetricsPort = Integer.parseInt(this.getProperty(props, METRICS_PORT, "-1"));
+          this.HeartbeatInterval =
+              Integer.parseInt(this.getProperty(props, HEARTBEAT_INTERVAL, "1000"));
+          this.TraceDirectory = this.getProperty(props, TRACE_DIRECTORY, null);
+          this.ControlPlanePollInterval =
+              Integer.parseInt(this.getProperty(props, CONTROL_PLANE_POLL_INTERVAL, "30000"));
+          this.LogRetentionDays =
+              Integer.parseInt(this.getProperty(props, LOG_RETENTION_DAYS, "7"));
+          this.PersistLogLevel =
+              LoggerLevel.valueOf(this.getProperty(props, PERSIST_LOG_LEVEL, "FINEST"));
         case CLIENT:
           this.GRPCIP = this.getProperty(props, GRPC_IP);
           this.GRPCPort = Integer.parseInt(this.getProperty(props, GRPC_PORT));
@@ -241,20 +353,39 @@ public class PathStoreProperties {
           this.applicationName = this.getProperty(props, APPLICATION_NAME);
           this.applicationMasterPassword = this.getProperty(props, APPLICATION_MASTER_PASSWORD);
           this.printLogs = Boolean.parseBoolean(this.getProperty(props, PRINT_LOGS, "true"));
+          this.workloadRecordFile = this.getProperty(props, WORKLOAD_RECORD_FILE, null);
+          this.workloadRecordHashValues =
+              Boolean.parseBoolean(this.getProperty(props, WORKLOAD_RECORD_HASH_VALUES, "false"));
+          this.schemaCacheFile = this.getProperty(props, SCHEMA_CACHE_FILE, null);
+          this.schemaWatchInterval =
+              Integer.parseInt(this.getProperty(props, SCHEMA_WATCH_INTERVAL, "5000"));
           break;
         default:
           throw new Exception();
       }
+    } catch (Exception e) {
+      System.err.println("You must provide a role out of (CLIENT, SERVER, ROOTSERVER)");
+      System.exit(1);
+    }
+  }
 
-      in.close();
+  /**
+   * The location can be overridden with the {@link Constants#PROPERTIESFILE_SYSTEM_PROPERTY} system
+   * property, which allows multiple nodes to run on a single host
+   *
+   * @return properties read from {@link Constants#PROPERTIESFILE}, exits if it can't be read
+   */
+  private static Properties loadPropertiesFile() {
+    Properties props = new Properties();
+    String location = System.getProperty(PROPERTIESFILE_SYSTEM_PROPERTY, PROPERTIESFILE);
+    try (FileInputStream in = new FileInputStream(location)) {
+      props.load(in);
     } catch (IOException ex) {
-        System.err.println("Error parsing properties file with the stack trace:");
-        ex.printStackTrace();
-        System.exit(1);
-    }catch (Exception e){
-        System.err.println("You must provide a role out of (CLIENT, SERVER, ROOTSERVER)");
-        System.exit(1);
+      System.err.println("Error parsing properties file with the stack trace:");
+      ex.printStackTrace();
+      System.exit(1);
     }
+    return props;
   }
 
   /**
@@ -30,12 +30,15 @@ import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.garbagecollection.PathStoreGarbageCollection;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
 import pathstore.util.SchemaInfo;
 import pathstore.util.SchemaInfo.Column;
+import pathstore.util.TableDescriptor;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -68,6 +71,40 @@ public class QueryCache {
   private final ConcurrentMap<String, ConcurrentMap<String, List<QueryCacheEntry>>> entries =
       new ConcurrentHashMap<>();
 
+  /** Update cache calls that found a usable entry */
+  private final Counter hits =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_query_cache_requests_total", "Update cache calls", "result", "hit");
+
+  /** Update cache calls that had to add an entry */
+  private final Counter misses =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_query_cache_requests_total", "Update cache calls", "result", "miss");
+
+  /** Rows written to view tables while creating deltas for children */
+  private final Counter deltaRows =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_delta_rows_total", "Rows written to view tables for child deltas");
+
+  /** Delta requests that found no new rows on the parent */
+  private final Counter emptyDeltas =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_pull_empty_deltas_total", "Delta requests with no new rows");
+
+  /** Rows fetched from the parent and written locally */
+  private final Counter rowsPulled =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_pull_rows_total", "Rows fetched from the parent node");
+
+  /** Registers the size of the cache as a gauge */
+  private QueryCache() {
+    MetricsRegistry.getInstance()
+        .gauge(
+            "pathstore_query_cache_entries",
+            "Entries in the query cache",
+            () -> this.stream().count());
+  }
+
   /**
    * @param entries entries to flat map
    * @return stream of qc entries from map
@@ -237,19 +274,18 @@ public class QueryCache {
       final String keyspace, final String table, final byte[] clausesSerialized, final int limit)
       throws ClassNotFoundException, IOException {
 
-    ByteArrayInputStream bytesIn = new ByteArrayInputStream(clausesSerialized);
-    ObjectInputStream ois = new ObjectInputStream(bytesIn);
-    List<Clause> clauses = (List<Clause>) ois.readObject();
+    List<Clause> clauses = QueryCacheEntry.deserializeClauses(clausesSerialized);
 
     QueryCacheEntry entry = getEntry(keyspace, table, clauses, limit);
 
     if (entry == null || entry.isRemoving()) {
+      this.misses.inc();
 
       // if the entry is removing then wait until it is removed
       if (entry != null) entry.waitUntilRemoved();
 
       entry = addEntry(keyspace, table, clauses, clausesSerialized, limit);
-    }
+    } else this.hits.inc();
 
     entry.waitUntilReady();
 
@@ -275,6 +311,7 @@ public class QueryCache {
     QueryCacheEntry entry = getEntry(keyspace, table, clauses, limit);
 
     if (entry == null || entry.isExpired()) {
+      this.misses.inc();
 
       // remove the entry from the cache if the entry is expired
       if (entry != null) {
@@ -283,7 +320,7 @@ public class QueryCache {
       }
 
       entry = addEntry(keyspace, table, clauses, null, limit);
-    }
+    } else this.hits.inc();
 
     entry.waitUntilReady();
 
@@ -411,7 +448,12 @@ public class QueryCache {
    */
   private QueryCacheEntry processEntry(final QueryCacheEntry newEntry) {
 
-    try {
+    try (Span span =
+        Tracer.getInstance()
+            .start("query_cache_miss")
+            .tag("keyspace", newEntry.keyspace)
+            .tag("table", newEntry.table)
+            .tag("covered", newEntry.getIsCovered() != null)) {
 
       // If the entry isn't covered add the entry to your parents cache (or your local nodes cache)
       if (PathStoreProperties.getInstance().role != Role.ROOTSERVER
@@ -455,10 +497,7 @@ public class QueryCache {
       final int nodeID,
       int limit)
       throws IOException, ClassNotFoundException {
-    ByteArrayInputStream bytesIn = new ByteArrayInputStream(clausesSerialized);
-    ObjectInputStream ois = new ObjectInputStream(bytesIn);
-    @SuppressWarnings("unchecked")
-    List<Clause> clauses = (List<Clause>) ois.readObject();
+    List<Clause> clauses = QueryCacheEntry.deserializeClauses(clausesSerialized);
 
     UUID deltaID = UUID.randomUUID();
 
@@ -476,29 +515,27 @@ public class QueryCache {
 
     Session local = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
 
-    try {
+    try (Span span =
+        Tracer.getInstance()
+            .start("create_delta")
+            .tag("keyspace", keyspace)
+            .tag("table", table)
+            .tag("node", nodeID)) {
 
       // hossein here:
       select.setFetchSize(1000);
 
-      ResultSet results = local.execute(select);
+      ResultSet results = Tracer.getInstance().execute("local_select", local, select);
 
-      Collection<Column> columns = SchemaInfo.getInstance().getTableColumns(keyspace, table);
+      TableDescriptor descriptor = SchemaInfo.getInstance().getTableDescriptor(keyspace, table);
+
+      List<Column> columns = descriptor.getColumns();
 
       Batch batch = QueryBuilder.batch();
 
       int batchSize = 0;
 
-      PathStorePrivilegedCluster cluster = PathStorePrivilegedCluster.getDaemonInstance();
-
-      String primary =
-          cluster
-              .getMetadata()
-              .getKeyspace(keyspace)
-              .getTable(table)
-              .getPrimaryKey()
-              .get(0)
-              .getName();
+      int primary = descriptor.indexOf(descriptor.getPartitionColumnNames().get(0));
 
       Object previousKey = null;
       Object currentKey = null;
@@ -508,7 +545,9 @@ public class QueryCache {
 
       int totalRowsChanged = 0;
       for (Row row : results) {
-        currentKey = row.getObject(primary);
+        TableDescriptor.RowLayout layout = descriptor.layout(row);
+
+        currentKey = layout.get(row, primary);
         if (!currentKey.equals(previousKey)) count++;
         if (count >= limit) break;
 
@@ -522,19 +561,18 @@ public class QueryCache {
         insert.value(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VIEW_ID, deltaID);
 
         // Hossein
-        for (Column column : columns) {
-          if (!row.isNull(column.column_name)
-              && column.column_name.compareTo(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY)
-                  != 0) insert.value(column.column_name, row.getObject(column.column_name));
+        for (int column = 0; column < columns.size(); column++) {
+          if (column != descriptor.getDirtyColumn() && !layout.isNull(row, column))
+            insert.value(columns.get(column).column_name, layout.get(row, column));
         }
 
         String statement = insert.toString();
 
         if (statement.length() > PathStoreProperties.getInstance().MaxBatchSize)
-          local.execute(insert);
+          Tracer.getInstance().execute("local_view_insert", local, insert);
         else {
           if (batchSize + statement.length() > PathStoreProperties.getInstance().MaxBatchSize) {
-            local.execute(batch);
+            Tracer.getInstance().execute("local_view_insert", local, batch);
             batch = QueryBuilder.batch();
             batchSize = 0;
           }
@@ -544,7 +582,11 @@ public class QueryCache {
 
         previousKey = currentKey;
       }
-      if (batchSize > 0) local.execute(batch);
+      if (batchSize > 0) Tracer.getInstance().execute("local_view_insert", local, batch);
+
+      span.tag("rows", totalRowsChanged);
+
+      this.deltaRows.add(totalRowsChanged);
 
       if (totalRowsChanged == 0) return null;
 
@@ -561,18 +603,28 @@ public class QueryCache {
    * @param entry entry to get updates for.
    */
   public void fetchDelta(final QueryCacheEntry entry) {
-    UUID deltaId = null;
-
-    // the parentTimeStamp is only present after the initial fetch
-    if (entry.getParentTimeStamp() != null) {
-      deltaId = PathStoreServerClient.getInstance().createQueryDelta(entry);
+    try (Span span =
+        Tracer.getInstance()
+            .start("fetch_delta")
+            .tag("keyspace", entry.keyspace)
+            .tag("table", entry.table)) {
+      UUID deltaId = null;
+
+      // the parentTimeStamp is only present after the initial fetch
+      if (entry.getParentTimeStamp() != null) {
+        deltaId = PathStoreServerClient.getInstance().createQueryDelta(entry);
+
+        // if no new rows were written to the view table return as there is no data to fetch
+        if (deltaId == null) {
+          this.emptyDeltas.inc();
+          span.tag("empty", true);
+          return;
+        }
+      }
 
-      // if no new rows were written to the view table return as there is no data to fetch
-      if (deltaId == null) return;
+      // fetch Data from parent
+      fetchData(entry, deltaId);
     }
-
-    // fetch Data from parent
-    fetchData(entry, deltaId);
   }
 
   /**
@@ -608,10 +660,12 @@ public class QueryCache {
     select.setFetchSize(1000);
 
     // execute the query on the parent node
-    ResultSet results = parent.execute(select);
+    ResultSet results = Tracer.getInstance().execute("parent_select", parent, select);
+
+    TableDescriptor descriptor =
+        SchemaInfo.getInstance().getTableDescriptor(entry.keyspace, entry.table);
 
-    Collection<Column> columns =
-        SchemaInfo.getInstance().getTableColumns(entry.keyspace, entry.table);
+    List<Column> columns = descriptor.getColumns();
 
     Batch batch = QueryBuilder.batch();
 
@@ -621,16 +675,17 @@ public class QueryCache {
 
     // iterate over each returned row
     for (Row row : results) {
+      this.rowsPulled.inc();
 
       // insert object
       Insert insert = QueryBuilder.insertInto(entry.keyspace, entry.table);
 
-      for (Column column : columns) {
-        if (column.column_name.compareTo(
-                Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP)
-            == 0) { // used to calculate the highest time stamp to set
-          UUID row_timestamp =
-              row.getUUID(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP);
+      TableDescriptor.RowLayout layout = descriptor.layout(row);
+
+      for (int column = 0; column < columns.size(); column++) {
+        if (column == descriptor.getParentTimestampColumn()) { // used to calculate the highest
+          // time stamp to set
+          UUID row_timestamp = (UUID) layout.get(row, column);
 
           if (highest_timestamp == null
               || highest_timestamp.timestamp() < row_timestamp.timestamp())
@@ -641,9 +696,8 @@ public class QueryCache {
         } else {
           // for all other columns except for dirty add them to the insert value
           try {
-            if (column.column_name.compareTo(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY) != 0
-                && !row.isNull(column.column_name))
-              insert.value(column.column_name, row.getObject(column.column_name));
+            if (column != descriptor.getDirtyColumn() && !layout.isNull(row, column))
+              insert.value(columns.get(column).column_name, layout.get(row, column));
           } catch (Exception e) {
             e.printStackTrace();
             System.err.println(
@@ -659,10 +713,10 @@ public class QueryCache {
 
       // either add the statement to the batch or execute the insert locally.
       if (statement.length() > PathStoreProperties.getInstance().MaxBatchSize)
-        local.execute(insert);
+        Tracer.getInstance().execute("local_insert", local, insert);
       else {
         if (batchSize + statement.length() > PathStoreProperties.getInstance().MaxBatchSize) {
-          local.execute(batch);
+          Tracer.getInstance().execute("local_insert", local, batch);
           batch = QueryBuilder.batch();
           batchSize = 0;
         }
@@ -672,7 +726,7 @@ public class QueryCache {
     }
 
     // if the batch still has data execute the rest of the batch
-    if (batchSize > 0) local.execute(batch);
+    if (batchSize > 0) Tracer.getInstance().execute("local_insert", local, batch);
 
     // update the entry's timestamp to the highest timestamp from the data provided
     UUID entry_timestamp = entry.getParentTimeStamp();
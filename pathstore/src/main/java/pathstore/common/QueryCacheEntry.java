@@ -22,8 +22,10 @@ import com.datastax.driver.core.querybuilder.Clause;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -310,6 +312,23 @@ public class QueryCacheEntry implements Serializable {
     return this.clausesSerialized;
   }
 
+  /**
+   * Inverse of {@link #getClausesSerialized()}
+   *
+   * @param clausesSerialized serialized clause list
+   * @return clause list
+   * @throws IOException reading from bytes
+   * @throws ClassNotFoundException can't find class needed
+   */
+  @SuppressWarnings("unchecked")
+  public static List<Clause> deserializeClauses(final byte[] clausesSerialized)
+      throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(clausesSerialized))) {
+      return (List<Clause>) ois.readObject();
+    }
+  }
+
   /** @param clausesSerialized set {@link #clausesSerialized} to passed value */
   public void setClausesSerialized(final byte[] clausesSerialized) {
     this.clausesSerialized = clausesSerialized;
@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.common.scheduler;
+
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class manages all the threads associated with pathstore.
+ *
+ * <p>Daemons are registered as periodic tasks through {@link #schedule(String, Runnable, long,
+ * TimeUnit)}. Each registration grows the scheduler by one thread so every daemon always has a
+ * thread to run on, and a run of a daemon never overlaps with another run of itself as they are
+ * scheduled with a fixed delay.
+ *
+ * <p>One-off tasks are submitted to a bounded {@link WorkerPool} per concern. When a pool's queue
+ * is full the task is parked and offered to the pool again every {@link #RETRY_DELAY_MILLIS} ms. A
+ * rejected task never runs on the submitting thread, so a daemon submitting to a busy pool can't
+ * stall the scheduler thread it runs on. At most as many tasks as the pool's queue capacity are
+ * parked per pool, once that is reached {@link #submit(WorkerPool, Runnable)} throws {@link
+ * RejectedExecutionException} so the submitter sees the back pressure.
+ *
+ * <p>Every periodic task and every pool records {@link TaskStatistics}, pools also expose their
+ * queue depth, parked tasks and active thread count. All of these are exported as gauges in the
+ * {@link MetricsRegistry}.
+ */
+public final class PathStoreScheduler {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(PathStoreScheduler.class);
+
+  /** Delay (ms) before a task rejected by a full worker pool is offered to it again */
+  private static final long RETRY_DELAY_MILLIS = 100;
+
+  /** Instance of class */
+  private static PathStoreScheduler instance = null;
+
+  /** @return instance of the scheduler */
+  public static synchronized PathStoreScheduler getInstance() {
+    if (instance == null) instance = new PathStoreScheduler();
+    return instance;
+  }
+
+  /** Executor for periodic tasks */
+  private final ScheduledThreadPoolExecutor scheduler =
+      new ScheduledThreadPoolExecutor(1, namedThreadFactory("scheduler"));
+
+  /** Worker pools per concern, created on first use */
+  private final Map<WorkerPool, TimedThreadPoolExecutor> pools =
+      Collections.synchronizedMap(new EnumMap<>(WorkerPool.class));
+
+  /** Statistics per periodic task name */
+  private final Map<String, TaskStatistics> periodicStatistics = new ConcurrentHashMap<>();
+
+  /** Private Default Constructor */
+  private PathStoreScheduler() {}
+
+  /**
+   * Registers a periodic task. The first run happens immediately and each following run starts
+   * interval after the previous one finished. Exceptions thrown by a run are logged and do not
+   * cancel future runs.
+   *
+   * @param name name of the task, used for statistics
+   * @param task task to run
+   * @param interval delay between the end of one run and the start of the next
+   * @param unit unit of the interval
+   * @return future of the periodic task, can be used to cancel it
+   */
+  public synchronized ScheduledFuture<?> schedule(
+      final String name, final Runnable task, final long interval, final TimeUnit unit) {
+
+    TaskStatistics statistics = new TaskStatistics();
+
+    if (this.periodicStatistics.putIfAbsent(name, statistics) != null)
+      throw new IllegalArgumentException(String.format("Task %s is already scheduled", name));
+
+    this.scheduler.setCorePoolSize(this.periodicStatistics.size());
+
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    metrics.gauge(
+        "pathstore_scheduler_task_runs",
+        "Runs of a periodic task",
+        statistics::getRuns,
+        "task",
+        name);
+    metrics.gauge(
+        "pathstore_scheduler_task_failures",
+        "Failed runs of a periodic task",
+        statistics::getFailures,
+        "task",
+        name);
+    metrics.gauge(
+        "pathstore_scheduler_task_last_run_seconds",
+        "Duration of the most recent run of a periodic task",
+        () -> statistics.getLastNanos() / 1e9,
+        "task",
+        name);
+
+    logger.info(
+        String.format("Scheduled %s every %d %s", name, interval, unit.name().toLowerCase()));
+
+    return this.scheduler.scheduleWithFixedDelay(
+        () -> {
+          long start = System.nanoTime();
+          boolean failed = false;
+          try {
+            task.run();
+          } catch (Throwable throwable) {
+            failed = true;
+            logger.error(throwable);
+          } finally {
+            statistics.record(System.nanoTime() - start, failed);
+          }
+        },
+        0,
+        interval,
+        unit);
+  }
+
+  /**
+   * @param workerPool pool to submit to
+   * @param task task to run
+   * @return future of the task
+   * @throws RejectedExecutionException if the pool's queue is full and the maximum amount of tasks
+   *     is already parked
+   */
+  public Future<?> submit(final WorkerPool workerPool, final Runnable task) {
+    return this.getPool(workerPool).submit(task);
+  }
+
+  /** @return statistics for every periodic task by name */
+  public Map<String, TaskStatistics> getPeriodicStatistics() {
+    return Collections.unmodifiableMap(this.periodicStatistics);
+  }
+
+  /**
+   * @param workerPool pool to get statistics for
+   * @return run time statistics of the pool
+   */
+  public TaskStatistics getPoolStatistics(final WorkerPool workerPool) {
+    return this.getPool(workerPool).statistics;
+  }
+
+  /**
+   * @param workerPool pool to query
+   * @return number of tasks waiting in the pool's queue
+   */
+  public int getQueueDepth(final WorkerPool workerPool) {
+    return this.getPool(workerPool).getQueue().size();
+  }
+
+  /**
+   * @param workerPool pool to query
+   * @return number of threads currently running a task
+   */
+  public int getActiveCount(final WorkerPool workerPool) {
+    return this.getPool(workerPool).getActiveCount();
+  }
+
+  /**
+   * @param workerPool pool to get
+   * @return executor for the pool, created if not present
+   */
+  private TimedThreadPoolExecutor getPool(final WorkerPool workerPool) {
+    return this.pools.computeIfAbsent(workerPool, this::createPool);
+  }
+
+  /**
+   * @param workerPool pool definition
+   * @return new executor for the pool, its queue depth and active count are registered as gauges
+   */
+  private TimedThreadPoolExecutor createPool(final WorkerPool workerPool) {
+    RetryLaterPolicy policy = new RetryLaterPolicy(workerPool, this.scheduler);
+    TimedThreadPoolExecutor executor = new TimedThreadPoolExecutor(workerPool, policy);
+
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    metrics.gauge(
+        "pathstore_worker_pool_queue_depth",
+        "Tasks waiting in a worker pool",
+        () -> executor.getQueue().size(),
+        "pool",
+        workerPool.getPoolName());
+    metrics.gauge(
+        "pathstore_worker_pool_parked_tasks",
+        "Tasks rejected by a full worker pool waiting to be offered to it again",
+        policy.parked::size,
+        "pool",
+        workerPool.getPoolName());
+    metrics.gauge(
+        "pathstore_worker_pool_active_threads",
+        "Threads of a worker pool currently running a task",
+        executor::getActiveCount,
+        "pool",
+        workerPool.getPoolName());
+    metrics.gauge(
+        "pathstore_worker_pool_tasks",
+        "Tasks completed by a worker pool",
+        executor.statistics::getRuns,
+        "pool",
+        workerPool.getPoolName());
+
+    return executor;
+  }
+
+  /**
+   * @param poolName name of pool
+   * @return thread factory naming threads pathstore-poolName-n
+   */
+  private static ThreadFactory namedThreadFactory(final String poolName) {
+    AtomicInteger count = new AtomicInteger(0);
+    return runnable ->
+        new Thread(runnable, String.format("pathstore-%s-%d", poolName, count.incrementAndGet()));
+  }
+
+  /**
+   * Rejection policy of the worker pools. A rejected task is parked and handed back to the pool
+   * later from the scheduler's threads, which only re-submit the task and never run it. Once {@link
+   * #maximumParked} tasks are parked further rejections are passed on to the submitter.
+   */
+  private static final class RetryLaterPolicy implements RejectedExecutionHandler {
+
+    /** Name of the pool, for logging */
+    private final String poolName;
+
+    /** Executor the retries are scheduled on */
+    private final ScheduledExecutorService retries;
+
+    /** Maximum amount of parked tasks, the queue capacity of the pool */
+    private final int maximumParked;
+
+    /** Tasks waiting for a retry */
+    private final Set<Runnable> parked = ConcurrentHashMap.newKeySet();
+
+    /** Tasks rejected by the pool */
+    private final Counter rejected;
+
+    /**
+     * @param workerPool pool this policy is used by
+     * @param retries {@link #retries}
+     */
+    private RetryLaterPolicy(final WorkerPool workerPool, final ScheduledExecutorService retries) {
+      this.poolName = workerPool.getPoolName();
+      this.retries = retries;
+      this.maximumParked = workerPool.getQueueCapacity();
+      this.rejected =
+          MetricsRegistry.getInstance()
+              .counter(
+                  "pathstore_worker_pool_rejections_total",
+                  "Tasks rejected by a full worker pool and retried later",
+                  "pool",
+                  this.poolName);
+    }
+
+    @Override
+    public void rejectedExecution(final Runnable task, final ThreadPoolExecutor executor) {
+      if (executor.isShutdown())
+        throw new RejectedExecutionException(
+            String.format("Worker pool %s is shut down", this.poolName));
+
+      this.rejected.inc();
+
+      synchronized (this.parked) {
+        if (this.parked.size() >= this.maximumParked)
+          throw new RejectedExecutionException(
+              String.format(
+                  "Worker pool %s is full and %d tasks are already waiting for a retry",
+                  this.poolName, this.maximumParked));
+
+        this.parked.add(task);
+      }
+
+      logger.debug(
+          () ->
+              String.format(
+                  "Worker pool %s is full, retrying task in %d ms",
+                  this.poolName, RETRY_DELAY_MILLIS));
+
+      this.retries.schedule(
+          () -> this.retry(task, executor), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Offers a parked task to the pool again. If it is rejected it is parked again, unless the
+     * parked tasks are at their maximum or the pool was shut down, then the task is cancelled.
+     *
+     * @param task parked task
+     * @param executor pool of the task
+     */
+    private void retry(final Runnable task, final ThreadPoolExecutor executor) {
+      this.parked.remove(task);
+
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        logger.error(
+            String.format("Dropping task of worker pool %s: %s", this.poolName, e.getMessage()));
+
+        if (task instanceof Future) ((Future<?>) task).cancel(false);
+      }
+    }
+  }
+
+  /** Bounded thread pool that records the run time of each task */
+  private static final class TimedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /** Start time of the task running on the current thread */
+    private final ThreadLocal<Long> startTime = new ThreadLocal<>();
+
+    /** Run time statistics of this pool */
+    private final TaskStatistics statistics = new TaskStatistics();
+
+    /**
+     * @param workerPool pool definition
+     * @param rejectionPolicy what to do with tasks submitted while the queue is full
+     */
+    private TimedThreadPoolExecutor(
+        final WorkerPool workerPool, final RejectedExecutionHandler rejectionPolicy) {
+      super(
+          workerPool.getThreads(),
+          workerPool.getThreads(),
+          60,
+          TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(workerPool.getQueueCapacity()),
+          namedThreadFactory(workerPool.getPoolName()),
+          rejectionPolicy);
+      this.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    protected void beforeExecute(final Thread thread, final Runnable runnable) {
+      this.startTime.set(System.nanoTime());
+    }
+
+    @Override
+    protected void afterExecute(final Runnable runnable, final Throwable throwable) {
+      Long start = this.startTime.get();
+      if (start == null) return;
+      this.startTime.remove();
+
+      boolean failed = throwable != null;
+
+      // exceptions of submitted tasks are captured by their future
+      if (!failed && runnable instanceof Future && ((Future<?>) runnable).isDone()) {
+        try {
+          ((Future<?>) runnable).get();
+        } catch (ExecutionException e) {
+          failed = true;
+          logger.error(e.getCause());
+        } catch (CancellationException | InterruptedException ignored) {
+        }
+      }
+
+      this.statistics.record(System.nanoTime() - start, failed);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.common.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class keeps run time statistics for a scheduled task or a worker pool. All updates are
+ * lock-free so recording a run never blocks the worker.
+ */
+public final class TaskStatistics {
+
+  /** Number of completed runs */
+  private final LongAdder runs = new LongAdder();
+
+  /** Number of runs that threw */
+  private final LongAdder failures = new LongAdder();
+
+  /** Sum of all run times in nanoseconds */
+  private final LongAdder totalNanos = new LongAdder();
+
+  /** Longest run time in nanoseconds */
+  private final AtomicLong maxNanos = new AtomicLong(0);
+
+  /** Most recent run time in nanoseconds */
+  private volatile long lastNanos = 0;
+
+  /**
+   * @param nanos run time of the run
+   * @param failed whether the run threw
+   */
+  void record(final long nanos, final boolean failed) {
+    this.runs.increment();
+    if (failed) this.failures.increment();
+    this.totalNanos.add(nanos);
+    this.lastNanos = nanos;
+    this.maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /** @return number of completed runs */
+  public long getRuns() {
+    return this.runs.sum();
+  }
+
+  /** @return number of runs that threw */
+  public long getFailures() {
+    return this.failures.sum();
+  }
+
+  /** @return sum of all run times in nanoseconds */
+  public long getTotalNanos() {
+    return this.totalNanos.sum();
+  }
+
+  /** @return longest run time in nanoseconds */
+  public long getMaxNanos() {
+    return this.maxNanos.get();
+  }
+
+  /** @return most recent run time in nanoseconds */
+  public long getLastNanos() {
+    return this.lastNanos;
+  }
+
+  /** @return all data printed to screen. Used for debugging */
+  @Override
+  public String toString() {
+    long runs = this.getRuns();
+    return String.format(
+        "runs=%d failures=%d avg=%.3fms max=%.3fms last=%.3fms",
+        runs,
+        this.getFailures(),
+        runs == 0 ? 0.0 : this.getTotalNanos() / (double) runs / 1e6,
+        this.getMaxNanos() / 1e6,
+        this.getLastNanos() / 1e6);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.common.scheduler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enum denotes the bounded worker pools that one-off tasks can be submitted to, one per
+ * concern so that a burst of work for one concern cannot starve another.
+ *
+ * @see PathStoreScheduler#submit(WorkerPool, Runnable)
+ */
+@RequiredArgsConstructor
+public enum WorkerPool {
+  /**
+   * Deployment and removal of child nodes, these are long running ssh sessions that spend most of
+   * their time waiting on the remote host, so siblings are deployed side by side
+   */
+  DEPLOYMENT("deployment", 16, 64),
+
+  /** Independent command groups of a single deployment, see DeploymentExecutor */
+  DEPLOYMENT_STEP("deployment-step", 16, 256),
+
+  /** Installation and removal of application schemas */
+  SCHEMA("schema", 2, 64),
+
+  /** Short lived background work such as cache refreshes */
+  GENERAL("general", 2, 256);
+
+  /** Name used for threads and statistics */
+  @Getter private final String poolName;
+
+  /** Number of worker threads */
+  @Getter private final int threads;
+
+  /** Maximum amount of queued tasks before further tasks are retried later */
+  @Getter private final int queueCapacity;
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.common.tables;
+
+import com.datastax.driver.core.Row;
+
+import static pathstore.common.Constants.REPLICATION_LAG_COLUMNS.*;
+
+/**
+ * This class is used to define an entry within the replication lag table. Quantiles are in
+ * milliseconds and cover all heartbeats observed since the observing node started.
+ *
+ * @see pathstore.system.replication.ReplicationLagProbe
+ */
+public final class ReplicationLagEntry {
+  public static ReplicationLagEntry fromRow(final Row row) {
+    return new ReplicationLagEntry(
+        row.getInt(NODE_ID),
+        row.getInt(ORIGIN_NODE_ID),
+        row.getString(LINK),
+        row.getLong(SAMPLES),
+        row.getLong(P50),
+        row.getLong(P99),
+        row.getLong(MAX));
+  }
+
+  /** Node id of the node that observed the heartbeats */
+  public final int nodeId;
+
+  /** Node id of the node that wrote the heartbeats */
+  public final int originNodeId;
+
+  /** How the heartbeats travelled (push, pull or end_to_end) */
+  public final String link;
+
+  /** Amount of heartbeats observed */
+  public final long samples;
+
+  /** Median lag */
+  public final long p50;
+
+  /** 99th percentile lag */
+  public final long p99;
+
+  /** Largest lag */
+  public final long max;
+
+  /**
+   * @param nodeId {@link #nodeId}
+   * @param originNodeId {@link #originNodeId}
+   * @param link {@link #link}
+   * @param samples {@link #samples}
+   * @param p50 {@link #p50}
+   * @param p99 {@link #p99}
+   * @param max {@link #max}
+   */
+  private ReplicationLagEntry(
+      final int nodeId,
+      final int originNodeId,
+      final String link,
+      final long samples,
+      final long p50,
+      final long p99,
+      final long max) {
+    this.nodeId = nodeId;
+    this.originNodeId = originNodeId;
+    this.link = link;
+    this.samples = samples;
+    this.p50 = p50;
+    this.p99 = p99;
+    this.max = max;
+  }
+}
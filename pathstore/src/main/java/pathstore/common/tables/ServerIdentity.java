@@ -18,8 +18,12 @@
  */
 package pathstore.common.tables;
 
+import pathstore.util.BlobCodec;
+import pathstore.util.BlobCodecs;
 import pathstore.util.BlobObject;
 
+import java.nio.ByteBuffer;
+
 /**
  * This class is used to denote a server identity for a server object. This specifically represents
  * those server objects who need RSA authentication
@@ -28,6 +32,26 @@ import pathstore.util.BlobObject;
  * pathstore.common.Constants.SERVERS_COLUMNS#SERVER_IDENTITY}
  */
 public class ServerIdentity implements BlobObject {
+  /** Compact encoding: private key, passphrase */
+  public static final BlobCodec<ServerIdentity> CODEC =
+      new BlobCodec<ServerIdentity>() {
+        @Override
+        public int size(final ServerIdentity value) {
+          return BlobCodecs.sizeOf(value.privateKey) + BlobCodecs.sizeOf(value.passphrase);
+        }
+
+        @Override
+        public void encode(final ServerIdentity value, final ByteBuffer out) {
+          BlobCodecs.putBytes(out, value.privateKey);
+          BlobCodecs.putString(out, value.passphrase);
+        }
+
+        @Override
+        public ServerIdentity decode(final ByteBuffer in) {
+          return new ServerIdentity(BlobCodecs.getBytes(in), BlobCodecs.getString(in));
+        }
+      };
+
   /** Private key in bytes */
   public final byte[] privateKey;
 
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system;
+
+import com.datastax.driver.core.Row;
+import pathstore.util.TableDescriptor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class represents all dirty versions of a single primary key, merged into one row before it
+ * is pushed to the parent node.
+ *
+ * <p>Versions are merged the same way {@link pathstore.client.PathStoreIterator} does on read: a
+ * delete as newest version results in just the delete, otherwise the newest version is taken as is
+ * and its null cells are filled from all older versions, including versions older than a delete.
+ * This way the parent reads the same row as this node once the dirty flags are cleared.
+ *
+ * <p>Every version is kept so that the dirty flag can be cleared on all of them once the merged row
+ * has been pushed.
+ *
+ * @see PathStorePushServer
+ */
+public final class CoalescedRow {
+
+  /** Merged non-null cells, by column position in the table's descriptor */
+  private final Object[] values;
+
+  /** All versions merged, newest first */
+  private final List<Row> versions;
+
+  /**
+   * @param versions all dirty versions of a single primary key, in any order
+   * @param descriptor descriptor of the table
+   */
+  CoalescedRow(final List<Row> versions, final TableDescriptor descriptor) {
+    int versionColumn = descriptor.getVersionColumn();
+    int deletedColumn = descriptor.getDeletedColumn();
+
+    versions.sort(
+        Comparator.comparingLong(
+                (Row row) ->
+                    ((UUID) descriptor.layout(row).get(row, versionColumn)).timestamp())
+            .reversed());
+
+    this.versions = versions;
+
+    List<Object[]> values = new ArrayList<>(versions.size());
+
+    for (Row version : versions) {
+      TableDescriptor.RowLayout layout = descriptor.layout(version);
+
+      Object[] cells = new Object[descriptor.getColumns().size()];
+      for (int column = 0; column < cells.length; column++)
+        cells[column] = layout.get(version, column);
+
+      values.add(cells);
+    }
+
+    this.values = merge(values, deletedColumn);
+  }
+
+  /**
+   * Merges the cells of all versions of a key, see class comment
+   *
+   * @param versions cells of each version by column position, newest first, not empty
+   * @param deletedColumn position of pathstore_deleted, -1 if the table doesn't have it
+   * @return merged cells
+   */
+  public static Object[] merge(final List<Object[]> versions, final int deletedColumn) {
+    Object[] merged = versions.get(0).clone();
+
+    if (deletedColumn >= 0 && Boolean.TRUE.equals(merged[deletedColumn])) return merged;
+
+    for (Object[] version : versions.subList(1, versions.size()))
+      for (int column = 0; column < merged.length; column++)
+        if (merged[column] == null) merged[column] = version[column];
+
+    return merged;
+  }
+
+  /**
+   * @param column column position in the table's descriptor
+   * @return merged value of the column, null if no merged version had a value
+   */
+  Object get(final int column) {
+    return this.values[column];
+  }
+
+  /** @return all merged versions, newest first */
+  List<Row> getVersions() {
+    return this.versions;
+  }
+}
@@ -40,6 +40,16 @@ public class PathStorePrivilegedCluster {
   private static final ClusterCache<DeploymentCredential, PathStorePrivilegedCluster> clusterCache =
       new ClusterCache<>(PathStorePrivilegedCluster::new);
 
+  /**
+   * Cache of super user connections whose DDL statements do not wait for schema agreement, see
+   * {@link pathstore.system.schemaFSM.SchemaChangeBatch}
+   */
+  private static final ClusterCache<DeploymentCredential, PathStorePrivilegedCluster>
+      schemaChangeCache =
+          new ClusterCache<>(
+              PathStorePrivilegedCluster::new,
+              credential -> ClusterCache.createCluster(credential, 0));
+
   /**
    * Credentials of super user account gathered from properties file
    *
@@ -56,6 +66,23 @@ public class PathStorePrivilegedCluster {
             PathStoreProperties.getInstance().CassandraPort));
   }
 
+  /**
+   * Super user credentials on a cluster that returns from DDL statements without waiting for schema
+   * agreement. Callers are expected to check agreement once after their batch of changes
+   *
+   * @return schema change instance
+   */
+  public static PathStorePrivilegedCluster getSchemaChangeInstance() {
+    PathStoreProperties.getInstance().verifyCassandraSuperUserCredentials();
+
+    return schemaChangeCache.getInstance(
+        new DeploymentCredential(
+            PathStoreProperties.getInstance().credential.getUsername(),
+            PathStoreProperties.getInstance().credential.getPassword(),
+            PathStoreProperties.getInstance().CassandraIP,
+            PathStoreProperties.getInstance().CassandraPort));
+  }
+
   /**
    * Credentials from Credential Cache for this node id.
    *
@@ -177,6 +204,7 @@ public class PathStorePrivilegedCluster {
   public void close() {
     this.session.close();
     this.cluster.close();
-    clusterCache.remove(this.credential);
+    clusterCache.remove(this.credential, this);
+    schemaChangeCache.remove(this.credential, this);
   }
 }
@@ -19,15 +19,16 @@
 package pathstore.system;
 
 import com.datastax.driver.core.Statement;
-import pathstore.common.PathStoreProperties;
-import pathstore.common.PathStoreThreadManager;
 import pathstore.common.QueryCache;
 import pathstore.common.QueryCacheEntry;
 import pathstore.sessions.SessionToken;
 import pathstore.system.garbagecollection.PathStoreGarbageCollection;
-import pathstore.system.garbagecollection.SimpleGarbageCollector;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
 
 import java.util.UUID;
 
@@ -38,7 +39,7 @@ import java.util.UUID;
  *
  * <p>This is to "update" our local nodes data set in an eventually consistent manner.
  *
- * @see pathstore.common.PathStoreThreadManager
+ * @see pathstore.common.scheduler.PathStoreScheduler
  */
 public class PathStorePullServer implements Runnable {
 
@@ -46,29 +47,22 @@ public class PathStorePullServer implements Runnable {
   private final PathStoreLogger logger =
       PathStoreLoggerFactory.getLogger(PathStorePullServer.class);
 
-  /** Garbage collection service impl */
-  private final PathStoreGarbageCollection garbageCollectionService = new SimpleGarbageCollector();
-
-  /** Garbage collection executor service */
-  private final PathStoreGarbageCollection.Executor garbageCollectionExecutorService =
-      new PathStoreGarbageCollection.Executor(this.garbageCollectionService);
+  /** Duration of each pull cycle */
+  private final LatencyHistogram pullDuration =
+      MetricsRegistry.getInstance()
+          .histogram("pathstore_pull_duration_seconds", "Duration of a pull cycle");
 
   /**
-   * First we try to spawn an garbage collection executor service
-   *
-   * <p>For all entries in the qc that are ready, aren't covered, and aren't expired fetch their
-   * delta.
+   * For all entries in the qc that are ready, aren't covered, and aren't expired fetch their delta.
    *
    * <p>Entries are added to the qc by {@link pathstore.client.PathStoreSession#execute(Statement)}
    * and {@link pathstore.client.PathStoreSession#execute(Statement, SessionToken)}
    *
    * @see QueryCache#fetchDelta(QueryCacheEntry)
    * @see QueryCache#createDelta(String, String, byte[], UUID, int, int)
+   * @see PathStoreGarbageCollection.Executor
    */
   private void pull() {
-
-    PathStoreThreadManager.subProcessInstance().spawn(this.garbageCollectionExecutorService);
-
     QueryCache queryCache = QueryCache.getInstance();
 
     queryCache.stream()
@@ -76,17 +70,15 @@ public class PathStorePullServer implements Runnable {
         .forEach(queryCache::fetchDelta);
   }
 
-  /** Run the pull server ever delta T defined by PullSleep properties */
-  public synchronized void run() {
-    logger.info("Pull Server spawned");
-    while (true) {
-      try {
-        this.pull();
-        Thread.sleep(PathStoreProperties.getInstance().PullSleep);
-      } catch (Exception e) {
-        System.err.println("PathStorePullServer exception: " + e.toString());
-        this.logger.error(e);
-      }
+  /** Single pull cycle, scheduled every delta T defined by PullSleep properties */
+  public void run() {
+    long start = System.nanoTime();
+    try (Span span = Tracer.getInstance().start("pull")) {
+      this.pull();
+      this.pullDuration.recordSince(start);
+    } catch (Exception e) {
+      System.err.println("PathStorePullServer exception: " + e.toString());
+      this.logger.error(e);
     }
   }
 }
@@ -18,6 +18,8 @@
  */
 package pathstore.system;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
@@ -27,11 +29,21 @@ import pathstore.common.PathStoreProperties;
 import pathstore.sessions.SessionToken;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
 import pathstore.util.SchemaInfo;
 import pathstore.util.SchemaInfo.Column;
 import pathstore.util.SchemaInfo.Table;
+import pathstore.util.TableDescriptor;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -54,6 +66,28 @@ public class PathStorePushServer implements Runnable {
   private static final PathStoreLogger logger =
       PathStoreLoggerFactory.getLogger(PathStorePushServer.class);
 
+  /** Duration of each scheduled push cycle */
+  private static final LatencyHistogram pushDuration =
+      MetricsRegistry.getInstance()
+          .histogram("pathstore_push_duration_seconds", "Duration of a push cycle");
+
+  /** Rows pushed to the parent, includes force pushes during session migration */
+  private static final Counter rowsPushed =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_push_rows_total", "Dirty rows pushed to the parent node");
+
+  /** Dirty versions that were merged into a newer version of the same key instead of pushed */
+  private static final Counter versionsCoalesced =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_push_versions_coalesced_total",
+              "Dirty versions merged into a newer version of the same key before pushing");
+
+  /** Pushes that were aborted by an exception */
+  private static final Counter pushFailures =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_push_failures_total", "Pushes aborted by an exception");
+
   /** Filter function to filter out all local and view prefixed tables */
   public static final Predicate<Table> filterOutViewAndLocal =
       table ->
@@ -67,61 +101,43 @@ public class PathStorePushServer implements Runnable {
    * column to current node id
    *
    * @param row row to build from
-   * @param keyspace keyspace of row
-   * @param tablename table of row
-   * @param columns columns for row
+   * @param descriptor descriptor of the row's table
    * @param nodeid node id of current node
    * @return insert statement
    */
+  public static Insert createInsert(
+      final Row row, final TableDescriptor descriptor, final int nodeid) {
+    TableDescriptor.RowLayout layout = descriptor.layout(row);
+    return createInsert(column -> layout.get(row, column), descriptor, nodeid);
+  }
+
+  /**
+   * @param values function from column position to value, null if the column has no value
+   * @param descriptor descriptor of the row's table
+   * @param nodeid node id of current node
+   * @return insert statement
+   * @see #createInsert(Row, TableDescriptor, int)
+   */
   private static Insert createInsert(
-      final Row row,
-      final String keyspace,
-      final String tablename,
-      final Collection<Column> columns,
-      final int nodeid) {
-    Insert insert = QueryBuilder.insertInto(keyspace, tablename);
-
-    for (Column column : columns) {
-      if (!row.isNull(column.column_name))
-        if (!column.column_name.equals(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_NODE))
-          if (column.column_name.compareTo(
-                  Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP)
-              == 0) insert.value(column.column_name, QueryBuilder.now());
-          else insert.value(column.column_name, row.getObject(column.column_name));
+      final IntFunction<Object> values, final TableDescriptor descriptor, final int nodeid) {
+    Insert insert = QueryBuilder.insertInto(descriptor.getKeyspace(), descriptor.getTable());
+
+    List<Column> columns = descriptor.getColumns();
+
+    for (int column = 0; column < columns.size(); column++) {
+      if (column == descriptor.getNodeColumn()) continue;
+
+      Object value = values.apply(column);
+      if (value != null)
+        if (column == descriptor.getParentTimestampColumn())
+          insert.value(columns.get(column).column_name, QueryBuilder.now());
+        else insert.value(columns.get(column).column_name, value);
     }
     insert.value(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_NODE, nodeid);
 
     return insert;
   }
 
-  /**
-   * This function is used to produce a delete statement to execute locally. This is used to remove
-   * the dirty flag from a row that was pushed.
-   *
-   * <p>Where clauses are added for all non-regular columns (all primary key columns)
-   *
-   * @param row row to remove dirty flag from
-   * @param keyspace keyspace of row
-   * @param tablename table of row
-   * @param columns columns for row
-   * @return delete statement to remove dirty flag
-   */
-  private static Delete createDelete(
-      final Row row,
-      final String keyspace,
-      final String tablename,
-      final Collection<Column> columns) {
-    Delete delete =
-        QueryBuilder.delete(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY)
-            .from(keyspace, tablename);
-
-    for (Column column : columns)
-      if (column.kind.compareTo("regular") != 0)
-        delete.where(QueryBuilder.eq(column.column_name, row.getObject(column.column_name)));
-
-    return delete;
-  }
-
   /**
    * This function will push all dirty data from a set of table objects from local -> parent. For
    * all dirty data pushed it will also remove the dirty flag so it won't be pushed again
@@ -145,90 +161,208 @@ public class PathStorePushServer implements Runnable {
         if (table.table_name.startsWith(Constants.VIEW_PREFIX)
             || table.table_name.startsWith(Constants.LOCAL_PREFIX)) continue;
 
-        Select select = QueryBuilder.select().all().from(table.keyspace_name, table.table_name);
-        select.where(QueryBuilder.eq(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY, true));
+        try (Span span =
+            Tracer.getInstance()
+                .start("push_table")
+                .tag("keyspace", table.keyspace_name)
+                .tag("table", table.table_name)) {
+          span.tag("rows", pushTable(table, source, destination, schemaInfo, nodeid));
+        }
+      }
+    } catch (Exception e) {
+      pushFailures.inc();
+      logger.error(e);
+      // local.close();
+      // parent.close();
+    }
+  }
+
+  /**
+   * Pushes all dirty rows of a single table.
+   *
+   * <p>All dirty versions of a primary key are merged into a single row, see {@link CoalescedRow},
+   * so only one row per key is pushed regardless of how often the key was written since the last
+   * push. The dirty flag is cleared on every merged version.
+   *
+   * @param table table to push
+   * @param source node to push from
+   * @param destination where to push to
+   * @param schemaInfo schema info for source node
+   * @param nodeid node id of the source node
+   * @return amount of rows pushed
+   * @see #push(Collection, Session, Session, SchemaInfo, int)
+   */
+  private static int pushTable(
+      final Table table,
+      final Session source,
+      final Session destination,
+      final SchemaInfo schemaInfo,
+      final int nodeid) {
+    Select select = QueryBuilder.select().all().from(table.keyspace_name, table.table_name);
+    select.where(QueryBuilder.eq(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY, true));
+
+    ResultSet results = Tracer.getInstance().execute("local_select_dirty", source, select);
 
-        ResultSet results = source.execute(select);
+    TableDescriptor descriptor = schemaInfo.getTableDescriptor(table);
 
-        Collection<Column> columns = schemaInfo.getTableColumns(table);
+    PushBatch batch = new PushBatch(source, destination);
 
-        Batch insertBatch = QueryBuilder.batch();
-        Batch deleteBatch = QueryBuilder.batch();
+    int rows = 0;
 
-        int insertBatchSize = 0;
-        int deleteBatchSize = 0;
+    // versions of a key are adjacent as they only differ in the last clustering column
+    List<Row> versions = new ArrayList<>();
 
-        for (Row row : results) {
+    for (Row row : results) {
+      if (!versions.isEmpty() && !descriptor.sameKey(versions.get(0), row)) {
+        batch.add(new CoalescedRow(versions, descriptor), descriptor, nodeid);
+        rows++;
+        versions = new ArrayList<>();
+      }
+      versions.add(row);
+    }
 
-          Insert insert = createInsert(row, table.keyspace_name, table.table_name, columns, nodeid);
-          Delete delete = createDelete(row, table.keyspace_name, table.table_name, columns);
+    if (!versions.isEmpty()) {
+      batch.add(new CoalescedRow(versions, descriptor), descriptor, nodeid);
+      rows++;
+    }
 
-          String str_insert = insert.toString();
-          String str_delete = delete.toString();
+    try {
+      batch.flush();
+    } catch (Exception e) {
+      pushFailures.inc();
+      logger.error(e);
+    }
 
-          if (str_insert.length() > PathStoreProperties.getInstance().MaxBatchSize
-              || str_delete.length() > PathStoreProperties.getInstance().MaxBatchSize) {
-            destination.execute(insert);
-            source.execute(delete);
-          } else {
-            if (insertBatchSize + str_insert.length()
-                    > PathStoreProperties.getInstance().MaxBatchSize
-                || deleteBatchSize + str_delete.length()
-                    > PathStoreProperties.getInstance().MaxBatchSize) {
-              destination.execute(insertBatch);
-              source.execute(deleteBatch);
+    return rows;
+  }
 
-              insertBatch = QueryBuilder.batch();
-              deleteBatch = QueryBuilder.batch();
+  /**
+   * Inserts to the parent node and dirty flag deletes on the local node, batched up to {@link
+   * PathStoreProperties#MaxBatchSize}
+   */
+  private static final class PushBatch {
+    /** Node to push from */
+    private final Session source;
 
-              insertBatchSize = 0;
-              deleteBatchSize = 0;
-            }
+    /** Where to push to */
+    private final Session destination;
 
-            insertBatch.add(insert);
-            insertBatchSize += str_insert.length();
+    /** Inserts to execute on the destination */
+    private Batch insertBatch = QueryBuilder.batch();
 
-            deleteBatch.add(delete);
-            deleteBatchSize += str_delete.length();
-          }
-        }
-        if (insertBatchSize > 0) {
-          try {
-            destination.execute(insertBatch);
-            source.execute(deleteBatch);
-          } catch (Exception e) {
-            logger.error(e);
-          }
+    /** Deletes to execute on the source */
+    private BatchStatement deleteBatch = new BatchStatement();
+
+    /** Length of all inserts in {@link #insertBatch} */
+    private int insertBatchSize = 0;
+
+    /** Length of all deletes in {@link #deleteBatch}, see {@link #length(BoundStatement)} */
+    private int deleteBatchSize = 0;
+
+    /**
+     * @param source {@link #source}
+     * @param destination {@link #destination}
+     */
+    private PushBatch(final Session source, final Session destination) {
+      this.source = source;
+      this.destination = destination;
+    }
+
+    /**
+     * Adds the insert of a merged row and the deletes of the dirty flag of all its versions
+     *
+     * @param row merged row
+     * @param descriptor descriptor of the row's table
+     * @param nodeid node id of the source node
+     */
+    private void add(final CoalescedRow row, final TableDescriptor descriptor, final int nodeid) {
+      rowsPushed.inc();
+      versionsCoalesced.add(row.getVersions().size() - 1);
+
+      int maxBatchSize = PathStoreProperties.getInstance().MaxBatchSize;
+
+      Insert insert = createInsert(row::get, descriptor, nodeid);
+      String str_insert = insert.toString();
+
+      if (str_insert.length() > maxBatchSize)
+        Tracer.getInstance().execute("parent_insert", this.destination, insert);
+      else {
+        if (this.insertBatchSize + str_insert.length() > maxBatchSize) this.flush();
+
+        this.insertBatch.add(insert);
+        this.insertBatchSize += str_insert.length();
+      }
+
+      for (Row version : row.getVersions()) {
+        BoundStatement delete = descriptor.dirtyFlagDelete(this.source, version);
+        int length = length(delete);
+
+        if (length > maxBatchSize) {
+          this.flush();
+          Tracer.getInstance().execute("local_clear_dirty", this.source, delete);
+        } else {
+          if (this.deleteBatchSize + length > maxBatchSize) this.flush();
+
+          this.deleteBatch.add(delete);
+          this.deleteBatchSize += length;
         }
       }
-    } catch (Exception e) {
-      logger.error(e);
-      // local.close();
-      // parent.close();
     }
-  }
 
-  /** Continuously call push every delta T defined by PushSleep property */
-  public synchronized void run() {
-    logger.info("Spawned pathstore push server thread");
-
-    Session local = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
-    Session parent = PathStorePrivilegedCluster.getParentInstance().rawConnect();
-
-    while (true) {
-      try {
-        push(
-            buildCollectionOfTablesFromSchemaInfo(SchemaInfo.getInstance()),
-            local,
-            parent,
-            SchemaInfo.getInstance(),
-            PathStoreProperties.getInstance().NodeID);
-        Thread.sleep(PathStoreProperties.getInstance().PushSleep);
-      } catch (InterruptedException e) {
-        System.err.println("PathStorePushServer exception: " + e.toString());
-        e.printStackTrace();
+    /**
+     * Bound deletes have no literal query string, their length is the prepared query plus the
+     * serialized key values so they count against the batch size like the inserts do
+     *
+     * @param delete bound delete
+     * @return approximate length of the delete
+     */
+    private static int length(final BoundStatement delete) {
+      int length = delete.preparedStatement().getQueryString().length();
+
+      for (int i = 0; i < delete.preparedStatement().getVariables().size(); i++) {
+        ByteBuffer value = delete.getBytesUnsafe(i);
+        if (value != null) length += value.remaining();
       }
+
+      return length;
+    }
+
+    /**
+     * Executes the pending inserts on the destination, then the pending deletes on the source.
+     * Deletes are never executed before the inserts they belong to
+     */
+    private void flush() {
+      if (this.insertBatchSize > 0)
+        Tracer.getInstance().execute("parent_insert", this.destination, this.insertBatch);
+      if (this.deleteBatchSize > 0)
+        Tracer.getInstance().execute("local_clear_dirty", this.source, this.deleteBatch);
+
+      this.insertBatch = QueryBuilder.batch();
+      this.deleteBatch = new BatchStatement();
+
+      this.insertBatchSize = 0;
+      this.deleteBatchSize = 0;
+    }
+  }
+
+  /** Local session to push from */
+  private final Session local = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
+
+  /** Parent session to push to */
+  private final Session parent = PathStorePrivilegedCluster.getParentInstance().rawConnect();
+
+  /** Single push cycle, scheduled every delta T defined by PushSleep property */
+  public void run() {
+    long start = System.nanoTime();
+    try (Span span = Tracer.getInstance().start("push")) {
+      push(
+          buildCollectionOfTablesFromSchemaInfo(SchemaInfo.getInstance()),
+          this.local,
+          this.parent,
+          SchemaInfo.getInstance(),
+          PathStoreProperties.getInstance().NodeID);
     }
+    pushDuration.recordSince(start);
   }
 
   /**
@@ -26,21 +26,37 @@ import pathstore.authentication.grpc.AuthManager;
 import pathstore.authentication.grpc.AuthServerInterceptor;
 import pathstore.common.Constants;
 import pathstore.common.PathStoreProperties;
-import pathstore.common.PathStoreThreadManager;
 import pathstore.common.Role;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
 import pathstore.grpc.*;
+import pathstore.system.controlplane.ControlPlaneEvents;
+import pathstore.system.controlplane.ControlPlaneWatcher;
 import pathstore.system.deployment.deploymentFSM.PathStoreDeploymentUtils;
 import pathstore.system.deployment.deploymentFSM.PathStoreMasterDeploymentServer;
 import pathstore.system.deployment.deploymentFSM.PathStoreSlaveDeploymentServer;
+import pathstore.system.garbagecollection.PathStoreGarbageCollection;
+import pathstore.system.garbagecollection.SimpleGarbageCollector;
 import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLogRetention;
 import pathstore.system.logging.PathStoreLoggerDaemon;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.MetricsHttpServer;
 import pathstore.system.network.*;
+import pathstore.system.replication.ReplicationLagProbe;
 import pathstore.system.schemaFSM.PathStoreMasterSchemaServer;
 import pathstore.system.schemaFSM.PathStoreSchemaLoaderUtils;
 import pathstore.system.schemaFSM.PathStoreSlaveSchemaServer;
+import pathstore.system.schemaFSM.SchemaChangeLog;
+import pathstore.system.tracing.FileSpanExporter;
+import pathstore.system.tracing.Tracer;
 import pathstore.util.SchemaInfo;
 
+import java.io.IOException;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 /**
  * This is the starting point of a pathstore server.
  *
@@ -65,10 +81,17 @@ public class PathStoreServerImpl {
    *
    * <p>0: setup grpc server 1: load applications keyspace 2: start daemons
    *
+   * <p>The phases leading up to task 2 are run as a {@link StartupGraph}, the cassandra
+   * connections, credential caches and schema index are loaded concurrently. Application keyspace
+   * schemas other than {@link Constants#PATHSTORE_APPLICATIONS} are read on first access or by a
+   * background warm up once the node is ready.
+   *
    * @param args
    */
   public static void main(final String args[]) {
     try {
+      PathStoreLoggerFactory.setPersistLoggerLevel(
+          PathStoreProperties.getInstance().PersistLogLevel);
 
       logger.info(Constants.ASCII_ART);
 
@@ -83,96 +106,224 @@ public class PathStoreServerImpl {
         logger.info("Loaded super user account successfully");
       else logger.error("Couldn't load super user account");
 
-      Session local = PathStorePrivilegedCluster.getSuperUserInstance().rawConnect();
+      System.out.println(PathStoreProperties.getInstance().ExternalAddress);
 
-      logger.info("Super User connection was initialized successfully");
+      new StartupGraph()
+          .add(
+              "superuser-connect",
+              () -> {
+                PathStorePrivilegedCluster.getSuperUserInstance().rawConnect();
+                logger.info("Super User connection was initialized successfully");
+              })
+          .add("tracing", PathStoreServerImpl::startTracing)
+          .add("metrics-http", PathStoreServerImpl::startMetrics)
+          .add(
+              "node-credentials",
+              () -> {
+                if (CredentialCache.getNodes()
+                        .getCredential(PathStoreProperties.getInstance().NodeID)
+                    != null) logger.info("Loaded daemon account successfully");
+                else logger.error("Couldn't load daemon account");
+              },
+              "superuser-connect")
+          .add("client-credentials", CredentialCache::getClients, "superuser-connect")
+          .add("auxiliary-credentials", CredentialCache::getAuxiliary, "superuser-connect")
+          .add(
+              "daemon-connect",
+              () -> {
+                PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
+                logger.info("Daemon connection was initialized successfully");
+              },
+              "node-credentials")
+          .add(
+              "schema-index",
+              () ->
+                  SchemaInfo.getInstance()
+                      .addChangeListener(SchemaChangeLog.getInstance()::record),
+              "superuser-connect")
+          .add(
+              "grpc",
+              PathStoreServerImpl::startGRPC,
+              "node-credentials",
+              "client-credentials",
+              "auxiliary-credentials")
+          .add(
+              "application-keyspace",
+              PathStoreServerImpl::loadApplicationKeyspace,
+              "schema-index",
+              "grpc")
+          .await();
 
-      if (CredentialCache.getNodes().getCredential(PathStoreProperties.getInstance().NodeID)
-          != null) logger.info("Loaded daemon account successfully");
-      else logger.error("Couldn't load daemon account");
+      logger.info("PathStore Ready");
 
-      PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
+      PathStoreDeploymentUtils.writeTaskDone(
+          PathStorePrivilegedCluster.getSuperUserInstance().rawConnect(), 2);
 
-      logger.info("Daemon connection was initialized successfully");
+      // wakes up the parent's deployment of this node
+      if (PathStoreProperties.getInstance().role != Role.ROOTSERVER)
+        ControlPlaneEvents.getInstance().notifyReady();
 
-      System.out.println(PathStoreProperties.getInstance().ExternalAddress);
+      spawnDaemons();
 
-      // start grpc
-      // Myles: We're over authenticating here as when we provide all nodes that references the
-      // parent node and children nodes instead of just the children.
-      // This will need to be addressed later.
-      server =
-          ServerBuilder.forPort(PathStoreProperties.getInstance().GRPCPort)
-              .addService(new CommonServiceImpl()) // both client and server
-              .addService(new ClientOnlyServiceImpl()) // client only
-              .addService(new ServerOnlyServiceImpl()) // server only
-              .addService(new NetworkWideServiceImpl()) // master and server
-              .addService(new UnAuthenticatedServiceImpl()) // nothing
-              .intercept(
-                  new AuthServerInterceptor(
-                      AuthManager.newBuilder()
-                          .serverAndClientAuthenticatedEndpoint(
-                              CommonServiceGrpc.SERVICE_NAME,
-                              CredentialCache.getNodes().getAllReference(),
-                              CredentialCache.getClients().getAllReference())
-                          .clientAuthenticatedEndpoint(
-                              ClientOnlyServiceGrpc.SERVICE_NAME,
-                              CredentialCache.getClients().getAllReference())
-                          .serverAuthenticatedEndpoint(
-                              ServerOnlyServiceGrpc.SERVICE_NAME,
-                              CredentialCache.getNodes().getAllReference())
-                          .addAdditionalCredentials(
-                              NetworkWideServiceGrpc.SERVICE_NAME,
-                              CredentialCache.getAuxiliary()
-                                  .getCredential(
-                                      Constants.AUXILIARY_ACCOUNTS.NETWORK_WIDE_GRPC_CREDENTIAL))
-                          .serverAuthenticatedEndpoint(
-                              NetworkWideServiceGrpc.SERVICE_NAME,
-                              CredentialCache.getNodes().getAllReference())
-                          .unauthenticatedEndpoint(UnAuthenticatedServiceGrpc.SERVICE_NAME)
-                          .build()))
-              .build();
-
-      server.start();
+      PathStoreScheduler.getInstance()
+          .submit(WorkerPool.GENERAL, () -> SchemaInfo.getInstance().loadPendingKeyspaces());
+    } catch (Exception e) {
+      logger.error(e);
+    }
+  }
 
-      logger.info(
-          String.format("Started GRPC on port %d", PathStoreProperties.getInstance().GRPCPort));
+  /** Sets the span exporter if a trace directory is configured */
+  private static void startTracing() throws IOException {
+    if (PathStoreProperties.getInstance().TraceDirectory != null)
+      Tracer.getInstance()
+          .setExporter(new FileSpanExporter(PathStoreProperties.getInstance().TraceDirectory));
+  }
 
-      PathStoreDeploymentUtils.writeTaskDone(local, 0);
+  /** Starts the metrics http endpoint if a metrics port is configured */
+  private static void startMetrics() throws IOException {
+    if (PathStoreProperties.getInstance().MetricsPort != -1)
+      new MetricsHttpServer(PathStoreProperties.getInstance().MetricsPort).start();
+  }
 
-      if (!SchemaInfo.getInstance().isKeyspaceLoaded(Constants.PATHSTORE_APPLICATIONS)) {
-        logger.info("Application keyspace not detected, attempting to load");
-        PathStoreSchemaLoaderUtils.loadApplicationSchema(local);
-        SchemaInfo.getInstance().loadKeyspace(Constants.PATHSTORE_APPLICATIONS);
-      } else logger.info("Application keyspace already loaded");
+  /** Starts the grpc server and marks startup task 0 as done */
+  private static void startGRPC() throws IOException {
+    // Myles: We're over authenticating here as when we provide all nodes that references the
+    // parent node and children nodes instead of just the children.
+    // This will need to be addressed later.
+    server =
+        ServerBuilder.forPort(PathStoreProperties.getInstance().GRPCPort)
+            .addService(new CommonServiceImpl()) // both client and server
+            .addService(new ClientOnlyServiceImpl()) // client only
+            .addService(new ServerOnlyServiceImpl()) // server only
+            .addService(new NetworkWideServiceImpl()) // master and server
+            .addService(new UnAuthenticatedServiceImpl()) // nothing
+            .intercept(
+                new AuthServerInterceptor(
+                    AuthManager.newBuilder()
+                        .serverAndClientAuthenticatedEndpoint(
+                            CommonServiceGrpc.SERVICE_NAME,
+                            CredentialCache.getNodes()::getAll,
+                            CredentialCache.getClients()::getAll)
+                        .clientAuthenticatedEndpoint(
+                            ClientOnlyServiceGrpc.SERVICE_NAME,
+                            CredentialCache.getClients()::getAll)
+                        .serverAuthenticatedEndpoint(
+                            ServerOnlyServiceGrpc.SERVICE_NAME,
+                            CredentialCache.getNodes()::getAll)
+                        .addAdditionalCredentials(
+                            NetworkWideServiceGrpc.SERVICE_NAME,
+                            CredentialCache.getAuxiliary()
+                                .getCredential(
+                                    Constants.AUXILIARY_ACCOUNTS.NETWORK_WIDE_GRPC_CREDENTIAL))
+                        .serverAuthenticatedEndpoint(
+                            NetworkWideServiceGrpc.SERVICE_NAME,
+                            CredentialCache.getNodes()::getAll)
+                        .unauthenticatedEndpoint(UnAuthenticatedServiceGrpc.SERVICE_NAME)
+                        .build()))
+            .build();
 
-      PathStoreDeploymentUtils.writeTaskDone(local, 1);
+    server.start();
 
-      logger.info("Application keyspace successfully loaded");
+    logger.info(
+        String.format("Started GRPC on port %d", PathStoreProperties.getInstance().GRPCPort));
 
-      logger.info("PathStore Ready");
+    PathStoreDeploymentUtils.writeTaskDone(
+        PathStorePrivilegedCluster.getSuperUserInstance().rawConnect(), 0);
+  }
 
-      PathStoreDeploymentUtils.writeTaskDone(local, 2);
+  /** Loads the application keyspace if it doesn't exist yet and marks startup task 1 as done */
+  private static void loadApplicationKeyspace() {
+    Session local = PathStorePrivilegedCluster.getSuperUserInstance().rawConnect();
 
-      spawnDaemons();
-    } catch (Exception e) {
-      logger.error(e);
+    if (!SchemaInfo.getInstance().isKeyspaceLoaded(Constants.PATHSTORE_APPLICATIONS)) {
+      logger.info("Application keyspace not detected, attempting to load");
+      PathStoreSchemaLoaderUtils.loadApplicationSchema(local);
+      SchemaInfo.getInstance().loadKeyspace(Constants.PATHSTORE_APPLICATIONS);
+    } else {
+      logger.info("Application keyspace already loaded");
+
+      // keyspaces created before the replication lag tables were added
+      SchemaInfo.Table heartbeats =
+          SchemaInfo.getInstance()
+              .getTableFromKeyspaceAndTableName(
+                  Constants.PATHSTORE_APPLICATIONS, Constants.HEARTBEATS);
+
+      if (heartbeats == null) {
+        logger.info("Replication lag tables not detected, migrating application keyspace");
+        PathStoreSchemaLoaderUtils.migrateApplicationSchema(local);
+        SchemaInfo.getInstance().loadKeyspace(Constants.PATHSTORE_APPLICATIONS);
+      }
     }
+
+    PathStoreDeploymentUtils.writeTaskDone(local, 1);
+
+    logger.info("Application keyspace successfully loaded");
   }
 
-  /** Spawns daemons based on server role */
+  /**
+   * Schedules daemons based on server role. Each daemon performs a single iteration per run and is
+   * re-run by the scheduler after its interval has elapsed
+   */
   private static void spawnDaemons() {
-    PathStoreThreadManager daemonManager = PathStoreThreadManager.getDaemonInstance();
-    daemonManager
-        .spawn(new PathStoreSlaveDeploymentServer())
-        .spawn(new PathStoreSlaveSchemaServer())
-        .spawn(new PathStoreLoggerDaemon());
-
-    if (PathStoreProperties.getInstance().role != Role.ROOTSERVER)
-      daemonManager.spawn(new PathStorePushServer()).spawn(new PathStorePullServer());
-    else
-      daemonManager
-          .spawn(new PathStoreMasterDeploymentServer())
-          .spawn(new PathStoreMasterSchemaServer());
+    PathStoreScheduler scheduler = PathStoreScheduler.getInstance();
+    PathStoreProperties properties = PathStoreProperties.getInstance();
+
+    ControlPlaneEvents events = ControlPlaneEvents.getInstance();
+
+    // the state machines react to control plane events, the schedule only covers missed events
+    scheduler.schedule(
+        "slave-deployment",
+        events.subscribe(
+            Constants.DEPLOYMENT, properties.NodeID, new PathStoreSlaveDeploymentServer()),
+        properties.ControlPlanePollInterval,
+        MILLISECONDS);
+    scheduler.schedule(
+        "slave-schema",
+        events.subscribe(
+            Constants.NODE_SCHEMAS, properties.NodeID, new PathStoreSlaveSchemaServer()),
+        properties.ControlPlanePollInterval,
+        MILLISECONDS);
+    scheduler.schedule("logger", new PathStoreLoggerDaemon(), 1000, MILLISECONDS);
+
+    if (properties.LogRetentionDays > 0)
+      scheduler.schedule("log-retention", new PathStoreLogRetention(), 1, HOURS);
+
+    if (Tracer.getInstance().getExporter() != null)
+      scheduler.schedule("trace-exporter", Tracer.getInstance().getExporter(), 1000, MILLISECONDS);
+
+    if (properties.HeartbeatInterval > 0)
+      scheduler.schedule(
+          "replication-probe",
+          new ReplicationLagProbe(),
+          properties.HeartbeatInterval,
+          MILLISECONDS);
+
+    if (properties.role != Role.ROOTSERVER) {
+      scheduler.schedule("control-plane-watch", new ControlPlaneWatcher(), 5000, MILLISECONDS);
+      scheduler.schedule("push", new PathStorePushServer(), properties.PushSleep, MILLISECONDS);
+      scheduler.schedule("pull", new PathStorePullServer(), properties.PullSleep, MILLISECONDS);
+      scheduler.schedule(
+          "garbage-collection",
+          new PathStoreGarbageCollection.Executor(new SimpleGarbageCollector()),
+          properties.PullSleep,
+          MILLISECONDS);
+    } else {
+      scheduler.schedule(
+          "master-deployment",
+          events.subscribe(
+              Constants.DEPLOYMENT,
+              ControlPlaneEvents.ANY_NODE,
+              new PathStoreMasterDeploymentServer()),
+          properties.ControlPlanePollInterval,
+          MILLISECONDS);
+      scheduler.schedule(
+          "master-schema",
+          events.subscribe(
+              Constants.NODE_SCHEMAS,
+              ControlPlaneEvents.ANY_NODE,
+              new PathStoreMasterSchemaServer()),
+          properties.ControlPlanePollInterval,
+          MILLISECONDS);
+    }
   }
 }
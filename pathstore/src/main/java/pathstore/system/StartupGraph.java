@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system;
+
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is used to run the startup phases of a node as a dependency graph. Each phase starts
+ * as soon as all the phases it depends on have finished, so independent phases (e.g. loading the
+ * different credential caches) run concurrently.
+ *
+ * <p>The duration of every phase is logged once the graph completes and exported as the {@code
+ * pathstore_startup_phase_seconds} gauge so slow restarts can be attributed to a phase.
+ *
+ * @see PathStoreServerImpl#main(String[])
+ */
+public class StartupGraph {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(StartupGraph.class);
+
+  /** Amount of phases that can run at the same time */
+  private static final int THREADS = 4;
+
+  /** A single startup phase */
+  @FunctionalInterface
+  public interface Phase {
+    /** @throws Exception if the phase failed, all phases depending on it are skipped */
+    void run() throws Exception;
+  }
+
+  /** Futures of each phase by name, in the order they were added */
+  private final Map<String, CompletableFuture<Void>> phases = new LinkedHashMap<>();
+
+  /** Start and end of each phase in ns relative to {@link #start} */
+  private final Map<String, long[]> timings = new LinkedHashMap<>();
+
+  /** Amount of threads created by {@link #executor} */
+  private final AtomicInteger threadCount = new AtomicInteger(0);
+
+  /** Executor phases run on, shut down once the graph completes */
+  private final ExecutorService executor =
+      Executors.newFixedThreadPool(
+          THREADS,
+          runnable ->
+              new Thread(
+                  runnable,
+                  String.format("pathstore-startup-%d", this.threadCount.incrementAndGet())));
+
+  /** Time the graph was created at */
+  private final long start = System.nanoTime();
+
+  /**
+   * Adds a phase, it is started once all its dependencies have completed
+   *
+   * @param name name of the phase
+   * @param phase phase to run
+   * @param dependencies names of previously added phases this phase depends on
+   * @return this
+   */
+  public synchronized StartupGraph add(
+      final String name, final Phase phase, final String... dependencies) {
+    if (this.phases.containsKey(name))
+      throw new IllegalArgumentException(String.format("Phase %s was already added", name));
+
+    CompletableFuture<?>[] required = new CompletableFuture<?>[dependencies.length];
+    for (int i = 0; i < dependencies.length; i++) {
+      required[i] = this.phases.get(dependencies[i]);
+      if (required[i] == null)
+        throw new IllegalArgumentException(
+            String.format("Phase %s depends on unknown phase %s", name, dependencies[i]));
+    }
+
+    long[] timing = new long[2];
+    this.timings.put(name, timing);
+
+    this.phases.put(
+        name,
+        CompletableFuture.allOf(required)
+            .thenRunAsync(
+                () -> {
+                  timing[0] = System.nanoTime() - this.start;
+                  try {
+                    phase.run();
+                  } catch (Exception e) {
+                    throw new CompletionException(
+                        String.format("Startup phase %s failed", name), e);
+                  } finally {
+                    timing[1] = System.nanoTime() - this.start;
+                  }
+                },
+                this.executor));
+
+    return this;
+  }
+
+  /**
+   * Waits for all phases to complete, logs and exports their timings
+   *
+   * @throws Exception the cause of the first failed phase
+   */
+  public synchronized void await() throws Exception {
+    try {
+      CompletableFuture.allOf(this.phases.values().toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      // dependent phases fail with the same exception, so the first failed phase is the root cause
+      for (CompletableFuture<Void> phase : this.phases.values())
+        if (phase.isCompletedExceptionally())
+          try {
+            phase.join();
+          } catch (CompletionException failure) {
+            if (failure.getCause() instanceof Exception) throw (Exception) failure.getCause();
+          }
+      throw e;
+    } finally {
+      this.executor.shutdown();
+      this.report();
+    }
+  }
+
+  /** Logs the timing of each phase and registers the startup gauges */
+  private void report() {
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    long total = System.nanoTime() - this.start;
+
+    for (Map.Entry<String, long[]> entry : this.timings.entrySet()) {
+      long[] timing = entry.getValue();
+
+      if (timing[1] == 0) {
+        logger.info(String.format("Startup phase %s did not run", entry.getKey()));
+        continue;
+      }
+
+      logger.info(
+          String.format(
+              "Startup phase %s took %d ms (started at +%d ms)",
+              entry.getKey(),
+              TimeUnit.NANOSECONDS.toMillis(timing[1] - timing[0]),
+              TimeUnit.NANOSECONDS.toMillis(timing[0])));
+
+      double seconds = (timing[1] - timing[0]) / 1e9;
+      metrics.gauge(
+          "pathstore_startup_phase_seconds",
+          "Duration of a startup phase",
+          () -> seconds,
+          "phase",
+          entry.getKey());
+    }
+
+    logger.info(String.format("Startup took %d ms", TimeUnit.NANOSECONDS.toMillis(total)));
+
+    metrics.gauge("pathstore_startup_seconds", "Duration of the node startup", () -> total / 1e9);
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.controlplane;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import pathstore.client.PathStoreServerClient;
+import pathstore.common.Constants;
+import pathstore.common.PathStoreProperties;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.grpc.pathStoreProto.ControlPlaneEvent;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.network.NetworkImpl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to notify the deployment and schema state machines of changes to their control
+ * plane tables ({@link Constants#DEPLOYMENT} and {@link Constants#NODE_SCHEMAS}) instead of having
+ * them poll those tables.
+ *
+ * <p>Events travel up and then down the hierarchy:
+ *
+ * <p>(1): A node that writes a control plane row calls {@link #notifyChange(String, int)}. Each
+ * node on the path to the root pushes the table to its parent and forwards the event, see {@link
+ * NetworkImpl#notifyControlPlane(ControlPlaneEvent)}
+ *
+ * <p>(2): The root publishes the event. Every child watches its parent through a grpc stream, see
+ * {@link ControlPlaneWatcher}, on an event it fetches the deltas for the table and publishes the
+ * event itself, which forwards it to its own children
+ *
+ * <p>Every node therefore only sees an event once the rows written before it are readable locally.
+ * Events carry no row data, state machines re-read their table when notified.
+ *
+ * @see ControlPlaneTask
+ */
+public final class ControlPlaneEvents {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ControlPlaneEvents.class);
+
+  /** Node id used by subscribers that react to events for any node */
+  public static final int ANY_NODE = -1;
+
+  /** Tables that are part of the control plane, all within pathstore_applications */
+  public static final Collection<String> TABLES =
+      Arrays.asList(Constants.DEPLOYMENT, Constants.NODE_SCHEMAS);
+
+  /**
+   * Table of readiness events. A freshly deployed child sends one to its parent once it has
+   * finished starting up, see {@link #notifyReady()}. These are only published on the parent
+   */
+  public static final String READINESS_TABLE = Constants.LOCAL_STARTUP;
+
+  /** Instance of class */
+  private static ControlPlaneEvents instance = null;
+
+  /** @return instance of class */
+  public static synchronized ControlPlaneEvents getInstance() {
+    if (instance == null) instance = new ControlPlaneEvents();
+    return instance;
+  }
+
+  /** Events published on this node */
+  private final Counter published =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_control_plane_events_total", "Control plane events published");
+
+  /** State machines subscribed to events */
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  /** Observers that receive every event, these are the watch streams of children */
+  private final List<Consumer<ControlPlaneEvent>> observers = new CopyOnWriteArrayList<>();
+
+  /** Private Default Constructor */
+  private ControlPlaneEvents() {}
+
+  /** A state machine subscribed to the events of a table */
+  private static final class Subscription {
+    /** Table to react to */
+    private final String table;
+
+    /** Node to react to, or {@link #ANY_NODE} */
+    private final int nodeId;
+
+    /** Task to fire */
+    private final ControlPlaneTask task;
+
+    /**
+     * @param table {@link #table}
+     * @param nodeId {@link #nodeId}
+     * @param task {@link #task}
+     */
+    private Subscription(final String table, final int nodeId, final ControlPlaneTask task) {
+      this.table = table;
+      this.nodeId = nodeId;
+      this.task = task;
+    }
+  }
+
+  /**
+   * Subscribes a state machine to the events of a table
+   *
+   * @param table control plane table
+   * @param nodeId node id events need to have, or {@link #ANY_NODE}
+   * @param stateMachine single run of the state machine
+   * @return task to schedule as fallback, runs of it are serialized with event triggered runs
+   */
+  public ControlPlaneTask subscribe(
+      final String table, final int nodeId, final Runnable stateMachine) {
+    ControlPlaneTask task = new ControlPlaneTask(stateMachine);
+    this.subscriptions.add(new Subscription(table, nodeId, task));
+    return task;
+  }
+
+  /** @param task task returned by {@link #subscribe(String, int, Runnable)} to stop firing */
+  public void unsubscribe(final ControlPlaneTask task) {
+    this.subscriptions.removeIf(subscription -> subscription.task == task);
+  }
+
+  /** @param observer observer to pass every published event to */
+  public void addObserver(final Consumer<ControlPlaneEvent> observer) {
+    this.observers.add(observer);
+  }
+
+  /** @param observer observer to remove */
+  public void removeObserver(final Consumer<ControlPlaneEvent> observer) {
+    this.observers.remove(observer);
+  }
+
+  /**
+   * Passes every published event to a grpc response stream until the caller cancels it
+   *
+   * @param responseObserver server side of a watch stream
+   * @see pathstore.system.network.ServerOnlyServiceImpl#watchControlPlane
+   * @see pathstore.system.network.ClientOnlyServiceImpl#watchControlPlane
+   */
+  public void stream(final StreamObserver<ControlPlaneEvent> responseObserver) {
+    ServerCallStreamObserver<ControlPlaneEvent> stream =
+        (ServerCallStreamObserver<ControlPlaneEvent>) responseObserver;
+
+    Consumer<ControlPlaneEvent> observer =
+        new Consumer<ControlPlaneEvent>() {
+          @Override
+          public void accept(final ControlPlaneEvent event) {
+            synchronized (stream) {
+              try {
+                if (!stream.isCancelled()) stream.onNext(event);
+              } catch (RuntimeException e) {
+                removeObserver(this);
+              }
+            }
+          }
+        };
+
+    stream.setOnCancelHandler(() -> this.removeObserver(observer));
+    this.addObserver(observer);
+  }
+
+  /**
+   * Fires all matching state machines and passes the event to all observers
+   *
+   * @param event event to publish
+   */
+  public void publish(final ControlPlaneEvent event) {
+    this.publishLocal(event);
+
+    for (Consumer<ControlPlaneEvent> observer : this.observers) observer.accept(event);
+  }
+
+  /**
+   * Fires all matching state machines without passing the event on to the children
+   *
+   * @param event event to publish
+   */
+  public void publishLocal(final ControlPlaneEvent event) {
+    this.published.inc();
+
+    for (Subscription subscription : this.subscriptions)
+      if (subscription.table.equals(event.getTable())
+          && (subscription.nodeId == ANY_NODE || subscription.nodeId == event.getNodeId()))
+        subscription.task.fire();
+  }
+
+  /**
+   * Called after a control plane row has been written on this node. The event is forwarded to the
+   * root in the background
+   *
+   * @param table table written to
+   * @param nodeId node whose state machine should react, see {@link ControlPlaneEvent#getNodeId()}
+   */
+  public void notifyChange(final String table, final int nodeId) {
+    ControlPlaneEvent event =
+        ControlPlaneEvent.newBuilder().setTable(table).setNodeId(nodeId).build();
+
+    this.send(event, () -> NetworkImpl.getInstance().notifyControlPlane(event));
+  }
+
+  /**
+   * Called once this node has finished starting up. The parent wakes up the deployment that is
+   * waiting for this node instead of it polling the local startup table
+   *
+   * @see pathstore.system.deployment.commands.WaitForPathStore
+   */
+  public void notifyReady() {
+    int nodeId = PathStoreProperties.getInstance().NodeID;
+
+    this.send(
+        ControlPlaneEvent.newBuilder().setTable(READINESS_TABLE).setNodeId(nodeId).build(),
+        () -> PathStoreServerClient.getInstance().notifyControlPlane(READINESS_TABLE, nodeId));
+  }
+
+  /**
+   * Sends an event in the background, failures are logged as the receiver falls back to polling
+   *
+   * @param event event that is sent
+   * @param sender how to send it
+   */
+  private void send(final ControlPlaneEvent event, final Runnable sender) {
+    try {
+      PathStoreScheduler.getInstance()
+          .submit(
+              WorkerPool.GENERAL,
+              () -> {
+                try {
+                  sender.run();
+                } catch (Exception e) {
+                  logger.error(
+                      String.format(
+                          "Could not notify change of %s for node %d, it will be picked up by the next poll",
+                          event.getTable(), event.getNodeId()));
+                  logger.error(e);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      logger.error(
+          String.format(
+              "Could not queue change of %s for node %d, it will be picked up by the next poll",
+              event.getTable(), event.getNodeId()));
+    }
+  }
+}
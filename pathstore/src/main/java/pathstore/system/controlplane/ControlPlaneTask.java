@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.controlplane;
+
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps a state machine so that it can be ran by control plane events as well as by its periodic
+ * fallback schedule. Runs never overlap and a burst of events results in at most one pending run.
+ *
+ * @see ControlPlaneEvents#subscribe(String, int, Runnable)
+ */
+public final class ControlPlaneTask implements Runnable {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ControlPlaneTask.class);
+
+  /** Single run of the state machine */
+  private final Runnable stateMachine;
+
+  /** Whether a run has been submitted and hasn't started yet */
+  private final AtomicBoolean pending = new AtomicBoolean(false);
+
+  /** @param stateMachine {@link #stateMachine} */
+  ControlPlaneTask(final Runnable stateMachine) {
+    this.stateMachine = stateMachine;
+  }
+
+  /** Runs the state machine, waits for a run in progress to finish first */
+  @Override
+  public void run() {
+    synchronized (this.stateMachine) {
+      this.stateMachine.run();
+    }
+  }
+
+  /** Submits a run unless one is already pending */
+  void fire() {
+    if (!this.pending.compareAndSet(false, true)) return;
+
+    try {
+      PathStoreScheduler.getInstance()
+          .submit(
+              WorkerPool.GENERAL,
+              () -> {
+                this.pending.set(false);
+                try {
+                  this.run();
+                } catch (Exception e) {
+                  logger.error(e);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      // the state machine still runs on its polling interval
+      this.pending.set(false);
+      logger.error(e);
+    }
+  }
+}
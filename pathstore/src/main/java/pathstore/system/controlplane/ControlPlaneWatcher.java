@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.controlplane;
+
+import io.grpc.stub.StreamObserver;
+import pathstore.client.PathStoreServerClient;
+import pathstore.common.Constants;
+import pathstore.common.PathStoreProperties;
+import pathstore.common.QueryCache;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.grpc.pathStoreProto.ControlPlaneEvent;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.util.SchemaInfo;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This daemon is present on every node except for the root node. It keeps a watch stream open to
+ * the parent node and republishes every control plane event it receives.
+ *
+ * <p>Before an event is published the deltas of all query cache entries on its table are fetched
+ * from the parent, so the state machines on this node and the children of this node read the rows
+ * that caused the event.
+ *
+ * <p>Each run re-opens the stream if it was closed. When a stream is (re-)opened all control plane
+ * tables are refreshed and an event is published for each of them, as events may have been missed
+ * while no stream was open.
+ *
+ * @see ControlPlaneEvents
+ */
+public class ControlPlaneWatcher implements Runnable {
+
+  /** Logger */
+  private final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ControlPlaneWatcher.class);
+
+  /** Node id so you don't need to query the properties file every run */
+  private final int nodeId = PathStoreProperties.getInstance().NodeID;
+
+  /** Whether a stream to the parent is open */
+  private volatile boolean watching = false;
+
+  /** Opens a watch stream if none is open */
+  @Override
+  public void run() {
+    if (this.watching) return;
+
+    this.watching = true;
+
+    try {
+      PathStoreServerClient.getInstance()
+          .watchControlPlane(
+              new StreamObserver<ControlPlaneEvent>() {
+                @Override
+                public void onNext(final ControlPlaneEvent event) {
+                  try {
+                    PathStoreScheduler.getInstance()
+                        .submit(WorkerPool.GENERAL, () -> refreshAndPublish(event));
+                  } catch (RejectedExecutionException e) {
+                    // the table is picked up by the next poll
+                    logger.error(e);
+                  }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                  logger.error(
+                      String.format("Control plane watch closed: %s", throwable.getMessage()));
+                  watching = false;
+                }
+
+                @Override
+                public void onCompleted() {
+                  watching = false;
+                }
+              });
+    } catch (Exception e) {
+      this.watching = false;
+      throw e;
+    }
+
+    this.logger.debug("Opened control plane watch to parent");
+
+    for (String table : ControlPlaneEvents.TABLES)
+      PathStoreScheduler.getInstance()
+          .submit(
+              WorkerPool.GENERAL,
+              () ->
+                  this.refreshAndPublish(
+                      ControlPlaneEvent.newBuilder()
+                          .setTable(table)
+                          .setNodeId(this.nodeId)
+                          .build()));
+  }
+
+  /**
+   * Fetches the deltas of the event's table then publishes the event
+   *
+   * @param event event received from the parent
+   */
+  private void refreshAndPublish(final ControlPlaneEvent event) {
+    if (!ControlPlaneEvents.TABLES.contains(event.getTable())) return;
+
+    try {
+      SchemaInfo.Table table =
+          SchemaInfo.getInstance()
+              .getTableFromKeyspaceAndTableName(Constants.PATHSTORE_APPLICATIONS, event.getTable());
+
+      QueryCache queryCache = QueryCache.getInstance();
+
+      queryCache.getEntries(table).stream()
+          .filter(entry -> entry.isReady() && entry.getIsCovered() == null && !entry.isExpired())
+          .forEach(queryCache::fetchDelta);
+    } catch (Exception e) {
+      this.logger.error(e);
+    }
+
+    ControlPlaneEvents.getInstance().publish(event);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.deployment.commands;
+
+import pathstore.system.deployment.utilities.DeploymentBuilder;
+import pathstore.system.deployment.utilities.DeploymentExecutor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class is used to denote a step in the installation process that consists of independent
+ * command groups. Each group is executed in order, the groups are executed concurrently
+ *
+ * @see DeploymentBuilder#concurrently(java.util.function.Consumer[])
+ * @see DeploymentExecutor
+ */
+public class ConcurrentCommands implements ICommand {
+
+  /** Independent command groups */
+  private final List<List<ICommand>> groups;
+
+  /** @param groups {@link #groups} */
+  public ConcurrentCommands(final List<List<ICommand>> groups) {
+    this.groups = groups;
+  }
+
+  /** @return independent command groups */
+  public List<List<ICommand>> getGroups() {
+    return this.groups;
+  }
+
+  /**
+   * Execute all groups concurrently and wait for all of them to finish
+   *
+   * @throws CommandError the first error of any group, after all groups have finished
+   */
+  @Override
+  public void execute() throws CommandError {
+    DeploymentExecutor.executeConcurrently(this.groups, command -> {});
+  }
+
+  /** @return size of each group that is being executed */
+  @Override
+  public String toString() {
+    return String.format(
+        "Executing %d command groups concurrently of sizes %s",
+        this.groups.size(), this.groups.stream().map(List::size).collect(Collectors.toList()));
+  }
+}
@@ -27,7 +27,7 @@ import pathstore.client.PathStoreSession;
 import pathstore.common.Constants;
 import pathstore.common.tables.NodeSchemaEntry;
 import pathstore.system.PathStorePrivilegedCluster;
-import pathstore.system.logging.LoggerLevel;
+import pathstore.system.network.NetworkImpl;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 
@@ -39,6 +39,9 @@ import static pathstore.common.Constants.DEPLOYMENT_COLUMNS.PARENT_NODE_ID;
  *
  * <p>It will remove: logging information, application records, and deployment records
  *
+ * <p>Logs are removed with partition level deletes on this node and every ancestor, see {@link
+ * NetworkImpl#purgeNodeLogs(int)}
+ *
  * @see pathstore.system.schemaFSM.PathStoreSlaveSchemaServer
  * @see pathstore.system.schemaFSM.PathStoreMasterSchemaServer
  * @implNote This is only to be run on the server side as it uses {@link
@@ -67,51 +70,13 @@ public class DeleteNodeHistory implements ICommand {
     this.logger.info(
         String.format("Deleting Available log dates and logs for node %d", this.newNodeId));
 
-    Select getAvailableLogDates =
-        QueryBuilder.select()
-            .all()
-            .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
-    getAvailableLogDates.where(
-        QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, this.newNodeId));
-
-    for (Row availableLogDateRow : session.execute(getAvailableLogDates)) {
-
-      // Delete date record for available dates
-      Delete availableLogDatesDelete =
-          QueryBuilder.delete()
-              .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
-
-      String date = availableLogDateRow.getString(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE);
-
-      availableLogDatesDelete
-          .where(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, this.newNodeId))
-          .and(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE, date));
-
-      session.execute(availableLogDatesDelete);
-
-      // For all log levels delete all logs with the given date above
-      for (LoggerLevel level : LoggerLevel.values()) {
-        Select getLogs =
-            QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
-        getLogs
-            .where(QueryBuilder.eq(Constants.LOGS_COLUMNS.NODE_ID, this.newNodeId))
-            .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.DATE, date))
-            .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.LOG_LEVEL, level.toString()));
-
-        for (Row logRow : session.execute(getLogs)) {
-          Delete logDelete =
-              QueryBuilder.delete().from(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
-          logDelete
-              .where(QueryBuilder.eq(Constants.LOGS_COLUMNS.NODE_ID, this.newNodeId))
-              .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.DATE, date))
-              .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.LOG_LEVEL, level.toString()))
-              .and(
-                  QueryBuilder.eq(
-                      Constants.LOGS_COLUMNS.COUNT, logRow.getInt(Constants.LOGS_COLUMNS.COUNT)));
-
-          session.execute(logDelete);
-        }
-      }
+    try {
+      NetworkImpl.getInstance().purgeNodeLogs(this.newNodeId);
+    } catch (RuntimeException e) {
+      // logs left behind on an ancestor are only removed by retention, see LogRetentionDays
+      this.logger.error(
+          String.format("Could not remove the logs of node %d on all ancestors", this.newNodeId));
+      this.logger.error(e);
     }
 
     this.logger.info(String.format("Deleting node schema records for node %d", this.newNodeId));
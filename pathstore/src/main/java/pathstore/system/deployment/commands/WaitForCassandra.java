@@ -25,10 +25,19 @@ import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is used to denote a single step where after launching cassandra we wait for a
  * connection to be possible. This is because if we don't want for cassandra to start up pathstore
  * will have to do it.
+ *
+ * <p>Cassandra can't notify us once it is up, so its native port is probed with a plain socket
+ * connect and a cluster connection is only attempted once the port accepts connections. The probe
+ * interval backs off from {@link #MIN_PROBE_MILLIS} to {@link #MAX_PROBE_MILLIS}.
  */
 @RequiredArgsConstructor
 public class WaitForCassandra implements ICommand {
@@ -43,40 +52,68 @@ public class WaitForCassandra implements ICommand {
    */
   private static final int maxWaitTime = 60 * 5;
 
+  /** First probe interval */
+  private static final long MIN_PROBE_MILLIS = 250;
+
+  /** Largest probe interval */
+  private static final long MAX_PROBE_MILLIS = 2000;
+
   /** Cassandra credentials */
   private final DeploymentCredential cassandraCredentials;
 
-  /** Denotes the current amount of time waited */
-  private int currentWaitCount = 0;
-
   /**
-   * Continue to try and make a connection, if an exception is thrown wait 1 second and try again
-   * until a successful connection is made, then close connection
+   * Probe the native port until it accepts connections, then make a connection. If the connection
+   * fails back off and try again until it succeeds or {@link #maxWaitTime} has elapsed
    *
    * @throws CommandError contains a message to denote what went wrong
    */
   @Override
   public void execute() throws CommandError {
-    PathStorePrivilegedCluster cluster = null;
-    try {
-      cluster = PathStorePrivilegedCluster.getChildInstance(cassandraCredentials);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitTime);
+    long probeMillis = MIN_PROBE_MILLIS;
 
-      logger.info("Cassandra is online");
+    while (true) {
+      if (this.portOpen((int) probeMillis)) {
+        PathStorePrivilegedCluster cluster = null;
+        try {
+          cluster = PathStorePrivilegedCluster.getChildInstance(this.cassandraCredentials);
 
-    } catch (NoHostAvailableException e) {
-      try {
-        if (this.currentWaitCount >= maxWaitTime)
-          throw new CommandError(
-              String.format("Exceeded max wait time of %d seconds", maxWaitTime));
+          logger.info("Cassandra is online");
+          return;
+        } catch (NoHostAvailableException ignored) {
+          // the port is open before authentication is ready
+        } finally {
+          if (cluster != null) cluster.close();
+        }
+      }
+
+      if (System.nanoTime() >= deadline)
+        throw new CommandError(String.format("Exceeded max wait time of %d seconds", maxWaitTime));
 
-        this.currentWaitCount++;
-        Thread.sleep(1000);
+      try {
+        Thread.sleep(probeMillis);
       } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
         throw new CommandError("Sleep was interrupted while waiting for cassandra to come online");
       }
-      this.execute();
-    } finally {
-      if (cluster != null) cluster.close();
+
+      probeMillis = Math.min(probeMillis * 2, MAX_PROBE_MILLIS);
+    }
+  }
+
+  /**
+   * @param timeoutMillis connect timeout
+   * @return true iff the cassandra native port accepts a tcp connection
+   */
+  private boolean portOpen(final int timeoutMillis) {
+    try (Socket socket = new Socket()) {
+      socket.connect(
+          new InetSocketAddress(
+              this.cassandraCredentials.getIp(), this.cassandraCredentials.getPort()),
+          timeoutMillis);
+      return true;
+    } catch (IOException e) {
+      return false;
     }
   }
 
@@ -24,16 +24,25 @@ import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import pathstore.authentication.credentials.DeploymentCredential;
 import pathstore.common.Constants;
+import pathstore.system.controlplane.ControlPlaneEvents;
+import pathstore.system.controlplane.ControlPlaneTask;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 import pathstore.system.PathStorePrivilegedCluster;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to wait for pathstore to start up
  *
+ * <p>If the node id of the new node is known the wait is driven by its readiness notification, see
+ * {@link ControlPlaneEvents#notifyReady()}, and the local startup table is only re-checked as a
+ * fallback every {@link #FALLBACK_POLL_SECONDS} seconds. Otherwise the table is checked every
+ * second.
+ *
  * @implNote The local cassandra instance must be up before the you can create a cluster connection,
  *     that is why the cluster is created in the {@link #execute()} function rather then in the
  *     constructed
@@ -50,23 +59,34 @@ public class WaitForPathStore implements ICommand {
    */
   private static final int maxWaitTime = 60 * 5;
 
+  /** How often the startup table is checked when waiting on a readiness notification */
+  private static final int FALLBACK_POLL_SECONDS = 5;
+
   /** Cassandra credentials to connect with */
   private final DeploymentCredential cassandraCredentials;
 
-  /** Denotes the current amount of time waited in seconds */
-  private int currentWaitCount;
+  /** Node id of the node starting up, or -1 if it won't notify us */
+  private final int nodeId;
 
   /** Tasks that need to be completed before we can consider pathstore to be officially online */
   private final Map<Integer, String> neededRecords;
 
   /**
-   * Creates cluster
+   * Wait by polling only
    *
    * @param cassandraCredentials {@link #cassandraCredentials}
    */
   public WaitForPathStore(final DeploymentCredential cassandraCredentials) {
+    this(cassandraCredentials, -1);
+  }
+
+  /**
+   * @param cassandraCredentials {@link #cassandraCredentials}
+   * @param nodeId {@link #nodeId}
+   */
+  public WaitForPathStore(final DeploymentCredential cassandraCredentials, final int nodeId) {
     this.cassandraCredentials = cassandraCredentials;
-    this.currentWaitCount = 0;
+    this.nodeId = nodeId;
     this.neededRecords = new HashMap<>();
     this.neededRecords.put(0, "GRPC Server started");
     this.neededRecords.put(1, "Pathstore Application keyspace loaded");
@@ -74,8 +94,9 @@ public class WaitForPathStore implements ICommand {
   }
 
   /**
-   * Every second check to see if rows have been added and remove them from neededRecords if not
-   * already done so and print out what their task was to stdout so user knows whats happening
+   * Check the startup table on every readiness notification (or poll interval) and remove rows from
+   * neededRecords if not already done so and print out what their task was to stdout so user knows
+   * whats happening
    *
    * @throws CommandError contains a message to denote what went wrong
    */
@@ -86,6 +107,43 @@ public class WaitForPathStore implements ICommand {
         PathStorePrivilegedCluster.getChildInstance(this.cassandraCredentials);
     Session session = cluster.rawConnect();
 
+    Semaphore notified = new Semaphore(0);
+    ControlPlaneTask subscription =
+        this.nodeId != -1
+            ? ControlPlaneEvents.getInstance()
+                .subscribe(ControlPlaneEvents.READINESS_TABLE, this.nodeId, notified::release)
+            : null;
+    int pollSeconds = subscription != null ? FALLBACK_POLL_SECONDS : 1;
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitTime);
+
+    try {
+      while (!this.checkStartupTasks(session)) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0)
+          throw new CommandError(
+              String.format("Exceeded max wait time of %d seconds", maxWaitTime));
+
+        notified.tryAcquire(
+            Math.min(remaining, TimeUnit.SECONDS.toNanos(pollSeconds)), TimeUnit.NANOSECONDS);
+        notified.drainPermits();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CommandError("Sleep was interrupted while waiting for pathstore to come online");
+    } finally {
+      if (subscription != null) ControlPlaneEvents.getInstance().unsubscribe(subscription);
+      cluster.close();
+    }
+
+    this.logger.info("PathStore started up");
+  }
+
+  /**
+   * @param session session to the new node
+   * @return true iff every needed startup task has been written
+   */
+  private boolean checkStartupTasks(final Session session) {
     Select tasks =
         QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.LOCAL_STARTUP);
 
@@ -98,22 +156,7 @@ public class WaitForPathStore implements ICommand {
       }
     }
 
-    if (this.neededRecords.size() > 0) {
-      try {
-        if (this.currentWaitCount >= maxWaitTime)
-          throw new CommandError(
-              String.format("Exceeded max wait time of %d seconds", maxWaitTime));
-
-        this.currentWaitCount++;
-        Thread.sleep(1000);
-        this.execute();
-      } catch (InterruptedException e) {
-        throw new CommandError("Sleep was interrupted while waiting for pathstore to come online");
-      }
-    } else {
-      this.logger.info("PathStore started up");
-      cluster.close();
-    }
+    return this.neededRecords.isEmpty();
   }
 
   /**
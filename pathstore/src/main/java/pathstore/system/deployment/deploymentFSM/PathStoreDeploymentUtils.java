@@ -26,6 +26,7 @@ import pathstore.common.Constants;
 import pathstore.common.tables.DeploymentEntry;
 import pathstore.common.tables.DeploymentProcessStatus;
 import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.controlplane.ControlPlaneEvents;
 
 import static pathstore.common.Constants.DEPLOYMENT_COLUMNS.*;
 
@@ -49,7 +50,8 @@ public class PathStoreDeploymentUtils {
   }
 
   /**
-   * Updates a records state to either failed or deployed based on the result of deployment
+   * Updates a records state to either failed or deployed based on the result of deployment. The
+   * slave deployment server of the parent node and the master deployment server are notified
    *
    * @param entry record that triggered deployment
    * @param status status to update entry to
@@ -66,6 +68,8 @@ public class PathStoreDeploymentUtils {
         .with(QueryBuilder.set(PROCESS_STATUS, status.toString()));
 
     clientSession.execute(update);
+
+    ControlPlaneEvents.getInstance().notifyChange(Constants.DEPLOYMENT, entry.parentNodeId);
   }
 
   /**
@@ -68,57 +68,47 @@ public class PathStoreMasterDeploymentServer implements Runnable {
   @Override
   public void run() {
     try {
-      while (true) {
-        // (1)
-        Select selectAllDeploymentRecords =
-            QueryBuilder.select()
-                .all()
-                .from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
-
-        // Deployment
-        Set<Integer> deployed = new HashSet<>();
-        Set<DeploymentEntry> waitingDeployment = new HashSet<>();
-
-        // Removal
-        Set<DeploymentEntry> waitingRemoval = new HashSet<>();
-        Set<Integer> completeSet = new HashSet<>();
-
-        for (Row row : this.session.execute(selectAllDeploymentRecords)) {
-          DeploymentEntry entry = DeploymentEntry.fromRow(row);
-
-          // Setup filterable sets
-          switch (entry.deploymentProcessStatus) {
-            case DEPLOYED:
-              deployed.add(entry.newNodeId);
-              break;
-            case WAITING_DEPLOYMENT:
-              waitingDeployment.add(entry);
-              break;
-            case WAITING_REMOVAL:
-              waitingRemoval.add(entry);
-              break;
-          }
-
-          // add to complete set
-          completeSet.add(entry.newNodeId);
+      // (1)
+      Select selectAllDeploymentRecords =
+          QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
+
+      // Deployment
+      Set<Integer> deployed = new HashSet<>();
+      Set<DeploymentEntry> waitingDeployment = new HashSet<>();
+
+      // Removal
+      Set<DeploymentEntry> waitingRemoval = new HashSet<>();
+      Set<Integer> completeSet = new HashSet<>();
+
+      for (Row row : this.session.execute(selectAllDeploymentRecords)) {
+        DeploymentEntry entry = DeploymentEntry.fromRow(row);
+
+        // Setup filterable sets
+        switch (entry.deploymentProcessStatus) {
+          case DEPLOYED:
+            deployed.add(entry.newNodeId);
+            break;
+          case WAITING_DEPLOYMENT:
+            waitingDeployment.add(entry);
+            break;
+          case WAITING_REMOVAL:
+            waitingRemoval.add(entry);
+            break;
         }
 
-        // (2)
-        waitingDeployment.stream()
-            .filter(i -> deployed.containsAll(i.waitFor))
-            .forEach(this::transitionDeploy);
+        // add to complete set
+        completeSet.add(entry.newNodeId);
+      }
 
-        // (3) If all nodes i is waiting for aren't presented in the record set
-        waitingRemoval.stream()
-            .filter(i -> Collections.disjoint(i.waitFor, completeSet))
-            .forEach(this::transitionRemoval);
+      // (2)
+      waitingDeployment.stream()
+          .filter(i -> deployed.containsAll(i.waitFor))
+          .forEach(this::transitionDeploy);
 
-        try {
-          Thread.sleep(5000);
-        } catch (InterruptedException e) {
-          logger.error(e);
-        }
-      }
+      // (3) If all nodes i is waiting for aren't presented in the record set
+      waitingRemoval.stream()
+          .filter(i -> Collections.disjoint(i.waitFor, completeSet))
+          .forEach(this::transitionRemoval);
     } catch (Exception e) {
       logger.error(e);
     }
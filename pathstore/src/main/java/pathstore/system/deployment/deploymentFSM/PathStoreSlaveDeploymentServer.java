@@ -25,19 +25,22 @@ import com.jcraft.jsch.JSchException;
 import pathstore.client.PathStoreSession;
 import pathstore.common.Constants;
 import pathstore.common.PathStoreProperties;
-import pathstore.common.PathStoreThreadManager;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
 import pathstore.common.Role;
 import pathstore.common.tables.DeploymentEntry;
 import pathstore.common.tables.DeploymentProcessStatus;
 import pathstore.common.tables.ServerEntry;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.deployment.commands.CommandError;
-import pathstore.system.deployment.commands.ICommand;
+import pathstore.system.deployment.utilities.DeploymentExecutor;
 import pathstore.system.deployment.utilities.SSHUtil;
 import pathstore.system.deployment.utilities.StartupUTIL;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import static pathstore.common.Constants.DEPLOYMENT_COLUMNS.PARENT_NODE_ID;
 import static pathstore.common.Constants.DEPLOYMENT_COLUMNS.SERVER_UUID;
 
@@ -47,6 +50,9 @@ import static pathstore.common.Constants.DEPLOYMENT_COLUMNS.SERVER_UUID;
  * pathstore node on that machine. If it succeeds they will update the record to deployed or if it
  * fails they will write failed.
  *
+ * <p>Every child is deployed on its own thread of the deployment pool, and the independent steps of
+ * a single deployment run concurrently, see {@link DeploymentExecutor}.
+ *
  * <p>In order for the administrator of the system to minimize the chance of failure they should
  * follow the server setup guide on our github page to ensure that all required pre-requisites are
  * installed before attempting to deploy a pathstore instance to said server
@@ -58,14 +64,14 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
       PathStoreLoggerFactory.getLogger(PathStoreSlaveDeploymentServer.class);
 
   /** Session used to interact with pathstore */
-  private final PathStoreSession session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
+  private final PathStoreSession session =
+      PathStorePrivilegedCluster.getDaemonInstance().psConnect();
 
   /** Node id so you don't need to query the properties file every run */
   private final int nodeId = PathStoreProperties.getInstance().NodeID;
 
-  /** Reference to the sub process thread pool */
-  private final PathStoreThreadManager subProcessManager =
-      PathStoreThreadManager.subProcessInstance();
+  /** Reference to the scheduler whose deployment pool runs deployment and removal operations */
+  private final PathStoreScheduler scheduler = PathStoreScheduler.getInstance();
 
   /**
    * The daemon is used to deploy new children nodes for a given node. The steps to install a new
@@ -81,35 +87,25 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
   @Override
   public void run() {
     try {
-      while (true) {
-        // (1)
-        Select selectAllDeployment =
-            QueryBuilder.select()
-                .all()
-                .from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
-        selectAllDeployment.where(QueryBuilder.eq(PARENT_NODE_ID, this.nodeId));
-
-        // Query all rows from the deployment table
-        for (Row row : this.session.execute(selectAllDeployment)) {
-          DeploymentEntry entry = DeploymentEntry.fromRow(row);
-
-          if (entry.deploymentProcessStatus != DeploymentProcessStatus.DEPLOYING
-              && entry.deploymentProcessStatus != DeploymentProcessStatus.REMOVING) continue;
-
-          Select queryServer =
-              QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.SERVERS);
-          queryServer.where(QueryBuilder.eq(SERVER_UUID, entry.serverUUID.toString()));
-
-          // (2) && (3)
-          for (Row serverRow : this.session.execute(queryServer))
-            this.spawnSubProcess(entry, ServerEntry.fromRow(serverRow));
-        }
-
-        try {
-          Thread.sleep(1000);
-        } catch (InterruptedException e) {
-          this.logger.error(e);
-        }
+      // (1)
+      Select selectAllDeployment =
+          QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
+      selectAllDeployment.where(QueryBuilder.eq(PARENT_NODE_ID, this.nodeId));
+
+      // Query all rows from the deployment table
+      for (Row row : this.session.execute(selectAllDeployment)) {
+        DeploymentEntry entry = DeploymentEntry.fromRow(row);
+
+        if (entry.deploymentProcessStatus != DeploymentProcessStatus.DEPLOYING
+            && entry.deploymentProcessStatus != DeploymentProcessStatus.REMOVING) continue;
+
+        Select queryServer =
+            QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.SERVERS);
+        queryServer.where(QueryBuilder.eq(SERVER_UUID, entry.serverUUID.toString()));
+
+        // (2) && (3)
+        for (Row serverRow : this.session.execute(queryServer))
+          this.spawnSubProcess(entry, ServerEntry.fromRow(serverRow));
       }
     } catch (Exception e) {
       logger.error(e);
@@ -141,7 +137,17 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
     PathStoreDeploymentUtils.updateState(deploymentEntry, newStatus);
 
     // (3)
-    this.subProcessManager.spawn(r);
+    try {
+      this.scheduler.submit(WorkerPool.DEPLOYMENT, r);
+    } catch (RejectedExecutionException e) {
+      // the deployment pool is saturated, hand the row back to the next run
+      logger.error(
+          String.format(
+              "Could not start processing node %d, retrying on the next run: %s",
+              deploymentEntry.newNodeId, e.getMessage()));
+      PathStoreDeploymentUtils.updateState(
+          deploymentEntry, deploymentEntry.deploymentProcessStatus);
+    }
   }
 
   /**
@@ -167,7 +173,7 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
 
         // Get a list of commands based on what information the current node has in the properties
         // file and what the new node id was written to the deployment table
-        for (ICommand command :
+        DeploymentExecutor.execute(
             StartupUTIL.initDeploymentList(
                 sshUtil,
                 serverEntry.ip,
@@ -181,15 +187,12 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
                 "127.0.0.1",
                 serverEntry.cassandraPort,
                 PathStoreProperties.getInstance().ExternalAddress,
-                PathStoreProperties.getInstance().CassandraPort)) {
-
-          // Inform the user what command is being executed
-          this.logger.info(
-              PathStoreDeploymentUtils.formatParallelMessages(
-                  deploymentEntry.newNodeId, command.toString()));
-
-          command.execute();
-        }
+                PathStoreProperties.getInstance().CassandraPort),
+            // Inform the user what command is being executed
+            command ->
+                this.logger.info(
+                    PathStoreDeploymentUtils.formatParallelMessages(
+                        deploymentEntry.newNodeId, command.toString())));
 
         this.logger.info(
             String.format("Successfully deployed node with id %d", deploymentEntry.newNodeId));
@@ -234,13 +237,12 @@ public class PathStoreSlaveDeploymentServer implements Runnable {
 
       try {
 
-        for (ICommand command :
-            StartupUTIL.initUnDeploymentList(sshUtil, deploymentEntry, serverEntry)) {
-          this.logger.info(
-              PathStoreDeploymentUtils.formatParallelMessages(
-                  deploymentEntry.newNodeId, command.toString()));
-          command.execute();
-        }
+        DeploymentExecutor.execute(
+            StartupUTIL.initUnDeploymentList(sshUtil, deploymentEntry, serverEntry),
+            command ->
+                this.logger.info(
+                    PathStoreDeploymentUtils.formatParallelMessages(
+                        deploymentEntry.newNodeId, command.toString())));
 
         this.logger.info(
             String.format("Successfully un-deployed node %d", deploymentEntry.newNodeId));
@@ -399,6 +399,30 @@ public class DeploymentBuilder<T extends DeploymentBuilder<T>> {
     return (T) this;
   }
 
+  /**
+   * Add independent command groups that are executed concurrently. Each group is built on a fresh
+   * builder connected to the same remote host, the next command of this builder only starts once
+   * every group has finished
+   *
+   * @param groups functions that add the commands of a group
+   * @return this
+   * @see DeploymentExecutor
+   */
+  @SafeVarargs
+  public final T concurrently(final Consumer<DeploymentBuilder<?>>... groups) {
+    List<List<ICommand>> built = new ArrayList<>(groups.length);
+
+    for (Consumer<DeploymentBuilder<?>> group : groups) {
+      DeploymentBuilder<?> builder = new DeploymentBuilder<>(this.remoteHostConnect);
+      group.accept(builder);
+      built.add(builder.build());
+    }
+
+    this.commands.add(new ConcurrentCommands(built));
+
+    return (T) this;
+  }
+
   /**
    * Add a custom command to the sequence
    *
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.deployment.utilities;
+
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.system.deployment.commands.CommandError;
+import pathstore.system.deployment.commands.ConcurrentCommands;
+import pathstore.system.deployment.commands.ICommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * This class executes a list of deployment commands built by {@link DeploymentBuilder}.
+ *
+ * <p>Commands are executed in order, except for {@link ConcurrentCommands} whose groups are
+ * executed concurrently on the {@link WorkerPool#DEPLOYMENT_STEP} pool. The deployment of a node
+ * therefore takes as long as its slowest group at each step instead of the sum of them.
+ *
+ * <p>Groups that haven't been picked up by the pool by the time the caller waits for them are run
+ * on the calling thread, so nested groups or a saturated pool never dead lock.
+ */
+public final class DeploymentExecutor {
+
+  /** Static utility class */
+  private DeploymentExecutor() {}
+
+  /**
+   * Execute a list of commands
+   *
+   * @param commands commands to execute in order
+   * @param beforeEach called before every command that isn't a {@link ConcurrentCommands}, used to
+   *     inform the user of progress
+   * @throws CommandError first error encountered
+   */
+  public static void execute(final List<ICommand> commands, final Consumer<ICommand> beforeEach)
+      throws CommandError {
+    executeGroup(commands, beforeEach);
+  }
+
+  /**
+   * Execute independent command groups concurrently and wait for all of them to finish. A failing
+   * group doesn't interrupt the others as they may be half way through a remote operation
+   *
+   * @param groups independent command groups
+   * @param beforeEach called before every command that isn't a {@link ConcurrentCommands}
+   * @throws CommandError the first error of any group, after all groups have finished
+   */
+  public static void executeConcurrently(
+      final List<List<ICommand>> groups, final Consumer<ICommand> beforeEach) throws CommandError {
+
+    if (groups.size() == 1) {
+      executeGroup(groups.get(0), beforeEach);
+      return;
+    }
+
+    List<FutureTask<Void>> tasks = new ArrayList<>(groups.size());
+
+    for (List<ICommand> group : groups) {
+      FutureTask<Void> task =
+          new FutureTask<>(
+              () -> {
+                executeGroup(group, beforeEach);
+                return null;
+              });
+      tasks.add(task);
+      try {
+        PathStoreScheduler.getInstance().submit(WorkerPool.DEPLOYMENT_STEP, task);
+      } catch (RejectedExecutionException ignored) {
+        // the pool is saturated, the group is run on this thread below
+      }
+    }
+
+    CommandError error = null;
+    RuntimeException unchecked = null;
+
+    for (FutureTask<Void> task : tasks) {
+      // no-op if the pool has already started the task
+      task.run();
+
+      try {
+        task.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (error == null)
+          error = new CommandError("Interrupted while waiting for a command group to finish");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CommandError) {
+          if (error == null) error = (CommandError) cause;
+        } else if (cause instanceof RuntimeException) {
+          if (unchecked == null) unchecked = (RuntimeException) cause;
+        } else if (cause instanceof Error) throw (Error) cause;
+      }
+    }
+
+    if (error != null) throw error;
+    if (unchecked != null) throw unchecked;
+  }
+
+  /**
+   * @param group commands to execute in order
+   * @param beforeEach called before every command that isn't a {@link ConcurrentCommands}
+   * @throws CommandError first error encountered
+   */
+  private static void executeGroup(final List<ICommand> group, final Consumer<ICommand> beforeEach)
+      throws CommandError {
+    for (ICommand command : group) {
+      if (command instanceof ConcurrentCommands)
+        executeConcurrently(((ConcurrentCommands) command).getGroups(), beforeEach);
+      else {
+        beforeEach.accept(command);
+        command.execute();
+      }
+    }
+  }
+}
@@ -36,6 +36,9 @@ import java.io.InputStream;
  */
 public class SSHUtil {
 
+  /** How often to check whether a command has exited after its output has ended */
+  private static final long EXIT_STATUS_POLL_MILLIS = 10;
+
   /** Session object used to denote our connection */
   private final Session session;
 
@@ -107,7 +110,8 @@ public class SSHUtil {
   }
 
   /**
-   * Executes a command on the remote server and returns the response
+   * Executes a command on the remote server and returns the response. The output is read as it
+   * arrives and the call returns as soon as the remote command has exited
    *
    * @param command command to execute on remote host
    * @return pair of response and exit status. (Response may not actually be needed)
@@ -122,26 +126,24 @@ public class SSHUtil {
 
     StringBuilder builder = new StringBuilder();
 
-    byte[] tmp = new byte[1024];
-    while (true) {
-      while (in.available() > 0) {
-        int i = in.read(tmp, 0, 1024);
-        if (i < 0) break;
+    try {
+      byte[] tmp = new byte[1024];
+      int i;
+      // blocks until output is available, -1 once the remote side has closed the stream
+      while ((i = in.read(tmp, 0, tmp.length)) != -1) {
         String s = new String(tmp, 0, i);
         builder.append(s);
         System.out.print(s);
       }
-      if (channel.isClosed()) {
-        if (in.available() > 0) continue;
-        break;
-      }
-      try {
-        Thread.sleep(1000);
-      } catch (Exception ignored) {
-      }
-    }
 
-    channel.disconnect();
+      // the exit status arrives right after the end of the output
+      while (!channel.isClosed()) Thread.sleep(EXIT_STATUS_POLL_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the command to exit", e);
+    } finally {
+      channel.disconnect();
+    }
 
     return new Pair<>(builder.toString(), channel.getExitStatus());
   }
@@ -54,6 +54,9 @@ public class StartupUTIL {
   }
 
   /**
+   * Builds the commands to deploy a new node. Steps that don't depend on each other are grouped so
+   * {@link DeploymentExecutor} runs them concurrently
+   *
    * @param sshUtil used for commands that need to use ssh
    * @param ip ip of new node
    * @param nodeID new node's id
@@ -109,31 +112,38 @@ public class StartupUTIL {
     return new DeploymentBuilder<>(sshUtil)
         .init(registryIP)
         .createRemoteDirectory(DeploymentConstants.REMOTE_PATHSTORE_LOGS_SUB_DIR)
-        .copyRegistryCertificate()
-        .loadRegistryCertificateOnChild(registryIP)
-        .generatePropertiesFiles(
-            nodeID,
-            ip,
-            parentNodeId,
-            role,
-            grpcIP,
-            grpcPort,
-            grpcParentIP,
-            grpcParentPort,
-            cassandraIP,
-            cassandraPort,
-            cassandraParentIP,
-            cassandraParentPort,
-            childSuperUserCredential.getUsername(),
-            childSuperUserCredential.getPassword(),
-            registryIP,
-            PathStoreProperties.getInstance().pathstoreVersion,
-            DeploymentConstants.GENERATE_PROPERTIES.LOCAL_TEMP_PROPERTIES_FILE(nodeID),
-            DeploymentConstants.GENERATE_PROPERTIES.REMOTE_PATHSTORE_PROPERTIES_FILE)
-        .startImageAndWait(
-            DeploymentConstants.RUN_COMMANDS.CASSANDRA_REMOVE_TAG(registryIP),
-            DeploymentConstants.RUN_COMMANDS.CASSANDRA_RUN(registryIP),
-            new WaitForCassandra(defaultLogin))
+        .concurrently(
+            // cassandra is pulled from the registry so it needs the certificate first
+            builder ->
+                builder
+                    .copyRegistryCertificate()
+                    .loadRegistryCertificateOnChild(registryIP)
+                    .startImageAndWait(
+                        DeploymentConstants.RUN_COMMANDS.CASSANDRA_REMOVE_TAG(registryIP),
+                        DeploymentConstants.RUN_COMMANDS.CASSANDRA_RUN(registryIP),
+                        new WaitForCassandra(defaultLogin)),
+            builder ->
+                builder.generatePropertiesFiles(
+                    nodeID,
+                    ip,
+                    parentNodeId,
+                    role,
+                    grpcIP,
+                    grpcPort,
+                    grpcParentIP,
+                    grpcParentPort,
+                    cassandraIP,
+                    cassandraPort,
+                    cassandraParentIP,
+                    cassandraParentPort,
+                    childSuperUserCredential.getUsername(),
+                    childSuperUserCredential.getPassword(),
+                    registryIP,
+                    PathStoreProperties.getInstance().pathstoreVersion,
+                    DeploymentConstants.GENERATE_PROPERTIES.LOCAL_TEMP_PROPERTIES_FILE(nodeID),
+                    DeploymentConstants.GENERATE_PROPERTIES.REMOTE_PATHSTORE_PROPERTIES_FILE),
+            // only touches the local node
+            builder -> builder.writeChildAccountToCassandra(childDaemonCredential))
         .createRole(defaultLogin, childSuperUserCredential, true)
         .dropRole(childSuperUserCredential, Constants.DEFAULT_CASSANDRA_USERNAME)
         .loadKeyspace(
@@ -150,7 +160,6 @@ public class StartupUTIL {
             CredentialCache.getAuxiliary()
                 .getCredential(Constants.AUXILIARY_ACCOUNTS.NETWORK_ADMINISTRATOR),
             true)
-        .writeChildAccountToCassandra(childDaemonCredential)
         .writeNodeCredentialToChildNode( // Writes parent credentials to child node
             CredentialCache.getNodes().getCredential(parentNodeId), childSuperUserCredential)
         .writeNodeCredentialToChildNode( // Writes daemon account to child node
@@ -168,7 +177,7 @@ public class StartupUTIL {
                 registryIP, PathStoreProperties.getInstance().pathstoreVersion),
             DeploymentConstants.RUN_COMMANDS.PATHSTORE_RUN(
                 registryIP, PathStoreProperties.getInstance().pathstoreVersion),
-            new WaitForPathStore(childSuperUserCredential))
+            new WaitForPathStore(childSuperUserCredential, nodeID))
         .build();
   }
 
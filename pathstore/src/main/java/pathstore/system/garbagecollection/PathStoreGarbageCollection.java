@@ -22,6 +22,8 @@ import com.datastax.driver.core.Session;
 import lombok.RequiredArgsConstructor;
 import pathstore.common.QueryCache;
 import pathstore.common.QueryCacheEntry;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
 
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
@@ -54,6 +56,11 @@ public interface PathStoreGarbageCollection {
     /** Garbage collection service instance */
     private final PathStoreGarbageCollection garbageCollectionService;
 
+    /** Duration of each garbage collection */
+    private final LatencyHistogram duration =
+        MetricsRegistry.getInstance()
+            .histogram("pathstore_gc_duration_seconds", "Duration of a garbage collection");
+
     /** @return value of {@link #ready} */
     private boolean isReady() {
       return this.ready.get();
@@ -73,7 +80,9 @@ public interface PathStoreGarbageCollection {
       if (this.isReady()) {
         this.ready.set(false);
 
+        long start = System.nanoTime();
         QueryCache.getInstance().handleExpiredEntries(this.garbageCollectionService);
+        this.duration.recordSince(start);
 
         this.ready.set(true);
       }
@@ -26,6 +26,8 @@ import lombok.RequiredArgsConstructor;
 import pathstore.common.Constants;
 import pathstore.common.QueryCache;
 import pathstore.common.QueryCacheEntry;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
 import pathstore.util.SchemaInfo;
 
 import java.util.*;
@@ -53,6 +55,18 @@ import java.util.stream.StreamSupport;
  */
 public class SimpleGarbageCollector implements PathStoreGarbageCollection {
 
+  /** Rows deleted by garbage collection */
+  private final Counter rowsRemoved =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_gc_rows_removed_total", "Rows deleted by garbage collection");
+
+  /** Query cache entries removed by garbage collection */
+  private final Counter entriesRemoved =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_gc_entries_removed_total",
+              "Expired query cache entries removed by garbage collection");
+
   /**
    * This function is used to garbage collect all expired data from the database
    *
@@ -155,6 +169,7 @@ public class SimpleGarbageCollector implements PathStoreGarbageCollection {
   public void removeData(
       final Collection<PrimaryKey> primaryKeysToRemove, final Session rawSession) {
     primaryKeysToRemove.stream().map(PrimaryKey::delete).forEach(rawSession::execute);
+    this.rowsRemoved.add(primaryKeysToRemove.size());
   }
 
   /**
@@ -165,6 +180,7 @@ public class SimpleGarbageCollector implements PathStoreGarbageCollection {
   public void removeEntries(final Collection<QueryCacheEntry> entriesPerKeyspaceTable) {
     entriesPerKeyspaceTable.forEach(
         queryCacheEntry -> QueryCache.getInstance().remove(queryCacheEntry));
+    this.entriesRemoved.add(entriesPerKeyspaceTable.size());
   }
 
   /**
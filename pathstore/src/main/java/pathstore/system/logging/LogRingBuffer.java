@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class is a bounded, lock-free, multi producer single consumer ring buffer used to hand log
+ * messages from the threads that produce them to the {@link PathStoreLoggerDaemon}.
+ *
+ * <p>Producers claim a sequence number with a single compare and set on {@link #tail} and then
+ * publish their message into the slot for that sequence. If the buffer is full the message is
+ * dropped and counted instead of blocking the producer. The consumer drains published slots in
+ * sequence order, so the claimed sequence doubles as the global ordering of messages.
+ */
+final class LogRingBuffer {
+
+  /** Slots, a null slot is either free or claimed but not yet published */
+  private final AtomicReferenceArray<PathStoreLoggerMessage> slots;
+
+  /** Capacity - 1, capacity is always a power of two */
+  private final int mask;
+
+  /** Next sequence to be claimed by a producer */
+  private final AtomicLong tail = new AtomicLong(0);
+
+  /** Next sequence to be read by the consumer */
+  private final AtomicLong head = new AtomicLong(0);
+
+  /** Number of messages dropped as the buffer was full */
+  private final AtomicLong dropped = new AtomicLong(0);
+
+  /** @param capacity minimum capacity of the buffer, rounded up to a power of two */
+  LogRingBuffer(final int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Claims the next sequence number
+   *
+   * @return sequence number or -1 if the buffer is full
+   */
+  long claim() {
+    while (true) {
+      long current = this.tail.get();
+
+      if (current - this.head.get() > this.mask) {
+        this.dropped.incrementAndGet();
+        return -1;
+      }
+
+      if (this.tail.compareAndSet(current, current + 1)) return current;
+    }
+  }
+
+  /**
+   * Publishes a message into a claimed slot
+   *
+   * @param sequence sequence from {@link #claim()}
+   * @param message message to publish
+   */
+  void publish(final long sequence, final PathStoreLoggerMessage message) {
+    this.slots.lazySet((int) (sequence & this.mask), message);
+  }
+
+  /** @return true iff there are claimed messages that have not been drained */
+  boolean hasNew() {
+    return this.tail.get() != this.head.get();
+  }
+
+  /**
+   * Drains all published messages up to the first un-published slot. Must only be called by one
+   * thread at a time.
+   *
+   * @return drained messages in sequence order
+   */
+  List<PathStoreLoggerMessage> drain() {
+    List<PathStoreLoggerMessage> messages = new ArrayList<>();
+
+    long current = this.head.get();
+    long end = this.tail.get();
+
+    for (; current < end; current++) {
+      int index = (int) (current & this.mask);
+
+      PathStoreLoggerMessage message = this.slots.get(index);
+
+      if (message == null) break;
+
+      this.slots.lazySet(index, null);
+      messages.add(message);
+    }
+
+    this.head.set(current);
+
+    return messages;
+  }
+
+  /** @return number of dropped messages since the last call */
+  long getAndResetDropped() {
+    return this.dropped.getAndSet(0);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstore.system.logging;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.google.common.util.concurrent.Futures;
+import pathstore.common.Constants;
+import pathstore.common.PathStoreProperties;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Retention of {@link Constants#LOGS} and {@link Constants#AVAILABLE_LOG_DATES}, ran as a daemon on
+ * every server.
+ *
+ * <p>Rows written by {@link PathStoreLoggerDaemon} expire through a TTL of {@link
+ * PathStoreProperties#LogRetentionDays}, see {@link #ttl()}. Copies pushed to ancestors are written
+ * without a TTL, so on every run this daemon also removes each date older than the retention
+ * period. Removal is done with partition level deletes on the raw session: one tombstone per (node,
+ * date, level) partition instead of a pathstore tombstone version per log row. Each partition is
+ * deleted with its own asynchronous statement rather than one multi-partition batch. The same
+ * deletes are used to purge all logs of a node when it is removed, see {@link #purgeNode(Session,
+ * int)}.
+ *
+ * @implNote Raw deletes are not pushed, each node cleans up its own copy of the logs. When a node
+ *     is removed the purge is forwarded up to the root, see {@link
+ *     pathstore.system.network.NetworkImpl#purgeNodeLogs(int)}
+ */
+public class PathStoreLogRetention implements Runnable {
+
+  /** Logger */
+  private final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(PathStoreLogRetention.class);
+
+  /** Log partitions removed by retention or node removal */
+  private static final Counter partitionsPurged =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_log_partitions_purged_total",
+              "Log partitions removed by retention or node removal");
+
+  /** Raw session to delete from */
+  private final Session rawSession = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
+
+  /**
+   * @return ttl in seconds to write log rows with, 0 if logs are kept forever
+   * @see PathStoreProperties#LogRetentionDays
+   */
+  public static int ttl() {
+    return (int)
+        Math.min(Integer.MAX_VALUE, PathStoreProperties.getInstance().LogRetentionDays * 86400L);
+  }
+
+  /** Remove every date of every node that is older than the retention period */
+  @Override
+  public void run() {
+    int retentionDays = PathStoreProperties.getInstance().LogRetentionDays;
+
+    if (retentionDays <= 0) return;
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.add(Calendar.DAY_OF_YEAR, -retentionDays);
+    String cutoff =
+        new SimpleDateFormat(PathStoreLoggerDaemon.DATE_FORMAT).format(calendar.getTime());
+
+    Select nodes =
+        QueryBuilder.select(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID)
+            .distinct()
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
+
+    List<Integer> nodeIds = new ArrayList<>();
+
+    for (Row row : this.rawSession.execute(nodes))
+      nodeIds.add(row.getInt(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID));
+
+    for (int nodeId : nodeIds) {
+      // dates are ordered lexicographically, which for yyyy-MM-dd is chronological
+      Select expired =
+          QueryBuilder.select(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE)
+              .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
+      expired
+          .where(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, nodeId))
+          .and(QueryBuilder.lt(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE, cutoff));
+
+      for (String date : dates(this.rawSession, expired)) {
+        purgeDate(this.rawSession, nodeId, date);
+        this.logger.info(String.format("Removed logs of node %d from %s", nodeId, date));
+      }
+    }
+  }
+
+  /**
+   * Removes every log of a node
+   *
+   * @param rawSession raw session to delete from
+   * @param nodeId node to remove
+   */
+  public static void purgeNode(final Session rawSession, final int nodeId) {
+    Select nodeDates =
+        QueryBuilder.select(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE)
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
+    nodeDates.where(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, nodeId));
+
+    Set<String> dates = dates(rawSession, nodeDates);
+
+    // one date at a time, so at most one delete per log level is in flight
+    for (String date : dates) {
+      List<ResultSetFuture> futures = new ArrayList<>();
+      addLogDeletes(rawSession, futures, nodeId, date);
+      Futures.getUnchecked(Futures.allAsList(futures));
+    }
+
+    // dates are removed last so a failed purge can be retried
+    rawSession.execute(
+        QueryBuilder.delete()
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES)
+            .where(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, nodeId)));
+
+    partitionsPurged.add((long) dates.size() * LoggerLevel.values().length);
+  }
+
+  /**
+   * Removes every log of a node on a single date
+   *
+   * @param rawSession raw session to delete from
+   * @param nodeId node to remove the logs of
+   * @param date date to remove
+   */
+  private static void purgeDate(final Session rawSession, final int nodeId, final String date) {
+    List<ResultSetFuture> futures = new ArrayList<>();
+
+    addLogDeletes(rawSession, futures, nodeId, date);
+
+    Futures.getUnchecked(Futures.allAsList(futures));
+
+    rawSession.execute(
+        QueryBuilder.delete()
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES)
+            .where(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, nodeId))
+            .and(QueryBuilder.eq(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE, date)));
+
+    partitionsPurged.add(LoggerLevel.values().length);
+  }
+
+  /**
+   * Starts a partition delete for each log level of a (node, date)
+   *
+   * @param rawSession raw session to delete from
+   * @param futures list to add the pending deletes to
+   * @param nodeId node id of the partitions
+   * @param date date of the partitions
+   */
+  private static void addLogDeletes(
+      final Session rawSession,
+      final List<ResultSetFuture> futures,
+      final int nodeId,
+      final String date) {
+    for (LoggerLevel level : LoggerLevel.values()) {
+      futures.add(
+          rawSession.executeAsync(
+              QueryBuilder.delete()
+                  .from(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS)
+                  .where(QueryBuilder.eq(Constants.LOGS_COLUMNS.NODE_ID, nodeId))
+                  .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.DATE, date))
+                  .and(QueryBuilder.eq(Constants.LOGS_COLUMNS.LOG_LEVEL, level.name()))));
+    }
+  }
+
+  /**
+   * @param rawSession session to read with
+   * @param select select of the date column
+   * @return distinct dates, a date has a row per version
+   */
+  private static Set<String> dates(final Session rawSession, final Select select) {
+    Set<String> dates = new LinkedHashSet<>();
+
+    for (Row row : rawSession.execute(select))
+      dates.add(row.getString(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE));
+
+    return dates;
+  }
+}
@@ -24,9 +24,7 @@ import pathstore.common.Role;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * TODO: Change log levels to a generic setting
@@ -36,12 +34,19 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p>Level ranks:
  *
  * <p>FINEST, DEBUG, INFO, ERROR
+ *
+ * <p>Messages that are to be persisted are published into a shared {@link LogRingBuffer} which is
+ * drained by {@link PathStoreLoggerDaemon}. If the buffer is full messages are dropped rather than
+ * blocking the caller.
  */
 @RequiredArgsConstructor
 public class PathStoreLogger {
 
-  /** Denotes the counter */
-  static final AtomicInteger counter = new AtomicInteger(0);
+  /** Maximum amount of messages waiting to be persisted */
+  private static final int BUFFER_CAPACITY = 65536;
+
+  /** Shared buffer of messages to be persisted, its sequence denotes the count of a message */
+  static final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
 
   /** Name of logger */
   private final String name;
@@ -49,12 +54,6 @@ public class PathStoreLogger {
   /** Used to denote what level of messages are displayed */
   private final LoggerLevel displayLevel;
 
-  /** Map of messages used to allow for merging of multiple loggers concurrently */
-  private final Map<Integer, PathStoreLoggerMessage> messages = new ConcurrentHashMap<>();
-
-  /** Is there new data available to read from */
-  private boolean hasNew = false;
-
   /**
    * Send an information message
    *
@@ -64,6 +63,15 @@ public class PathStoreLogger {
     this.log(LoggerLevel.INFO, message);
   }
 
+  /**
+   * Send an information message, the message is only built if the level is enabled
+   *
+   * @param message message to show
+   */
+  public void info(final Supplier<String> message) {
+    this.log(LoggerLevel.INFO, message);
+  }
+
   /**
    * Send a debug message
    *
@@ -73,6 +81,15 @@ public class PathStoreLogger {
     this.log(LoggerLevel.DEBUG, message);
   }
 
+  /**
+   * Send a debug message, the message is only built if the level is enabled
+   *
+   * @param message message to show
+   */
+  public void debug(final Supplier<String> message) {
+    this.log(LoggerLevel.DEBUG, message);
+  }
+
   /**
    * Send a finest message
    *
@@ -82,6 +99,15 @@ public class PathStoreLogger {
     this.log(LoggerLevel.FINEST, message);
   }
 
+  /**
+   * Send a finest message, the message is only built if the level is enabled
+   *
+   * @param message message to show
+   */
+  public void finest(final Supplier<String> message) {
+    this.log(LoggerLevel.FINEST, message);
+  }
+
   /**
    * Send an error message
    *
@@ -104,46 +130,51 @@ public class PathStoreLogger {
   }
 
   /**
-   * Stores log messages internally and prints message iff the message level <= the display level
+   * This should be used to guard messages that are expensive to build
    *
+   * @param loggerLevel level to check
+   * @return true iff a message at the given level would be stored or printed
+   */
+  public boolean isEnabled(final LoggerLevel loggerLevel) {
+    if (!PathStoreProperties.getInstance().printLogs) return false;
+
+    return loggerLevel.ordinal() >= this.displayLevel.ordinal()
+        || (PathStoreProperties.getInstance().role != Role.CLIENT
+            && loggerLevel.ordinal() >= PathStoreLoggerFactory.getPersistLoggerLevel().ordinal());
+  }
+
+  /**
    * @param loggerLevel which log level to print to
    * @param message what message to print
+   * @see #log(LoggerLevel, Supplier)
    */
   public void log(final LoggerLevel loggerLevel, final String message) {
-    if (!PathStoreProperties.getInstance().printLogs) return;
-
-    int count = counter.getAndIncrement();
-
-    PathStoreLoggerMessage loggerMessage =
-        new PathStoreLoggerMessage(count, loggerLevel, message, this.name);
-
-    if (PathStoreProperties.getInstance().role != Role.CLIENT) {
-      this.hasNew = true;
-
-      this.messages.put(count, loggerMessage);
-    }
-
-    if (loggerMessage.getLoggerLevel().ordinal() >= this.displayLevel.ordinal())
-      System.out.println(loggerMessage.getFormattedMessage());
+    this.log(loggerLevel, () -> message);
   }
 
   /**
-   * Sets has new to false as the logger factory as pulled the messages recently
+   * Publishes the message to be persisted and prints message iff the message level <= the display
+   * level. The message is only built if it is printed or once it is persisted by the daemon.
    *
-   * @return internal messages written by this logger
+   * @param loggerLevel which log level to print to
+   * @param message what message to print
    */
-  protected Map<Integer, PathStoreLoggerMessage> getMessages() {
-    this.hasNew = false;
-    return this.messages;
-  }
+  public void log(final LoggerLevel loggerLevel, final Supplier<String> message) {
+    if (!this.isEnabled(loggerLevel)) return;
 
-  /** @return iff there is new data for this logger */
-  protected boolean hasNew() {
-    return this.hasNew;
-  }
+    boolean persist =
+        PathStoreProperties.getInstance().role != Role.CLIENT
+            && loggerLevel.ordinal() >= PathStoreLoggerFactory.getPersistLoggerLevel().ordinal();
 
-  /** Clears the internal messages from memory after merger */
-  protected void clear() {
-    this.messages.clear();
+    long sequence = persist ? buffer.claim() : -1;
+
+    PathStoreLoggerMessage loggerMessage =
+        new PathStoreLoggerMessage(
+            (int) sequence, loggerLevel, message, this.name, System.currentTimeMillis());
+
+    if (sequence >= 0) buffer.publish(sequence, loggerMessage);
+
+    if (loggerMessage.getLoggerLevel().ordinal() >= this.displayLevel.ordinal())
+      System.out.println(loggerMessage.getFormattedMessage());
   }
 }
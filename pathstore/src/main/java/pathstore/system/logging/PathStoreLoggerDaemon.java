@@ -19,6 +19,7 @@
 package pathstore.system.logging;
 
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Batch;
 import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import pathstore.common.Constants;
@@ -26,16 +27,30 @@ import pathstore.common.PathStoreProperties;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.deployment.utilities.DeploymentConstants;
 
-import java.io.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 
-/** Logger daemon used to write logs to log table */
-public class PathStoreLoggerDaemon extends Thread {
+/**
+ * Logger daemon used to write logs to log table.
+ *
+ * <p>Messages are drained from the logger's ring buffer on every run. They are written to the logs
+ * table in unlogged batches, one partition (log level) at a time, bounded by {@link
+ * PathStoreProperties#MaxBatchSize}. They are also appended to a single buffered log file that is
+ * kept open and rotated when the date changes.
+ *
+ * <p>Rows are written with a TTL of {@link PathStoreLogRetention#ttl()} so they expire by
+ * themselves.
+ */
+public class PathStoreLoggerDaemon implements Runnable {
 
   /** String to denote how to format the date */
-  private static String DATE_FORMAT = "yyyy-MM-dd";
+  static final String DATE_FORMAT = "yyyy-MM-dd";
 
   /** Physical log file directory */
   private static String LOGS_DIRECTORY =
@@ -45,52 +60,105 @@ public class PathStoreLoggerDaemon extends Thread {
   private final PathStoreLogger logger =
       PathStoreLoggerFactory.getLogger(PathStoreLoggerDaemon.class);
 
+  /** Session used to write the available dates, writes go through pathstore */
   private final Session session;
 
+  /**
+   * Raw session used to write log batches. Pathstore meta columns are set manually the same way
+   * {@link pathstore.client.PathStoreSession} would for an insert
+   */
+  private final Session rawSession;
+
   /** Stores the current date for comparison */
   private String currentDate;
 
+  /** Writer to the current date's log file, null if it could not be opened */
+  private BufferedWriter writer;
+
   public PathStoreLoggerDaemon() {
     this.session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
+    this.rawSession = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
 
     this.currentDate = this.getAndSetDate();
   }
 
   /**
-   * Every 5 seconds write the lowest ordinal log level to the logs table.
+   * Write all new messages to the logs table and the log file. This is scheduled every second by
+   * {@link pathstore.system.PathStoreServerImpl}
    *
    * @apiNote Parsing of this log based on log level will be done on the frontend to reduce api
    *     traffic and to reduce number of records written to the logs table
    */
   @Override
   public void run() {
+    long dropped = PathStoreLoggerFactory.getAndResetDropped();
+
+    if (dropped > 0)
+      logger.error(String.format("Dropped %d log messages as the log buffer was full", dropped));
+
+    if (PathStoreLoggerFactory.hasNew()) {
+      List<PathStoreLoggerMessage> newMessages = PathStoreLoggerFactory.getMergedLog();
+
+      String date = this.getAndSetDate();
 
-    while (true) {
-      if (PathStoreLoggerFactory.hasNew()) {
-        List<PathStoreLoggerMessage> newMessages = PathStoreLoggerFactory.getMergedLog();
-
-        newMessages.forEach(
-            i -> {
-              Insert insert =
-                  QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
-              insert
-                  .value(Constants.LOGS_COLUMNS.NODE_ID, PathStoreProperties.getInstance().NodeID)
-                  .value(Constants.LOGS_COLUMNS.DATE, this.getAndSetDate())
-                  .value(Constants.LOGS_COLUMNS.LOG_LEVEL, i.getLoggerLevel().name())
-                  .value(Constants.LOGS_COLUMNS.COUNT, i.getCount())
-                  .value(Constants.LOGS_COLUMNS.LOG, i.getFormattedMessage());
-
-              this.session.execute(insert);
-            });
-
-        this.appendToFile(newMessages);
-      }
       try {
-        Thread.sleep(1000);
-      } catch (InterruptedException e) {
-        logger.error("Sleep got interrupted for the logger daemon");
-        e.printStackTrace();
+        this.writeToTable(newMessages, date);
+      } catch (RuntimeException e) {
+        logger.error(e);
+      }
+
+      this.appendToFile(newMessages);
+    }
+  }
+
+  /**
+   * Writes messages to the logs table. Messages are grouped by log level as the level is part of
+   * the partition key, so each unlogged batch only touches a single partition.
+   *
+   * @param newMessages messages to write
+   * @param date date of the messages
+   */
+  private void writeToTable(final List<PathStoreLoggerMessage> newMessages, final String date) {
+    int nodeId = PathStoreProperties.getInstance().NodeID;
+    int maxBatchSize = PathStoreProperties.getInstance().MaxBatchSize;
+    int ttl = PathStoreLogRetention.ttl();
+
+    Map<LoggerLevel, List<PathStoreLoggerMessage>> byLevel = new EnumMap<>(LoggerLevel.class);
+
+    for (PathStoreLoggerMessage message : newMessages)
+      byLevel.computeIfAbsent(message.getLoggerLevel(), k -> new ArrayList<>()).add(message);
+
+    for (Map.Entry<LoggerLevel, List<PathStoreLoggerMessage>> entry : byLevel.entrySet()) {
+      Batch batch = QueryBuilder.unloggedBatch();
+      int batchSize = 0;
+
+      for (PathStoreLoggerMessage message : entry.getValue()) {
+        Insert insert = QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.LOGS);
+        insert
+            .value(Constants.LOGS_COLUMNS.NODE_ID, nodeId)
+            .value(Constants.LOGS_COLUMNS.DATE, date)
+            .value(Constants.LOGS_COLUMNS.LOG_LEVEL, entry.getKey().name())
+            .value(Constants.LOGS_COLUMNS.COUNT, message.getCount())
+            .value(Constants.LOGS_COLUMNS.LOG, message.getFormattedMessage())
+            .value(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VERSION, QueryBuilder.now())
+            .value(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP, QueryBuilder.now())
+            .value(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY, true);
+
+        if (ttl > 0) insert.using(QueryBuilder.ttl(ttl));
+
+        int size = message.getFormattedMessage().length();
+
+        if (batchSize > 0 && batchSize + size > maxBatchSize) {
+          this.rawSession.execute(batch);
+          batch = QueryBuilder.unloggedBatch();
+          batchSize = 0;
+        }
+
+        batch.add(insert);
+        batchSize += size;
       }
+
+      if (batchSize > 0) this.rawSession.execute(batch);
     }
   }
 
@@ -108,13 +176,15 @@ public class PathStoreLoggerDaemon extends Thread {
   /**
    * This function updates {@link #currentDate} to the new date (on date change or startup) and
    * writes a record to {@link Constants#AVAILABLE_LOG_DATES} to inform the website that there is a
-   * new date available for querying
+   * new date available for querying. The log file is rotated to the new date.
    *
    * @param date new current date
    */
   private void updateDate(final String date) {
     this.currentDate = date;
 
+    this.rotateFile();
+
     Insert insertDateChange =
         QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.AVAILABLE_LOG_DATES);
 
@@ -123,6 +193,10 @@ public class PathStoreLoggerDaemon extends Thread {
             Constants.AVAILABLE_LOG_DATES_COLUMNS.NODE_ID, PathStoreProperties.getInstance().NodeID)
         .value(Constants.AVAILABLE_LOG_DATES_COLUMNS.DATE, date);
 
+    // the date record outlives the logs of that date by a day so it is removed after them
+    int ttl = PathStoreLogRetention.ttl();
+    if (ttl > 0) insertDateChange.using(QueryBuilder.ttl(ttl + 86400));
+
     this.session.execute(insertDateChange);
   }
 
@@ -131,6 +205,31 @@ public class PathStoreLoggerDaemon extends Thread {
     return String.format("%s/log-%s.txt", LOGS_DIRECTORY, this.currentDate);
   }
 
+  /** Closes the current log file if open and opens the file for {@link #currentDate} */
+  private void rotateFile() {
+    if (this.writer != null) {
+      try {
+        this.writer.close();
+      } catch (IOException e) {
+        logger.error(e);
+      }
+      this.writer = null;
+    }
+
+    String fileName = this.formatFileName();
+
+    try {
+      this.writer =
+          Files.newBufferedWriter(
+              Paths.get(fileName),
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      logger.error(String.format("Could not open log file: %s", fileName));
+    }
+  }
+
   /**
    * This function will append the new logs to the current date's log file
    *
@@ -139,16 +238,19 @@ public class PathStoreLoggerDaemon extends Thread {
    */
   private void appendToFile(final List<PathStoreLoggerMessage> newMessages) {
 
-    String fileName = this.formatFileName();
+    if (this.writer == null) this.rotateFile();
 
-    try (FileWriter fw = new FileWriter(fileName, true);
-        BufferedWriter bw = new BufferedWriter(fw);
-        PrintWriter out = new PrintWriter(bw)) {
-
-      newMessages.stream().map(PathStoreLoggerMessage::getFormattedMessage).forEach(out::println);
+    if (this.writer == null) return;
 
+    try {
+      for (PathStoreLoggerMessage message : newMessages) {
+        this.writer.write(message.getFormattedMessage());
+        this.writer.newLine();
+      }
+      this.writer.flush();
     } catch (IOException exception) {
-      logger.error(String.format("Could not write to log file: %s", fileName));
+      logger.error(String.format("Could not write to log file: %s", this.formatFileName()));
+      this.writer = null;
     }
   }
 }
@@ -37,13 +37,11 @@ public final class PathStoreLoggerFactory {
   @Getter @Setter private static LoggerLevel globalLoggerLevel = LoggerLevel.INFO;
 
   /**
-   * Denotes the start point to start the merge from.
-   *
-   * <p>This is used because everytime the daemon requests the merged log all in-memory logs are
-   * cleared. Thus instead of looping from 0 to the current count we have a starting point. This is
-   * simply a small optimization to {@link #getMergedLog()}
+   * Lowest level that is stored for the logger daemon on servers. Messages below this level are
+   * only printed if they pass {@link #globalLoggerLevel}. Servers set this from {@link
+   * pathstore.common.PathStoreProperties#PersistLogLevel} on startup
    */
-  private static int startPoint = 0;
+  @Getter @Setter private static LoggerLevel persistLoggerLevel = LoggerLevel.FINEST;
 
   /**
    * Lazy function to pass class object instead of name
@@ -70,45 +68,25 @@ public final class PathStoreLoggerFactory {
    * This function is used to check to see if there are new messages available (This is to avoid
    * redundant writes to cassandra)
    *
-   * @return true iff a single logger has new logs
-   * @see PathStoreLogger#hasNew()
+   * @return true iff there are messages that have not been drained
+   * @see LogRingBuffer#hasNew()
    */
   public static boolean hasNew() {
-
-    for (PathStoreLogger logger : loggers.values()) if (logger.hasNew()) return true;
-
-    return false;
+    return PathStoreLogger.buffer.hasNew();
   }
 
   /**
    * Allows the log daemon to query a merged log of all loggers used within pathstore
    *
-   * @return list of merged strings
-   * @apiNote merging is controlled by {@link PathStoreLogger#counter}
+   * @return list of merged messages in the order they were logged
+   * @apiNote merging is controlled by the sequence of {@link PathStoreLogger#buffer}
    */
   public static List<PathStoreLoggerMessage> getMergedLog() {
+    return PathStoreLogger.buffer.drain();
+  }
 
-    Map<Integer, PathStoreLoggerMessage> map = new HashMap<>();
-
-    for (PathStoreLogger logger : loggers.values()) map.putAll(logger.getMessages());
-
-    LinkedList<PathStoreLoggerMessage> messages = new LinkedList<>();
-
-    int endPoint = PathStoreLogger.counter.get();
-
-    // Create the merged log
-    for (int i = startPoint; i < endPoint; i++) {
-      PathStoreLoggerMessage current = map.get(i);
-      if (current == null) continue;
-      messages.addLast(current);
-    }
-
-    // Clear all in memory logger data
-    loggers.values().forEach(PathStoreLogger::clear);
-
-    // Set start point
-    startPoint = endPoint;
-
-    return messages;
+  /** @return number of messages dropped since the last call as the buffer was full */
+  public static long getAndResetDropped() {
+    return PathStoreLogger.buffer.getAndResetDropped();
   }
 }
@@ -21,13 +21,24 @@ package pathstore.system.logging;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.function.Supplier;
 
-/** This class denotes some log message in the system */
+/**
+ * This class denotes some log message in the system.
+ *
+ * <p>The message itself is supplied lazily and is only built when it is first formatted, which for
+ * messages that are not printed is on the logger daemon thread instead of the caller's thread.
+ */
 @RequiredArgsConstructor
 public class PathStoreLoggerMessage {
 
+  /** Date format used for every message */
+  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
+      ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ"));
+
   /** What position in the array are you */
   private final int count;
 
@@ -35,27 +46,58 @@ public class PathStoreLoggerMessage {
   private final LoggerLevel loggerLevel;
 
   /** What information to show */
-  private final String message;
+  private final Supplier<String> message;
 
   /** Name of logger */
   private final String loggerName;
 
+  /** When the message was logged */
+  @Getter private final long timestamp;
+
   /** Formatted message */
   @Getter(lazy = true)
-  private final String formattedMessage = formatMessage(this.loggerLevel, this.loggerName, this.message);
+  private final String formattedMessage =
+      formatMessage(this.loggerLevel, this.loggerName, this.timestamp, this.message.get());
 
   /**
    * Formats a message to [type][type][loggername] message
    *
    * @return formatted message
    */
-  private static String formatMessage(final LoggerLevel loggerLevel, final String loggerName, final String message) {
+  private static String formatMessage(
+      final LoggerLevel loggerLevel,
+      final String loggerName,
+      final long timestamp,
+      final String message) {
     return String.format(
         "[%-6s][%-40s][%s] %s",
-        loggerLevel.toString(),
-        loggerName,
-        new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()),
-        message);
+        loggerLevel.toString(), loggerName, DATE_FORMAT.get().format(new Date(timestamp)), message);
+  }
+
+  /**
+   * Reads the timestamp back out of a message built by {@link #formatMessage(LoggerLevel, String,
+   * long, String)}. The timestamp is the third bracketed field, after the level and logger name.
+   *
+   * @param formattedMessage message as stored in the logs table
+   * @return epoch millis of the message (second precision), or -1 if it could not be parsed
+   */
+  public static long parseTimestamp(final String formattedMessage) {
+    if (formattedMessage == null) return -1;
+
+    int levelEnd = formattedMessage.indexOf("][");
+    int nameEnd = levelEnd < 0 ? -1 : formattedMessage.indexOf("][", levelEnd + 2);
+    int timestampEnd = nameEnd < 0 ? -1 : formattedMessage.indexOf(']', nameEnd + 2);
+
+    if (timestampEnd < 0) return -1;
+
+    try {
+      return DATE_FORMAT
+          .get()
+          .parse(formattedMessage.substring(nameEnd + 2, timestampEnd))
+          .getTime();
+    } catch (ParseException e) {
+      return -1;
+    }
   }
 
   /** @return count */
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing counter. Increments are striped so hot paths on many threads don't
+ * contend on a single cache line.
+ *
+ * @see MetricsRegistry#counter(String, String, String...)
+ */
+public final class Counter {
+
+  /** Current value */
+  private final LongAdder value = new LongAdder();
+
+  /** Package private as counters are only created through the registry */
+  Counter() {}
+
+  /** Increment by one */
+  public void inc() {
+    this.value.increment();
+  }
+
+  /** @param amount amount to increment by, must be positive */
+  public void add(final long amount) {
+    if (amount > 0) this.value.add(amount);
+  }
+
+  /** @return current value */
+  public long get() {
+    return this.value.sum();
+  }
+}
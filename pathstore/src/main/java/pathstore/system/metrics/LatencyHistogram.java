@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with log-linear buckets in the style of HdrHistogram.
+ *
+ * <p>Values are recorded in microseconds. Every power of two is split into {@link #SUB_BUCKETS}
+ * linear sub buckets so the relative error of any reported quantile is bounded by 1 / {@link
+ * #SUB_BUCKETS} (12.5%) from 1 microsecond up to {@link #MAX_MICROS}. Recording is a single atomic
+ * increment and never allocates.
+ *
+ * @see MetricsRegistry#histogram(String, String, String...)
+ */
+public final class LatencyHistogram {
+
+  /** Log2 of the amount of sub buckets per power of two */
+  private static final int SUB_BUCKET_BITS = 3;
+
+  /** Amount of linear sub buckets per power of two */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** Largest exponent tracked, larger values are clamped into the last bucket (~38 hours) */
+  private static final int MAX_EXPONENT = 36;
+
+  /** Largest trackable value in microseconds */
+  static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+  /** Total amount of buckets */
+  private static final int BUCKETS =
+      SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  /** Count per bucket */
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  /** Total amount of recorded values */
+  private final LongAdder count = new LongAdder();
+
+  /** Sum of all recorded values in nanoseconds */
+  private final LongAdder sumNanos = new LongAdder();
+
+  /** Largest recorded value in nanoseconds */
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Histograms that should be exported are created through the registry, standalone histograms are
+   * used by tooling such as the benchmark harness
+   */
+  public LatencyHistogram() {}
+
+  /**
+   * @param micros value in microseconds
+   * @return bucket index for the value
+   */
+  static int index(final long micros) {
+    long value = Math.min(Math.max(micros, 0), MAX_MICROS);
+    if (value < SUB_BUCKETS) return (int) value;
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @param index bucket index
+   * @return inclusive upper bound of the bucket in microseconds
+   */
+  static long upperBound(final int index) {
+    if (index < SUB_BUCKETS) return index;
+
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  /** @param nanos duration in nanoseconds */
+  public void record(final long nanos) {
+    long clamped = Math.max(nanos, 0);
+    this.buckets.incrementAndGet(index(TimeUnit.NANOSECONDS.toMicros(clamped)));
+    this.count.increment();
+    this.sumNanos.add(clamped);
+    this.maxNanos.accumulate(clamped);
+  }
+
+  /**
+   * Record the time elapsed since start
+   *
+   * @param startNanos value of {@link System#nanoTime()} when the operation started
+   */
+  public void recordSince(final long startNanos) {
+    this.record(System.nanoTime() - startNanos);
+  }
+
+  /** @return amount of recorded values */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /** @return sum of all recorded values in nanoseconds */
+  public long getSumNanos() {
+    return this.sumNanos.sum();
+  }
+
+  /** @return largest recorded value in nanoseconds */
+  public long getMaxNanos() {
+    return this.maxNanos.get();
+  }
+
+  /**
+   * Computes multiple quantiles over a single pass of the buckets. Concurrent recordings may or may
+   * not be included.
+   *
+   * @param quantiles ascending quantiles between 0 and 1
+   * @return upper bound in nanoseconds of the bucket each quantile falls in, 0 if nothing has been
+   *     recorded
+   */
+  public long[] quantiles(final double... quantiles) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = this.buckets.get(i);
+      total += snapshot[i];
+    }
+
+    long[] response = new long[quantiles.length];
+    if (total == 0) return response;
+
+    long cumulative = 0;
+    int bucket = 0;
+    for (int q = 0; q < quantiles.length; q++) {
+      long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+      while (bucket < BUCKETS - 1 && cumulative + snapshot[bucket] < rank)
+        cumulative += snapshot[bucket++];
+      response[q] = Math.min(TimeUnit.MICROSECONDS.toNanos(upperBound(bucket)), this.getMaxNanos());
+    }
+    return response;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.tracing.FileSpanExporter;
+import pathstore.system.tracing.Tracer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Minimal http server that exposes {@link MetricsRegistry#scrape()} on {@link #PATH} so the node
+ * can be scraped by prometheus. Requests are handled on the general worker pool.
+ *
+ * <p>If spans are exported, the spans of a single trace written on this node can be queried on
+ * {@link #TRACES_PATH}?trace_id=id
+ *
+ * @see pathstore.common.PathStoreProperties#MetricsPort
+ */
+public class MetricsHttpServer {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(MetricsHttpServer.class);
+
+  /** Path metrics are served on */
+  public static final String PATH = "/metrics";
+
+  /** Path spans of a trace are served on */
+  public static final String TRACES_PATH = "/traces";
+
+  /** Query parameter holding the trace id */
+  private static final String TRACE_ID_PARAMETER = "trace_id=";
+
+  /** Content type of the prometheus text format */
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /** Underlying server */
+  private final HttpServer server;
+
+  /**
+   * @param port port to listen on
+   * @throws IOException if the port can't be bound
+   */
+  public MetricsHttpServer(final int port) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    this.server.createContext(PATH, MetricsHttpServer::handle);
+    this.server.createContext(TRACES_PATH, MetricsHttpServer::handleTraces);
+    this.server.setExecutor(
+        task -> {
+          try {
+            PathStoreScheduler.getInstance().submit(WorkerPool.GENERAL, task);
+          } catch (RejectedExecutionException e) {
+            // the pool is saturated, answer on the http server's own dispatcher thread
+            task.run();
+          }
+        });
+  }
+
+  /** Start listening */
+  public void start() {
+    this.server.start();
+    logger.info(
+        String.format("Metrics available on port %d%s", this.server.getAddress().getPort(), PATH));
+  }
+
+  /** Stop listening, waits at most one second for in flight scrapes */
+  public void stop() {
+    this.server.stop(1);
+  }
+
+  /**
+   * Respond with the current scrape for GET requests, anything else is rejected
+   *
+   * @param exchange http exchange
+   * @throws IOException if the response can't be written
+   */
+  private static void handle(final HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      respond(exchange, 200, CONTENT_TYPE, MetricsRegistry.getInstance().scrape());
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Respond with a json array of all spans of the requested trace. 404 if spans aren't exported on
+   * this node, 400 if no trace id is given
+   *
+   * @param exchange http exchange
+   * @throws IOException if the response can't be written
+   * @see FileSpanExporter#find(String)
+   */
+  private static void handleTraces(final HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      FileSpanExporter exporter = Tracer.getInstance().getExporter();
+
+      if (exporter == null) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+
+      String query = exchange.getRequestURI().getQuery();
+
+      if (query == null || !query.startsWith(TRACE_ID_PARAMETER)) {
+        exchange.sendResponseHeaders(400, -1);
+        return;
+      }
+
+      String traceId = query.substring(TRACE_ID_PARAMETER.length());
+
+      respond(
+          exchange,
+          200,
+          "application/json; charset=utf-8",
+          new JSONArray(exporter.find(traceId)).toString());
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * @param exchange http exchange
+   * @param code response code
+   * @param contentType content type of the body
+   * @param response body
+   * @throws IOException if the response can't be written
+   */
+  private static void respond(
+      final HttpExchange exchange, final int code, final String contentType, final String response)
+      throws IOException {
+    byte[] body = response.getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(code, body.length);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.metrics;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Node local registry of all metrics. Metrics are grouped into families by name, each child of a
+ * family is identified by its label set.
+ *
+ * <p>Creating a metric is idempotent, asking for the same name and labels twice returns the same
+ * instance. Callers on hot paths should still keep a reference to the metric instead of looking it
+ * up per operation.
+ *
+ * <p>The registry can be rendered in the Prometheus text exposition format through {@link
+ * #scrape()}, this is what is served by {@link MetricsHttpServer} and returned by the getMetrics
+ * grpc call.
+ *
+ * @see Counter
+ * @see LatencyHistogram
+ */
+public class MetricsRegistry {
+
+  /** Quantiles exported for each histogram */
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+  /** Instance of the registry */
+  private static MetricsRegistry instance = null;
+
+  /** @return instance of the registry */
+  public static synchronized MetricsRegistry getInstance() {
+    if (instance == null) instance = new MetricsRegistry();
+    return instance;
+  }
+
+  /** Private Default Constructor */
+  private MetricsRegistry() {}
+
+  /** Type of a metric family, the name is what prometheus expects on the TYPE line */
+  private enum Type {
+    COUNTER("counter"),
+    GAUGE("gauge"),
+    SUMMARY("summary");
+
+    /** Prometheus type name */
+    private final String prometheusName;
+
+    /** @param prometheusName {@link #prometheusName} */
+    Type(final String prometheusName) {
+      this.prometheusName = prometheusName;
+    }
+  }
+
+  /** All metrics with the same name */
+  @RequiredArgsConstructor
+  private static final class Family {
+    /** Type of all children */
+    private final Type type;
+
+    /** Help text */
+    private final String help;
+
+    /** Rendered label set -> metric */
+    private final ConcurrentMap<String, Object> children = new ConcurrentSkipListMap<>();
+  }
+
+  /** Family name -> family */
+  private final ConcurrentNavigableMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+  /**
+   * @param name name of the counter, should end in _total
+   * @param help help text
+   * @param labels alternating label names and values
+   * @return counter for name and labels
+   */
+  public Counter counter(final String name, final String help, final String... labels) {
+    return (Counter) this.getOrCreate(name, help, Type.COUNTER, labels, ignored -> new Counter());
+  }
+
+  /**
+   * @param name name of the histogram, should end in the unit (_seconds)
+   * @param help help text
+   * @param labels alternating label names and values
+   * @return histogram for name and labels
+   */
+  public LatencyHistogram histogram(final String name, final String help, final String... labels) {
+    return (LatencyHistogram)
+        this.getOrCreate(name, help, Type.SUMMARY, labels, ignored -> new LatencyHistogram());
+  }
+
+  /**
+   * Registers a gauge whose value is read on every scrape. Registering the same name and labels
+   * again replaces the previous supplier.
+   *
+   * @param name name of the gauge
+   * @param help help text
+   * @param supplier how to read the current value, must be cheap and thread safe
+   * @param labels alternating label names and values
+   */
+  public void gauge(
+      final String name,
+      final String help,
+      final Supplier<? extends Number> supplier,
+      final String... labels) {
+    if (this.getOrCreate(name, help, Type.GAUGE, labels, ignored -> supplier) != supplier)
+      this.families.get(name).children.put(renderLabels(labels), supplier);
+  }
+
+  /**
+   * @param name family name
+   * @param help help text
+   * @param type type of metric
+   * @param labels alternating label names and values
+   * @param factory how to create the metric if not present
+   * @return metric
+   * @throws IllegalArgumentException if the name is registered with another type or the labels
+   *     aren't in pairs
+   */
+  private Object getOrCreate(
+      final String name,
+      final String help,
+      final Type type,
+      final String[] labels,
+      final Function<String, Object> factory) {
+    Family family = this.families.computeIfAbsent(name, ignored -> new Family(type, help));
+
+    if (family.type != type)
+      throw new IllegalArgumentException(
+          String.format("Metric %s is already registered as a %s", name, family.type));
+
+    return family.children.computeIfAbsent(renderLabels(labels), factory);
+  }
+
+  /**
+   * @param labels alternating label names and values
+   * @return labels in prometheus format without braces, empty if there are no labels
+   */
+  private static String renderLabels(final String... labels) {
+    if (labels.length % 2 != 0)
+      throw new IllegalArgumentException("Labels must be given as name value pairs");
+
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < labels.length; i += 2) {
+      if (i > 0) builder.append(',');
+      builder
+          .append(labels[i])
+          .append("=\"")
+          .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+          .append('"');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @param name family name or sample name
+   * @param labels rendered labels
+   * @param extra extra label to append, may be null
+   * @return sample name with labels
+   */
+  private static String sample(final String name, final String labels, final String extra) {
+    String all = extra == null ? labels : labels.isEmpty() ? extra : labels + "," + extra;
+    return all.isEmpty() ? name : name + "{" + all + "}";
+  }
+
+  /** @return all metrics in the prometheus text exposition format (version 0.0.4) */
+  @SuppressWarnings("unchecked")
+  public String scrape() {
+    StringBuilder builder = new StringBuilder();
+
+    for (Map.Entry<String, Family> familyEntry : this.families.entrySet()) {
+      String name = familyEntry.getKey();
+      Family family = familyEntry.getValue();
+
+      builder.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+      builder.append("# TYPE ").append(name).append(' ').append(family.type.prometheusName);
+      builder.append('\n');
+
+      for (Map.Entry<String, Object> child : family.children.entrySet()) {
+        String labels = child.getKey();
+
+        switch (family.type) {
+          case COUNTER:
+            line(builder, sample(name, labels, null), ((Counter) child.getValue()).get());
+            break;
+          case GAUGE:
+            try {
+              Number value = ((Supplier<? extends Number>) child.getValue()).get();
+              if (value != null) line(builder, sample(name, labels, null), value);
+            } catch (RuntimeException ignored) {
+              // a failing gauge is omitted from the scrape instead of failing the whole scrape
+            }
+            break;
+          case SUMMARY:
+            LatencyHistogram histogram = (LatencyHistogram) child.getValue();
+            long[] values = histogram.quantiles(QUANTILES);
+            for (int i = 0; i < QUANTILES.length; i++)
+              line(
+                  builder,
+                  sample(name, labels, "quantile=\"" + QUANTILES[i] + "\""),
+                  toSeconds(values[i]));
+            line(builder, sample(name + "_sum", labels, null), toSeconds(histogram.getSumNanos()));
+            line(builder, sample(name + "_count", labels, null), histogram.getCount());
+            break;
+        }
+      }
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * @param nanos nanoseconds
+   * @return seconds
+   */
+  private static double toSeconds(final long nanos) {
+    return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  /**
+   * @param builder builder to append to
+   * @param sample sample name with labels
+   * @param value value of sample
+   */
+  private static void line(final StringBuilder builder, final String sample, final Number value) {
+    builder.append(sample).append(' ').append(value).append('\n');
+  }
+}
@@ -24,6 +24,8 @@ import pathstore.client.LocalNodeInfo;
 import pathstore.grpc.ClientOnlyServiceGrpc;
 import pathstore.grpc.pathStoreProto;
 import pathstore.sessions.SessionToken;
+import pathstore.system.controlplane.ControlPlaneEvents;
+import pathstore.system.schemaFSM.SchemaChangeLog;
 
 /**
  * This Service impl is specifically for endpoints that can be accessed only by a client to a server
@@ -92,4 +94,34 @@ public class ClientOnlyServiceImpl extends ClientOnlyServiceGrpc.ClientOnlyServi
         pathStoreProto.GetApplicationLeaseResponse.newBuilder().setClientLeaseTime(clt).build());
     responseObserver.onCompleted();
   }
+
+  /**
+   * Streams every control plane event published on the local node to the client until it cancels.
+   * This is used by the administration panel to push status changes to its users
+   *
+   * @param request empty request
+   * @param responseObserver stream to the client
+   * @see ControlPlaneEvents#stream(StreamObserver)
+   */
+  @Override
+  public void watchControlPlane(
+      final Empty request,
+      final StreamObserver<pathStoreProto.ControlPlaneEvent> responseObserver) {
+    ControlPlaneEvents.getInstance().stream(responseObserver);
+  }
+
+  /**
+   * Streams the schema changes of an application's keyspace to the client until it cancels. This is
+   * used by clients to update their schema info without registering again
+   *
+   * @param request keyspace and schema version of the client
+   * @param responseObserver stream to the client
+   * @see SchemaChangeLog#stream(pathstore.grpc.pathStoreProto.WatchSchemaRequest, StreamObserver)
+   */
+  @Override
+  public void watchSchema(
+      final pathStoreProto.WatchSchemaRequest request,
+      final StreamObserver<pathStoreProto.SchemaDelta> responseObserver) {
+    SchemaChangeLog.getInstance().stream(request, responseObserver);
+  }
 }
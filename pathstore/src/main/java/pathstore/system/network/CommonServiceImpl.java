@@ -18,6 +18,7 @@
  */
 package pathstore.system.network;
 
+import com.google.protobuf.Empty;
 import io.grpc.stub.StreamObserver;
 import pathstore.grpc.CommonServiceGrpc;
 import pathstore.grpc.pathStoreProto;
@@ -52,4 +53,21 @@ public class CommonServiceImpl extends CommonServiceGrpc.CommonServiceImplBase {
     responseObserver.onNext(pathStoreProto.InfoFromServer.newBuilder().setInfo(response).build());
     responseObserver.onCompleted();
   }
+
+  /**
+   * Queues a control plane event to be forwarded to the root, returns without waiting on the push
+   *
+   * @param request event
+   * @param responseObserver way to response
+   * @see NetworkImpl#notifyControlPlane(pathStoreProto.ControlPlaneEvent)
+   */
+  @Override
+  public void notifyControlPlane(
+      final pathStoreProto.ControlPlaneEvent request,
+      final StreamObserver<Empty> responseObserver) {
+    this.network.notifyControlPlane(request);
+
+    responseObserver.onNext(Empty.newBuilder().build());
+    responseObserver.onCompleted();
+  }
 }
@@ -18,9 +18,6 @@
  */
 package pathstore.system.network;
 
-import com.datastax.driver.core.Row;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
-import com.datastax.driver.core.querybuilder.Select;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.ProtocolStringList;
 import lombok.NonNull;
@@ -38,18 +35,28 @@ import pathstore.common.ApplicationLeaseCache;
 import pathstore.common.Constants;
 import pathstore.common.PathStoreProperties;
 import pathstore.common.QueryCache;
-import pathstore.common.tables.DeploymentEntry;
-import pathstore.common.tables.DeploymentProcessStatus;
-import pathstore.common.tables.ServerEntry;
+import pathstore.common.Role;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.grpc.pathStoreProto.ControlPlaneEvent;
 import pathstore.sessions.SessionToken;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.PathStorePushServer;
+import pathstore.system.controlplane.ControlPlaneEvents;
+import pathstore.system.logging.PathStoreLogRetention;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.tracing.Span;
+import pathstore.system.tracing.Tracer;
+import pathstore.util.Pair;
 import pathstore.util.SchemaInfo;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -90,6 +97,42 @@ public class NetworkImpl {
   /** Logger */
   private final PathStoreLogger logger = PathStoreLoggerFactory.getLogger(NetworkImpl.class);
 
+  /**
+   * @param operation name of the operation
+   * @return histogram for the duration of the operation
+   */
+  private static LatencyHistogram operationDuration(final String operation) {
+    return MetricsRegistry.getInstance()
+        .histogram(
+            "pathstore_network_operation_duration_seconds",
+            "Duration of network operations handled by this node",
+            "operation",
+            operation);
+  }
+
+  /** Duration of {@link #updateCache(String, String, byte[], int)} */
+  private final LatencyHistogram updateCacheDuration = operationDuration("update_cache");
+
+  /** Duration of {@link #createQueryDelta(String, String, byte[], UUID, int, int)} */
+  private final LatencyHistogram createQueryDeltaDuration = operationDuration("create_query_delta");
+
+  /** Duration of {@link #validateSession(SessionToken)} including migration */
+  private final LatencyHistogram validateSessionDuration = operationDuration("validate_session");
+
+  /** Sessions that were rejected by {@link #validateSession(SessionToken)} */
+  private final Counter invalidSessions =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_invalid_sessions_total", "Session tokens that failed validation");
+
+  /** Maximum amount of distinct control plane events waiting to be forwarded per table */
+  private static final int MAX_PENDING_EVENTS = 256;
+
+  /**
+   * Control plane events waiting to be forwarded to the parent, by table. A table is present while
+   * a forward of it is queued, see {@link #forwardControlPlane(String)}
+   */
+  private final Map<String, Set<ControlPlaneEvent>> pendingEvents = new HashMap<>();
+
   /**
    * Update the parent / local node cache
    *
@@ -102,10 +145,13 @@ public class NetworkImpl {
   public String updateCache(
       final String keyspace, final String table, final byte[] clauses, final int limit) {
 
+    long start = System.nanoTime();
     try {
       QueryCache.getInstance().updateCache(keyspace, table, clauses, limit);
     } catch (ClassNotFoundException | IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      this.updateCacheDuration.recordSince(start);
     }
 
     return "server says hello!";
@@ -129,11 +175,14 @@ public class NetworkImpl {
       final UUID parentTimestamp,
       final int nodeID,
       final int limit) {
+    long start = System.nanoTime();
     try {
       return QueryCache.getInstance()
           .createDelta(keyspace, table, clauses, parentTimestamp, nodeID, limit);
     } catch (ClassNotFoundException | IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      this.createQueryDeltaDuration.recordSince(start);
     }
   }
 
@@ -245,24 +294,29 @@ public class NetworkImpl {
    * @return true if the session is valid, false if not valid
    */
   public boolean validateSession(final SessionToken sessionToken) {
+    long start = System.nanoTime();
+    boolean valid = false;
+    try (Span span = Tracer.getInstance().start("validate_session")) {
+      valid = this.validateAndMigrateSession(sessionToken);
+      span.tag("valid", valid);
+      return valid;
+    } finally {
+      this.validateSessionDuration.recordSince(start);
+      if (!valid) this.invalidSessions.inc();
+    }
+  }
+
+  /**
+   * @param sessionToken from client
+   * @return true if the session is valid, false if not valid
+   * @see #validateSession(SessionToken)
+   */
+  private boolean validateAndMigrateSession(final SessionToken sessionToken) {
 
     if (sessionToken != null) {
 
       // validity check of source node id is actually a source node
-      Select selectNodeId =
-          QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
-
-      selectNodeId
-          .where(QueryBuilder.eq(Constants.DEPLOYMENT_COLUMNS.NEW_NODE_ID, sessionToken.sourceNode))
-          .and(
-              QueryBuilder.eq(
-                  Constants.DEPLOYMENT_COLUMNS.PROCESS_STATUS,
-                  DeploymentProcessStatus.DEPLOYED.toString()));
-
-      selectNodeId.allowFiltering();
-
-      if (PathStorePrivilegedCluster.getDaemonInstance().psConnect().execute(selectNodeId).empty())
-        return false;
+      if (!NetworkTopology.getInstance().isDeployed(sessionToken.sourceNode)) return false;
 
       // validity check of data
       switch (sessionToken.sessionType) {
@@ -285,43 +339,31 @@ public class NetworkImpl {
         // calculate LCA between sourceNode and NodeId to get N_A
         int lca = this.lca(sessionToken.sourceNode, PathStoreProperties.getInstance().NodeID);
 
+        if (lca == -1) {
+          logger.error(
+              String.format(
+                  "No common ancestor of (%d, %d), rejecting session %s",
+                  sessionToken.sourceNode,
+                  PathStoreProperties.getInstance().NodeID,
+                  sessionToken.sessionName));
+          return false;
+        }
+
         logger.info(
             String.format(
                 "LCA of (%d, %d) is %d",
                 sessionToken.sourceNode, PathStoreProperties.getInstance().NodeID, lca));
 
-        Select querySourceNodeAddress =
-            QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.SERVERS);
-
-        Optional<Row> deploymentRow =
-            PathStorePrivilegedCluster.getDaemonInstance().psConnect().execute(selectNodeId)
-                .stream()
-                .findFirst();
-
-        if (!deploymentRow.isPresent())
-          throw new RuntimeException("Could not get deployment row for source node");
-
-        querySourceNodeAddress.where(
-            QueryBuilder.eq(
-                Constants.SERVERS_COLUMNS.SERVER_UUID,
-                deploymentRow.get().getString(Constants.DEPLOYMENT_COLUMNS.SERVER_UUID)));
-
-        Optional<Row> optionalServerRow =
-            PathStorePrivilegedCluster.getDaemonInstance().psConnect()
-                .execute(querySourceNodeAddress).stream()
-                .findFirst();
-
-        if (!optionalServerRow.isPresent())
-          throw new RuntimeException("Could not get server row for source node");
-
-        Row serverRow = optionalServerRow.get();
-
-        ServerEntry serverEntry = ServerEntry.fromRow(serverRow);
+        Pair<String, Integer> sourceAddress =
+            NetworkTopology.getInstance()
+                .getAddress(sessionToken.sourceNode)
+                .orElseThrow(
+                    () -> new RuntimeException("Could not get server row for source node"));
 
         PathStoreServerClient sourceNode =
             PathStoreServerClient.getCustom(
-                serverEntry.ip,
-                serverEntry.grpcPort,
+                sourceAddress.t1,
+                sourceAddress.t2,
                 CredentialCache.getAuxiliary()
                     .getCredential(Constants.AUXILIARY_ACCOUNTS.NETWORK_WIDE_GRPC_CREDENTIAL));
 
@@ -357,12 +399,14 @@ public class NetworkImpl {
           String.format(
               "Performing a force push for session data on node %d with session name %s with lca of %d",
               nodeId, sessionToken.sessionName, lca));
-      PathStorePushServer.push(
-          sessionToken.stream().collect(Collectors.toList()),
-          PathStorePrivilegedCluster.getDaemonInstance().rawConnect(),
-          PathStorePrivilegedCluster.getParentInstance().rawConnect(),
-          SchemaInfo.getInstance(),
-          nodeId);
+      try (Span span = Tracer.getInstance().start("force_push").tag("lca", lca)) {
+        PathStorePushServer.push(
+            sessionToken.stream().collect(Collectors.toList()),
+            PathStorePrivilegedCluster.getDaemonInstance().rawConnect(),
+            PathStorePrivilegedCluster.getParentInstance().rawConnect(),
+            SchemaInfo.getInstance(),
+            nodeId);
+      }
 
       PathStoreServerClient.getInstance().forcePush(sessionToken, lca);
     } else {
@@ -397,24 +441,26 @@ public class NetworkImpl {
       logger.info(
           String.format("Starting synchronization of all session data for node id %d", lca));
 
-      sessionToken.stream()
-          .map(table -> QueryCache.getInstance().getEntries(table))
-          .flatMap(Collection::stream)
-          .filter(
-              queryCacheEntry ->
-                  queryCacheEntry.getIsCovered() == null
-                      && queryCacheEntry
-                          .isReady()) // only non-covered and ready entries, see implNote
-          .forEach(
-              nonCoveredQueryCacheEntry -> {
-                logger.info(
-                    String.format(
-                        "Synchronizing entry on table %s.%s with clauses %s",
-                        nonCoveredQueryCacheEntry.keyspace,
-                        nonCoveredQueryCacheEntry.table,
-                        nonCoveredQueryCacheEntry.clauses));
-                QueryCache.getInstance().fetchDelta(nonCoveredQueryCacheEntry);
-              });
+      try (Span span = Tracer.getInstance().start("force_synchronize").tag("lca", lca)) {
+        sessionToken.stream()
+            .map(table -> QueryCache.getInstance().getEntries(table))
+            .flatMap(Collection::stream)
+            .filter(
+                queryCacheEntry ->
+                    queryCacheEntry.getIsCovered() == null
+                        && queryCacheEntry
+                            .isReady()) // only non-covered and ready entries, see implNote
+            .forEach(
+                nonCoveredQueryCacheEntry -> {
+                  logger.info(
+                      String.format(
+                          "Synchronizing entry on table %s.%s with clauses %s",
+                          nonCoveredQueryCacheEntry.keyspace,
+                          nonCoveredQueryCacheEntry.table,
+                          nonCoveredQueryCacheEntry.clauses));
+                  QueryCache.getInstance().fetchDelta(nonCoveredQueryCacheEntry);
+                });
+      }
 
     } else {
       logger.info(String.format("Hit lca of %d, not going any further", lca));
@@ -422,75 +468,133 @@ public class NetworkImpl {
   }
 
   /**
-   * This function is used to calculate the lowest common ancestor between the sourceNode and the
-   * destinationNode.
-   *
-   * <p>The time complexity for this function is O(h) where h is the height of the tree.
-   *
-   * <p>The Logic for this function is as follow:
-   *
-   * <p>Step 1) Build a map from child -> parent node.
-   *
-   * <p>Step 2)
-   *
-   * <p>Iterate from sourceNode to the root node and add all the nodes along the path to a marked
-   * set.
+   * This function is used to remove every log of a removed node on this node and then on the
+   * parent, recursively up to the root. Logs are pushed up to the root, where the admin panel reads
+   * them, and the partition deletes are not pushed, so each ancestor removes its own copy.
    *
-   * <p>Case 1: destinationNode is an ancestor of the source node, return the destination node as
-   * the LCA.
+   * @param nodeId node that was removed
+   * @see PathStoreLogRetention#purgeNode(com.datastax.driver.core.Session, int)
+   */
+  public void purgeNodeLogs(final int nodeId) {
+    PathStoreLogRetention.purgeNode(
+        PathStorePrivilegedCluster.getDaemonInstance().rawConnect(), nodeId);
+
+    logger.info(String.format("Removed logs of node %d", nodeId));
+
+    if (PathStoreProperties.getInstance().role != Role.ROOTSERVER)
+      PathStoreServerClient.getInstance().purgeNodeLogs(nodeId);
+  }
+
+  /**
+   * This function is used to forward a control plane event to the root.
    *
-   * <p>Case 2: sourceNode and destinationNode are apart of two separate sub-trees.
+   * <p>On the root the event is published, see {@link
+   * ControlPlaneEvents#publish(ControlPlaneEvent)}. On any other node the event is queued and
+   * forwarded in the background by {@link #forwardControlPlane(String)}, so callers never wait on a
+   * push or on the parent. Events of a table that arrive while a forward of the table is queued are
+   * coalesced into it, so a burst of events costs a single push. Once {@link #MAX_PENDING_EVENTS}
+   * events are queued for a table further ones are dropped, their state machines fall back to
+   * polling.
    *
-   * <p>Once the sourceNode traverses to the root node, then traverse up the tree starting from the
-   * destination node. The first node hit is the LCA
+   * <p>Readiness events of a freshly deployed child are only published on this node, see {@link
+   * ControlPlaneEvents#notifyReady()}.
    *
-   * <p>Case 3: sourceNode is an ancestor of the destinationNode.
+   * @param event event from a child, client or this node
+   */
+  public void notifyControlPlane(final ControlPlaneEvent event) {
+    if (ControlPlaneEvents.READINESS_TABLE.equals(event.getTable())) {
+      ControlPlaneEvents.getInstance().publishLocal(event);
+      return;
+    }
+
+    if (!ControlPlaneEvents.TABLES.contains(event.getTable())) {
+      logger.error(
+          String.format("Ignoring control plane event for unknown table %s", event.getTable()));
+      return;
+    }
+
+    if (PathStoreProperties.getInstance().role == Role.ROOTSERVER) {
+      ControlPlaneEvents.getInstance().publish(event);
+      return;
+    }
+
+    synchronized (this.pendingEvents) {
+      Set<ControlPlaneEvent> pending = this.pendingEvents.get(event.getTable());
+
+      if (pending != null) {
+        if (pending.size() < MAX_PENDING_EVENTS) pending.add(event);
+        else
+          logger.error(
+              String.format(
+                  "Dropping control plane event for table %s and node %d, too many are pending",
+                  event.getTable(), event.getNodeId()));
+        return;
+      }
+
+      pending = new HashSet<>();
+      pending.add(event);
+      this.pendingEvents.put(event.getTable(), pending);
+    }
+
+    try {
+      PathStoreScheduler.getInstance()
+          .submit(WorkerPool.GENERAL, () -> this.forwardControlPlane(event.getTable()));
+    } catch (RejectedExecutionException e) {
+      synchronized (this.pendingEvents) {
+        this.pendingEvents.remove(event.getTable());
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * This function is used to forward all queued control plane events of a table to the parent. The
+   * table is pushed to the parent first, so the rows that caused the events have arrived at the
+   * parent before it receives them.
    *
-   * <p>Since the sourceNode is traversed first, it will traverse to the root. Then the destination
-   * will traverse up until it hits the sourceNode and that node will be the first marked node and
-   * thus the sourceNode will return.
+   * <p>Failures are logged, the receivers fall back to polling.
    *
-   * @param sourceNode where the data originated
-   * @param destinationNode where the data is going
-   * @return lca.
-   * @implNote the return will always be valid as the sourceNode and destinationNode to exist within
-   *     the tree structure.
+   * @param table table to forward the events of
    */
-  private int lca(final int sourceNode, final int destinationNode) {
+  private void forwardControlPlane(final String table) {
+    Set<ControlPlaneEvent> events;
 
-    Select allDeployedNodes =
-        QueryBuilder.select()
-            .all()
-            .from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT)
-            .allowFiltering();
-    allDeployedNodes.where(
-        QueryBuilder.eq(
-            Constants.DEPLOYMENT_COLUMNS.PROCESS_STATUS,
-            DeploymentProcessStatus.DEPLOYED.toString()));
-
-    // build child -> parent set from db.
-    Map<Integer, Integer> childToParentMap =
-        PathStorePrivilegedCluster.getDaemonInstance().psConnect().execute(allDeployedNodes)
-            .stream()
-            .map(DeploymentEntry::fromRow)
-            .collect(Collectors.toMap(entry -> entry.newNodeId, entry -> entry.parentNodeId));
-
-    Set<Integer> visitedSet = new HashSet<>();
-
-    // traverse from the sourceNode to the root node and mark each node including the sourceNode as
-    // visited
-    for (int current = sourceNode; current != -1; current = childToParentMap.get(current)) {
-      visitedSet.add(current);
-
-      if (current == destinationNode) return current;
+    synchronized (this.pendingEvents) {
+      events = this.pendingEvents.remove(table);
     }
 
-    // traverse from the destinationNode up to the first visited node, the first met visited node
-    // will be the lca.
-    int current = destinationNode;
-    while (!visitedSet.contains(current)) current = childToParentMap.get(current);
+    try (Span span = Tracer.getInstance().start("control_plane_notify").tag("table", table)) {
+      PathStorePushServer.push(
+          Collections.singletonList(
+              SchemaInfo.getInstance()
+                  .getTableFromKeyspaceAndTableName(Constants.PATHSTORE_APPLICATIONS, table)),
+          PathStorePrivilegedCluster.getDaemonInstance().rawConnect(),
+          PathStorePrivilegedCluster.getParentInstance().rawConnect(),
+          SchemaInfo.getInstance(),
+          PathStoreProperties.getInstance().NodeID);
 
-    return current;
+      for (ControlPlaneEvent event : events)
+        PathStoreServerClient.getInstance().notifyControlPlane(table, event.getNodeId());
+    } catch (Exception e) {
+      logger.error(
+          String.format(
+              "Could not forward %d control plane event(s) of %s, they will be picked up by the next poll",
+              events.size(), table));
+      logger.error(e);
+    }
+  }
+
+  /**
+   * This function is used to calculate the lowest common ancestor between the sourceNode and the
+   * destinationNode.
+   *
+   * @param sourceNode where the data originated
+   * @param destinationNode where the data is going
+   * @return lca, or -1 if either node is not deployed or they don't share an ancestor
+   * @see NetworkTopology#lca(int, int)
+   */
+  private int lca(final int sourceNode, final int destinationNode) {
+    return NetworkTopology.getInstance().lca(sourceNode, destinationNode);
   }
 
   /**
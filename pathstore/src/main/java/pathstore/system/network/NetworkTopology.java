@@ -0,0 +1,446 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.network;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import pathstore.client.PathStoreSession;
+import pathstore.common.Constants;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.common.tables.DeploymentEntry;
+import pathstore.common.tables.DeploymentProcessStatus;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.util.Pair;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is an in-memory model of the deployed network topology. It is used by {@link
+ * NetworkImpl#validateSession(pathstore.sessions.SessionToken)} to verify source nodes, compute the
+ * lowest common ancestor between two nodes and resolve the grpc address of a node without reading
+ * the deployment and servers tables on every call.
+ *
+ * <p>The model is an immutable {@link Topology} snapshot that is swapped atomically on refresh. A
+ * refresh is triggered asynchronously once the snapshot is older than {@link #REFRESH_INTERVAL_MS}
+ * and synchronously when a node is looked up that the snapshot does not know about, at most once
+ * every {@link #FORCED_REFRESH_INTERVAL_MS}. Node ids come from session tokens sent by clients, so
+ * unknown ids must not be able to force a scan of the tables per request.
+ *
+ * <p>Ancestors are stored using binary lifting, ancestors[k] is the 2^k-th ancestor of a node. This
+ * makes lca queries O(log h). When a refresh only adds nodes the existing ancestor tables are
+ * re-used and only the new nodes are computed.
+ */
+public class NetworkTopology {
+
+  /** How long a snapshot is considered fresh for */
+  private static final long REFRESH_INTERVAL_MS = 30000;
+
+  /** Minimum time between the last refresh and a synchronous refresh for an unknown node */
+  private static final long FORCED_REFRESH_INTERVAL_MS = 1000;
+
+  /** Instance of class */
+  private static NetworkTopology instance = null;
+
+  /** @return instance of NetworkTopology */
+  public static synchronized NetworkTopology getInstance() {
+    if (instance == null) instance = new NetworkTopology();
+    return instance;
+  }
+
+  /** Private Default Constructor */
+  private NetworkTopology() {}
+
+  /** Logger */
+  private final PathStoreLogger logger = PathStoreLoggerFactory.getLogger(NetworkTopology.class);
+
+  /** Current snapshot */
+  private volatile Topology topology = new Topology();
+
+  /** When {@link #topology} was last refreshed */
+  private volatile long lastRefresh = 0;
+
+  /** Whether an asynchronous refresh is currently scheduled */
+  private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+
+  /**
+   * @param nodeId node id to check
+   * @return true iff the node id is a deployed node
+   */
+  public boolean isDeployed(final int nodeId) {
+    return this.lookup(nodeId).parent.containsKey(nodeId);
+  }
+
+  /**
+   * This function is used to calculate the lowest common ancestor between two nodes.
+   *
+   * <p>Both nodes are first lifted to the same depth, then both are lifted by decreasing powers of
+   * two while their ancestors differ. The time complexity is O(log h) where h is the height of the
+   * tree.
+   *
+   * @param sourceNode where the data originated
+   * @param destinationNode where the data is going
+   * @return lca, or -1 if either node is not deployed
+   */
+  public int lca(final int sourceNode, final int destinationNode) {
+    Topology current = this.lookup(sourceNode);
+    if (!current.parent.containsKey(destinationNode)) current = this.lookup(destinationNode);
+
+    if (!current.parent.containsKey(sourceNode) || !current.parent.containsKey(destinationNode))
+      return -1;
+
+    int a = sourceNode, b = destinationNode;
+
+    if (current.depth.get(a) < current.depth.get(b)) {
+      int temp = a;
+      a = b;
+      b = temp;
+    }
+
+    a = current.lift(a, current.depth.get(a) - current.depth.get(b));
+
+    if (a == b) return a;
+
+    for (int k = current.levels - 1; k >= 0; k--) {
+      int ancestorA = current.ancestors.get(a)[k], ancestorB = current.ancestors.get(b)[k];
+      if (ancestorA != ancestorB) {
+        a = ancestorA;
+        b = ancestorB;
+      }
+    }
+
+    int lca = current.ancestors.get(a)[0];
+
+    return lca == a ? -1 : lca;
+  }
+
+  /**
+   * This function is used to calculate the amount of levels data crosses between two nodes.
+   *
+   * @param sourceNode where the data originated
+   * @param destinationNode where the data is going
+   * @return number of hops through the lca, or -1 if either node is not deployed
+   */
+  public int distance(final int sourceNode, final int destinationNode) {
+    int lca = this.lca(sourceNode, destinationNode);
+    if (lca == -1) return -1;
+
+    Map<Integer, Integer> depth = this.topology.depth;
+
+    if (!depth.containsKey(sourceNode)
+        || !depth.containsKey(destinationNode)
+        || !depth.containsKey(lca)) return -1; // removed by a concurrent refresh
+
+    return depth.get(sourceNode) + depth.get(destinationNode) - 2 * depth.get(lca);
+  }
+
+  /**
+   * @param nodeId node id to gather ancestors of
+   * @return ancestors of the node starting with its parent and ending with the root, empty if the
+   *     node is the root or not deployed
+   */
+  public List<Integer> getAncestors(final int nodeId) {
+    Topology current = this.lookup(nodeId);
+
+    List<Integer> ancestors = new ArrayList<>();
+
+    Integer node = current.parent.get(nodeId);
+    while (node != null && current.parent.containsKey(node)) {
+      ancestors.add(node);
+      node = current.parent.get(node);
+    }
+
+    return ancestors;
+  }
+
+  /**
+   * This function is used to gather the roots of the subtrees next to a node's own subtree. These
+   * are the other children of the node's parent, then of its grandparent and so on up to the root.
+   *
+   * @param nodeId node id to gather peers of
+   * @param limit maximum amount of peers to return
+   * @return up to limit peers, closest first
+   */
+  public List<Integer> getPeers(final int nodeId, final int limit) {
+    Topology current = this.lookup(nodeId);
+
+    Map<Integer, List<Integer>> children = new HashMap<>();
+    new TreeMap<>(current.parent).forEach(
+        (child, parentNode) ->
+            children.computeIfAbsent(parentNode, k -> new ArrayList<>()).add(child));
+
+    List<Integer> peers = new ArrayList<>();
+
+    int node = nodeId;
+    for (int ancestor : this.getAncestors(nodeId)) {
+      for (int child : children.getOrDefault(ancestor, Collections.emptyList())) {
+        if (peers.size() >= limit) return peers;
+        if (child != node) peers.add(child);
+      }
+      node = ancestor;
+    }
+
+    return peers;
+  }
+
+  /**
+   * @param nodeId node id to gather address of
+   * @return grpc (ip, port) of node if the node is deployed and its server is known
+   */
+  public Optional<Pair<String, Integer>> getAddress(final int nodeId) {
+    return Optional.ofNullable(this.lookup(nodeId).address.get(nodeId));
+  }
+
+  /**
+   * Gathers the current snapshot, refreshing it synchronously if the given node is not present and
+   * the snapshot is older than {@link #FORCED_REFRESH_INTERVAL_MS}.
+   *
+   * @param nodeId node id that the caller is interested in
+   * @return snapshot
+   */
+  private Topology lookup(final int nodeId) {
+    Topology current = this.current();
+
+    if (!current.parent.containsKey(nodeId)
+        && System.currentTimeMillis() - this.lastRefresh >= FORCED_REFRESH_INTERVAL_MS)
+      current = this.forceRefresh(nodeId);
+
+    return current;
+  }
+
+  /**
+   * Refreshes the snapshot unless another caller refreshed it while this one was waiting
+   *
+   * @param nodeId node id that the caller is interested in
+   * @return snapshot
+   */
+  private synchronized Topology forceRefresh(final int nodeId) {
+    Topology current = this.topology;
+
+    if (current.parent.containsKey(nodeId)
+        || System.currentTimeMillis() - this.lastRefresh < FORCED_REFRESH_INTERVAL_MS)
+      return current;
+
+    return this.refresh();
+  }
+
+  /**
+   * @return current snapshot. If the snapshot is stale an asynchronous refresh will be scheduled
+   *     and the stale snapshot will be returned
+   */
+  private Topology current() {
+    if (System.currentTimeMillis() - this.lastRefresh > REFRESH_INTERVAL_MS
+        && this.refreshScheduled.compareAndSet(false, true)) {
+      try {
+        PathStoreScheduler.getInstance()
+            .submit(
+                WorkerPool.GENERAL,
+                () -> {
+                  try {
+                    this.refresh();
+                  } catch (RuntimeException e) {
+                    this.logger.error(e);
+                  } finally {
+                    this.refreshScheduled.set(false);
+                  }
+                });
+      } catch (RejectedExecutionException e) {
+        // the next call tries again
+        this.refreshScheduled.set(false);
+      }
+    }
+
+    return this.topology;
+  }
+
+  /**
+   * Reads all deployed nodes and all servers and builds a new snapshot. If the new set of nodes is
+   * a superset of the previous one with unchanged parents, the previous ancestor tables are
+   * re-used.
+   *
+   * @return new snapshot
+   */
+  private synchronized Topology refresh() {
+    PathStoreSession session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
+
+    Map<Integer, Integer> parent = new HashMap<>();
+    Map<Integer, String> serverUUIDs = new HashMap<>();
+
+    Select deploymentSelect =
+        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.DEPLOYMENT);
+
+    for (Row row : session.execute(deploymentSelect)) {
+      DeploymentEntry entry = DeploymentEntry.fromRow(row);
+      if (entry.deploymentProcessStatus != DeploymentProcessStatus.DEPLOYED) continue;
+      parent.put(entry.newNodeId, entry.parentNodeId);
+      serverUUIDs.put(entry.newNodeId, entry.serverUUID.toString());
+    }
+
+    Map<String, Pair<String, Integer>> servers = new HashMap<>();
+
+    Select serversSelect =
+        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.SERVERS);
+
+    for (Row row : session.execute(serversSelect))
+      servers.put(
+          row.getString(Constants.SERVERS_COLUMNS.SERVER_UUID),
+          new Pair<>(
+              row.getString(Constants.SERVERS_COLUMNS.IP),
+              row.getInt(Constants.SERVERS_COLUMNS.GRPC_PORT)));
+
+    Map<Integer, Pair<String, Integer>> address = new HashMap<>();
+    serverUUIDs.forEach(
+        (nodeId, serverUUID) -> {
+          Pair<String, Integer> server = servers.get(serverUUID);
+          if (server != null) address.put(nodeId, server);
+        });
+
+    Topology previous = this.topology;
+    Topology next = new Topology(parent, address, previous);
+
+    this.topology = next;
+    this.lastRefresh = System.currentTimeMillis();
+
+    if (next.parent.size() != previous.parent.size())
+      this.logger.debug(
+          String.format(
+              "Topology refreshed with %d nodes (%d levels)", next.parent.size(), next.levels));
+
+    return next;
+  }
+
+  /** Immutable snapshot of the topology */
+  private static final class Topology {
+
+    /** child -> parent, the root's parent is -1 */
+    private final Map<Integer, Integer> parent;
+
+    /** node -> depth, the root has depth 0 */
+    private final Map<Integer, Integer> depth;
+
+    /** node -> binary lifting table, ancestors[k] is the 2^k-th ancestor (root maps to itself) */
+    private final Map<Integer, int[]> ancestors;
+
+    /** node -> grpc (ip, port) */
+    private final Map<Integer, Pair<String, Integer>> address;
+
+    /** Number of levels in each ancestor table */
+    private final int levels;
+
+    /** Empty topology */
+    private Topology() {
+      this.parent = Collections.emptyMap();
+      this.depth = Collections.emptyMap();
+      this.ancestors = Collections.emptyMap();
+      this.address = Collections.emptyMap();
+      this.levels = 1;
+    }
+
+    /**
+     * @param parent child -> parent map of all deployed nodes
+     * @param address node -> address map
+     * @param previous previous snapshot, used to re-use computed ancestor tables
+     */
+    private Topology(
+        final Map<Integer, Integer> parent,
+        final Map<Integer, Pair<String, Integer>> address,
+        final Topology previous) {
+      this.parent = parent;
+      this.address = address;
+      this.depth = new HashMap<>(parent.size());
+
+      for (Integer node : parent.keySet()) this.computeDepth(node);
+
+      int maxDepth = this.depth.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+      int requiredLevels = 1;
+      while ((1 << requiredLevels) <= maxDepth) requiredLevels++;
+
+      boolean incremental =
+          requiredLevels <= previous.levels
+              && previous.parent.entrySet().stream()
+                  .allMatch(e -> e.getValue().equals(parent.get(e.getKey())));
+
+      this.levels = incremental ? previous.levels : requiredLevels;
+      this.ancestors = new HashMap<>(parent.size());
+
+      if (incremental) this.ancestors.putAll(previous.ancestors);
+
+      // nodes are processed in order of depth so that every ancestor's table exists
+      parent.keySet().stream()
+          .filter(node -> !this.ancestors.containsKey(node))
+          .sorted(Comparator.comparingInt(this.depth::get))
+          .forEach(this::computeAncestors);
+    }
+
+    /**
+     * Computes the depth of a node iteratively, memoizing the depth of every node along the path
+     *
+     * @param node node to compute depth for
+     */
+    private void computeDepth(final int node) {
+      Deque<Integer> path = new ArrayDeque<>();
+
+      int current = node;
+      while (!this.depth.containsKey(current)) {
+        path.push(current);
+        Integer next = this.parent.get(current);
+        if (next == null || !this.parent.containsKey(next)) break; // current is the root
+        current = next;
+      }
+
+      int base = this.depth.getOrDefault(current, -1);
+
+      while (!path.isEmpty()) this.depth.put(path.pop(), ++base);
+    }
+
+    /**
+     * Builds the binary lifting table for a node, its parent's table must already exist
+     *
+     * @param node node to build table for
+     */
+    private void computeAncestors(final int node) {
+      int[] table = new int[this.levels];
+      Integer parentNode = this.parent.get(node);
+
+      if (parentNode == null || !this.parent.containsKey(parentNode)) Arrays.fill(table, node);
+      else {
+        table[0] = parentNode;
+        for (int k = 1; k < this.levels; k++) table[k] = this.ancestors.get(table[k - 1])[k - 1];
+      }
+
+      this.ancestors.put(node, table);
+    }
+
+    /**
+     * @param node node to start at
+     * @param distance how many levels to go up
+     * @return the distance-th ancestor of node
+     */
+    private int lift(int node, final int distance) {
+      for (int k = 0; k < this.levels; k++)
+        if (((distance >> k) & 1) == 1) node = this.ancestors.get(node)[k];
+      return node;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import io.grpc.stub.StreamObserver;
 import pathstore.grpc.NetworkWideServiceGrpc;
 import pathstore.grpc.pathStoreProto;
 import pathstore.sessions.SessionToken;
+import pathstore.system.metrics.MetricsRegistry;
 
 /**
  * This Service impl is specifically for endpoints that can be accessed on any node from any other
@@ -50,4 +51,24 @@ public class NetworkWideServiceImpl extends NetworkWideServiceGrpc.NetworkWideSe
     responseObserver.onNext(Empty.newBuilder().build());
     responseObserver.onCompleted();
   }
+
+  /**
+   * Returns the metrics of this node
+   *
+   * @param request empty request
+   * @param responseObserver way to response
+   * @see MetricsRegistry#scrape()
+   */
+  @Override
+  public void getMetrics(
+      final Empty request,
+      final StreamObserver<pathStoreProto.GetMetricsResponse> responseObserver) {
+    responseObserver.onNext(
+        pathStoreProto
+            .GetMetricsResponse
+            .newBuilder()
+            .setMetrics(MetricsRegistry.getInstance().scrape())
+            .build());
+    responseObserver.onCompleted();
+  }
 }
@@ -23,6 +23,7 @@ import io.grpc.stub.StreamObserver;
 import pathstore.grpc.ServerOnlyServiceGrpc;
 import pathstore.grpc.pathStoreProto;
 import pathstore.sessions.SessionToken;
+import pathstore.system.controlplane.ControlPlaneEvents;
 
 import java.util.UUID;
 
@@ -82,4 +83,35 @@ public class ServerOnlyServiceImpl extends ServerOnlyServiceGrpc.ServerOnlyServi
     responseObserver.onNext(Empty.newBuilder().build());
     responseObserver.onCompleted();
   }
+
+  /**
+   * Removes the logs of a removed node on this node and its ancestors
+   *
+   * @param request node id of the removed node
+   * @param responseObserver way to response
+   * @see NetworkImpl#purgeNodeLogs(int)
+   */
+  @Override
+  public void purgeNodeLogs(
+      final pathStoreProto.PurgeNodeLogsRequest request,
+      final StreamObserver<Empty> responseObserver) {
+    this.network.purgeNodeLogs(request.getNodeId());
+
+    responseObserver.onNext(Empty.newBuilder().build());
+    responseObserver.onCompleted();
+  }
+
+  /**
+   * Streams every control plane event published on this node to the child until it cancels
+   *
+   * @param request empty request
+   * @param responseObserver stream to the child
+   * @see pathstore.system.controlplane.ControlPlaneWatcher
+   */
+  @Override
+  public void watchControlPlane(
+      final Empty request,
+      final StreamObserver<pathStoreProto.ControlPlaneEvent> responseObserver) {
+    ControlPlaneEvents.getInstance().stream(responseObserver);
+  }
 }
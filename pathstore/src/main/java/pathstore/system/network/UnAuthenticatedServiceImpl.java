@@ -22,6 +22,7 @@ import io.grpc.stub.StreamObserver;
 import pathstore.grpc.UnAuthenticatedServiceGrpc;
 import pathstore.grpc.pathStoreProto.RegisterApplicationRequest;
 import pathstore.grpc.pathStoreProto.RegisterApplicationResponse;
+import pathstore.system.schemaFSM.SchemaChangeLog;
 import pathstore.util.SchemaInfo;
 
 /**
@@ -54,12 +55,29 @@ public class UnAuthenticatedServiceImpl
     String password = request.getPassword();
 
     String credentials = this.network.registerApplicationClient(applicationName, password);
+
+    // the version is read first so changes made while the schema is read are streamed again
+    SchemaChangeLog schemaChangeLog = SchemaChangeLog.getInstance();
+    long schemaVersion = schemaChangeLog.getVersion();
+
     SchemaInfo schemaInfo = this.network.getSchemaInfo(applicationName);
 
     RegisterApplicationResponse.Builder builder =
-        RegisterApplicationResponse.newBuilder().setCredentials(credentials);
+        RegisterApplicationResponse.newBuilder()
+            .setCredentials(credentials)
+            .setSchemaEpoch(schemaChangeLog.getEpoch())
+            .setSchemaVersion(schemaVersion);
+
+    if (schemaInfo != null) {
+      RegisterApplicationResponse.SchemaInfo grpcSchemaInfo = schemaInfo.toGRPCSchemaInfoObject();
+      String schemaHash = SchemaInfo.hash(grpcSchemaInfo);
+
+      builder.setSchemaHash(schemaHash);
 
-    if (schemaInfo != null) builder.setSchemaInfo(schemaInfo.toGRPCSchemaInfoObject());
+      // the client already has this exact schema cached, so skip sending it again
+      if (schemaHash.equals(request.getSchemaHash())) builder.setSchemaUnchanged(true);
+      else builder.setSchemaInfo(grpcSchemaInfo);
+    }
 
     RegisterApplicationResponse response = builder.build();
 
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.replication;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.utils.UUIDs;
+import pathstore.client.PathStoreSession;
+import pathstore.common.Constants;
+import pathstore.common.PathStoreProperties;
+import pathstore.common.QueryCache;
+import pathstore.common.Role;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.system.network.NetworkTopology;
+import pathstore.util.SchemaInfo;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replication lag probe, ran as a daemon on every server.
+ *
+ * <p>On every run the probe writes a heartbeat row for this node to {@link Constants#HEARTBEATS}.
+ * These rows travel through the hierarchy with the normal push and pull daemons. Heartbeats of a
+ * node's subtree are pushed up to it without any registration. Every {@link #SUMMARY_EVERY} runs a
+ * server registers a query cache entry per partition for the heartbeats of its ancestors up to the
+ * root and of at most {@link #MAX_PEERS} roots of the neighbouring subtrees (see {@link
+ * NetworkTopology#getPeers(int, int)}), so these are pulled down to it. A node therefore receives
+ * the heartbeats of its subtree plus a bounded set of partitions per level instead of the whole
+ * table.
+ *
+ * <p>The probe then reads the newest heartbeat of every other node. Each time a new heartbeat is
+ * seen its lag is computed as the time it arrived on this node ({@link
+ * Constants.PATHSTORE_META_COLUMNS#PATHSTORE_PARENT_TIMESTAMP}, set by the node that inserted the
+ * row locally) minus the time it was written on its origin. The lag is recorded into a histogram
+ * per origin node which is exposed on the metrics endpoint as {@link #METRIC}, labelled with the
+ * origin, the link and the amount of hops the heartbeat crossed through the lowest common ancestor.
+ *
+ * <p>The link label describes the path a heartbeat took:
+ *
+ * <p>push: the origin is a direct child, the heartbeat was pushed up one level
+ *
+ * <p>pull: the origin is this node's parent, the heartbeat was pulled down one level
+ *
+ * <p>end_to_end: the heartbeat crossed more than one level, up from a descendant, down from an
+ * ancestor (e.g. root to edge) or up and down again from a neighbouring subtree
+ *
+ * <p>Every {@link #SUMMARY_EVERY} runs a summary per origin is written to {@link
+ * Constants#REPLICATION_LAG} so the root (and therefore the administration panel) can see the lag
+ * observed at every node.
+ *
+ * @implNote Lag is computed from wall clocks on two different nodes, it is only meaningful if the
+ *     nodes clocks are synchronized (ntp). Negative values caused by skew are recorded as zero.
+ *     Both tables have a default time to live so heartbeats don't accumulate.
+ */
+public class ReplicationLagProbe implements Runnable {
+
+  /** Name of the lag histogram family */
+  public static final String METRIC = "pathstore_replication_lag_seconds";
+
+  /**
+   * How many runs between summaries written to {@link Constants#REPLICATION_LAG} and between
+   * updates of the registered heartbeat partitions
+   */
+  private static final int SUMMARY_EVERY = 10;
+
+  /** Maximum amount of neighbouring subtrees whose heartbeats are pulled */
+  private static final int MAX_PEERS = 8;
+
+  /** Logger to handle errors */
+  private final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ReplicationLagProbe.class);
+
+  /** Session used to write heartbeats and summaries, writes go through pathstore */
+  private final PathStoreSession session;
+
+  /** Raw session used to observe heartbeats without registering a select every run */
+  private final Session rawSession;
+
+  /** Node id of this node */
+  private final int nodeId;
+
+  /** Node id of this node's parent, -1 on the root */
+  private final int parentNodeId;
+
+  /** Node ids whose heartbeat partition has a query cache entry */
+  private final Set<Integer> registered = new HashSet<>();
+
+  /** Whether the missing heartbeats table was already logged */
+  private boolean missingLogged = false;
+
+  /** Amount of runs so far */
+  private long runs = 0;
+
+  /** Origin node id -> written_at of the newest heartbeat already recorded */
+  private final Map<Integer, Long> lastSeen = new HashMap<>();
+
+  /** Origin node id -> lag histogram */
+  private final Map<Integer, LatencyHistogram> histograms = new HashMap<>();
+
+  /** Origin node id -> link label */
+  private final Map<Integer, String> links = new HashMap<>();
+
+  public ReplicationLagProbe() {
+    PathStoreProperties properties = PathStoreProperties.getInstance();
+
+    this.session = PathStorePrivilegedCluster.getDaemonInstance().psConnect();
+    this.rawSession = PathStorePrivilegedCluster.getDaemonInstance().rawConnect();
+    this.nodeId = properties.NodeID;
+    this.parentNodeId = properties.ParentID;
+  }
+
+  /** Single probe cycle, scheduled every HeartbeatInterval */
+  @Override
+  public void run() {
+    try {
+      if (!this.tablesExist()) return;
+
+      if (this.runs % SUMMARY_EVERY == 0) this.register();
+
+      this.writeHeartbeat();
+      this.observe();
+
+      if (++this.runs % SUMMARY_EVERY == 0) this.writeSummaries();
+    } catch (Exception e) {
+      this.logger.error(e);
+    }
+  }
+
+  /**
+   * The heartbeat tables are part of the application keyspace, nodes deployed before they existed
+   * get them on their next restart.
+   *
+   * @return whether the heartbeat table is loaded on this node
+   */
+  private boolean tablesExist() {
+    boolean exists =
+        SchemaInfo.getInstance()
+                .getTableFromKeyspaceAndTableName(
+                    Constants.PATHSTORE_APPLICATIONS, Constants.HEARTBEATS)
+            != null;
+
+    if (!exists && !this.missingLogged) {
+      this.logger.error("Heartbeats table not found, replication lag probe is disabled");
+      this.missingLogged = true;
+    }
+
+    return exists;
+  }
+
+  /**
+   * Registers a query cache entry for the heartbeat partition of every ancestor and of the closest
+   * peers that isn't registered yet, so they're pulled down from the parent. Entries are never
+   * removed as pathstore_applications entries never expire. The root has neither and registers
+   * nothing.
+   */
+  private void register() {
+    NetworkTopology topology = NetworkTopology.getInstance();
+
+    // the parent is known before this node shows up as deployed in the topology
+    Set<Integer> origins = new LinkedHashSet<>();
+    if (PathStoreProperties.getInstance().role != Role.ROOTSERVER) origins.add(this.parentNodeId);
+    origins.addAll(topology.getAncestors(this.nodeId));
+    origins.addAll(topology.getPeers(this.nodeId, MAX_PEERS));
+
+    for (int origin : origins) {
+      if (this.registered.contains(origin)) continue;
+
+      QueryCache.getInstance()
+          .updateCache(
+              Constants.PATHSTORE_APPLICATIONS,
+              Constants.HEARTBEATS,
+              Collections.singletonList(
+                  QueryBuilder.eq(Constants.HEARTBEATS_COLUMNS.NODE_ID, origin)),
+              -1);
+
+      this.registered.add(origin);
+    }
+  }
+
+  /** Writes a heartbeat for this node */
+  private void writeHeartbeat() {
+    Insert insert = QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.HEARTBEATS);
+    insert
+        .value(Constants.HEARTBEATS_COLUMNS.NODE_ID, this.nodeId)
+        .value(Constants.HEARTBEATS_COLUMNS.PARENT_NODE_ID, this.parentNodeId)
+        .value(Constants.HEARTBEATS_COLUMNS.WRITTEN_AT, System.currentTimeMillis());
+
+    this.session.execute(insert);
+  }
+
+  /** Reads the newest heartbeat per node and records the lag of the ones not seen before */
+  private void observe() {
+    Select select =
+        QueryBuilder.select(
+                Constants.HEARTBEATS_COLUMNS.NODE_ID,
+                Constants.HEARTBEATS_COLUMNS.PARENT_NODE_ID,
+                Constants.HEARTBEATS_COLUMNS.WRITTEN_AT,
+                Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP)
+            .from(Constants.PATHSTORE_APPLICATIONS, Constants.HEARTBEATS)
+            .perPartitionLimit(1);
+
+    for (Row row : this.rawSession.execute(select)) {
+      int origin = row.getInt(Constants.HEARTBEATS_COLUMNS.NODE_ID);
+      long writtenAt = row.getLong(Constants.HEARTBEATS_COLUMNS.WRITTEN_AT);
+      UUID arrival = row.getUUID(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP);
+
+      if (origin == this.nodeId || arrival == null) continue;
+
+      Long previous = this.lastSeen.put(origin, writtenAt);
+
+      if (previous != null && previous == writtenAt) continue;
+
+      long lagMillis = Math.max(0, UUIDs.unixTimestamp(arrival) - writtenAt);
+
+      this.histogram(origin, row.getInt(Constants.HEARTBEATS_COLUMNS.PARENT_NODE_ID))
+          .record(TimeUnit.MILLISECONDS.toNanos(lagMillis));
+    }
+  }
+
+  /**
+   * @param origin origin node id
+   * @param originParent parent node id of the origin
+   * @return histogram for origin, created and registered on first use
+   */
+  private LatencyHistogram histogram(final int origin, final int originParent) {
+    return this.histograms.computeIfAbsent(
+        origin,
+        k -> {
+          String link =
+              originParent == this.nodeId
+                  ? "push"
+                  : origin == this.parentNodeId ? "pull" : "end_to_end";
+
+          int hops = NetworkTopology.getInstance().distance(origin, this.nodeId);
+
+          this.links.put(origin, link);
+
+          return MetricsRegistry.getInstance()
+              .histogram(
+                  METRIC,
+                  "Time for a heartbeat to replicate from its origin to this node",
+                  "link",
+                  link,
+                  "origin",
+                  String.valueOf(origin),
+                  "hops",
+                  hops == -1 ? "unknown" : String.valueOf(hops));
+        });
+  }
+
+  /** Writes the current lag quantiles per origin (in milliseconds) to the replication lag table */
+  private void writeSummaries() {
+    for (Map.Entry<Integer, LatencyHistogram> entry : this.histograms.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      long[] quantiles = histogram.quantiles(0.5, 0.99);
+
+      Insert insert =
+          QueryBuilder.insertInto(Constants.PATHSTORE_APPLICATIONS, Constants.REPLICATION_LAG);
+      insert
+          .value(Constants.REPLICATION_LAG_COLUMNS.NODE_ID, this.nodeId)
+          .value(Constants.REPLICATION_LAG_COLUMNS.ORIGIN_NODE_ID, entry.getKey())
+          .value(Constants.REPLICATION_LAG_COLUMNS.LINK, this.links.get(entry.getKey()))
+          .value(Constants.REPLICATION_LAG_COLUMNS.SAMPLES, histogram.getCount())
+          .value(Constants.REPLICATION_LAG_COLUMNS.P50, TimeUnit.NANOSECONDS.toMillis(quantiles[0]))
+          .value(Constants.REPLICATION_LAG_COLUMNS.P99, TimeUnit.NANOSECONDS.toMillis(quantiles[1]))
+          .value(
+              Constants.REPLICATION_LAG_COLUMNS.MAX,
+              TimeUnit.NANOSECONDS.toMillis(histogram.getMaxNanos()));
+
+      this.session.execute(insert);
+    }
+  }
+}
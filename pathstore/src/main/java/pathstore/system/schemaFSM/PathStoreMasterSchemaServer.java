@@ -27,6 +27,7 @@ import pathstore.common.Constants;
 import pathstore.common.tables.NodeSchemaEntry;
 import pathstore.common.tables.NodeSchemaProcessStatus;
 import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.controlplane.ControlPlaneEvents;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 
@@ -53,86 +54,70 @@ public class PathStoreMasterSchemaServer implements Runnable {
   private final PathStoreSession session =
       PathStorePrivilegedCluster.getDaemonInstance().psConnect();
 
+  /** Plans installations as waves across the hierarchy and times them */
+  private final RolloutPlanner rolloutPlanner = new RolloutPlanner();
+
   /**
    * This daemon will transition rows that are WAITING_INSTALL to INSTALLING. The steps are:
    *
-   * <p>(1): Query all rows from the Node Schemas table and filter them into sets of Installed,
-   * Installing and Waiting
+   * <p>(1): Query all rows from the Node Schemas table and group them per keyspace, filtering
+   * removal entries into their own set
+   *
+   * <p>(2): Let the rollout planner pick the next wave of waiting entries whose dependencies are
+   * installed, and transition them to installing
    *
-   * <p>(2): Iterate over all waiting entries and transition them to installing iff they're who
-   * they're waiting for are in the finished entry set
+   * <p>(3): Iterate over all waiting removal entries and transition them to removing iff no entry
+   * they're waiting for remains
    */
   @Override
   public void run() {
-    while (true) {
-      // (1)
-      Select selectAllNodeSchemaRecords =
-          QueryBuilder.select()
-              .all()
-              .from(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS);
-
-      // installation
-      Map<String, Set<Integer>> finished = new HashMap<>();
-      Map<String, Set<NodeSchemaEntry>> waiting = new HashMap<>();
-
-      // removal
-      Map<String, Set<NodeSchemaEntry>> waitingRemoval = new HashMap<>();
-      Map<String, Set<Integer>> completeSet = new HashMap<>();
-
-      for (Row row : this.session.execute(selectAllNodeSchemaRecords)) {
-        NodeSchemaEntry entry = NodeSchemaEntry.fromRow(row);
-
-        switch (entry.nodeSchemaProcessStatus) {
-          case INSTALLED:
-            finished.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
-            finished.get(entry.keyspaceName).add(entry.nodeId);
-            break;
-          case WAITING_INSTALL:
-            waiting.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
-            waiting.get(entry.keyspaceName).add(entry);
-            break;
-          case WAITING_REMOVE:
-            waitingRemoval.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
-            waitingRemoval.get(entry.keyspaceName).add(entry);
-            break;
-        }
-
-        // update complete set
-        completeSet.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
-        completeSet.get(entry.keyspaceName).add(entry.nodeId);
-      }
+    // (1)
+    Select selectAllNodeSchemaRecords =
+        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS);
+
+    // installation
+    Map<String, List<NodeSchemaEntry>> entries = new HashMap<>();
 
-      // (2)
-      this.deploymentTransition(waiting, finished);
+    // removal
+    Map<String, Set<NodeSchemaEntry>> waitingRemoval = new HashMap<>();
+    Map<String, Set<Integer>> completeSet = new HashMap<>();
 
-      // (3)
-      this.removalTransition(waitingRemoval, completeSet);
+    for (Row row : this.session.execute(selectAllNodeSchemaRecords)) {
+      NodeSchemaEntry entry = NodeSchemaEntry.fromRow(row);
 
-      try {
-        Thread.sleep(5000);
-      } catch (InterruptedException e) {
-        logger.error(e);
+      entries.computeIfAbsent(entry.keyspaceName, k -> new ArrayList<>()).add(entry);
+
+      if (entry.nodeSchemaProcessStatus == NodeSchemaProcessStatus.WAITING_REMOVE) {
+        waitingRemoval.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
+        waitingRemoval.get(entry.keyspaceName).add(entry);
       }
+
+      // update complete set
+      completeSet.computeIfAbsent(entry.keyspaceName, k -> new HashSet<>());
+      completeSet.get(entry.keyspaceName).add(entry.nodeId);
     }
+
+    // (2)
+    this.deploymentTransition(entries);
+
+    // (3)
+    this.removalTransition(waitingRemoval, completeSet);
   }
 
   /**
-   * Simple function that takes a set of waiting entries and confirms their pre-conditions. If they
-   * hold then we can transition them to the next state
+   * Transitions the next wave of every keyspace to installing. A waiting entry is part of the wave
+   * iff every node it waits for has installed the keyspace
    *
-   * @param waiting waiting entry set per keyspace
-   * @param finished finished id set per keyspace
+   * @param entries all entries per keyspace
+   * @see RolloutPlanner
    */
-  private void deploymentTransition(
-      final Map<String, Set<NodeSchemaEntry>> waiting, final Map<String, Set<Integer>> finished) {
+  private void deploymentTransition(final Map<String, List<NodeSchemaEntry>> entries) {
+    this.rolloutPlanner.retainAll(entries.keySet());
 
-    waiting.forEach(
+    entries.forEach(
         (k, v) ->
-            v.stream()
-                .filter(
-                    i ->
-                        i.waitFor.equals(Collections.singletonList(-1))
-                            || (finished.get(k) != null && finished.get(k).containsAll(i.waitFor)))
+            this.rolloutPlanner
+                .plan(k, v)
                 .forEach(e -> this.transition(e, NodeSchemaProcessStatus.INSTALLING)));
   }
 
@@ -181,5 +166,7 @@ public class PathStoreMasterSchemaServer implements Runnable {
                 Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS, nodeSchemaProcessStatus.toString()));
 
     this.session.execute(transitionUpdate);
+
+    ControlPlaneEvents.getInstance().notifyChange(Constants.NODE_SCHEMAS, entry.nodeId);
   }
 }
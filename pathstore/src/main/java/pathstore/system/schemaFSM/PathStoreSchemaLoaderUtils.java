@@ -26,6 +26,131 @@ import java.util.stream.Stream;
 /** This is a utility class for the schema loader */
 public class PathStoreSchemaLoaderUtils {
 
+  /**
+   * Tables of the replication lag probe. Every statement is idempotent so they can be applied to
+   * nodes whose application keyspace was loaded before these tables existed.
+   *
+   * @see pathstore.system.replication.ReplicationLagProbe
+   * @see #migrateApplicationSchema(Session)
+   */
+  private static final String REPLICATION_LAG_SCHEMA =
+      "CREATE TABLE IF NOT EXISTS pathstore_applications.view_heartbeats (\n"
+          + "    node_id int,\n"
+          + "    parent_node_id int,\n"
+          + "    written_at bigint,\n"
+          + "    pathstore_view_id uuid,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    PRIMARY KEY (pathstore_view_id, node_id, pathstore_version)\n"
+          + ") WITH read_repair_chance = 0.0\n"
+          + "   AND dclocal_read_repair_chance = 0.1\n"
+          + "   AND gc_grace_seconds = 864000\n"
+          + "   AND bloom_filter_fp_chance = 0.01\n"
+          + "   AND caching = { 'keys' : 'ALL', 'rows_per_partition' : 'NONE' }\n"
+          + "   AND comment = ''\n"
+          + "   AND compaction = { 'class' : 'org.apache.cassandra.db.compaction.SizeTieredCompactionStrategy', 'max_threshold' : 32, 'min_threshold' : 4 }\n"
+          + "   AND compression = { 'chunk_length_in_kb' : 64, 'class' : 'org.apache.cassandra.io.compress.LZ4Compressor' }\n"
+          + "   AND default_time_to_live = 0\n"
+          + "   AND speculative_retry = '99PERCENTILE'\n"
+          + "   AND min_index_interval = 128\n"
+          + "   AND max_index_interval = 2048\n"
+          + "   AND crc_check_chance = 1.0;\n"
+          + "\n"
+          + "CREATE TABLE IF NOT EXISTS pathstore_applications.heartbeats (\n"
+          + "    node_id int,\n"
+          + "    parent_node_id int,\n"
+          + "    written_at bigint,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    PRIMARY KEY (node_id, pathstore_version)\n"
+          + ") WITH CLUSTERING ORDER BY (pathstore_version DESC)\n"
+          + "   AND read_repair_chance = 0.0\n"
+          + "   AND dclocal_read_repair_chance = 0.0\n"
+          + "   AND gc_grace_seconds = 3600\n"
+          + "   AND bloom_filter_fp_chance = 0.01\n"
+          + "   AND caching = { 'keys' : 'ALL', 'rows_per_partition' : 'NONE' }\n"
+          + "   AND comment = 'table definitions'\n"
+          + "   AND compaction = { 'class' : 'org.apache.cassandra.db.compaction.TimeWindowCompactionStrategy', 'compaction_window_unit' : 'MINUTES', 'compaction_window_size' : 10 }\n"
+          + "   AND compression = { 'chunk_length_in_kb' : 64, 'class' : 'org.apache.cassandra.io.compress.LZ4Compressor' }\n"
+          + "   AND default_time_to_live = 600\n"
+          + "   AND speculative_retry = '99PERCENTILE'\n"
+          + "   AND min_index_interval = 128\n"
+          + "   AND max_index_interval = 2048\n"
+          + "   AND crc_check_chance = 1.0;\n"
+          + "CREATE INDEX IF NOT EXISTS heartbeats_pathstore_deleted_idx ON pathstore_applications.heartbeats (pathstore_deleted);\n"
+          + "CREATE INDEX IF NOT EXISTS heartbeats_pathstore_dirty_idx ON pathstore_applications.heartbeats (pathstore_dirty);\n"
+          + "CREATE INDEX IF NOT EXISTS heartbeats_pathstore_parent_timestamp_idx ON pathstore_applications.heartbeats (pathstore_parent_timestamp);\n"
+          + "CREATE INDEX IF NOT EXISTS heartbeats_pathstore_node_idx ON pathstore_applications.heartbeats (pathstore_node);\n"
+          + "\n"
+          + "CREATE TABLE IF NOT EXISTS pathstore_applications.view_replication_lag (\n"
+          + "    node_id int,\n"
+          + "    origin_node_id int,\n"
+          + "    link text,\n"
+          + "    samples bigint,\n"
+          + "    p50 bigint,\n"
+          + "    p99 bigint,\n"
+          + "    max bigint,\n"
+          + "    pathstore_view_id uuid,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    PRIMARY KEY (pathstore_view_id, node_id, origin_node_id, pathstore_version)\n"
+          + ") WITH read_repair_chance = 0.0\n"
+          + "   AND dclocal_read_repair_chance = 0.1\n"
+          + "   AND gc_grace_seconds = 864000\n"
+          + "   AND bloom_filter_fp_chance = 0.01\n"
+          + "   AND caching = { 'keys' : 'ALL', 'rows_per_partition' : 'NONE' }\n"
+          + "   AND comment = ''\n"
+          + "   AND compaction = { 'class' : 'org.apache.cassandra.db.compaction.SizeTieredCompactionStrategy', 'max_threshold' : 32, 'min_threshold' : 4 }\n"
+          + "   AND compression = { 'chunk_length_in_kb' : 64, 'class' : 'org.apache.cassandra.io.compress.LZ4Compressor' }\n"
+          + "   AND default_time_to_live = 0\n"
+          + "   AND speculative_retry = '99PERCENTILE'\n"
+          + "   AND min_index_interval = 128\n"
+          + "   AND max_index_interval = 2048\n"
+          + "   AND crc_check_chance = 1.0;\n"
+          + "\n"
+          + "CREATE TABLE IF NOT EXISTS pathstore_applications.replication_lag (\n"
+          + "    node_id int,\n"
+          + "    origin_node_id int,\n"
+          + "    link text,\n"
+          + "    samples bigint,\n"
+          + "    p50 bigint,\n"
+          + "    p99 bigint,\n"
+          + "    max bigint,\n"
+          + "    pathstore_version timeuuid,\n"
+          + "    pathstore_deleted boolean,\n"
+          + "    pathstore_dirty boolean,\n"
+          + "    pathstore_node int,\n"
+          + "    pathstore_parent_timestamp timeuuid,\n"
+          + "    PRIMARY KEY (node_id, origin_node_id, pathstore_version)\n"
+          + ") WITH CLUSTERING ORDER BY (origin_node_id ASC, pathstore_version DESC)\n"
+          + "   AND read_repair_chance = 0.0\n"
+          + "   AND dclocal_read_repair_chance = 0.0\n"
+          + "   AND gc_grace_seconds = 3600\n"
+          + "   AND bloom_filter_fp_chance = 0.01\n"
+          + "   AND caching = { 'keys' : 'ALL', 'rows_per_partition' : 'NONE' }\n"
+          + "   AND comment = 'table definitions'\n"
+          + "   AND compaction = { 'class' : 'org.apache.cassandra.db.compaction.TimeWindowCompactionStrategy', 'compaction_window_unit' : 'MINUTES', 'compaction_window_size' : 10 }\n"
+          + "   AND compression = { 'chunk_length_in_kb' : 64, 'class' : 'org.apache.cassandra.io.compress.LZ4Compressor' }\n"
+          + "   AND default_time_to_live = 600\n"
+          + "   AND speculative_retry = '99PERCENTILE'\n"
+          + "   AND min_index_interval = 128\n"
+          + "   AND max_index_interval = 2048\n"
+          + "   AND crc_check_chance = 1.0;\n"
+          + "CREATE INDEX IF NOT EXISTS replication_lag_pathstore_deleted_idx ON pathstore_applications.replication_lag (pathstore_deleted);\n"
+          + "CREATE INDEX IF NOT EXISTS replication_lag_pathstore_dirty_idx ON pathstore_applications.replication_lag (pathstore_dirty);\n"
+          + "CREATE INDEX IF NOT EXISTS replication_lag_pathstore_parent_timestamp_idx ON pathstore_applications.replication_lag (pathstore_parent_timestamp);\n"
+          + "CREATE INDEX IF NOT EXISTS replication_lag_pathstore_node_idx ON pathstore_applications.replication_lag (pathstore_node);\n"
+          + "\n";
+
   /**
    * This is a hardcoded function that allows for loading the base application schema.
    *
@@ -146,6 +271,7 @@ public class PathStoreSchemaLoaderUtils {
             + "CREATE INDEX logs_pathstore_parent_timestamp_idx ON pathstore_applications.logs (pathstore_parent_timestamp);\n"
             + "CREATE INDEX logs_pathstore_node_idx ON pathstore_applications.logs (pathstore_node);\n"
             + "\n"
+            + REPLICATION_LAG_SCHEMA
             + "CREATE TABLE pathstore_applications.view_deployment (\n"
             + "    new_node_id int,\n"
             + "    parent_node_id int,\n"
@@ -563,6 +689,16 @@ public class PathStoreSchemaLoaderUtils {
     parseSchema(schema).forEach(session::execute);
   }
 
+  /**
+   * Creates the tables that were added to the application schema after a node was installed. This
+   * is ran on every start of a node whose application keyspace already exists.
+   *
+   * @param session database session to execute on
+   */
+  public static void migrateApplicationSchema(final Session session) {
+    parseSchema(REPLICATION_LAG_SCHEMA).forEach(session::execute);
+  }
+
   /**
    * Simple function to filter out commands when a schema is passed
    *
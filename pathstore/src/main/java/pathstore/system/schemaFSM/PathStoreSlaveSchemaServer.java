@@ -28,14 +28,21 @@ import pathstore.authentication.CassandraAuthenticationUtil;
 import pathstore.authentication.CredentialCache;
 import pathstore.client.PathStoreSession;
 import pathstore.common.*;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
 import pathstore.common.tables.NodeSchemaEntry;
 import pathstore.common.tables.NodeSchemaProcessStatus;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.PathStorePushServer;
+import pathstore.system.controlplane.ControlPlaneEvents;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
 import pathstore.util.SchemaInfo;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -59,9 +66,15 @@ public class PathStoreSlaveSchemaServer implements Runnable {
   /** Node id so you don't need to query the properties file every run */
   private final int nodeId = PathStoreProperties.getInstance().NodeID;
 
-  /** Reference to the sub process thread pool */
-  private final PathStoreThreadManager subProcessManager =
-      PathStoreThreadManager.subProcessInstance();
+  /** Reference to the scheduler whose schema pool runs install and removal operations */
+  private final PathStoreScheduler scheduler = PathStoreScheduler.getInstance();
+
+  /** Time to apply an application's schema, including the schema agreement wait */
+  private final LatencyHistogram schemaApplyTime =
+      MetricsRegistry.getInstance()
+          .histogram(
+              "pathstore_schema_apply_seconds",
+              "Time to apply the schema of an application on this node");
 
   /**
    * This daemon is used to install an application on the local machine. The steps it takes are as
@@ -78,33 +91,32 @@ public class PathStoreSlaveSchemaServer implements Runnable {
    */
   @Override
   public void run() {
-    while (true) {
-      // (1)
-      Select deploymentRecordQuery =
-          QueryBuilder.select()
-              .all()
-              .from(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS);
+    // (1)
+    Select deploymentRecordQuery =
+        QueryBuilder.select().all().from(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS);
 
-      deploymentRecordQuery.where(
-          QueryBuilder.eq(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, this.nodeId));
+    deploymentRecordQuery.where(
+        QueryBuilder.eq(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, this.nodeId));
 
-      for (Row row : this.session.execute(deploymentRecordQuery)) {
-        NodeSchemaEntry entry = NodeSchemaEntry.fromRow(row);
+    for (Row row : this.session.execute(deploymentRecordQuery)) {
+      NodeSchemaEntry entry = NodeSchemaEntry.fromRow(row);
 
-        if (entry.nodeSchemaProcessStatus != NodeSchemaProcessStatus.INSTALLING
-            && entry.nodeSchemaProcessStatus != NodeSchemaProcessStatus.REMOVING) continue;
+      if (entry.nodeSchemaProcessStatus != NodeSchemaProcessStatus.INSTALLING
+          && entry.nodeSchemaProcessStatus != NodeSchemaProcessStatus.REMOVING) continue;
 
-        // (2)
-        this.transitionRow(entry.nodeSchemaProcessStatus, entry.keyspaceName);
-
-        // (3)
-        this.spawnSubProcess(entry.nodeSchemaProcessStatus, entry.keyspaceName);
-      }
+      // (2)
+      this.transitionRow(entry.nodeSchemaProcessStatus, entry.keyspaceName);
 
+      // (3)
       try {
-        Thread.sleep(1000);
-      } catch (InterruptedException e) {
-        logger.error(e);
+        this.spawnSubProcess(entry.nodeSchemaProcessStatus, entry.keyspaceName);
+      } catch (RejectedExecutionException e) {
+        // the schema pool is saturated, hand the row back to the next run
+        logger.error(
+            String.format(
+                "Could not start processing %s, retrying on the next run: %s",
+                entry.keyspaceName, e.getMessage()));
+        this.setStatus(entry.keyspaceName, entry.nodeSchemaProcessStatus);
       }
     }
   }
@@ -117,18 +129,25 @@ public class PathStoreSlaveSchemaServer implements Runnable {
    * @param keyspace what is the keyspace (used to identify primary key)
    */
   private void transitionRow(final NodeSchemaProcessStatus processStatus, final String keyspace) {
+    this.setStatus(
+        keyspace,
+        processStatus == NodeSchemaProcessStatus.INSTALLING
+            ? NodeSchemaProcessStatus.PROCESSING_INSTALLING
+            : NodeSchemaProcessStatus.PROCESSING_REMOVING);
+  }
+
+  /**
+   * @param keyspace what is the keyspace (used to identify primary key)
+   * @param status status to write to the row
+   */
+  private void setStatus(final String keyspace, final NodeSchemaProcessStatus status) {
 
     Update transitionState =
         QueryBuilder.update(Constants.PATHSTORE_APPLICATIONS, Constants.NODE_SCHEMAS);
     transitionState
         .where(QueryBuilder.eq(Constants.NODE_SCHEMAS_COLUMNS.NODE_ID, this.nodeId))
         .and(QueryBuilder.eq(Constants.NODE_SCHEMAS_COLUMNS.KEYSPACE_NAME, keyspace))
-        .with(
-            QueryBuilder.set(
-                Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS,
-                processStatus == NodeSchemaProcessStatus.INSTALLING
-                    ? NodeSchemaProcessStatus.PROCESSING_INSTALLING.toString()
-                    : NodeSchemaProcessStatus.PROCESSING_REMOVING.toString()));
+        .with(QueryBuilder.set(Constants.NODE_SCHEMAS_COLUMNS.PROCESS_STATUS, status.toString()));
 
     this.session.execute(transitionState);
   }
@@ -143,7 +162,8 @@ public class PathStoreSlaveSchemaServer implements Runnable {
   private void spawnSubProcess(
       final NodeSchemaProcessStatus nodeSchemaProcessStatus, final String keyspace) {
 
-    this.subProcessManager.spawn(
+    this.scheduler.submit(
+        WorkerPool.SCHEMA,
         () -> {
           switch (nodeSchemaProcessStatus) {
             case INSTALLING:
@@ -199,13 +219,25 @@ public class PathStoreSlaveSchemaServer implements Runnable {
 
     Session superUserSession = PathStorePrivilegedCluster.getSuperUserInstance().rawConnect();
 
-    PathStoreSchemaLoaderUtils.parseSchema(augmentedSchema).forEach(superUserSession::execute);
+    long start = System.nanoTime();
 
-    this.logger.info(String.format("Application loaded %s", keyspace));
+    SchemaChangeBatch batch = new SchemaChangeBatch(augmentedSchema);
+    boolean agreed = batch.apply();
+
+    this.schemaApplyTime.recordSince(start);
+
+    this.logger.info(
+        String.format(
+            "Application loaded %s, %d statements in %d ms%s",
+            keyspace,
+            batch.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            agreed ? "" : " without schema agreement"));
 
     // after keyspace is loaded we need to inform the schemainfo class that a new keyspace has been
-    // installed
+    // installed, the lease of the application may have been cached as absent before this
     SchemaInfo.getInstance().loadKeyspace(keyspace);
+    ApplicationLeaseCache.getInstance().invalidate(keyspace);
 
     // grant permissions to daemon account on the write
     CassandraAuthenticationUtil.grantAccessToKeyspace(
@@ -226,6 +258,8 @@ public class PathStoreSlaveSchemaServer implements Runnable {
                 NodeSchemaProcessStatus.INSTALLED.toString()));
 
     this.session.execute(update);
+
+    ControlPlaneEvents.getInstance().notifyChange(Constants.NODE_SCHEMAS, this.nodeId);
   }
 
   /**
@@ -242,6 +276,7 @@ public class PathStoreSlaveSchemaServer implements Runnable {
     logger.info(String.format("Forced push all entries for keyspace %s", keyspace));
 
     SchemaInfo.getInstance().removeKeyspace(keyspace);
+    ApplicationLeaseCache.getInstance().invalidate(keyspace);
 
     QueryCache.getInstance().remove(keyspace);
 
@@ -273,6 +308,8 @@ public class PathStoreSlaveSchemaServer implements Runnable {
 
     this.session.execute(delete);
 
+    ControlPlaneEvents.getInstance().notifyChange(Constants.NODE_SCHEMAS, this.nodeId);
+
     this.logger.info("Application removed " + keyspace);
   }
 
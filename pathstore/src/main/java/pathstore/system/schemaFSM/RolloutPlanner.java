@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.schemaFSM;
+
+import pathstore.common.tables.NodeSchemaEntry;
+import pathstore.common.tables.NodeSchemaProcessStatus;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.LatencyHistogram;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class plans the installation of an application across the hierarchy as a sequence of waves.
+ *
+ * <p>A node's wave is its depth in the waitFor graph of the keyspace, so every node of a wave only
+ * depends on nodes of earlier waves. All nodes of a wave are transitioned together as soon as their
+ * dependencies are installed, and since every slave applies its schema independently a rollout
+ * takes about one installation per level of the tree regardless of how many nodes there are.
+ *
+ * <p>Per node installation time (INSTALLING to INSTALLED as observed by the master) and total
+ * rollout time are exported as histograms.
+ *
+ * @see PathStoreMasterSchemaServer
+ */
+class RolloutPlanner {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(RolloutPlanner.class);
+
+  /** Time between a node being transitioned to INSTALLING and it being seen INSTALLED */
+  private final LatencyHistogram nodeInstallTime =
+      MetricsRegistry.getInstance()
+          .histogram(
+              "pathstore_rollout_node_install_seconds",
+              "Time for a single node to install an application during a rollout");
+
+  /** Time from the first wave being started to every node being installed */
+  private final LatencyHistogram rolloutTime =
+      MetricsRegistry.getInstance()
+          .histogram(
+              "pathstore_rollout_duration_seconds",
+              "Time to install an application on every node of a rollout");
+
+  /** Active rollouts per keyspace */
+  private final Map<String, Rollout> rollouts = new HashMap<>();
+
+  /** State of a rollout of one keyspace */
+  private static final class Rollout {
+    /** When the first wave was started */
+    private final long startNanos = System.nanoTime();
+
+    /** Start time of each node that is currently installing */
+    private final Map<Integer, Long> installing = new HashMap<>();
+
+    /** Amount of nodes installed during this rollout */
+    private int installed = 0;
+
+    /** Deepest wave started */
+    private int waves = 0;
+
+    /** Slowest node install in nanoseconds */
+    private long slowestNanos = 0;
+
+    /** Node that took {@link #slowestNanos} */
+    private int slowestNode = -1;
+  }
+
+  /**
+   * Given every node schema record of a keyspace, finish timing of nodes that have been installed
+   * and return the waiting entries that can start installing now
+   *
+   * @param keyspace keyspace of the entries
+   * @param entries all node schema records for this keyspace
+   * @return entries to transition to INSTALLING, the next wave
+   */
+  List<NodeSchemaEntry> plan(final String keyspace, final Collection<NodeSchemaEntry> entries) {
+    Map<Integer, NodeSchemaEntry> byNode =
+        entries.stream().collect(Collectors.toMap(e -> e.nodeId, e -> e, (a, b) -> a));
+
+    Rollout rollout = this.rollouts.get(keyspace);
+
+    if (rollout != null) this.observe(keyspace, rollout, byNode);
+
+    List<NodeSchemaEntry> ready =
+        entries.stream()
+            .filter(e -> e.nodeSchemaProcessStatus == NodeSchemaProcessStatus.WAITING_INSTALL)
+            .filter(e -> isReady(e, byNode))
+            .collect(Collectors.toList());
+
+    if (ready.isEmpty()) return ready;
+
+    if (rollout == null) {
+      rollout = new Rollout();
+      this.rollouts.put(keyspace, rollout);
+    }
+
+    Map<Integer, Integer> depths = new HashMap<>();
+    int wave = 0;
+    for (NodeSchemaEntry entry : ready) {
+      rollout.installing.put(entry.nodeId, System.nanoTime());
+      wave = Math.max(wave, depth(entry.nodeId, byNode, depths));
+    }
+    rollout.waves = Math.max(rollout.waves, wave + 1);
+
+    logger.info(
+        String.format(
+            "Starting wave %d of keyspace %s on %d node(s): %s",
+            wave,
+            keyspace,
+            ready.size(),
+            ready.stream().map(e -> e.nodeId).sorted().collect(Collectors.toList())));
+
+    return ready;
+  }
+
+  /**
+   * Drops rollouts of keyspaces that no longer have any node schema record
+   *
+   * @param keyspaces keyspaces that still have records
+   */
+  void retainAll(final Set<String> keyspaces) {
+    this.rollouts.keySet().retainAll(keyspaces);
+  }
+
+  /**
+   * Record install times of nodes that finished and log a summary once nothing is pending
+   *
+   * @param keyspace keyspace of the rollout
+   * @param rollout rollout state
+   * @param byNode current records by node id
+   */
+  private void observe(
+      final String keyspace, final Rollout rollout, final Map<Integer, NodeSchemaEntry> byNode) {
+    rollout
+        .installing
+        .entrySet()
+        .removeIf(
+            installing -> {
+              NodeSchemaEntry entry = byNode.get(installing.getKey());
+
+              // record removed or re-deployed, nothing to time
+              if (entry == null
+                  || entry.nodeSchemaProcessStatus == NodeSchemaProcessStatus.WAITING_INSTALL
+                  || entry.nodeSchemaProcessStatus == NodeSchemaProcessStatus.WAITING_REMOVE)
+                return true;
+
+              if (entry.nodeSchemaProcessStatus != NodeSchemaProcessStatus.INSTALLED) return false;
+
+              long elapsed = System.nanoTime() - installing.getValue();
+              this.nodeInstallTime.record(elapsed);
+              rollout.installed++;
+              if (elapsed > rollout.slowestNanos) {
+                rollout.slowestNanos = elapsed;
+                rollout.slowestNode = entry.nodeId;
+              }
+              return true;
+            });
+
+    boolean pending =
+        !rollout.installing.isEmpty()
+            || byNode.values().stream()
+                .anyMatch(
+                    e -> e.nodeSchemaProcessStatus == NodeSchemaProcessStatus.WAITING_INSTALL);
+
+    if (pending) return;
+
+    long total = System.nanoTime() - rollout.startNanos;
+    this.rolloutTime.record(total);
+    this.rollouts.remove(keyspace);
+
+    logger.info(
+        String.format(
+            "Rollout of keyspace %s finished on %d node(s) in %d wave(s) after %d ms, "
+                + "slowest node %d took %d ms",
+            keyspace,
+            rollout.installed,
+            rollout.waves,
+            total / 1_000_000,
+            rollout.slowestNode,
+            rollout.slowestNanos / 1_000_000));
+  }
+
+  /**
+   * @param entry waiting entry
+   * @param byNode records of the keyspace by node id
+   * @return true iff every node the entry waits for has installed the keyspace
+   */
+  private static boolean isReady(
+      final NodeSchemaEntry entry, final Map<Integer, NodeSchemaEntry> byNode) {
+    if (entry.waitFor.equals(Collections.singletonList(-1))) return true;
+
+    for (int nodeId : entry.waitFor) {
+      NodeSchemaEntry dependency = byNode.get(nodeId);
+      if (dependency == null
+          || dependency.nodeSchemaProcessStatus != NodeSchemaProcessStatus.INSTALLED) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @param nodeId node to compute the wave of
+   * @param byNode records of the keyspace by node id
+   * @param depths memoized depths
+   * @return 0 for nodes that don't wait on anyone, else one more than the deepest dependency
+   */
+  private static int depth(
+      final int nodeId,
+      final Map<Integer, NodeSchemaEntry> byNode,
+      final Map<Integer, Integer> depths) {
+    Integer known = depths.get(nodeId);
+    if (known != null) return known;
+
+    // guards against cycles in malformed records
+    depths.put(nodeId, 0);
+
+    NodeSchemaEntry entry = byNode.get(nodeId);
+    int depth = 0;
+    if (entry != null && !entry.waitFor.equals(Collections.singletonList(-1)))
+      for (int dependency : entry.waitFor)
+        if (byNode.containsKey(dependency))
+          depth = Math.max(depth, depth(dependency, byNode, depths) + 1);
+
+    depths.put(nodeId, depth);
+    return depth;
+  }
+}
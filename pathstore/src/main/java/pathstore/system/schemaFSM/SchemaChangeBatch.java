@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.schemaFSM;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.google.common.util.concurrent.Futures;
+import pathstore.system.PathStorePrivilegedCluster;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This class applies all DDL statements of an augmented schema as one schema change.
+ *
+ * <p>Executing the statements one by one costs one schema agreement round trip per statement. The
+ * statements are instead executed on {@link PathStorePrivilegedCluster#getSchemaChangeInstance()},
+ * which does not wait for agreement, and grouped into stages by their dependencies:
+ *
+ * <p>(1): The keyspace and user defined types, sequentially as types may reference each other
+ *
+ * <p>(2): All tables concurrently
+ *
+ * <p>(3): All indexes and materialized views concurrently
+ *
+ * <p>(4): Anything else sequentially
+ *
+ * <p>Once every stage has been applied agreement is checked once for the whole batch.
+ *
+ * @see PathStoreSlaveSchemaServer
+ */
+public class SchemaChangeBatch {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(SchemaChangeBatch.class);
+
+  /** How long to wait for agreement after the batch has been applied */
+  private static final long AGREEMENT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  /** How long to sleep between two agreement checks */
+  private static final long AGREEMENT_POLL_MILLIS = 200;
+
+  /** Stage a statement belongs to, stages are applied in declaration order */
+  private enum Stage {
+    /** Keyspace and types, order matters */
+    SEQUENTIAL_DEFINITIONS(false),
+
+    /** Tables only depend on the keyspace and types */
+    TABLES(true),
+
+    /** Indexes and views only depend on their base table */
+    DEPENDENTS(true),
+
+    /** Unknown statements, applied last in their original order */
+    OTHER(false);
+
+    /** Whether the statements of this stage can be applied concurrently */
+    private final boolean concurrent;
+
+    Stage(final boolean concurrent) {
+      this.concurrent = concurrent;
+    }
+
+    /**
+     * @param statement ddl statement
+     * @return stage the statement belongs to
+     */
+    private static Stage of(final String statement) {
+      String normalized = statement.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+
+      if (normalized.startsWith("create keyspace") || normalized.startsWith("create type"))
+        return SEQUENTIAL_DEFINITIONS;
+      else if (normalized.startsWith("create table")) return TABLES;
+      else if (normalized.startsWith("create index")
+          || normalized.startsWith("create custom index")
+          || normalized.startsWith("create materialized view")) return DEPENDENTS;
+      else return OTHER;
+    }
+  }
+
+  /** Statements per stage, in their original order */
+  private final Map<Stage, List<String>> stages = new EnumMap<>(Stage.class);
+
+  /** Cluster to apply the batch on */
+  private final PathStorePrivilegedCluster cluster;
+
+  /**
+   * @param schema schema to apply, statements are separated by semicolons
+   * @see PathStoreSchemaLoaderUtils#parseSchema(String)
+   */
+  public SchemaChangeBatch(final String schema) {
+    this(PathStorePrivilegedCluster.getSchemaChangeInstance(), schema);
+  }
+
+  /**
+   * @param cluster {@link #cluster}
+   * @param schema schema to apply, statements are separated by semicolons
+   */
+  public SchemaChangeBatch(final PathStorePrivilegedCluster cluster, final String schema) {
+    this.cluster = cluster;
+    this.stages.putAll(
+        PathStoreSchemaLoaderUtils.parseSchema(schema)
+            .collect(
+                Collectors.groupingBy(
+                    Stage::of, () -> new EnumMap<>(Stage.class), Collectors.toList())));
+  }
+
+  /** @return amount of statements in this batch */
+  public int size() {
+    return this.stages.values().stream().mapToInt(List::size).sum();
+  }
+
+  /**
+   * Apply every stage and then wait for schema agreement once
+   *
+   * @return true if all hosts agreed on the schema before the timeout
+   */
+  public boolean apply() {
+    Session session = this.cluster.rawConnect();
+
+    for (Map.Entry<Stage, List<String>> stage : this.stages.entrySet()) {
+      if (stage.getKey().concurrent) {
+        List<ResultSetFuture> futures = new ArrayList<>(stage.getValue().size());
+        for (String statement : stage.getValue()) futures.add(session.executeAsync(statement));
+        Futures.getUnchecked(Futures.allAsList(futures));
+      } else stage.getValue().forEach(session::execute);
+    }
+
+    return this.awaitAgreement();
+  }
+
+  /**
+   * Poll schema agreement until all hosts agree or {@link #AGREEMENT_TIMEOUT_MILLIS} elapses
+   *
+   * @return whether agreement was reached
+   */
+  private boolean awaitAgreement() {
+    long deadline = System.currentTimeMillis() + AGREEMENT_TIMEOUT_MILLIS;
+
+    while (!this.cluster.getMetadata().checkSchemaAgreement()) {
+      if (System.currentTimeMillis() >= deadline) {
+        logger.error(
+            String.format(
+                "No schema agreement after %d ms, the schema may not be up to date on all hosts",
+                AGREEMENT_TIMEOUT_MILLIS));
+        return false;
+      }
+
+      try {
+        Thread.sleep(AGREEMENT_POLL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
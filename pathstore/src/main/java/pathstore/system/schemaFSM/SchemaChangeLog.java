@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.schemaFSM;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import pathstore.grpc.pathStoreProto.SchemaDelta;
+import pathstore.grpc.pathStoreProto.WatchSchemaRequest;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+import pathstore.util.SchemaInfo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This class versions the schema of the local node and streams its changes to clients, so that
+ * long lived clients pick up installed, changed and removed tables without registering again.
+ *
+ * <p>(1): Every change {@link SchemaInfo} reports is numbered with the next version and kept in a
+ * bounded history.
+ *
+ * <p>(2): Clients receive the epoch and version of the schema they registered with, see {@link
+ * pathstore.system.network.UnAuthenticatedServiceImpl}, and open a watch stream with them. The
+ * changes of their keyspace after that version are replayed from the history, then every new
+ * change is streamed.
+ *
+ * <p>(3): If the version is no longer in the history, or the epoch doesn't match because the node
+ * restarted, the client is sent a snapshot of the whole keyspace instead.
+ *
+ * @see SchemaInfo#applyDelta(SchemaDelta)
+ */
+public final class SchemaChangeLog {
+
+  /** Number of changes kept for clients that re-open their stream */
+  private static final int HISTORY_SIZE = 256;
+
+  /** Instance of class */
+  private static SchemaChangeLog instance = null;
+
+  /** @return instance of class */
+  public static synchronized SchemaChangeLog getInstance() {
+    if (instance == null) instance = new SchemaChangeLog();
+    return instance;
+  }
+
+  /** Changes recorded on this node */
+  private final Counter changes =
+      MetricsRegistry.getInstance()
+          .counter("pathstore_schema_changes_total", "Schema changes streamed to clients");
+
+  /** Identifies this log, versions of different epochs can't be compared */
+  private final String epoch = UUID.randomUUID().toString();
+
+  /** Version of the last change */
+  private long version = 0;
+
+  /** Last {@link #HISTORY_SIZE} changes, oldest first */
+  private final Deque<SchemaDelta> history = new ArrayDeque<>();
+
+  /** Open watch streams */
+  private final List<Watch> watches = new CopyOnWriteArrayList<>();
+
+  /** Private Default Constructor */
+  private SchemaChangeLog() {}
+
+  /** Open watch stream of a client */
+  private static final class Watch {
+    /** Keyspace the client watches */
+    private final String keyspace;
+
+    /** Server side of the stream */
+    private final ServerCallStreamObserver<SchemaDelta> stream;
+
+    /**
+     * @param keyspace {@link #keyspace}
+     * @param stream {@link #stream}
+     */
+    private Watch(final String keyspace, final ServerCallStreamObserver<SchemaDelta> stream) {
+      this.keyspace = keyspace;
+      this.stream = stream;
+    }
+
+    /**
+     * @param delta delta to send
+     * @return false if the stream is closed
+     */
+    private boolean send(final SchemaDelta delta) {
+      try {
+        if (this.stream.isCancelled()) return false;
+        this.stream.onNext(delta);
+        return true;
+      } catch (RuntimeException e) {
+        return false;
+      }
+    }
+  }
+
+  /** @return {@link #epoch} */
+  public String getEpoch() {
+    return this.epoch;
+  }
+
+  /** @return {@link #version} */
+  public synchronized long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Numbers a change, adds it to the history and sends it to all clients watching its keyspace.
+   * This is registered as a change listener of {@link SchemaInfo}
+   *
+   * @param delta change without epoch and version
+   */
+  public synchronized void record(final SchemaDelta delta) {
+    SchemaDelta numbered =
+        delta.toBuilder().setEpoch(this.epoch).setVersion(++this.version).build();
+
+    this.history.addLast(numbered);
+    if (this.history.size() > HISTORY_SIZE) this.history.removeFirst();
+
+    this.changes.inc();
+
+    for (Watch watch : this.watches)
+      if (watch.keyspace.equals(numbered.getKeyspace()) && !watch.send(numbered))
+        this.watches.remove(watch);
+  }
+
+  /**
+   * Sends the changes a client has missed and then every new change of its keyspace until the
+   * client cancels the stream
+   *
+   * @param request keyspace and the epoch and version of the client's schema
+   * @param responseObserver server side of the watch stream
+   * @see pathstore.system.network.ClientOnlyServiceImpl#watchSchema
+   */
+  public void stream(
+      final WatchSchemaRequest request, final StreamObserver<SchemaDelta> responseObserver) {
+    Watch watch =
+        new Watch(request.getKeyspace(), (ServerCallStreamObserver<SchemaDelta>) responseObserver);
+
+    watch.stream.setOnCancelHandler(() -> this.watches.remove(watch));
+
+    while (true) {
+      // the snapshot is built without holding the lock as reading the schema may install a
+      // keyspace, which records a change. It's only used if no change was recorded meanwhile
+      long snapshotVersion = this.getVersion();
+      SchemaDelta snapshot =
+          this.isReplayable(request)
+              ? null
+              : SchemaInfo.getInstance().snapshot(request.getKeyspace());
+
+      synchronized (this) {
+        if (snapshot == null) {
+          if (!this.isReplayable(request)) continue;
+
+          for (SchemaDelta delta : this.history)
+            if (delta.getVersion() > request.getVersion()
+                && delta.getKeyspace().equals(request.getKeyspace())
+                && !watch.send(delta)) return;
+        } else {
+          if (this.version != snapshotVersion) continue;
+
+          if (!watch.send(
+              snapshot.toBuilder().setEpoch(this.epoch).setVersion(this.version).build())) return;
+        }
+
+        this.watches.add(watch);
+        return;
+      }
+    }
+  }
+
+  /**
+   * @param request watch request
+   * @return true if every change after the client's version is in the history
+   */
+  private synchronized boolean isReplayable(final WatchSchemaRequest request) {
+    if (!this.epoch.equals(request.getEpoch()) || request.getVersion() > this.version)
+      return false;
+
+    return request.getVersion() == this.version
+        || (!this.history.isEmpty()
+            && this.history.getFirst().getVersion() <= request.getVersion() + 1);
+  }
+}
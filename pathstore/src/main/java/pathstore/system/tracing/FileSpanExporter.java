@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.tracing;
+
+import org.json.JSONObject;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.Counter;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Local file based span exporter. Finished spans are queued and written as one json object per line
+ * by {@link #run()}, which is scheduled every second by {@link
+ * pathstore.system.PathStoreServerImpl}. Spans are never written on the thread that finished them.
+ *
+ * <p>The current file is {@link #FILE_NAME}, once it exceeds {@link #MAX_FILE_SIZE} it is rotated
+ * to spans.1.jsonl, spans.1.jsonl to spans.2.jsonl and so on. At most {@link #MAX_FILES} files are
+ * kept so the space used is bounded.
+ *
+ * <p>Spans of a trace can be queried with {@link #find(String)}, this is served by the metrics http
+ * server.
+ */
+public class FileSpanExporter implements Runnable {
+
+  /** Name of the file currently written to */
+  public static final String FILE_NAME = "spans.jsonl";
+
+  /** Size in bytes after which the current file is rotated */
+  private static final long MAX_FILE_SIZE = 16 * 1024 * 1024;
+
+  /** Amount of files kept including the current one */
+  private static final int MAX_FILES = 8;
+
+  /** Amount of finished spans that can wait to be written, spans are dropped once full */
+  private static final int QUEUE_CAPACITY = 65536;
+
+  /** Logger */
+  private final PathStoreLogger logger = PathStoreLoggerFactory.getLogger(FileSpanExporter.class);
+
+  /** Spans dropped as the queue was full */
+  private final Counter dropped =
+      MetricsRegistry.getInstance()
+          .counter(
+              "pathstore_trace_spans_dropped_total", "Spans dropped as the export queue was full");
+
+  /** Spans waiting to be written */
+  private final BlockingQueue<Span> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /** Directory spans are written to */
+  private final Path directory;
+
+  /** Writer to the current file, null if it could not be opened */
+  private BufferedWriter writer;
+
+  /** Size of the current file */
+  private long size;
+
+  /**
+   * @param directory {@link #directory}, created if it doesn't exist
+   * @throws IOException if the directory or file can't be created
+   */
+  public FileSpanExporter(final String directory) throws IOException {
+    this.directory = Paths.get(directory);
+
+    Files.createDirectories(this.directory);
+
+    this.open();
+  }
+
+  /** @param span finished span to write */
+  void export(final Span span) {
+    if (!this.queue.offer(span)) this.dropped.inc();
+  }
+
+  /** Writes all queued spans */
+  @Override
+  public synchronized void run() {
+    List<Span> spans = new ArrayList<>();
+    this.queue.drainTo(spans);
+
+    if (spans.isEmpty() || this.writer == null) return;
+
+    try {
+      for (Span span : spans) {
+        String line = span.toJson().toString();
+
+        this.writer.write(line);
+        this.writer.newLine();
+        this.size += line.length() + 1;
+
+        if (this.size > MAX_FILE_SIZE) this.rotate();
+      }
+
+      if (this.writer != null) this.writer.flush();
+    } catch (IOException e) {
+      this.logger.error(e);
+    }
+  }
+
+  /**
+   * Writes queued spans and reads all spans of a trace from the current and rotated files
+   *
+   * @param traceId trace id to look for
+   * @return spans of the trace ordered by start time
+   * @throws IOException if a file can't be read
+   */
+  public synchronized List<JSONObject> find(final String traceId) throws IOException {
+    this.run();
+
+    String needle = String.format("\"trace_id\":\"%s\"", traceId);
+    List<JSONObject> spans = new ArrayList<>();
+
+    for (int i = 0; i < MAX_FILES; i++) {
+      Path file = this.file(i);
+
+      if (!Files.exists(file)) continue;
+
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null)
+          if (line.contains(needle)) spans.add(new JSONObject(line));
+      }
+    }
+
+    spans.sort(Comparator.comparingLong(span -> span.getLong("start_us")));
+
+    return spans;
+  }
+
+  /**
+   * @param index 0 for the current file, n for the nth rotated file
+   * @return path of file
+   */
+  private Path file(final int index) {
+    return this.directory.resolve(index == 0 ? FILE_NAME : String.format("spans.%d.jsonl", index));
+  }
+
+  /** Opens the current file for appending */
+  private void open() throws IOException {
+    Path file = this.file(0);
+
+    this.writer =
+        Files.newBufferedWriter(
+            file,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND,
+            StandardOpenOption.WRITE);
+    this.size = Files.size(file);
+  }
+
+  /** Closes the current file, shifts all rotated files by one and opens a new current file */
+  private void rotate() throws IOException {
+    this.writer.close();
+    this.writer = null;
+
+    Files.deleteIfExists(this.file(MAX_FILES - 1));
+
+    for (int i = MAX_FILES - 2; i >= 0; i--)
+      if (Files.exists(this.file(i)))
+        Files.move(this.file(i), this.file(i + 1), StandardCopyOption.REPLACE_EXISTING);
+
+    this.open();
+  }
+}
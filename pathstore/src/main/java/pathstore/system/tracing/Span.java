@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.tracing;
+
+import io.grpc.Context;
+import lombok.Getter;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single timed operation within a trace. Spans are created through {@link Tracer} and must be
+ * closed exactly once, closing a span records its duration and hands it to the exporter.
+ *
+ * <p>Spans started with {@link Tracer#start(String)} are attached to the current grpc {@link
+ * Context} until closed, so they must be closed on the thread that started them (use
+ * try-with-resources).
+ *
+ * @see Tracer
+ */
+public final class Span implements AutoCloseable {
+
+  /** Id shared by all spans of the same trace */
+  @Getter private final String traceId;
+
+  /** Id of this span */
+  @Getter private final String spanId;
+
+  /** Id of the span this span is a child of, null if this span is the root of its trace */
+  @Getter private final String parentSpanId;
+
+  /** Name of the operation */
+  @Getter private final String name;
+
+  /** Wall clock start time in microseconds since epoch, used to order spans across nodes */
+  private final long startMicros;
+
+  /** Monotonic start time used to compute the duration */
+  private final long startNanos;
+
+  /** Tags describing the operation */
+  private final Map<String, Object> tags = new LinkedHashMap<>();
+
+  /** Duration in nanoseconds, -1 while the span is open */
+  @Getter private volatile long durationNanos = -1;
+
+  /** Context this span is attached to, null if it was never attached */
+  private Context attached;
+
+  /** Context that was current before this span was attached */
+  private Context previous;
+
+  /**
+   * @param traceId {@link #traceId}
+   * @param spanId {@link #spanId}
+   * @param parentSpanId {@link #parentSpanId}
+   * @param name {@link #name}
+   */
+  Span(final String traceId, final String spanId, final String parentSpanId, final String name) {
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.parentSpanId = parentSpanId;
+    this.name = name;
+    this.startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * @param key tag name
+   * @param value tag value
+   * @return this
+   */
+  public synchronized Span tag(final String key, final Object value) {
+    this.tags.put(key, value);
+    return this;
+  }
+
+  /**
+   * Marks the span as failed
+   *
+   * @param throwable cause of the failure
+   * @return this
+   */
+  public Span error(final Throwable throwable) {
+    return this.tag("error", throwable.toString());
+  }
+
+  /** Makes this span the current span of the calling thread */
+  void attach() {
+    this.attached = Context.current().withValue(Tracer.SPAN_KEY, this);
+    this.previous = this.attached.attach();
+  }
+
+  /** Ends the span, detaches it if it was attached and exports it. Subsequent calls are no-ops */
+  @Override
+  public void close() {
+    if (this.durationNanos != -1) return;
+
+    this.durationNanos = System.nanoTime() - this.startNanos;
+
+    if (this.attached != null) this.attached.detach(this.previous);
+
+    Tracer.getInstance().export(this);
+  }
+
+  /** @return span as a single json object, this is the format written by the exporter */
+  public synchronized JSONObject toJson() {
+    return new JSONObject()
+        .put("trace_id", this.traceId)
+        .put("span_id", this.spanId)
+        .put("parent_span_id", this.parentSpanId == null ? JSONObject.NULL : this.parentSpanId)
+        .put("name", this.name)
+        .put("start_us", this.startMicros)
+        .put("duration_us", TimeUnit.NANOSECONDS.toMicros(this.durationNanos))
+        .put("tags", new JSONObject(this.tags));
+  }
+}
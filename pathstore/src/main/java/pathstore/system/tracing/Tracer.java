@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.system.tracing;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import io.grpc.Context;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entry point for tracing. Spans form a tree per trace, the current span is carried in the grpc
+ * {@link Context} so it follows a request across threads handled by grpc and is propagated to other
+ * nodes in the request headers by {@link pathstore.authentication.grpc.AuthClientInterceptor} and
+ * {@link pathstore.authentication.grpc.AuthServerInterceptor}.
+ *
+ * <p>Spans are always created so trace ids propagate through every node, they are only written if
+ * an exporter is set (servers with a TraceDirectory).
+ *
+ * @see FileSpanExporter
+ */
+public final class Tracer {
+
+  /** Context key of the current span */
+  static final Context.Key<Span> SPAN_KEY = Context.key("pathstore-span");
+
+  /** Instance of the tracer */
+  private static Tracer instance = null;
+
+  /** @return instance of the tracer */
+  public static synchronized Tracer getInstance() {
+    if (instance == null) instance = new Tracer();
+    return instance;
+  }
+
+  /** Private Default Constructor */
+  private Tracer() {}
+
+  /** Where finished spans are written, null if spans are discarded */
+  @Getter @Setter private volatile FileSpanExporter exporter = null;
+
+  /** @return current span of the calling thread, null if there is none */
+  public Span current() {
+    return SPAN_KEY.get();
+  }
+
+  /**
+   * Starts a span as a child of the current span (or as a new trace) and makes it the current span
+   * until it is closed
+   *
+   * @param name name of the operation
+   * @return started span
+   */
+  public Span start(final String name) {
+    Span span = this.startDetached(name);
+    span.attach();
+    return span;
+  }
+
+  /**
+   * Starts a span as a child of the current span (or as a new trace) without making it current.
+   * Used for operations that end on another thread (outgoing grpc calls)
+   *
+   * @param name name of the operation
+   * @return started span
+   */
+  public Span startDetached(final String name) {
+    Span parent = this.current();
+
+    return parent == null
+        ? new Span(newId(), newId(), null, name)
+        : new Span(parent.getTraceId(), newId(), parent.getSpanId(), name);
+  }
+
+  /**
+   * Starts a span whose parent lives on another node. If the caller didn't send a trace a new trace
+   * is started
+   *
+   * @param name name of the operation
+   * @param traceId trace id from the caller, may be null
+   * @param parentSpanId span id from the caller, may be null
+   * @return started span, not attached
+   * @see #withSpan(Span)
+   */
+  public Span startRemote(final String name, final String traceId, final String parentSpanId) {
+    return traceId == null
+        ? new Span(newId(), newId(), null, name)
+        : new Span(traceId, newId(), parentSpanId, name);
+  }
+
+  /**
+   * @param span span to make current
+   * @return current context with span as the current span
+   */
+  public Context withSpan(final Span span) {
+    return Context.current().withValue(SPAN_KEY, span);
+  }
+
+  /**
+   * Executes a statement within a cassandra span
+   *
+   * @param operation what the statement does (e.g. parent_select), used as a tag
+   * @param session session to execute on
+   * @param statement statement to execute
+   * @return result set, only the first page has been fetched when the span ends
+   */
+  public ResultSet execute(
+      final String operation, final Session session, final Statement statement) {
+    Span span = this.start("cassandra").tag("operation", operation);
+    try {
+      return session.execute(statement);
+    } catch (RuntimeException e) {
+      span.error(e);
+      throw e;
+    } finally {
+      span.close();
+    }
+  }
+
+  /** @param span finished span to hand to the exporter */
+  void export(final Span span) {
+    FileSpanExporter exporter = this.exporter;
+
+    if (exporter != null) exporter.export(span);
+  }
+
+  /** @return random 64 bit id in hex */
+  private static String newId() {
+    return String.format("%016x", ThreadLocalRandom.current().nextLong());
+  }
+}
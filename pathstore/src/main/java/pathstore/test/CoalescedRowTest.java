@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package pathstore.test;
+
+import pathstore.system.CoalescedRow;
+
+import java.util.Arrays;
+
+/**
+ * Checks that dirty versions are merged before a push the same way PathStoreIterator merges them
+ * on read, for sequences of inserts and deletes of one key. Columns are (name, deleted, a, b),
+ * versions are listed newest first. Doesn't need a running node.
+ */
+public class CoalescedRowTest {
+
+  /** Position of pathstore_deleted */
+  private static final int DELETED = 1;
+
+  /** Number of failed checks */
+  private static int failures = 0;
+
+  public static void main(String[] args) {
+    // insert {b=5}, delete, insert {a=3}: read as a=3, b=5
+    check(
+        "insert/delete/insert",
+        new Object[] {"myles", false, 3, 5},
+        new Object[] {"myles", false, 3, null},
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", false, null, 5});
+
+    // insert {a=1}, delete: the key isn't visible, only the delete is pushed
+    check(
+        "insert/delete",
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", false, 1, null});
+
+    // insert {a=1}, delete, insert {a=2}, delete: still just the delete
+    check(
+        "insert/delete/insert/delete",
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", false, 2, null},
+        new Object[] {"myles", true, null, null},
+        new Object[] {"myles", false, 1, null});
+
+    // insert {a=1, b=1}, update {a=2}: newest cells win
+    check(
+        "insert/update",
+        new Object[] {"myles", false, 2, 1},
+        new Object[] {"myles", false, 2, null},
+        new Object[] {"myles", false, 1, 1});
+
+    // single insert is pushed as is
+    check("insert", new Object[] {"myles", false, 1, 2}, new Object[] {"myles", false, 1, 2});
+
+    if (failures > 0) {
+      System.out.println(String.format("%d check(s) failed", failures));
+      System.exit(1);
+    }
+
+    System.out.println("All checks passed");
+  }
+
+  /**
+   * @param name name of the check
+   * @param expected expected merged cells
+   * @param versions cells of each version, newest first
+   */
+  private static void check(
+      final String name, final Object[] expected, final Object[]... versions) {
+    Object[] merged = CoalescedRow.merge(Arrays.asList(versions), DELETED);
+
+    if (Arrays.equals(expected, merged)) System.out.println(String.format("%s: ok", name));
+    else {
+      failures++;
+      System.out.println(
+          String.format(
+              "%s: expected %s got %s",
+              name, Arrays.toString(expected), Arrays.toString(merged)));
+    }
+  }
+}
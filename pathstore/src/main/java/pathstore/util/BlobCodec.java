@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface is used to define a compact binary encoding for a {@link BlobObject} class. A
+ * codec has to be registered with {@link BlobCodecs#register(int, Class, BlobCodec)}, classes
+ * without a codec fall back to java serialization.
+ *
+ * <p>The encoding only contains the fields of the object, the type id is written by {@link
+ * BlobCodecs}. Field order and types must never change once a codec is registered as existing blobs
+ * are decoded with it; add a new codec with a new id instead.
+ *
+ * @param <T> type of object encoded
+ */
+public interface BlobCodec<T extends BlobObject> {
+
+  /**
+   * @param value value to encode
+   * @return exact amount of bytes {@link #encode(BlobObject, ByteBuffer)} writes
+   */
+  int size(final T value);
+
+  /**
+   * @param value value to encode
+   * @param out buffer with at least {@link #size(BlobObject)} bytes remaining
+   */
+  void encode(final T value, final ByteBuffer out);
+
+  /**
+   * @param in buffer positioned at the start of the encoding
+   * @return decoded value
+   */
+  T decode(final ByteBuffer in);
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import com.datastax.driver.core.CodecRegistry;
+import pathstore.common.tables.ServerIdentity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is used to encode and decode {@link BlobObject}s.
+ *
+ * <p>Objects of a class with a registered {@link BlobCodec} are written as {@link #COMPACT}, the
+ * type id and the codec's encoding, in a single buffer allocated with the exact size. All other
+ * objects are written with java serialization. Java serialization streams always start with {@code
+ * 0xACED} so both formats, and blobs written before codecs existed, are told apart by their first
+ * byte.
+ *
+ * <p>The driver codecs in {@link #getCodecRegistry()} let blob columns be bound and read as the
+ * objects themselves.
+ *
+ * @see BlobObjectCodec
+ */
+public final class BlobCodecs {
+
+  /** First byte of a compact encoding */
+  static final byte COMPACT = 0x01;
+
+  /** First byte of a java serialization stream */
+  private static final byte JAVA_SERIALIZATION = (byte) 0xAC;
+
+  /** Registered codec per type id */
+  private static final Map<Integer, Registration<?>> byId = new ConcurrentHashMap<>();
+
+  /** Registered codec per class */
+  private static final Map<Class<?>, Registration<?>> byClass = new ConcurrentHashMap<>();
+
+  /** Registry with a driver codec for {@link BlobObject} and every registered class */
+  private static final CodecRegistry codecRegistry =
+      new CodecRegistry().register(new BlobObjectCodec<>(BlobObject.class));
+
+  static {
+    register(1, ServerIdentity.class, ServerIdentity.CODEC);
+  }
+
+  /** A codec and the id it is registered with */
+  private static final class Registration<T extends BlobObject> {
+    /** Type id written before the encoding */
+    private final byte id;
+
+    /** Codec of the type */
+    private final BlobCodec<T> codec;
+
+    /**
+     * @param id {@link #id}
+     * @param codec {@link #codec}
+     */
+    private Registration(final byte id, final BlobCodec<T> codec) {
+      this.id = id;
+      this.codec = codec;
+    }
+  }
+
+  /**
+   * Registers a compact codec for a class
+   *
+   * @param id type id, must be between 1 and 127 and never be reused for a different class
+   * @param type class the codec encodes
+   * @param codec codec of the class
+   * @param <T> type of the class
+   */
+  public static <T extends BlobObject> void register(
+      final int id, final Class<T> type, final BlobCodec<T> codec) {
+    if (id < 1 || id > Byte.MAX_VALUE)
+      throw new IllegalArgumentException(String.format("Invalid blob type id %d", id));
+
+    Registration<T> registration = new Registration<>((byte) id, codec);
+
+    if (byId.putIfAbsent(id, registration) != null)
+      throw new IllegalArgumentException(String.format("Blob type id %d is already used", id));
+
+    byClass.put(type, registration);
+    codecRegistry.register(new BlobObjectCodec<>(type));
+  }
+
+  /** @return codec registry for clusters that read or write blob objects */
+  public static CodecRegistry getCodecRegistry() {
+    return codecRegistry;
+  }
+
+  /**
+   * @param value value to encode
+   * @return encoded value, positioned at 0
+   * @throws IllegalArgumentException if the value has no codec and isn't java serializable
+   */
+  @SuppressWarnings("unchecked")
+  public static ByteBuffer encode(final BlobObject value) {
+    Registration<BlobObject> registration =
+        (Registration<BlobObject>) byClass.get(value.getClass());
+
+    if (registration == null) return javaSerialize(value);
+
+    ByteBuffer out = ByteBuffer.allocate(2 + registration.codec.size(value));
+    out.put(COMPACT).put(registration.id);
+    registration.codec.encode(value, out);
+    out.flip();
+    return out;
+  }
+
+  /**
+   * @param bytes encoded value, heap or direct. Its position isn't modified
+   * @return decoded value
+   * @throws IllegalArgumentException if the encoding is unknown or corrupt
+   */
+  public static BlobObject decode(final ByteBuffer bytes) {
+    ByteBuffer in = bytes.duplicate();
+
+    if (!in.hasRemaining()) throw new IllegalArgumentException("Empty blob object");
+
+    byte format = in.get(in.position());
+
+    if (format == JAVA_SERIALIZATION) return javaDeserialize(in);
+
+    if (format != COMPACT)
+      throw new IllegalArgumentException(String.format("Unknown blob format %d", format));
+
+    in.get();
+    byte id = in.get();
+    Registration<?> registration = byId.get((int) id);
+
+    if (registration == null)
+      throw new IllegalArgumentException(String.format("Unknown blob type id %d", id));
+
+    return registration.codec.decode(in);
+  }
+
+  /**
+   * @param value value to serialize
+   * @return java serialization of the value
+   */
+  private static ByteBuffer javaSerialize(final BlobObject value) {
+    try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(value);
+      oos.flush();
+      return ByteBuffer.wrap(bytes.toByteArray());
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * @param in java serialization stream
+   * @return deserialized value
+   */
+  private static BlobObject javaDeserialize(final ByteBuffer in) {
+    InputStream stream =
+        in.hasArray()
+            ? new ByteArrayInputStream(in.array(), in.arrayOffset() + in.position(), in.remaining())
+            : new ByteBufferInputStream(in);
+
+    try (ObjectInputStream ois = new ObjectInputStream(stream)) {
+      return (BlobObject) ois.readObject();
+    } catch (ClassNotFoundException | IOException | ClassCastException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * @param value byte array, may be null
+   * @return encoded size of the array
+   */
+  public static int sizeOf(final byte[] value) {
+    return 4 + (value == null ? 0 : value.length);
+  }
+
+  /**
+   * @param value string, may be null
+   * @return encoded size of the string
+   */
+  public static int sizeOf(final String value) {
+    return sizeOf(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param out buffer to write to
+   * @param value length prefixed array to write, -1 denotes null
+   */
+  public static void putBytes(final ByteBuffer out, final byte[] value) {
+    if (value == null) out.putInt(-1);
+    else out.putInt(value.length).put(value);
+  }
+
+  /**
+   * @param out buffer to write to
+   * @param value utf-8 string to write
+   */
+  public static void putString(final ByteBuffer out, final String value) {
+    putBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param in buffer to read from
+   * @return array written by {@link #putBytes(ByteBuffer, byte[])}
+   */
+  public static byte[] getBytes(final ByteBuffer in) {
+    int length = in.getInt();
+
+    if (length == -1) return null;
+
+    if (length < 0 || length > in.remaining())
+      throw new IllegalArgumentException(String.format("Invalid blob field length %d", length));
+
+    byte[] value = new byte[length];
+    in.get(value);
+    return value;
+  }
+
+  /**
+   * @param in buffer to read from
+   * @return string written by {@link #putString(ByteBuffer, String)}
+   */
+  public static String getString(final ByteBuffer in) {
+    byte[] value = getBytes(in);
+    return value == null ? null : new String(value, StandardCharsets.UTF_8);
+  }
+
+  /** Input stream over the remaining bytes of a (direct) buffer */
+  private static final class ByteBufferInputStream extends InputStream {
+    /** Buffer to read from */
+    private final ByteBuffer buffer;
+
+    /** @param buffer {@link #buffer} */
+    private ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (!this.buffer.hasRemaining()) return -1;
+      int read = Math.min(length, this.buffer.remaining());
+      this.buffer.get(bytes, offset, read);
+      return read;
+    }
+  }
+
+  /** Static class */
+  private BlobCodecs() {}
+}
@@ -19,11 +19,10 @@
 
 package pathstore.util;
 
-import com.datastax.driver.core.utils.Bytes;
 import pathstore.system.logging.PathStoreLogger;
 import pathstore.system.logging.PathStoreLoggerFactory;
 
-import java.io.*;
+import java.io.Serializable;
 import java.nio.ByteBuffer;
 
 /** This interface should extend any class you wish to store in a blob object within cassandra. */
@@ -35,14 +34,14 @@ public interface BlobObject extends Serializable {
   /** Log errors during serialization and de-serialization */
   PathStoreLogger logger = PathStoreLoggerFactory.getLogger(BlobObject.class);
 
-  /** @return byte buffer of object in hex string format, prefixed with '0x' */
+  /**
+   * @return encoded object, see {@link BlobCodecs#encode(BlobObject)}. Null if the object can't be
+   *     encoded
+   */
   default ByteBuffer serialize() {
-    try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
-      oos.writeObject(this);
-      String hexString = Bytes.toHexString(bytes.toByteArray());
-      return Bytes.fromHexString(hexString);
-    } catch (IOException e) {
+    try {
+      return BlobCodecs.encode(this);
+    } catch (IllegalArgumentException e) {
       logger.error("Serializing blob object error");
       logger.error(e);
       return null;
@@ -50,15 +49,13 @@ public interface BlobObject extends Serializable {
   }
 
   /**
-   * @param bytes byte buffer from database
-   * @return object
+   * @param bytes byte buffer from database, heap or direct
+   * @return object, null if the bytes can't be decoded
    */
   static BlobObject deserialize(final ByteBuffer bytes) {
-    String hx = Bytes.toHexString(bytes);
-    ByteBuffer ex = Bytes.fromHexString(hx);
-    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(ex.array()))) {
-      return (BlobObject) ois.readObject();
-    } catch (ClassNotFoundException | IOException e) {
+    try {
+      return BlobCodecs.decode(bytes);
+    } catch (IllegalArgumentException e) {
       logger.error("Deserializing blob object error");
       logger.error(e);
       return null;
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.datastax.driver.core.utils.Bytes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Driver codec that maps a blob column to a {@link BlobObject} using {@link BlobCodecs}. With this
+ * codec registered objects can be bound directly, e.g. {@code insert.value(column, identity)}, and
+ * read with {@code row.get(column, ServerIdentity.class)}.
+ *
+ * <p>Instances are registered by {@link BlobCodecs}, see {@link BlobCodecs#getCodecRegistry()}.
+ *
+ * @param <T> type of object the codec maps to
+ */
+public class BlobObjectCodec<T extends BlobObject> extends TypeCodec<T> {
+
+  /** Class of objects stored in the column */
+  private final Class<T> type;
+
+  /** @param type {@link #type} */
+  BlobObjectCodec(final Class<T> type) {
+    super(DataType.blob(), type);
+    this.type = type;
+  }
+
+  @Override
+  public ByteBuffer serialize(final T value, final ProtocolVersion protocolVersion) {
+    return value == null ? null : BlobCodecs.encode(value);
+  }
+
+  @Override
+  public T deserialize(final ByteBuffer bytes, final ProtocolVersion protocolVersion) {
+    if (bytes == null || !bytes.hasRemaining()) return null;
+
+    BlobObject value;
+    try {
+      value = BlobCodecs.decode(bytes);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidTypeException(e.getMessage(), e);
+    }
+
+    if (!this.type.isInstance(value))
+      throw new InvalidTypeException(
+          String.format(
+              "Blob holds %s, expected %s", value.getClass().getName(), this.type.getName()));
+
+    return this.type.cast(value);
+  }
+
+  @Override
+  public T parse(final String value) {
+    if (value == null || value.isEmpty() || value.equalsIgnoreCase("NULL")) return null;
+
+    return this.deserialize(Bytes.fromHexString(value), ProtocolVersion.NEWEST_SUPPORTED);
+  }
+
+  @Override
+  public String format(final T value) {
+    return value == null
+        ? "NULL"
+        : Bytes.toHexString(this.serialize(value, ProtocolVersion.NEWEST_SUPPORTED));
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import pathstore.authentication.grpc.AuthClientInterceptor;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is used by {@link pathstore.client.PathStoreServerClient} to cache grpc channels based
+ * on the address they point to and the interceptor (credential) they authenticate with. This is the
+ * grpc counterpart of {@link ClusterCache}.
+ *
+ * <p>Channels are built with keepalive enabled and an idle timeout so that the underlying http/2
+ * connection is released when unused. Unpinned channels that have not been requested for {@link
+ * #EVICTION_TIME_MINUTES} are shutdown and removed from the cache by a background sweep. Every
+ * lookup also checks the health of the cached channel and rebuilds it if it has been shutdown.
+ */
+public class ChannelCache {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(ChannelCache.class);
+
+  /**
+   * Time between keepalive pings. Grpc servers reject pings more frequent than 5 minutes by default
+   */
+  private static final long KEEP_ALIVE_TIME_MINUTES = 5;
+
+  /** How long to wait for a keepalive ack before considering the connection dead */
+  private static final long KEEP_ALIVE_TIMEOUT_SECONDS = 20;
+
+  /** How long a channel can go without rpcs before it releases its connection */
+  private static final long IDLE_TIMEOUT_MINUTES = 2;
+
+  /** How long an unpinned channel can go without being requested before it is evicted */
+  private static final long EVICTION_TIME_MINUTES = 10;
+
+  /** How often the eviction / health sweep runs */
+  private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+  /** Instance of class, only one per runtime */
+  @Getter(lazy = true)
+  private static final ChannelCache instance = new ChannelCache();
+
+  /** Where channels are cached */
+  private final ConcurrentMap<ChannelKey, CachedChannel> cache = new ConcurrentHashMap<>();
+
+  /** Starts the eviction sweep on a single daemon thread */
+  private ChannelCache() {
+    ScheduledExecutorService sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "pathstore-channel-cache");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    sweeper.scheduleWithFixedDelay(
+        this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * This function is used to gather a channel from the cache, if not present or the cached channel
+   * is no longer usable a new one will be built, stored and returned.
+   *
+   * @param ip ip of server to connect to
+   * @param port port of server to connect on
+   * @param authClientInterceptor interceptor used to authenticate each request
+   * @param pinned whether this channel should be exempt from idle eviction. Pinned channels are
+   *     long lived (local node / parent) and are only closed on {@link #remove(String, int,
+   *     AuthClientInterceptor)}
+   * @return usable channel
+   */
+  public ManagedChannel getChannel(
+      final String ip,
+      final int port,
+      final AuthClientInterceptor authClientInterceptor,
+      final boolean pinned) {
+
+    ChannelKey key = new ChannelKey(ip, port, authClientInterceptor);
+
+    CachedChannel cachedChannel =
+        this.cache.compute(
+            key,
+            (k, existing) -> {
+              if (existing != null && existing.isHealthy()) {
+                existing.pinned |= pinned;
+                return existing;
+              }
+
+              if (existing != null) {
+                logger.debug(String.format("Rebuilding unhealthy channel to %s:%d", ip, port));
+                existing.channel.shutdown();
+              }
+
+              return new CachedChannel(build(k), pinned);
+            });
+
+    cachedChannel.lastUsed = System.currentTimeMillis();
+
+    return cachedChannel.channel;
+  }
+
+  /**
+   * Remove and shutdown a channel
+   *
+   * @param ip ip of channel
+   * @param port port of channel
+   * @param authClientInterceptor interceptor of channel
+   * @return the removed channel if it existed, else null. It has already been told to shutdown
+   */
+  public ManagedChannel remove(
+      final String ip, final int port, final AuthClientInterceptor authClientInterceptor) {
+    CachedChannel cachedChannel =
+        this.cache.remove(new ChannelKey(ip, port, authClientInterceptor));
+
+    if (cachedChannel == null) return null;
+
+    return cachedChannel.channel.shutdown();
+  }
+
+  /**
+   * Evicts all unpinned channels that have not been requested within {@link #EVICTION_TIME_MINUTES}
+   * and all channels that have been shutdown.
+   */
+  private void sweep() {
+    long evictBefore =
+        System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(EVICTION_TIME_MINUTES);
+
+    this.cache.forEach(
+        (key, cachedChannel) -> {
+          boolean idle = !cachedChannel.pinned && cachedChannel.lastUsed < evictBefore;
+
+          if ((idle || !cachedChannel.isHealthy()) && this.cache.remove(key, cachedChannel)) {
+            logger.debug(String.format("Evicting channel to %s:%d", key.ip, key.port));
+            cachedChannel.channel.shutdown();
+          }
+        });
+  }
+
+  /**
+   * Create a grpc channel
+   *
+   * @param key address and interceptor information
+   * @return built channel, the connection itself is established lazily on first rpc
+   */
+  private static ManagedChannel build(final ChannelKey key) {
+    return ManagedChannelBuilder.forAddress(key.ip, key.port)
+        .intercept(key.authClientInterceptor)
+        .usePlaintext(true)
+        .keepAliveTime(KEEP_ALIVE_TIME_MINUTES, TimeUnit.MINUTES)
+        .keepAliveTimeout(KEEP_ALIVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .idleTimeout(IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+        .build();
+  }
+
+  /** Cache key, interceptors define equality over the credential they apply */
+  @RequiredArgsConstructor
+  @EqualsAndHashCode
+  private static final class ChannelKey {
+    /** Ip of server */
+    private final String ip;
+
+    /** Port of server */
+    private final int port;
+
+    /** How requests are authenticated */
+    private final AuthClientInterceptor authClientInterceptor;
+  }
+
+  /** Cache value, channel and its usage information */
+  private static final class CachedChannel {
+    /** Channel */
+    private final ManagedChannel channel;
+
+    /** Whether this channel is exempt from idle eviction */
+    private volatile boolean pinned;
+
+    /** Last time this channel was requested from the cache */
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    /**
+     * @param channel channel
+     * @param pinned whether this channel is exempt from idle eviction
+     */
+    private CachedChannel(final ManagedChannel channel, final boolean pinned) {
+      this.channel = channel;
+      this.pinned = pinned;
+    }
+
+    /** @return true iff the channel can still be used to perform rpcs */
+    private boolean isHealthy() {
+      return !this.channel.isShutdown()
+          && this.channel.getState(false) != ConnectivityState.SHUTDOWN;
+    }
+  }
+}
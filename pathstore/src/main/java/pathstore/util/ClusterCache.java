@@ -20,14 +20,15 @@
 package pathstore.util;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ProtocolOptions;
 import com.datastax.driver.core.QueryOptions;
 import com.datastax.driver.core.SocketOptions;
-import lombok.RequiredArgsConstructor;
 import pathstore.authentication.credentials.DeploymentCredential;
 import pathstore.system.PathStorePrivilegedCluster;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * This class is used by {@link pathstore.client.PathStoreCluster} and {@link
@@ -36,7 +37,6 @@ import java.util.concurrent.ConcurrentMap;
  * @param <CredentialT> Credential type to be used to store auth information for a cluster
  * @param <ClusterT> cluster type to store
  */
-@RequiredArgsConstructor
 public class ClusterCache<CredentialT extends DeploymentCredential, ClusterT> {
   /** Where clusters are cached */
   private final ConcurrentMap<CredentialT, ClusterT> cache = new ConcurrentHashMap<>();
@@ -44,18 +44,38 @@ public class ClusterCache<CredentialT extends DeploymentCredential, ClusterT> {
   /** How to build a cluster not present in the cache */
   private final DoubleConsumerFunction<CredentialT, Cluster, ClusterT> buildFunction;
 
+  /** How to open the underlying driver cluster for a credential */
+  private final Function<CredentialT, Cluster> clusterFunction;
+
+  /** @param buildFunction {@link #buildFunction} */
+  public ClusterCache(final DoubleConsumerFunction<CredentialT, Cluster, ClusterT> buildFunction) {
+    this(buildFunction, ClusterCache::createCluster);
+  }
+
+  /**
+   * @param buildFunction {@link #buildFunction}
+   * @param clusterFunction {@link #clusterFunction}
+   */
+  public ClusterCache(
+      final DoubleConsumerFunction<CredentialT, Cluster, ClusterT> buildFunction,
+      final Function<CredentialT, Cluster> clusterFunction) {
+    this.buildFunction = buildFunction;
+    this.clusterFunction = clusterFunction;
+  }
+
   /**
    * This function is used to gather a cluster from the cache, if not already present it will create
-   * one, store it, and return it. Else it will just return the existing cluster
+   * one, store it, and return it. Else it will just return the existing cluster. Synchronized as
+   * startup phases may request clusters concurrently, each cluster must only be created once
    *
    * @param credential credential object which extends deploymentCredential
    * @return cluster object
    */
-  public ClusterT getInstance(final CredentialT credential) {
+  public synchronized ClusterT getInstance(final CredentialT credential) {
     ClusterT object = this.cache.get(credential);
 
     if (object == null) {
-      object = this.buildFunction.apply(credential, createCluster(credential));
+      object = this.buildFunction.apply(credential, this.clusterFunction.apply(credential));
       this.cache.put(credential, object);
     }
 
@@ -67,6 +87,16 @@ public class ClusterCache<CredentialT extends DeploymentCredential, ClusterT> {
     this.cache.remove(credential);
   }
 
+  /**
+   * Remove a cluster only if it is the one currently cached for the credential
+   *
+   * @param credential credential to remove from cluster
+   * @param object cluster expected to be cached under that credential
+   */
+  public void remove(final CredentialT credential, final ClusterT object) {
+    this.cache.remove(credential, object);
+  }
+
   /**
    * Create a cluster connection
    *
@@ -76,6 +106,21 @@ public class ClusterCache<CredentialT extends DeploymentCredential, ClusterT> {
    */
   public static <CredentialT extends DeploymentCredential> Cluster createCluster(
       final CredentialT credential) {
+    return createCluster(
+        credential, ProtocolOptions.DEFAULT_MAX_SCHEMA_AGREEMENT_WAIT_SECONDS);
+  }
+
+  /**
+   * Create a cluster connection with a custom schema agreement wait
+   *
+   * @param credential object which contains cassandra connection information
+   * @param maxSchemaAgreementWaitSeconds how long each DDL statement waits for schema agreement, 0
+   *     to return as soon as the coordinator has applied it
+   * @return connected cluster
+   * @see pathstore.system.schemaFSM.SchemaChangeBatch
+   */
+  public static <CredentialT extends DeploymentCredential> Cluster createCluster(
+      final CredentialT credential, final int maxSchemaAgreementWaitSeconds) {
     return new Cluster.Builder()
         .addContactPoints(credential.getIp())
         .withPort(credential.getPort())
@@ -86,6 +131,8 @@ public class ClusterCache<CredentialT extends DeploymentCredential, ClusterT> {
                 .setRefreshNodeIntervalMillis(0)
                 .setRefreshNodeListIntervalMillis(0)
                 .setRefreshSchemaIntervalMillis(0))
+        .withCodecRegistry(BlobCodecs.getCodecRegistry())
+        .withMaxSchemaAgreementWaitSeconds(maxSchemaAgreementWaitSeconds)
         .build();
   }
 }
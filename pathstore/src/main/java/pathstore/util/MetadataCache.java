@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.NonNull;
+import pathstore.common.scheduler.PathStoreScheduler;
+import pathstore.common.scheduler.WorkerPool;
+import pathstore.system.logging.PathStoreLogger;
+import pathstore.system.logging.PathStoreLoggerFactory;
+import pathstore.system.metrics.MetricsRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class is the shared loading cache for node metadata that is read from cassandra and looked
+ * up on hot paths, such as application leases, credentials and keyspace schemas.
+ *
+ * <p>(1): Loads are single flight, concurrent misses on the same key wait for one load instead of
+ * each querying the database.
+ *
+ * <p>(2): Entries older than the refresh interval are reloaded on the {@link WorkerPool#GENERAL}
+ * pool on their next access, the caller is served the current value while the reload runs. If a
+ * reload fails the old value is kept.
+ *
+ * <p>(3): The cache can be bounded, least recently used entries are evicted first. Loaded values
+ * can be filtered with {@link Builder#cacheIf(Predicate)}, values that are rejected (e.g. absent
+ * rows) are returned to the caller without being stored, so lookups of keys that don't exist can't
+ * fill the cache.
+ *
+ * <p>(4): Writers that change the underlying table call {@link #put(Object, Object)} or {@link
+ * #invalidate(Object)}. Every change of a value (load, reload with a different value, put,
+ * invalidation) is passed to the registered {@link Listener}s so dependent state can be updated.
+ *
+ * <p>Hits, misses, loads and evictions are exported per cache name in the {@link MetricsRegistry}.
+ *
+ * @param <K> key type
+ * @param <V> value type, values are compared with {@link Object#equals(Object)} on reload
+ */
+public final class MetadataCache<K, V> {
+
+  /** Logger */
+  private static final PathStoreLogger logger =
+      PathStoreLoggerFactory.getLogger(MetadataCache.class);
+
+  /** Reloads are run on the general worker pool */
+  private static final Executor REFRESH_EXECUTOR =
+      task -> PathStoreScheduler.getInstance().submit(WorkerPool.GENERAL, task);
+
+  /**
+   * Listener of value changes
+   *
+   * @param <K> key type
+   * @param <V> value type
+   */
+  @FunctionalInterface
+  public interface Listener<K, V> {
+    /**
+     * @param key key that changed
+     * @param value new value, null if the key was invalidated
+     */
+    void onChange(final K key, final V value);
+  }
+
+  /**
+   * @param name name of the cache, used for logging and metrics
+   * @param loader how to read a value from the database, must not return null
+   * @param <K> key type
+   * @param <V> value type
+   * @return new builder
+   */
+  public static <K, V> Builder<K, V> newBuilder(
+      @NonNull final String name, @NonNull final Function<K, V> loader) {
+    return new Builder<>(name, loader);
+  }
+
+  /**
+   * Builder for {@link MetadataCache}
+   *
+   * @param <K> key type
+   * @param <V> value type
+   */
+  public static final class Builder<K, V> {
+    /** Name of the cache */
+    private final String name;
+
+    /** Loader */
+    private final Function<K, V> loader;
+
+    /** Maximum number of entries, -1 if unbounded */
+    private long maximumSize = -1;
+
+    /** Refresh interval, -1 if entries are never refreshed */
+    private long refreshInterval = -1;
+
+    /** Unit of {@link #refreshInterval} */
+    private TimeUnit refreshUnit = TimeUnit.SECONDS;
+
+    /** Which loaded values are stored */
+    private Predicate<? super V> cacheIf = value -> true;
+
+    /**
+     * @param name {@link #name}
+     * @param loader {@link #loader}
+     */
+    private Builder(final String name, final Function<K, V> loader) {
+      this.name = name;
+      this.loader = loader;
+    }
+
+    /**
+     * @param maximumSize maximum number of entries
+     * @return this
+     */
+    public Builder<K, V> maximumSize(final long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * @param interval time after a load when the next access reloads the entry in the background
+     * @param unit unit of interval
+     * @return this
+     */
+    public Builder<K, V> refreshAfter(final long interval, @NonNull final TimeUnit unit) {
+      this.refreshInterval = interval;
+      this.refreshUnit = unit;
+      return this;
+    }
+
+    /**
+     * @param cacheIf which values returned by the loader are stored, the others are returned by
+     *     {@link #get(Object)} and loaded again on the next access. Values set through {@link
+     *     #put(Object, Object)} and values returned by a background reload are always stored
+     * @return this
+     */
+    public Builder<K, V> cacheIf(@NonNull final Predicate<? super V> cacheIf) {
+      this.cacheIf = cacheIf;
+      return this;
+    }
+
+    /** @return built cache */
+    public MetadataCache<K, V> build() {
+      return new MetadataCache<>(this);
+    }
+  }
+
+  /** Name of the cache */
+  private final String name;
+
+  /** Loader */
+  private final Function<K, V> loader;
+
+  /** Which loaded values are stored */
+  private final Predicate<? super V> cacheIf;
+
+  /** Registered listeners */
+  private final List<Listener<K, V>> listeners = new CopyOnWriteArrayList<>();
+
+  /** Underlying cache */
+  private final LoadingCache<K, V> cache;
+
+  /** @param builder builder */
+  private MetadataCache(final Builder<K, V> builder) {
+    this.name = builder.name;
+    this.loader = builder.loader;
+    this.cacheIf = builder.cacheIf;
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+
+    if (builder.maximumSize >= 0) cacheBuilder.maximumSize(builder.maximumSize);
+
+    if (builder.refreshInterval >= 0)
+      cacheBuilder.refreshAfterWrite(builder.refreshInterval, builder.refreshUnit);
+
+    this.cache =
+        cacheBuilder
+            .<K, V>removalListener(
+                notification -> {
+                  if (notification.getCause() == RemovalCause.EXPLICIT)
+                    this.notifyListeners(notification.getKey(), null);
+                })
+            .build(CacheLoader.asyncReloading(new Loader(), REFRESH_EXECUTOR));
+
+    MetricsRegistry metrics = MetricsRegistry.getInstance();
+    metrics.gauge(
+        "pathstore_metadata_cache_hits",
+        "Hits of a metadata cache",
+        () -> this.cache.stats().hitCount(),
+        "cache",
+        this.name);
+    metrics.gauge(
+        "pathstore_metadata_cache_misses",
+        "Misses of a metadata cache",
+        () -> this.cache.stats().missCount(),
+        "cache",
+        this.name);
+    metrics.gauge(
+        "pathstore_metadata_cache_load_failures",
+        "Failed loads and reloads of a metadata cache",
+        () -> this.cache.stats().loadExceptionCount(),
+        "cache",
+        this.name);
+    metrics.gauge(
+        "pathstore_metadata_cache_evictions",
+        "Size based evictions of a metadata cache",
+        () -> this.cache.stats().evictionCount(),
+        "cache",
+        this.name);
+    metrics.gauge(
+        "pathstore_metadata_cache_size",
+        "Entries of a metadata cache",
+        this.cache::size,
+        "cache",
+        this.name);
+  }
+
+  /**
+   * @param key key to get
+   * @return cached value, loaded on the calling thread if absent
+   * @throws RuntimeException the exception thrown by the loader
+   */
+  @SuppressWarnings("unchecked")
+  public V get(@NonNull final K key) {
+    try {
+      return this.cache.getUnchecked(key);
+    } catch (UncheckedExecutionException | ExecutionError e) {
+      if (e.getCause() instanceof NotCached) return (V) ((NotCached) e.getCause()).value;
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw e;
+    }
+  }
+
+  /**
+   * @param key key to get
+   * @return cached value or null if absent, never loads
+   */
+  public V getIfPresent(@NonNull final K key) {
+    return this.cache.getIfPresent(key);
+  }
+
+  /** @return immutable copy of all cached values */
+  public Collection<V> values() {
+    return ImmutableList.copyOf(this.cache.asMap().values());
+  }
+
+  /**
+   * Sets the value of a key, used by writers of the underlying table
+   *
+   * @param key key to set
+   * @param value value to set
+   */
+  public void put(@NonNull final K key, @NonNull final V value) {
+    V previous = this.cache.asMap().put(key, value);
+    if (!value.equals(previous)) this.notifyListeners(key, value);
+  }
+
+  /**
+   * Sets the value of a key if it isn't cached
+   *
+   * @param key key to set
+   * @param value value to set
+   * @return true if the value was set
+   */
+  public boolean putIfAbsent(@NonNull final K key, @NonNull final V value) {
+    if (this.cache.asMap().putIfAbsent(key, value) != null) return false;
+    this.notifyListeners(key, value);
+    return true;
+  }
+
+  /**
+   * Reloads a key. If the key is cached it is reloaded in the background and served until then,
+   * otherwise it is loaded on the calling thread
+   *
+   * @param key key to reload
+   */
+  public void refresh(@NonNull final K key) {
+    this.cache.refresh(key);
+  }
+
+  /**
+   * Removes a key, the next access loads it again
+   *
+   * @param key key to remove
+   */
+  public void invalidate(@NonNull final K key) {
+    this.cache.invalidate(key);
+  }
+
+  /** Removes every key */
+  public void invalidateAll() {
+    this.cache.invalidateAll();
+  }
+
+  /** @param listener listener to notify of every change */
+  public void addListener(@NonNull final Listener<K, V> listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * @param key key that changed
+   * @param value new value or null
+   */
+  private void notifyListeners(final K key, final V value) {
+    for (Listener<K, V> listener : this.listeners) {
+      try {
+        listener.onChange(key, value);
+      } catch (RuntimeException e) {
+        logger.error(e);
+      }
+    }
+  }
+
+  /**
+   * Thrown by {@link Loader#load(Object)} to hand a value rejected by {@link #cacheIf} back to
+   * {@link #get(Object)}, failed loads aren't stored by the underlying cache
+   */
+  private static final class NotCached extends RuntimeException {
+    /** Loaded value */
+    private final Object value;
+
+    /** @param value {@link #value} */
+    private NotCached(final Object value) {
+      super(null, null, false, false);
+      this.value = value;
+    }
+  }
+
+  /** Passes loads to {@link #loader} and notifies listeners of changed values */
+  private final class Loader extends CacheLoader<K, V> {
+    /**
+     * @param key key to load
+     * @return loaded value
+     */
+    @Override
+    public V load(final K key) {
+      V value = Objects.requireNonNull(loader.apply(key), "loader returned null");
+      if (!cacheIf.test(value)) throw new NotCached(value);
+      notifyListeners(key, value);
+      return value;
+    }
+
+    /**
+     * @param key key to reload
+     * @param oldValue currently cached value
+     * @return reloaded value, listeners are only notified if it differs from the old one
+     */
+    @Override
+    public ListenableFuture<V> reload(final K key, final V oldValue) {
+      try {
+        V value = Objects.requireNonNull(loader.apply(key), "loader returned null");
+        if (!value.equals(oldValue)) notifyListeners(key, value);
+        return Futures.immediateFuture(value);
+      } catch (RuntimeException e) {
+        logger.error(String.format("Could not refresh %s in metadata cache %s", key, name));
+        return Futures.immediateFailedFuture(e);
+      }
+    }
+  }
+}
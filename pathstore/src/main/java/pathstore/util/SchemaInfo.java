@@ -21,8 +21,11 @@ package pathstore.util;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.Hasher;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
 import io.netty.util.internal.ConcurrentSet;
-import lombok.Setter;
 import pathstore.common.Constants;
 import pathstore.system.PathStorePrivilegedCluster;
 import pathstore.system.logging.PathStoreLogger;
@@ -33,13 +36,16 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static pathstore.grpc.pathStoreProto.RegisterApplicationResponse;
+import static pathstore.grpc.pathStoreProto.SchemaDelta;
+import static pathstore.grpc.pathStoreProto.TableSchema;
 
 /**
  * The purpose of this class is to represent the keyspace system_schema in memory for usage
@@ -52,6 +58,20 @@ import static pathstore.grpc.pathStoreProto.RegisterApplicationResponse;
  * available keyspaces on startup, this is used if a node has failed and restarts as {@link
  * SchemaInfo#loadKeyspace(String)} won't be recalled for each keyspace
  *
+ * <p>On a node the schema of each keyspace is read through a {@link MetadataCache}, so only the
+ * first access of a keyspace reads system_schema and concurrent first accesses share that read.
+ * The schema state machine signals installed and removed keyspaces through {@link
+ * #loadKeyspace(String)} and {@link #removeKeyspace(String)}, which update the cache and with it
+ * the maps below. Each keyspace's maps are filled before its tables are visible in {@link
+ * #tableMap}, so a reader that found a table always finds its columns.
+ *
+ * <p>Paths that run per row should use the {@link TableDescriptor} of a table, see {@link
+ * #getTableDescriptor(String, String)}, rather than filtering the column collections.
+ *
+ * <p>Every change of a keyspace's schema on a node is passed to the change listeners as a {@link
+ * SchemaDelta} of the added, changed and dropped tables. Clients apply the deltas the local node
+ * streams to them through {@link #applyDelta(SchemaDelta)} instead of registering again.
+ *
  * @apiNote This class makes the assumption that once a keyspace is loaded into memory it is final.
  *     We get to make this assumption because PathStore controls the loading / unloading of
  *     keyspaces on a network wide scale. This will cause problems when developers chose to modify a
@@ -92,6 +112,12 @@ public class SchemaInfo implements Serializable {
    */
   private static final PathStoreLogger logger = PathStoreLoggerFactory.getLogger(SchemaInfo.class);
 
+  /**
+   * Maximum amount of keyspaces held by {@link #keyspaces}. An evicted keyspace stays in the maps
+   * below and is read again from system_schema on its next access
+   */
+  private static final long MAXIMUM_KEYSPACES = 1024;
+
   /** Set of keyspace names that have been loaded in */
   private final Set<String> keyspacesLoaded;
 
@@ -152,8 +178,50 @@ public class SchemaInfo implements Serializable {
    */
   private final ConcurrentMap<String, Collection<Type>> typeInfo;
 
+  /**
+   * Map is defined as descriptors: keyspace_name -> table_name -> table descriptor. Descriptors
+   * are built on first access and a keyspace's descriptors are dropped whenever its schema changes.
+   *
+   * @see #getTableDescriptor(String, String)
+   * @see #install(String, Optional)
+   */
+  private final transient ConcurrentMap<String, ConcurrentMap<String, TableDescriptor>>
+      descriptors = new ConcurrentHashMap<>();
+
+  /**
+   * Listeners of schema changes, a delta is passed for every install or removal of a keyspace that
+   * changed its schema. Deltas are passed without epoch and version.
+   *
+   * @see #addChangeListener(Consumer)
+   */
+  private final transient List<Consumer<SchemaDelta>> changeListeners =
+      new CopyOnWriteArrayList<>();
+
+  /**
+   * Epoch of the local node's schema change log this schema is at, only used on clients
+   *
+   * @see #applyDelta(SchemaDelta)
+   */
+  private transient volatile String schemaEpoch = "";
+
+  /**
+   * Version of the local node's schema this schema is at, only used on clients
+   *
+   * @see #applyDelta(SchemaDelta)
+   */
+  private transient volatile long schemaVersion = 0;
+
+  /**
+   * Schema of each keyspace read from system_schema, absent if the keyspace doesn't exist. This is
+   * null if there is no session to read from, which is the case for partitions and on clients.
+   *
+   * @see #ensureLoaded(String)
+   * @see #install(String, Optional)
+   */
+  private transient MetadataCache<String, Optional<KeyspaceSchema>> keyspaces;
+
   /** @see PathStorePrivilegedCluster */
-  @Setter private transient Session session;
+  private transient Session session;
 
   /**
    * @param session must be a raw connection to a cassandra database. Not a pathstore wrapped
@@ -167,7 +235,7 @@ public class SchemaInfo implements Serializable {
     this.clusterColumnNames = new ConcurrentHashMap<>();
     this.indexInfo = new ConcurrentHashMap<>();
     this.typeInfo = new ConcurrentHashMap<>();
-    this.session = session;
+    this.setSession(session);
     this.loadSchemas();
   }
 
@@ -192,6 +260,7 @@ public class SchemaInfo implements Serializable {
       final ConcurrentMap<String, ConcurrentMap<Table, Collection<Index>>> indexInfo,
       final ConcurrentMap<String, Collection<Type>> typeInfo) {
     this.session = null;
+    this.keyspaces = null;
     this.keyspacesLoaded = keyspacesLoaded;
     this.tableMap = tableMap;
     this.columnInfo = columnInfo;
@@ -223,6 +292,7 @@ public class SchemaInfo implements Serializable {
 
   /** @return converts {@link #instance} to grpc compatible object */
   public RegisterApplicationResponse.SchemaInfo toGRPCSchemaInfoObject() {
+    this.loadPendingKeyspaces();
     return RegisterApplicationResponse.SchemaInfo.newBuilder()
         .addAllKeyspacesLoaded(this.keyspacesLoaded)
         .putAllTableMap(this.toGRPCTableMapObject())
@@ -234,6 +304,52 @@ public class SchemaInfo implements Serializable {
         .build();
   }
 
+  /**
+   * Content hash of a grpc schema info object. Map entries are hashed in key order as protobuf
+   * doesn't guarantee a serialization order for them, so the hash only changes if the schema does.
+   *
+   * @param grpcSchemaInfoObject schema info to hash
+   * @return hex encoded sha-256 of the schema info
+   * @see pathstore.client.ClientSchemaCache
+   */
+  public static String hash(final RegisterApplicationResponse.SchemaInfo grpcSchemaInfoObject) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hash(hasher, grpcSchemaInfoObject);
+    return hasher.hash().toString();
+  }
+
+  /**
+   * @param hasher hasher to add the message to
+   * @param message message to add, fields are visited in field number order
+   */
+  private static void hash(final Hasher hasher, final Message message) {
+    for (Map.Entry<Descriptors.FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+      hasher.putInt(field.getKey().getNumber());
+
+      if (field.getKey().isMapField()) {
+        List<Message> entries = new ArrayList<>();
+        for (Object entry : (List<?>) field.getValue()) entries.add((Message) entry);
+
+        Descriptors.FieldDescriptor key = field.getKey().getMessageType().findFieldByNumber(1);
+        entries.sort(Comparator.comparing(entry -> entry.getField(key).toString()));
+
+        for (Message entry : entries) hash(hasher, entry);
+      } else if (field.getKey().isRepeated())
+        for (Object value : (List<?>) field.getValue()) hashValue(hasher, value);
+      else hashValue(hasher, field.getValue());
+    }
+    hasher.putInt(-1);
+  }
+
+  /**
+   * @param hasher hasher to add the value to
+   * @param value message or scalar value of a field
+   */
+  private static void hashValue(final Hasher hasher, final Object value) {
+    if (value instanceof Message) hash(hasher, (Message) value);
+    else hasher.putUnencodedChars(value.toString()).putInt(0);
+  }
+
   /**
    * @param grpcSchemaInfoObject grpc schema info payload
    * @return set of keyspaces loaded
@@ -536,6 +652,8 @@ public class SchemaInfo implements Serializable {
    * @see pathstore.system.network.NetworkImpl#getSchemaInfo(String)
    */
   public SchemaInfo getSchemaPartition(final String keyspace) {
+    this.ensureLoaded(keyspace);
+
     if (this.keyspacesLoaded.contains(keyspace)) {
       Set<String> keyspacesLoaded = new HashSet<>();
       keyspacesLoaded.add(keyspace);
@@ -569,6 +687,24 @@ public class SchemaInfo implements Serializable {
 
   // publicly accessible functions
 
+  /**
+   * Sets the session schemas are read from, used by super user clients to read keyspaces outside
+   * of the snapshot they received on registration.
+   *
+   * @param session raw session to the local cassandra node
+   */
+  public void setSession(final Session session) {
+    this.session = session;
+    this.keyspaces =
+        session != null
+            ? MetadataCache.newBuilder("keyspace_schema", this::readKeyspace)
+                .maximumSize(MAXIMUM_KEYSPACES)
+                .build()
+            : null;
+
+    if (this.keyspaces != null) this.keyspaces.addListener(this::install);
+  }
+
   /**
    * This function is used to load a new keyspace's information into memory.
    *
@@ -577,56 +713,24 @@ public class SchemaInfo implements Serializable {
    *     within the local Cassandra node. The main caller of this function however can guarantee
    *     that the passed keyspace name exists within Cassandra as it loads it prior to calling this
    *     function.
-   * @implNote The placement of the loading of data is very specific. As there are dependencies
-   *     between loading data. If you plan to modify this function you need to read the impl notes
-   *     for each loading function, they explain what they depend on.
    * @see pathstore.system.schemaFSM.PathStoreSlaveSchemaServer
    */
   public void loadKeyspace(final String keyspace) {
-
-    if (keyspace.startsWith(Constants.PATHSTORE_PREFIX)) {
-      this.tableMap.put(keyspace, this.loadTableCollectionsForKeyspace(keyspace));
-      this.columnInfo.put(keyspace, this.getColumnInfoPerKeyspace(keyspace));
-      this.partitionColumnNames.put(
-          keyspace, this.getColumnNamesPerKeyspace(keyspace, "partition_key"));
-      this.clusterColumnNames.put(keyspace, this.getColumnNamesPerKeyspace(keyspace, "clustering"));
-      this.indexInfo.put(keyspace, this.getIndexInfoPerKeyspace(keyspace));
-      this.typeInfo.put(keyspace, Type.buildFromKeyspace(this.session, keyspace));
-      this.keyspacesLoaded.add(keyspace);
-
-      logger.info(
-          String.format(
-              "Loaded keyspace %s it has %d table(s) and has %d udt(s)",
-              keyspace,
-              this.tableMap.get(keyspace).values().size(),
-              this.typeInfo.get(keyspace).size()));
-    } else {
-      logger.error(
-          String.format("Could not load keyspace %s as it is not a pathstore keyspace", keyspace));
-    }
+    if (this.keyspaces != null) this.keyspaces.put(keyspace, this.readKeyspace(keyspace));
   }
 
   /**
    * This function is used to remove a new keyspace's information from memory. This should only be
    * called when a keyspace is being removed from the database but still resides in memory.
    *
-   * @param keyspace keyspace to remove from memory. Assumed present.
-   * @apiNote There is not validity check to ensure the keyspace name passed actually exists within
-   *     memory. This is because the sole caller of this function can guarentee that it is removing
-   *     a keyspace from memory that use to exist within the local Cassandra node but no longer
-   *     exists. If you wish to use this function within your application you should use it with
-   *     caution.
+   * <p>The keyspace is cached as absent rather than invalidated, so an access between this call
+   * and the drop of the keyspace doesn't read it back into memory.
+   *
+   * @param keyspace keyspace to remove from memory.
    */
   public void removeKeyspace(final String keyspace) {
-    this.keyspacesLoaded.remove(keyspace);
-    this.tableMap.remove(keyspace);
-    this.columnInfo.remove(keyspace);
-    this.partitionColumnNames.remove(keyspace);
-    this.clusterColumnNames.remove(keyspace);
-    this.indexInfo.remove(keyspace);
-    this.typeInfo.remove(keyspace);
-
-    logger.info(String.format("Removed keyspace %s", keyspace));
+    if (this.keyspaces != null) this.keyspaces.put(keyspace, Optional.empty());
+    else this.install(keyspace, null);
   }
 
   /**
@@ -660,6 +764,7 @@ public class SchemaInfo implements Serializable {
    * @return collection of table objects associated with a given keyspace
    */
   public Collection<Table> getTablesFromKeyspace(final String keyspace) {
+    this.ensureLoaded(keyspace);
     return this.tableMap.get(keyspace).values();
   }
 
@@ -671,6 +776,7 @@ public class SchemaInfo implements Serializable {
    * @return table object or null if non-existent
    */
   public Table getTableFromKeyspaceAndTableName(final String keyspace, final String table) {
+    this.ensureLoaded(keyspace);
     return this.tableMap.get(keyspace).get(table);
   }
 
@@ -683,7 +789,7 @@ public class SchemaInfo implements Serializable {
    * @see #getTableIndexes(Table)
    */
   public Collection<Column> getTableColumns(final String keyspace, final String tableName) {
-    return this.getTableColumns(this.tableMap.get(keyspace).get(tableName));
+    return this.getTableDescriptor(keyspace, tableName).getColumns();
   }
 
   /**
@@ -707,6 +813,7 @@ public class SchemaInfo implements Serializable {
    * @see #getPartitionColumnNames(Table)
    */
   public Collection<String> getPartitionColumnNames(final String keyspace, final String tableName) {
+    this.ensureLoaded(keyspace);
     return this.getPartitionColumnNames(this.tableMap.get(keyspace).get(tableName));
   }
 
@@ -731,6 +838,7 @@ public class SchemaInfo implements Serializable {
    * @see #getClusterColumnNames(Table)
    */
   public Collection<String> getClusterColumnNames(final String keyspace, final String tableName) {
+    this.ensureLoaded(keyspace);
     return this.getClusterColumnNames(this.tableMap.get(keyspace).get(tableName));
   }
 
@@ -747,7 +855,8 @@ public class SchemaInfo implements Serializable {
 
   /**
    * This function is used to retrieve a set of primary key column names from a keyspace and table.
-   * The primary key columns are the union of the partition and clustering (sorting) columns
+   * The primary key columns are the union of the partition and clustering (sorting) columns,
+   * including pathstore_version
    *
    * @param keyspace keyspace name
    * @param tableName table name
@@ -755,21 +864,55 @@ public class SchemaInfo implements Serializable {
    * @see #getPrimaryColumnNames(Table)
    */
   public Collection<String> getPrimaryColumnNames(final String keyspace, final String tableName) {
-    return this.getPrimaryColumnNames(this.tableMap.get(keyspace).get(tableName));
+    return this.getTableDescriptor(keyspace, tableName).getKeyColumnNames();
   }
 
   /**
    * This function is used to retrieve a set of primary column names from a table object. The
-   * primary key columns are the union of the partition and clustering (sorting) columns
+   * primary key columns are the union of the partition and clustering (sorting) columns, including
+   * pathstore_version
    *
    * @param table table object
    * @return set of primary column names
    */
   public Collection<String> getPrimaryColumnNames(final Table table) {
-    return Stream.concat(
-            this.getPartitionColumnNames(table).stream(),
-            this.getClusterColumnNames(table).stream())
-        .collect(Collectors.toSet());
+    return this.getTableDescriptor(table).getKeyColumnNames();
+  }
+
+  /**
+   * This function is used to retrieve the descriptor of a table, which is built once per schema of
+   * the keyspace and should be preferred over the other column getters on paths that run per row.
+   *
+   * @param keyspace keyspace name
+   * @param tableName table name
+   * @return descriptor of the table or null if the table doesn't exist
+   * @see TableDescriptor
+   */
+  public TableDescriptor getTableDescriptor(final String keyspace, final String tableName) {
+    this.ensureLoaded(keyspace);
+
+    ConcurrentMap<String, TableDescriptor> keyspaceDescriptors = this.descriptors.get(keyspace);
+    TableDescriptor descriptor =
+        keyspaceDescriptors != null ? keyspaceDescriptors.get(tableName) : null;
+
+    if (descriptor != null) return descriptor;
+
+    ConcurrentMap<String, Table> tables = this.tableMap.get(keyspace);
+    Table table = tables != null ? tables.get(tableName) : null;
+
+    return table != null ? this.getTableDescriptor(table) : null;
+  }
+
+  /**
+   * @param table table object
+   * @return descriptor of the table
+   * @see #getTableDescriptor(String, String)
+   */
+  public TableDescriptor getTableDescriptor(final Table table) {
+    return this.descriptors
+        .computeIfAbsent(table.keyspace_name, keyspace -> new ConcurrentHashMap<>())
+        .computeIfAbsent(
+            table.table_name, tableName -> new TableDescriptor(table, this.getTableColumns(table)));
   }
 
   /**
@@ -781,6 +924,7 @@ public class SchemaInfo implements Serializable {
    * @see #getTableIndexes(Table)
    */
   public Collection<Index> getTableIndexes(final String keyspaceName, final String tableName) {
+    this.ensureLoaded(keyspaceName);
     return this.getTableIndexes(this.tableMap.get(keyspaceName).get(tableName));
   }
 
@@ -803,9 +947,151 @@ public class SchemaInfo implements Serializable {
    * @return a set of types for that keyspace always not null
    */
   public Collection<Type> getKeyspaceTypes(final String keyspace) {
+    this.ensureLoaded(keyspace);
     return Optional.of(this.typeInfo.get(keyspace)).orElse(Collections.emptySet());
   }
 
+  /**
+   * Reads every keyspace that hasn't been accessed since startup into memory. This is run in the
+   * background once the node is ready so the first request on each keyspace doesn't pay for it.
+   *
+   * @see pathstore.system.PathStoreServerImpl
+   */
+  public void loadPendingKeyspaces() {
+    for (String keyspace : new ArrayList<>(this.keyspacesLoaded)) this.ensureLoaded(keyspace);
+  }
+
+  /**
+   * @param listener listener to pass a delta to for every change of a keyspace's schema
+   * @see pathstore.system.schemaFSM.SchemaChangeLog
+   */
+  public void addChangeListener(final Consumer<SchemaDelta> listener) {
+    this.changeListeners.add(listener);
+  }
+
+  /**
+   * Builds a delta that contains the whole schema of a keyspace, this is sent to clients whose
+   * schema version is unknown to the local node.
+   *
+   * @param keyspace keyspace to build the delta for
+   * @return delta with {@link SchemaDelta#getSnapshot()} set, or {@link
+   *     SchemaDelta#getKeyspaceDropped()} if the keyspace doesn't exist
+   */
+  public SchemaDelta snapshot(final String keyspace) {
+    this.ensureLoaded(keyspace);
+
+    SchemaDelta.Builder delta = SchemaDelta.newBuilder().setKeyspace(keyspace);
+
+    ConcurrentMap<String, Table> tables = this.tableMap.get(keyspace);
+
+    if (tables == null) return delta.setKeyspaceDropped(true).build();
+
+    for (Table table : tables.values()) delta.addTables(this.toGRPCTableSchema(table));
+
+    return delta
+        .setSnapshot(true)
+        .addAllTypes(toGRPCTypes(this.typeInfo.get(keyspace)))
+        .build();
+  }
+
+  /**
+   * Applies a schema change streamed by the local node. Each table's columns, keys and indexes are
+   * written before the table is visible in {@link #tableMap} and its descriptor is dropped
+   * afterwards, so queries running concurrently see either the old or the new schema of a table.
+   *
+   * @param delta change to apply
+   * @see pathstore.client.ClientSchemaWatcher
+   */
+  public synchronized void applyDelta(final SchemaDelta delta) {
+    String keyspace = delta.getKeyspace();
+
+    if (delta.getKeyspaceDropped()) this.install(keyspace, Optional.empty());
+    else {
+      ConcurrentMap<String, Table> tables =
+          this.tableMap.computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>());
+
+      Set<String> dropped = new HashSet<>(delta.getDroppedTablesList());
+      if (delta.getSnapshot()) dropped.addAll(tables.keySet());
+
+      for (TableSchema tableSchema : delta.getTablesList()) {
+        Table table = Table.fromGRPCTableObject(tableSchema.getTable());
+
+        this.columnInfo
+            .computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>())
+            .put(
+                table,
+                tableSchema.getColumnsList().stream()
+                    .map(Column::fromGRPCTableObject)
+                    .collect(Collectors.toSet()));
+        this.partitionColumnNames
+            .computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>())
+            .put(table, new ArrayList<>(tableSchema.getPartitionColumnNamesList()));
+        this.clusterColumnNames
+            .computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>())
+            .put(table, new ArrayList<>(tableSchema.getClusterColumnNamesList()));
+        this.indexInfo
+            .computeIfAbsent(keyspace, k -> new ConcurrentHashMap<>())
+            .put(
+                table,
+                tableSchema.getIndexesList().stream()
+                    .map(Index::fromGRPCIndexObject)
+                    .collect(Collectors.toList()));
+
+        tables.put(table.table_name, table);
+        this.removeDescriptor(keyspace, table.table_name);
+        dropped.remove(table.table_name);
+      }
+
+      for (String tableName : dropped) {
+        Table table = tables.remove(tableName);
+        this.removeDescriptor(keyspace, tableName);
+
+        if (table != null) {
+          removeOrIgnore(this.columnInfo, keyspace, table);
+          removeOrIgnore(this.partitionColumnNames, keyspace, table);
+          removeOrIgnore(this.clusterColumnNames, keyspace, table);
+          removeOrIgnore(this.indexInfo, keyspace, table);
+        }
+      }
+
+      this.typeInfo.put(
+          keyspace,
+          delta.getTypesList().stream()
+              .map(Type::fromGRPCTableObject)
+              .collect(Collectors.toList()));
+      this.keyspacesLoaded.add(keyspace);
+
+      logger.info(
+          String.format(
+              "Applied schema version %d of keyspace %s, %d table(s) changed and %d dropped",
+              delta.getVersion(), keyspace, delta.getTablesCount(), dropped.size()));
+    }
+
+    this.schemaEpoch = delta.getEpoch();
+    this.schemaVersion = delta.getVersion();
+  }
+
+  /**
+   * Sets the version of the local node's schema this schema was read at
+   *
+   * @param epoch {@link #schemaEpoch}
+   * @param version {@link #schemaVersion}
+   */
+  public void setSchemaVersion(final String epoch, final long version) {
+    this.schemaEpoch = epoch;
+    this.schemaVersion = version;
+  }
+
+  /** @return {@link #schemaEpoch} */
+  public String getSchemaEpoch() {
+    return this.schemaEpoch;
+  }
+
+  /** @return {@link #schemaVersion} */
+  public long getSchemaVersion() {
+    return this.schemaVersion;
+  }
+
   // Private functions
 
   /**
@@ -814,6 +1100,9 @@ public class SchemaInfo implements Serializable {
    * that was already loaded into the local cassandra instance. This only modifies the state if the
    * node was shutoff (by intent or failure). Otherwise its a sanity check.
    *
+   * <p>Only {@link Constants#PATHSTORE_APPLICATIONS} is read immediately as the daemons need it
+   * right away, all other keyspaces are reported as loaded and read on first access.
+   *
    * @see pathstore.system.PathStoreServerImpl
    */
   private void loadSchemas() {
@@ -827,7 +1116,261 @@ public class SchemaInfo implements Serializable {
               true)
           .map(row -> row.getString(Constants.KEYSPACES_COLUMNS.KEYSPACE_NAME))
           .filter(keyspace -> keyspace.startsWith(Constants.PATHSTORE_PREFIX))
-          .forEach(this::loadKeyspace);
+          .forEach(
+              keyspace -> {
+                if (keyspace.equals(Constants.PATHSTORE_APPLICATIONS)) this.ensureLoaded(keyspace);
+                else this.keyspacesLoaded.add(keyspace);
+              });
+  }
+
+  /**
+   * Reads a keyspace into memory if it hasn't been read yet. Only the first caller reads it,
+   * concurrent callers wait for it to finish and later callers only pay for a cache lookup.
+   *
+   * @param keyspace keyspace about to be accessed
+   */
+  private void ensureLoaded(final String keyspace) {
+    if (this.keyspaces != null) this.keyspaces.get(keyspace);
+  }
+
+  /**
+   * Reads the schema of a keyspace from system_schema, this is the loader of {@link #keyspaces}
+   *
+   * @param keyspace keyspace to read
+   * @return schema of the keyspace or empty if it doesn't exist or isn't a pathstore keyspace
+   * @implNote The placement of the loading of data is very specific. As there are dependencies
+   *     between loading data. If you plan to modify this function you need to read the impl notes
+   *     for each loading function, they explain what they depend on.
+   */
+  private Optional<KeyspaceSchema> readKeyspace(final String keyspace) {
+    if (!keyspace.startsWith(Constants.PATHSTORE_PREFIX)) {
+      logger.error(
+          String.format("Could not load keyspace %s as it is not a pathstore keyspace", keyspace));
+      return Optional.empty();
+    }
+
+    Row keyspaceRow =
+        this.session
+            .execute(
+                QueryBuilder.select(Constants.KEYSPACES_COLUMNS.KEYSPACE_NAME)
+                    .from(Constants.SYSTEM_SCHEMA, Constants.KEYSPACES)
+                    .where(QueryBuilder.eq(Constants.KEYSPACES_COLUMNS.KEYSPACE_NAME, keyspace)))
+            .one();
+
+    if (keyspaceRow == null) return Optional.empty();
+
+    ConcurrentMap<String, Table> tables = this.loadTableCollectionsForKeyspace(keyspace);
+    ConcurrentMap<Table, Collection<Column>> columns = this.getColumnInfoPerKeyspace(tables);
+
+    return Optional.of(
+        new KeyspaceSchema(
+            tables,
+            columns,
+            getColumnNamesPerKeyspace(columns, "partition_key"),
+            getColumnNamesPerKeyspace(columns, "clustering"),
+            this.getIndexInfoPerKeyspace(tables),
+            Type.buildFromKeyspace(this.session, keyspace)));
+  }
+
+  /**
+   * Listener of {@link #keyspaces}, copies a keyspace's schema into the maps or removes it from
+   * them. The table map is written last on install and first on removal.
+   *
+   * @param keyspace keyspace that changed
+   * @param schema new schema, null or empty if the keyspace is gone
+   */
+  private synchronized void install(
+      final String keyspace, final Optional<KeyspaceSchema> schema) {
+    SchemaDelta delta = this.changeListeners.isEmpty() ? null : this.diff(keyspace, schema);
+
+    if (schema != null && schema.isPresent()) {
+      KeyspaceSchema keyspaceSchema = schema.get();
+      this.columnInfo.put(keyspace, keyspaceSchema.columnInfo);
+      this.partitionColumnNames.put(keyspace, keyspaceSchema.partitionColumnNames);
+      this.clusterColumnNames.put(keyspace, keyspaceSchema.clusterColumnNames);
+      this.indexInfo.put(keyspace, keyspaceSchema.indexInfo);
+      this.typeInfo.put(keyspace, keyspaceSchema.typeInfo);
+      this.tableMap.put(keyspace, keyspaceSchema.tableMap);
+      this.descriptors.remove(keyspace);
+      this.keyspacesLoaded.add(keyspace);
+
+      logger.info(
+          String.format(
+              "Loaded keyspace %s it has %d table(s) and has %d udt(s)",
+              keyspace, keyspaceSchema.tableMap.size(), keyspaceSchema.typeInfo.size()));
+    } else if (this.keyspacesLoaded.remove(keyspace) || this.tableMap.containsKey(keyspace)) {
+      this.tableMap.remove(keyspace);
+      this.descriptors.remove(keyspace);
+      this.columnInfo.remove(keyspace);
+      this.partitionColumnNames.remove(keyspace);
+      this.clusterColumnNames.remove(keyspace);
+      this.indexInfo.remove(keyspace);
+      this.typeInfo.remove(keyspace);
+
+      logger.info(String.format("Removed keyspace %s", keyspace));
+    }
+
+    if (delta != null)
+      for (Consumer<SchemaDelta> listener : this.changeListeners) {
+        try {
+          listener.accept(delta);
+        } catch (RuntimeException e) {
+          logger.error(e);
+        }
+      }
+  }
+
+  /**
+   * Compares the schema of a keyspace that is about to be installed with the one in memory
+   *
+   * @param keyspace keyspace that changed
+   * @param schema new schema, null or empty if the keyspace is gone
+   * @return delta from the schema in memory to the new one, null if nothing changed
+   */
+  private SchemaDelta diff(final String keyspace, final Optional<KeyspaceSchema> schema) {
+    SchemaDelta.Builder delta = SchemaDelta.newBuilder().setKeyspace(keyspace);
+
+    ConcurrentMap<String, Table> tables = this.tableMap.get(keyspace);
+
+    if (schema == null || !schema.isPresent())
+      return tables != null || this.keyspacesLoaded.contains(keyspace)
+          ? delta.setKeyspaceDropped(true).build()
+          : null;
+
+    KeyspaceSchema keyspaceSchema = schema.get();
+
+    for (Table table : keyspaceSchema.tableMap.values()) {
+      TableSchema tableSchema =
+          toGRPCTableSchema(
+              table,
+              keyspaceSchema.columnInfo.get(table),
+              keyspaceSchema.partitionColumnNames.get(table),
+              keyspaceSchema.clusterColumnNames.get(table),
+              keyspaceSchema.indexInfo.get(table));
+
+      Table previous = tables != null ? tables.get(table.table_name) : null;
+
+      if (previous == null || !tableSchema.equals(this.toGRPCTableSchema(previous)))
+        delta.addTables(tableSchema);
+    }
+
+    if (tables != null)
+      for (String tableName : tables.keySet())
+        if (!keyspaceSchema.tableMap.containsKey(tableName)) delta.addDroppedTables(tableName);
+
+    List<RegisterApplicationResponse.Type> types = toGRPCTypes(keyspaceSchema.typeInfo);
+
+    if (tables != null
+        && delta.getTablesCount() == 0
+        && delta.getDroppedTablesCount() == 0
+        && types.equals(toGRPCTypes(this.typeInfo.get(keyspace)))) return null;
+
+    return delta.addAllTypes(types).build();
+  }
+
+  /**
+   * @param table table in memory
+   * @return grpc schema of the table
+   */
+  private TableSchema toGRPCTableSchema(final Table table) {
+    String keyspace = table.keyspace_name;
+    return toGRPCTableSchema(
+        table,
+        getOrNull(this.columnInfo, keyspace, table),
+        getOrNull(this.partitionColumnNames, keyspace, table),
+        getOrNull(this.clusterColumnNames, keyspace, table),
+        getOrNull(this.indexInfo, keyspace, table));
+  }
+
+  /**
+   * @param map one of the keyspace_name -> table object maps
+   * @param keyspace keyspace name
+   * @param table table object
+   * @param <T> value type
+   * @return value or null if the keyspace or table isn't present
+   */
+  private static <T> T getOrNull(
+      final ConcurrentMap<String, ConcurrentMap<Table, T>> map,
+      final String keyspace,
+      final Table table) {
+    ConcurrentMap<Table, T> keyspaceMap = map.get(keyspace);
+    return keyspaceMap != null ? keyspaceMap.get(table) : null;
+  }
+
+  /**
+   * @param map one of the keyspace_name -> table object maps
+   * @param keyspace keyspace name
+   * @param table table object to remove, ignored if the keyspace or table isn't present
+   * @param <T> value type
+   */
+  private static <T> void removeOrIgnore(
+      final ConcurrentMap<String, ConcurrentMap<Table, T>> map,
+      final String keyspace,
+      final Table table) {
+    ConcurrentMap<Table, T> keyspaceMap = map.get(keyspace);
+    if (keyspaceMap != null) keyspaceMap.remove(table);
+  }
+
+  /**
+   * Builds the grpc schema of a table. Repeated fields are sorted so equal schemas produce equal
+   * messages.
+   *
+   * @param table table object
+   * @param columns columns of the table, may be null
+   * @param partitionColumnNames partition column names, may be null
+   * @param clusterColumnNames clustering column names, may be null
+   * @param indexes indexes of the table, may be null
+   * @return grpc schema of the table
+   */
+  private static TableSchema toGRPCTableSchema(
+      final Table table,
+      final Collection<Column> columns,
+      final Collection<String> partitionColumnNames,
+      final Collection<String> clusterColumnNames,
+      final Collection<Index> indexes) {
+    TableSchema.Builder builder = TableSchema.newBuilder().setTable(table.toGRPCTableObject());
+
+    if (columns != null)
+      columns.stream()
+          .map(Column::toGRPCColumnObject)
+          .sorted(Comparator.comparing(RegisterApplicationResponse.Column::getColumnName))
+          .forEach(builder::addColumns);
+
+    if (partitionColumnNames != null)
+      partitionColumnNames.stream().sorted().forEach(builder::addPartitionColumnNames);
+
+    if (clusterColumnNames != null)
+      clusterColumnNames.stream().sorted().forEach(builder::addClusterColumnNames);
+
+    if (indexes != null)
+      indexes.stream()
+          .map(Index::toGRPCIndexObject)
+          .sorted(Comparator.comparing(RegisterApplicationResponse.Index::getIndexName))
+          .forEach(builder::addIndexes);
+
+    return builder.build();
+  }
+
+  /**
+   * @param types types of a keyspace, may be null
+   * @return grpc types sorted by name
+   */
+  private static List<RegisterApplicationResponse.Type> toGRPCTypes(final Collection<Type> types) {
+    return types == null
+        ? Collections.emptyList()
+        : types.stream()
+            .map(Type::toGRPCTypeObject)
+            .sorted(Comparator.comparing(RegisterApplicationResponse.Type::getTypeName))
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * @param keyspace keyspace name
+   * @param tableName table name
+   */
+  private void removeDescriptor(final String keyspace, final String tableName) {
+    ConcurrentMap<String, TableDescriptor> keyspaceDescriptors = this.descriptors.get(keyspace);
+    if (keyspaceDescriptors != null) keyspaceDescriptors.remove(tableName);
   }
 
   /**
@@ -838,21 +1381,18 @@ public class SchemaInfo implements Serializable {
    * @return map from table_name -> table object for all tables that reside within a given keyspace.
    */
   private ConcurrentMap<String, Table> loadTableCollectionsForKeyspace(final String keyspaceName) {
-    return this.session != null
-        ? StreamSupport.stream(
-                this.session
-                    .execute(
-                        QueryBuilder.select()
-                            .all()
-                            .from(Constants.SYSTEM_SCHEMA, Constants.TABLES)
-                            .where(
-                                QueryBuilder.eq(
-                                    Constants.TABLES_COLUMNS.KEYSPACE_NAME, keyspaceName)))
-                    .spliterator(),
-                true)
-            .map(Table::buildFromRow)
-            .collect(Collectors.toConcurrentMap(table -> table.table_name, Function.identity()))
-        : null;
+    return StreamSupport.stream(
+            this.session
+                .execute(
+                    QueryBuilder.select()
+                        .all()
+                        .from(Constants.SYSTEM_SCHEMA, Constants.TABLES)
+                        .where(
+                            QueryBuilder.eq(Constants.TABLES_COLUMNS.KEYSPACE_NAME, keyspaceName)))
+                .spliterator(),
+            true)
+        .map(Table::buildFromRow)
+        .collect(Collectors.toConcurrentMap(table -> table.table_name, Function.identity()));
   }
 
   /**
@@ -860,17 +1400,14 @@ public class SchemaInfo implements Serializable {
    * that given table. This is used to update {@link #columnInfo} for a given keyspace with column
    * information for each table.
    *
-   * @param keyspace keyspace to build column objects for
+   * @param tables tables of the keyspace to build column objects for
    * @return map from table object -> collection of column objects
-   * @see #loadKeyspace(String)
+   * @see #readKeyspace(String)
    * @see Column#buildFromTable(Session, Table)
-   * @implNote This function works under the assumption that the table objects in {@link #tableMap}
-   *     have already been generated for the provided keyspace. Otherwise this will do nothing as
-   *     there are no table objects associated with the provided keyspace to build the collection
-   *     from.
    */
-  private ConcurrentMap<Table, Collection<Column>> getColumnInfoPerKeyspace(final String keyspace) {
-    return this.tableMap.get(keyspace).values().stream()
+  private ConcurrentMap<Table, Collection<Column>> getColumnInfoPerKeyspace(
+      final ConcurrentMap<String, Table> tables) {
+    return tables.values().stream()
         .parallel()
         .collect(
             Collectors.toConcurrentMap(
@@ -882,22 +1419,19 @@ public class SchemaInfo implements Serializable {
    * given column type. This is used to update {@link #partitionColumnNames} and {@link
    * #clusterColumnNames} for a given keyspace with names of columns that have specific types.
    *
-   * @param keyspace keyspace to build names from
+   * @param columns columns of each table of the keyspace
    * @param columnType what type either "partition_key" or "clustering"
    * @return built map.
-   * @implNote This function works under the assumption that {@link #tableMap} has been built for
-   *     the passed keyspace and that {@link #columnInfo} has been built for the passed keyspace.
    */
-  private ConcurrentMap<Table, Collection<String>> getColumnNamesPerKeyspace(
-      final String keyspace, final String columnType) {
-    return this.tableMap.get(keyspace).values().stream()
+  private static ConcurrentMap<Table, Collection<String>> getColumnNamesPerKeyspace(
+      final ConcurrentMap<Table, Collection<Column>> columns, final String columnType) {
+    return columns.entrySet().stream()
         .parallel()
         .collect(
             Collectors.toConcurrentMap(
-                Function.identity(),
-                table ->
-                    this.getTableColumns(table).stream()
-                        .parallel()
+                Map.Entry::getKey,
+                entry ->
+                    entry.getValue().stream()
                         .filter(
                             column ->
                                 column.kind.equals(columnType)
@@ -911,23 +1445,64 @@ public class SchemaInfo implements Serializable {
    * that given table. This used to update {@link #indexInfo} for a given keyspace with index
    * information for each table.
    *
-   * @param keyspace keyspace to build index objects for
+   * @param tables tables of the keyspace to build index objects for
    * @return map from table object -> collection of index objects
-   * @see #loadKeyspace(String)
+   * @see #readKeyspace(String)
    * @see Index#buildFromTable(Session, Table)
-   * @implNote This function works under the assumption that the table objects in {@link #tableMap}
-   *     have already been generated for the provided keyspace. Otherwise this will do nothing as
-   *     there are no table objects associated with the provided keyspace to build the collection
-   *     from.
    */
-  private ConcurrentMap<Table, Collection<Index>> getIndexInfoPerKeyspace(final String keyspace) {
-    return this.tableMap.get(keyspace).values().stream()
+  private ConcurrentMap<Table, Collection<Index>> getIndexInfoPerKeyspace(
+      final ConcurrentMap<String, Table> tables) {
+    return tables.values().stream()
         .parallel()
         .collect(
             Collectors.toConcurrentMap(
                 Function.identity(), table -> Index.buildFromTable(this.session, table)));
   }
 
+  /** Schema of one keyspace as read from system_schema, the value of {@link #keyspaces} */
+  private static final class KeyspaceSchema {
+    /** table_name -> table object */
+    private final ConcurrentMap<String, Table> tableMap;
+
+    /** table object -> columns */
+    private final ConcurrentMap<Table, Collection<Column>> columnInfo;
+
+    /** table object -> partition column names */
+    private final ConcurrentMap<Table, Collection<String>> partitionColumnNames;
+
+    /** table object -> clustering column names */
+    private final ConcurrentMap<Table, Collection<String>> clusterColumnNames;
+
+    /** table object -> indexes */
+    private final ConcurrentMap<Table, Collection<Index>> indexInfo;
+
+    /** user defined types of the keyspace */
+    private final Collection<Type> typeInfo;
+
+    /**
+     * @param tableMap {@link #tableMap}
+     * @param columnInfo {@link #columnInfo}
+     * @param partitionColumnNames {@link #partitionColumnNames}
+     * @param clusterColumnNames {@link #clusterColumnNames}
+     * @param indexInfo {@link #indexInfo}
+     * @param typeInfo {@link #typeInfo}
+     */
+    private KeyspaceSchema(
+        final ConcurrentMap<String, Table> tableMap,
+        final ConcurrentMap<Table, Collection<Column>> columnInfo,
+        final ConcurrentMap<Table, Collection<String>> partitionColumnNames,
+        final ConcurrentMap<Table, Collection<String>> clusterColumnNames,
+        final ConcurrentMap<Table, Collection<Index>> indexInfo,
+        final Collection<Type> typeInfo) {
+      this.tableMap = tableMap;
+      this.columnInfo = columnInfo;
+      this.partitionColumnNames = partitionColumnNames;
+      this.clusterColumnNames = clusterColumnNames;
+      this.indexInfo = indexInfo;
+      this.typeInfo = typeInfo;
+    }
+  }
+
   /**
    * This class represents a row in system_schema.types
    *
@@ -1238,7 +1813,7 @@ public class SchemaInfo implements Serializable {
           column.getClusteringOrder(),
           column.getKind(),
           column.getPosition(),
-          column.getTableName());
+          column.getType());
     }
 
     /** @return grpc column object from data */
@@ -1250,7 +1825,7 @@ public class SchemaInfo implements Serializable {
           .setClusteringOrder(this.clustering_order)
           .setKind(this.kind)
           .setPosition(this.position)
-          .setType(this.table_name)
+          .setType(this.type)
           .build();
     }
 
@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package pathstore.util;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import pathstore.common.Constants;
+import pathstore.util.SchemaInfo.Column;
+import pathstore.util.SchemaInfo.Table;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable description of a single table, derived once from its columns in {@link SchemaInfo} so
+ * that code which runs for every row doesn't have to filter column collections by kind or compare
+ * column names.
+ *
+ * <p>(1): Columns are ordered partition key, clustering key (both by position) then regular columns
+ * by name, a column is identified by its position in {@link #getColumns()}.
+ *
+ * <p>(2): The positions of the pathstore meta columns are resolved up front, -1 if the table
+ * doesn't have the column.
+ *
+ * <p>(3): Rows are read through a {@link RowLayout}, which maps each column to its index in a
+ * result set and holds the driver codec of that index. The layout of the last result set seen is
+ * cached, rows of the same result set share their column definitions so it is built once per
+ * query.
+ *
+ * <p>(4): The dirty flag delete is prepared once per descriptor, on the first push that needs it,
+ * and only the serialized key values are bound per row. Select by key stays a built statement as
+ * client sessions can't prepare and cache selects by their where clauses, only its column names are
+ * resolved up front.
+ *
+ * <p>Descriptors are built by {@link SchemaInfo#getTableDescriptor(String, String)} and dropped
+ * whenever the keyspace's schema changes.
+ *
+ * @see SchemaInfo#getTableDescriptor(String, String)
+ */
+public final class TableDescriptor {
+
+  /** Keyspace name */
+  private final String keyspace;
+
+  /** Table name */
+  private final String table;
+
+  /** All columns of the table, see class comment for the order */
+  private final ImmutableList<Column> columns;
+
+  /** column name -> position in {@link #columns} */
+  private final ImmutableMap<String, Integer> positions;
+
+  /** Partition key column names excluding pathstore columns */
+  private final ImmutableList<String> partitionColumnNames;
+
+  /** Clustering key column names excluding pathstore columns */
+  private final ImmutableList<String> clusterColumnNames;
+
+  /** {@link #partitionColumnNames} followed by {@link #clusterColumnNames} */
+  private final ImmutableList<String> primaryColumnNames;
+
+  /** All partition and clustering column names including pathstore_version */
+  private final ImmutableList<String> keyColumnNames;
+
+  /** Positions of {@link #primaryColumnNames}, these identify a row ignoring its versions */
+  private final int[] primaryKey;
+
+  /** Positions of all partition and clustering columns including pathstore_version */
+  private final int[] fullKey;
+
+  /** Names of the columns in {@link #primaryKey}, same order */
+  private final String[] primaryKeyNames;
+
+  /** Dirty flag delete prepared for one cluster, null until the first delete is built */
+  private volatile PreparedDelete dirtyFlagDelete = null;
+
+  /** Position of pathstore_version */
+  private final int versionColumn;
+
+  /** Position of pathstore_deleted */
+  private final int deletedColumn;
+
+  /** Position of pathstore_dirty */
+  private final int dirtyColumn;
+
+  /** Position of pathstore_node */
+  private final int nodeColumn;
+
+  /** Position of pathstore_parent_timestamp */
+  private final int parentTimestampColumn;
+
+  /** Layout of the last result set read, null until the first row is read */
+  private volatile RowLayout layout = null;
+
+  /**
+   * @param table table to describe
+   * @param columns columns of the table
+   */
+  TableDescriptor(final Table table, final Collection<Column> columns) {
+    this.keyspace = table.keyspace_name;
+    this.table = table.table_name;
+
+    List<Column> ordered = new ArrayList<>(columns);
+    ordered.sort(
+        Comparator.comparingInt((Column column) -> kindOrder(column.kind))
+            .thenComparingInt(column -> column.position)
+            .thenComparing(column -> column.column_name));
+    this.columns = ImmutableList.copyOf(ordered);
+
+    ImmutableMap.Builder<String, Integer> positions = ImmutableMap.builder();
+    ImmutableList.Builder<String> partition = ImmutableList.builder();
+    ImmutableList.Builder<String> cluster = ImmutableList.builder();
+    ImmutableList.Builder<String> keyColumnNames = ImmutableList.builder();
+    List<Integer> primaryKey = new ArrayList<>();
+    List<Integer> fullKey = new ArrayList<>();
+
+    for (int i = 0; i < ordered.size(); i++) {
+      Column column = ordered.get(i);
+      positions.put(column.column_name, i);
+
+      if (column.kind.equals("regular")) continue;
+
+      fullKey.add(i);
+      keyColumnNames.add(column.column_name);
+
+      if (column.column_name.startsWith(Constants.PATHSTORE_PREFIX)) continue;
+
+      primaryKey.add(i);
+      if (column.kind.equals("partition_key")) partition.add(column.column_name);
+      else cluster.add(column.column_name);
+    }
+
+    this.positions = positions.build();
+    this.partitionColumnNames = partition.build();
+    this.clusterColumnNames = cluster.build();
+    this.primaryColumnNames =
+        ImmutableList.<String>builder()
+            .addAll(this.partitionColumnNames)
+            .addAll(this.clusterColumnNames)
+            .build();
+    this.keyColumnNames = keyColumnNames.build();
+    this.primaryKey = primaryKey.stream().mapToInt(Integer::intValue).toArray();
+    this.fullKey = fullKey.stream().mapToInt(Integer::intValue).toArray();
+    this.primaryKeyNames =
+        primaryKey.stream().map(i -> ordered.get(i).column_name).toArray(String[]::new);
+
+    this.versionColumn = this.indexOf(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_VERSION);
+    this.deletedColumn = this.indexOf(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DELETED);
+    this.dirtyColumn = this.indexOf(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY);
+    this.nodeColumn = this.indexOf(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_NODE);
+    this.parentTimestampColumn =
+        this.indexOf(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_PARENT_TIMESTAMP);
+  }
+
+  /**
+   * @param kind kind of a column
+   * @return sort order of the kind, partition key first
+   */
+  private static int kindOrder(final String kind) {
+    switch (kind) {
+      case "partition_key":
+        return 0;
+      case "clustering":
+        return 1;
+      default:
+        return 2;
+    }
+  }
+
+  /** @return {@link #keyspace} */
+  public String getKeyspace() {
+    return this.keyspace;
+  }
+
+  /** @return {@link #table} */
+  public String getTable() {
+    return this.table;
+  }
+
+  /** @return {@link #columns} */
+  public List<Column> getColumns() {
+    return this.columns;
+  }
+
+  /** @return {@link #partitionColumnNames} */
+  public List<String> getPartitionColumnNames() {
+    return this.partitionColumnNames;
+  }
+
+  /** @return {@link #clusterColumnNames} */
+  public List<String> getClusterColumnNames() {
+    return this.clusterColumnNames;
+  }
+
+  /** @return {@link #primaryColumnNames} */
+  public List<String> getPrimaryColumnNames() {
+    return this.primaryColumnNames;
+  }
+
+  /**
+   * Names of the full primary key of the table, these identify a single version of a row
+   *
+   * @return {@link #keyColumnNames}
+   */
+  public List<String> getKeyColumnNames() {
+    return this.keyColumnNames;
+  }
+
+  /**
+   * @param columnName column name
+   * @return position of the column in {@link #getColumns()} or -1 if the table doesn't have it
+   */
+  public int indexOf(final String columnName) {
+    Integer position = this.positions.get(columnName);
+    return position == null ? -1 : position;
+  }
+
+  /** @return {@link #versionColumn} */
+  public int getVersionColumn() {
+    return this.versionColumn;
+  }
+
+  /** @return {@link #deletedColumn} */
+  public int getDeletedColumn() {
+    return this.deletedColumn;
+  }
+
+  /** @return {@link #dirtyColumn} */
+  public int getDirtyColumn() {
+    return this.dirtyColumn;
+  }
+
+  /** @return {@link #nodeColumn} */
+  public int getNodeColumn() {
+    return this.nodeColumn;
+  }
+
+  /** @return {@link #parentTimestampColumn} */
+  public int getParentTimestampColumn() {
+    return this.parentTimestampColumn;
+  }
+
+  /**
+   * @param row row of this table
+   * @return layout of the row's result set
+   */
+  public RowLayout layout(final Row row) {
+    ColumnDefinitions definitions = row.getColumnDefinitions();
+
+    RowLayout layout = this.layout;
+    if (layout == null || layout.definitions != definitions) {
+      layout = new RowLayout(definitions);
+      this.layout = layout;
+    }
+    return layout;
+  }
+
+  /**
+   * Determine if two rows have the same primary key, ignoring pathstore columns. Serialized values
+   * are compared so no value is deserialized.
+   *
+   * @param row row 1 to compare
+   * @param other row 2 to compare
+   * @return true if same primary key else false
+   */
+  public boolean sameKey(final Row row, final Row other) {
+    RowLayout layout = this.layout(row);
+    RowLayout otherLayout = this.layout(other);
+
+    for (int column : this.primaryKey)
+      if (!Objects.equals(layout.getBytes(row, column), otherLayout.getBytes(other, column)))
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Select all versions of a row's primary key, pathstore_version is not restricted.
+   *
+   * @param row row to build the query from
+   * @return select statement to execute or to further modify
+   */
+  public Select selectByKey(final Row row) {
+    RowLayout layout = this.layout(row);
+
+    Select select = QueryBuilder.select().all().from(this.keyspace, this.table);
+
+    for (int i = 0; i < this.primaryKey.length; i++)
+      select.where(QueryBuilder.eq(this.primaryKeyNames[i], layout.get(row, this.primaryKey[i])));
+
+    return select;
+  }
+
+  /**
+   * Delete statement that removes the dirty flag from a single version of a row, where clauses are
+   * added for all partition and clustering columns. The statement is prepared on the first call and
+   * the serialized key values of the row are bound to it, so no value is deserialized.
+   *
+   * @param session session the delete will be executed on
+   * @param row version to remove the dirty flag from
+   * @return bound delete statement
+   */
+  public BoundStatement dirtyFlagDelete(final Session session, final Row row) {
+    RowLayout layout = this.layout(row);
+
+    PreparedDelete prepared = this.dirtyFlagDelete;
+    if (prepared == null || prepared.cluster != session.getCluster()) {
+      prepared = new PreparedDelete(session);
+      this.dirtyFlagDelete = prepared;
+    }
+
+    BoundStatement bound = prepared.statement.bind();
+
+    for (int i = 0; i < this.fullKey.length; i++)
+      bound.setBytesUnsafe(i, layout.getBytes(row, this.fullKey[i]));
+
+    return bound;
+  }
+
+  /** Dirty flag delete with a bind marker per key column, prepared for a single cluster */
+  private final class PreparedDelete {
+    /** Cluster the statement was prepared on */
+    private final Cluster cluster;
+
+    /** Prepared delete, markers are in the order of {@link #fullKey} */
+    private final PreparedStatement statement;
+
+    /** @param session session to prepare the delete on */
+    private PreparedDelete(final Session session) {
+      Delete delete =
+          QueryBuilder.delete(Constants.PATHSTORE_META_COLUMNS.PATHSTORE_DIRTY)
+              .from(keyspace, table);
+
+      for (int column : fullKey)
+        delete.where(QueryBuilder.eq(columns.get(column).column_name, QueryBuilder.bindMarker()));
+
+      this.cluster = session.getCluster();
+      this.statement = session.prepare(delete);
+    }
+  }
+
+  /**
+   * Maps the columns of the table to the indexes of one result set. Result sets can select a
+   * subset of the columns or extra columns (view tables), columns that aren't selected read as
+   * null.
+   */
+  public final class RowLayout {
+    /** Column definitions this layout was built for */
+    private final ColumnDefinitions definitions;
+
+    /** column position -> index in {@link #definitions} or -1 if not selected */
+    private final int[] indexes;
+
+    /** column position -> codec of the selected type, null if not selected */
+    private final TypeCodec<Object>[] codecs;
+
+    /** @param definitions {@link #definitions} */
+    @SuppressWarnings("unchecked")
+    private RowLayout(final ColumnDefinitions definitions) {
+      this.definitions = definitions;
+      this.indexes = new int[columns.size()];
+      this.codecs = new TypeCodec[columns.size()];
+
+      for (int i = 0; i < columns.size(); i++) {
+        int index = definitions.getIndexOf(columns.get(i).column_name);
+        this.indexes[i] = index;
+        if (index >= 0)
+          this.codecs[i] = BlobCodecs.getCodecRegistry().codecFor(definitions.getType(index));
+      }
+    }
+
+    /**
+     * @param row row to read
+     * @param column column position
+     * @return deserialized value, null if the cell is null or the column isn't selected
+     */
+    public Object get(final Row row, final int column) {
+      int index = column < 0 ? -1 : this.indexes[column];
+      return index < 0 || row.isNull(index) ? null : row.get(index, this.codecs[column]);
+    }
+
+    /**
+     * @param row row to read
+     * @param column column position
+     * @return serialized value, null if the cell is null or the column isn't selected
+     */
+    public ByteBuffer getBytes(final Row row, final int column) {
+      int index = column < 0 ? -1 : this.indexes[column];
+      return index < 0 ? null : row.getBytesUnsafe(index);
+    }
+
+    /**
+     * @param row row to read
+     * @param column column position
+     * @return true if the cell is null or the column isn't selected
+     */
+    public boolean isNull(final Row row, final int column) {
+      int index = column < 0 ? -1 : this.indexes[column];
+      return index < 0 || row.isNull(index);
+    }
+  }
+}